@@ -0,0 +1,26 @@
+/*
+ * Copyright 2022 Chris Kelly
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.tolstoy.censorship.twitter.checker.api.analyzer;
+
+/**
+ * The features of an IAnalyzedTweet that are optional, because they're expensive
+ * and not every ITweetRanker reads them. A feature that isn't computed reads as 0.
+ */
+public enum AnalyzedTweetFeature {
+	COSINE_DISTANCE,
+	JACCARD_SIMILARITY,
+	JARO_WINKLER_DISTANCE,
+	FUZZY_SCORE,
+	LEVENSHTEIN_DISTANCE
+}
@@ -13,6 +13,8 @@
  */
 package com.tolstoy.censorship.twitter.checker.api.analyzer;
 
+import java.util.Set;
+
 import com.tolstoy.basic.api.tweet.ITweet;
 import com.tolstoy.censorship.twitter.checker.api.searchrun.ISearchRunReplies;
 import com.tolstoy.censorship.twitter.checker.api.searchrun.ISearchRunTimeline;
@@ -25,7 +27,21 @@ public interface IAnalysisReportFactory {
 
 	IAnalyzedTweet makeAnalyzedTweet( final ITweet tweet, final int order, final IAnalyzedTweet referenceTweet );
 
+	/** Use this when comparing many tweets against the same reference tweet,
+	 * with a profile from makeReferenceTweetProfile.
+	 */
+	IAnalyzedTweet makeAnalyzedTweet( final ITweet tweet, final int order, final IReferenceTweetProfile referenceProfile );
+
+	/** Make a profile that computes every feature. */
+	IReferenceTweetProfile makeReferenceTweetProfile( final IAnalyzedTweet referenceTweet );
+
+	/** Make a profile that only computes the given features, usually ITweetRanker.getRequiredFeatures(). */
+	IReferenceTweetProfile makeReferenceTweetProfile( final IAnalyzedTweet referenceTweet, final Set<AnalyzedTweetFeature> requiredFeatures );
+
 	ITweetRanker makeTweetRankerBasic();
 
 	ITweetRanker makeTweetRankerJavascript();
+
+	/** A ranker for the tweetformula_*.json file in userscripts, or null if there isn't one. */
+	ITweetRanker makeTweetRankerFormula();
 }
@@ -14,6 +14,7 @@
 package com.tolstoy.censorship.twitter.checker.api.analyzer;
 
 import java.util.Map;
+import java.util.function.Supplier;
 
 import com.tolstoy.basic.api.tweet.ITweet;
 import com.tolstoy.basic.api.tweet.ITweetCollection;
@@ -55,11 +56,17 @@ public interface IAnalysisReportRepliesItemBasic {
 	/**
 	 * Optional, free-form metadata such as related to the the computations, etc.
 	 * Don't rely on any of those being available.
+	 *
+	 * Attributes set with setLazyAttribute are only made when they're read with
+	 * getAttribute or getAttributes.
 	 */
 	Map<String,String> getAttributes();
 	void setAttributes( final Map<String,String> attributes );
 
 	String getAttribute( final String key );
 	void setAttribute( final String key, final String value );
+
+	/** For debugging data that's expensive to make, such as a summary of every reply. */
+	void setLazyAttribute( final String key, final Supplier<String> supplier );
 }
 
@@ -31,14 +31,19 @@ public interface IAnalyzedTweet {
 	String getTextContentPlain();
 	String getRankingFunction();
 	String getSummary();
+	/** Computes the text features now rather than on first use, e.g. to do it on another thread. */
+	void computeFeatures();
 	void setRankingFunction( final String rankingFunction );
 	double getToReferenceTweetCosineDistance();
 	double getToReferenceTweetJaccardSimilarity();
 	double getToReferenceTweetJaroWinklerDistance();
 	int getToReferenceTweetFuzzyScore();
+	/** @return the distance, or the maximum + 1 if it's over IReferenceTweetProfile.getMaxLevenshteinDistance(). */
 	int getToReferenceTweetLevenshteinDistance();
 	double getRanking();
 	void setRanking( final double ranking );
+	/** @return what the ranking was added up from, filled in by the ITweetRanker if it keeps track. */
+	RankingBreakdown getRankingBreakdown();
 	double getReadabilityFlesch();
 	double getReadabilityFog();
 	double getReadabilityKincaid();
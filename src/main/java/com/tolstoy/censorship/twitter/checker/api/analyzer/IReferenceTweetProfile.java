@@ -0,0 +1,51 @@
+/*
+ * Copyright 2022 Chris Kelly
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.tolstoy.censorship.twitter.checker.api.analyzer;
+
+import java.util.List;
+
+/**
+ * What the replies to a tweet are compared against: the reference tweet's words,
+ * sorted and joined, and the vectors derived from them. It's made once per
+ * reference tweet and shared by all the replies.
+ *
+ * The similarity methods take the other tweet's words in the same form as getText().
+ */
+public interface IReferenceTweetProfile {
+	IAnalyzedTweet getReferenceTweet();
+
+	/** @return whether the feature should be computed for the tweets compared with this profile. */
+	boolean isRequired( final AnalyzedTweetFeature feature );
+
+	/** @return the largest Levenshtein distance that's computed exactly; larger ones are reported as this + 1. */
+	int getMaxLevenshteinDistance();
+
+	/** @return true if the reference tweet has no words to compare against. */
+	boolean isEmpty();
+
+	List<String> getSortedWords();
+
+	/** @return the sorted words joined with spaces. */
+	String getText();
+
+	double getCosineDistance( final String text );
+
+	double getJaccardSimilarity( final String text );
+
+	double getJaroWinklerDistance( final String text );
+
+	int getFuzzyScore( final String text );
+
+	int getLevenshteinDistance( final String text );
+}
@@ -14,11 +14,21 @@
 package com.tolstoy.censorship.twitter.checker.api.analyzer;
 
 import java.util.List;
+import java.util.Set;
 
 public interface ITweetRanker {
 	String getFunctionName();
 
+	/** @return the optional features that rankTweet reads. The others won't be computed. */
+	Set<AnalyzedTweetFeature> getRequiredFeatures();
+
+	/** @return whether rankTweet can be called for different tweets on several threads at once. */
+	boolean canRankConcurrently();
+
 	void rankTweets( final List<IAnalyzedTweet> analyzedTweets, final IAnalyzedTweet referenceAnalyzedTweet ) throws Exception;
 
+	/** Ranks every row of the matrix and writes the rankings to its tweets. */
+	void rankTweets( final TweetFeatureMatrix matrix, final IAnalyzedTweet referenceAnalyzedTweet ) throws Exception;
+
 	void rankTweet( final IAnalyzedTweet analyzedTweet, final int count, final IAnalyzedTweet referenceAnalyzedTweet ) throws Exception;
 }
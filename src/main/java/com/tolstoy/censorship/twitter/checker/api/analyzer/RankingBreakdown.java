@@ -0,0 +1,95 @@
+/*
+ * Copyright 2022 Chris Kelly
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.tolstoy.censorship.twitter.checker.api.analyzer;
+
+import java.math.RoundingMode;
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * The components that a tweet's ranking was added up from, kept as doubles and only
+ * formatted if a report shows them. A component that didn't contribute isn't set.
+ *
+ * Each IAnalyzedTweet has its own, so rankings for different tweets can be filled in
+ * on different threads.
+ */
+public final class RankingBreakdown {
+	private static final RankingComponent[] components = RankingComponent.values();
+
+	private final double[] values;
+	private long setComponents;
+
+	/**
+	 * @return the format that the components are shown with: two decimals, rounded up.
+	 * DecimalFormat isn't thread safe, so each caller gets its own.
+	 */
+	public static DecimalFormat makeDisplayFormat() {
+		final DecimalFormat ret = new DecimalFormat( "#.##" );
+		ret.setRoundingMode( RoundingMode.CEILING );
+
+		return ret;
+	}
+
+	public RankingBreakdown() {
+		this.values = new double[ components.length ];
+		this.setComponents = 0;
+	}
+
+	public void set( final RankingComponent component, final double value ) {
+		values[ component.ordinal() ] = value;
+		setComponents |= 1L << component.ordinal();
+	}
+
+	public boolean isSet( final RankingComponent component ) {
+		return ( setComponents & ( 1L << component.ordinal() ) ) != 0;
+	}
+
+	/** @return the value, or 0 if it isn't set. */
+	public double get( final RankingComponent component ) {
+		return isSet( component ) ? values[ component.ordinal() ] : 0;
+	}
+
+	public boolean isEmpty() {
+		return setComponents == 0;
+	}
+
+	public void clear() {
+		setComponents = 0;
+	}
+
+	/** @return the set components, in the order they're declared in. */
+	public List<RankingComponent> getComponents() {
+		final List<RankingComponent> ret = new ArrayList<RankingComponent>( components.length );
+		for ( final RankingComponent component : components ) {
+			if ( isSet( component ) ) {
+				ret.add( component );
+			}
+		}
+
+		return ret;
+	}
+
+	@Override
+	public String toString() {
+		final List<String> list = new ArrayList<String>( components.length );
+		for ( final RankingComponent component : getComponents() ) {
+			list.add( component.getKey() + "=" + get( component ) );
+		}
+
+		return "{" + StringUtils.join( list, ", " ) + "}";
+	}
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2022 Chris Kelly
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.tolstoy.censorship.twitter.checker.api.analyzer;
+
+/**
+ * The parts that a ranking can be added up from, for RankingBreakdown. The key is
+ * the short name shown in debug output.
+ */
+public enum RankingComponent {
+	FUZZY( "fuzzy" ),
+	FEW_WORDS( "fww" ),
+	FEW_WORDS_AND_PIC( "fwwp" ),
+	MOSTLY_CAPS( "caps" ),
+	FLESCH( "flesch" ),
+	FOG( "fog" ),
+	KINCAID( "kincaid" ),
+	ARI( "ari" ),
+	COLEMAN_LIAU( "coleman" ),
+	LIX( "lix" ),
+	SMOG( "smog" ),
+	COSINE( "cos" ),
+	JACCARD( "jac" ),
+	JARO_WINKLER( "jrw" ),
+	NUM_SENTENCES( "numsent" ),
+	NUM_WORDS( "numword" ),
+	POPULARITY( "pop" ),
+	TIME( "time" );
+
+	private final String key;
+
+	RankingComponent( final String key ) {
+		this.key = key;
+	}
+
+	public String getKey() {
+		return key;
+	}
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2022 Chris Kelly
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.tolstoy.censorship.twitter.checker.api.analyzer;
+
+import java.util.List;
+
+import com.tolstoy.basic.api.tweet.ITweet;
+import com.tolstoy.basic.app.utils.Utils;
+
+/**
+ * The features of a list of IAnalyzedTweet, read once into one array of doubles per feature
+ * (booleans are 1 or 0), so that an ITweetRanker can rank the whole list in one loop over
+ * arrays instead of calling each tweet's getters and parsing its counts again.
+ *
+ * The ranker puts each tweet's ranking in getRankings() and its components in the tweet's
+ * own RankingBreakdown, then calls writeRankings to copy the rankings to the tweets.
+ *
+ * A column is only read from the tweets the first time the ranker asks for it, so features
+ * the ranker doesn't use aren't computed or copied. The tweets' date orders have to be set
+ * before the ranker runs. A matrix is only meant to be used by one thread.
+ */
+public final class TweetFeatureMatrix {
+	public enum Column {
+		ORIGINAL_ORDER,
+		DATE_ORDER,
+		NUM_WORDS,
+		NUM_SENTENCES,
+		HAS_PIC,
+		HAS_CARD,
+		MOSTLY_CAPS,
+		READABILITY_FLESCH,
+		READABILITY_FOG,
+		READABILITY_KINCAID,
+		READABILITY_ARI,
+		READABILITY_COLEMAN_LIAU,
+		READABILITY_LIX,
+		READABILITY_SMOG,
+		COSINE_DISTANCE,
+		JACCARD_SIMILARITY,
+		JARO_WINKLER_DISTANCE,
+		FUZZY_SCORE,
+		LEVENSHTEIN_DISTANCE,
+		REPLY_COUNT,
+		RETWEET_COUNT,
+		FAVORITE_COUNT
+	}
+
+	private static final Column[] columnValues = Column.values();
+
+	private final List<IAnalyzedTweet> analyzedTweets;
+	private final int size;
+	private final int count;
+	private final double[][] columns;		//	a column is null until it's read
+	private final double[] rankings;
+	private final RankingBreakdown[] breakdowns;
+
+	public TweetFeatureMatrix( final List<IAnalyzedTweet> analyzedTweets ) {
+		this( analyzedTweets, analyzedTweets.size() );
+	}
+
+	/**
+	 * @param count the number of tweets in the whole list, when these are only some of them.
+	 */
+	public TweetFeatureMatrix( final List<IAnalyzedTweet> analyzedTweets, final int count ) {
+		this.analyzedTweets = analyzedTweets;
+		this.size = analyzedTweets.size();
+		this.count = count;
+		this.columns = new double[ columnValues.length ][];
+		this.rankings = new double[ size ];
+		this.breakdowns = new RankingBreakdown[ size ];
+
+		for ( int row = 0; row < size; row++ ) {
+			breakdowns[ row ] = analyzedTweets.get( row ).getRankingBreakdown();
+		}
+	}
+
+	/** @return the number of rows. */
+	public int size() {
+		return size;
+	}
+
+	/** @return the number of tweets being ranked, for the rankings that depend on it. */
+	public int getCount() {
+		return count;
+	}
+
+	/** @return the column itself, not a copy, indexed by row. */
+	public double[] getColumn( final Column column ) {
+		double[] ret = columns[ column.ordinal() ];
+		if ( ret == null ) {
+			ret = new double[ size ];
+			for ( int row = 0; row < size; row++ ) {
+				ret[ row ] = readValue( column, analyzedTweets.get( row ) );
+			}
+			columns[ column.ordinal() ] = ret;
+		}
+
+		return ret;
+	}
+
+	/** @return where the ranker puts the rankings, indexed by row. */
+	public double[] getRankings() {
+		return rankings;
+	}
+
+	public RankingBreakdown getRankingBreakdown( final int row ) {
+		return breakdowns[ row ];
+	}
+
+	public IAnalyzedTweet getAnalyzedTweet( final int row ) {
+		return analyzedTweets.get( row );
+	}
+
+	public List<IAnalyzedTweet> getAnalyzedTweets() {
+		return analyzedTweets;
+	}
+
+	private static double readValue( final Column column, final IAnalyzedTweet analyzedTweet ) {
+		final ITweet tweet = analyzedTweet.getTweet();
+
+		switch ( column ) {
+			case ORIGINAL_ORDER:
+				return analyzedTweet.getOriginalOrder();
+			case DATE_ORDER:
+				return analyzedTweet.getDateOrder();
+			case NUM_WORDS:
+				return analyzedTweet.getNumWords();
+			case NUM_SENTENCES:
+				return analyzedTweet.getNumSentences();
+			case HAS_PIC:
+				return analyzedTweet.getHasPic() ? 1 : 0;
+			case HAS_CARD:
+				return analyzedTweet.getHasCard() ? 1 : 0;
+			case MOSTLY_CAPS:
+				return analyzedTweet.getMostlyCaps() ? 1 : 0;
+			case READABILITY_FLESCH:
+				return analyzedTweet.getReadabilityFlesch();
+			case READABILITY_FOG:
+				return analyzedTweet.getReadabilityFog();
+			case READABILITY_KINCAID:
+				return analyzedTweet.getReadabilityKincaid();
+			case READABILITY_ARI:
+				return analyzedTweet.getReadabilityAri();
+			case READABILITY_COLEMAN_LIAU:
+				return analyzedTweet.getReadabilityColemanLiau();
+			case READABILITY_LIX:
+				return analyzedTweet.getReadabilityLix();
+			case READABILITY_SMOG:
+				return analyzedTweet.getReadabilitySmog();
+			case COSINE_DISTANCE:
+				return analyzedTweet.getToReferenceTweetCosineDistance();
+			case JACCARD_SIMILARITY:
+				return analyzedTweet.getToReferenceTweetJaccardSimilarity();
+			case JARO_WINKLER_DISTANCE:
+				return analyzedTweet.getToReferenceTweetJaroWinklerDistance();
+			case FUZZY_SCORE:
+				return analyzedTweet.getToReferenceTweetFuzzyScore();
+			case LEVENSHTEIN_DISTANCE:
+				return analyzedTweet.getToReferenceTweetLevenshteinDistance();
+			case REPLY_COUNT:
+				return Utils.parseIntDefault( tweet.getAttribute( "replycount" ) );
+			case RETWEET_COUNT:
+				return Utils.parseIntDefault( tweet.getAttribute( "retweetcount" ) );
+			case FAVORITE_COUNT:
+				return Utils.parseIntDefault( tweet.getAttribute( "favoritecount" ) );
+			default:
+				throw new IllegalArgumentException( "unknown column " + column );
+		}
+	}
+
+	/**
+	 * Copies the rankings to the tweets.
+	 */
+	public void writeRankings( final String rankingFunction ) {
+		for ( int row = 0; row < size; row++ ) {
+			final IAnalyzedTweet analyzedTweet = analyzedTweets.get( row );
+			analyzedTweet.setRanking( rankings[ row ] );
+			analyzedTweet.setRankingFunction( rankingFunction );
+		}
+	}
+}
@@ -23,5 +23,6 @@ public enum BrowserDataRecorderType {
 	BMP_PROXY,
 	BUP_PROXY,
 	XHR_OVERRIDE,
-	HAR_EXPORT_EXTENSION;
+	HAR_EXPORT_EXTENSION,
+	BIDI_NETWORK_EVENTS;
 }
@@ -28,6 +28,12 @@ public interface IBrowserProxy {
 	void beginRecording( WebDriver driver, String name ) throws Exception;
 	List<IBrowserProxyLogEntry> endRecording( WebDriver driver ) throws Exception;
 
+	/**
+	 * @return the number of responses lost since beginRecording because they arrived faster
+	 * than they could be collected. If this isn't 0, the recording is missing data.
+	 */
+	int getNumDroppedResponses();
+
 	void addBrowserProxyResponseListener( final IBrowserProxyResponseListener l );
 	void removeBrowserProxyResponseListener( final IBrowserProxyResponseListener l );
 }
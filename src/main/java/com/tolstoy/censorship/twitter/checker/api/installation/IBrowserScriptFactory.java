@@ -13,7 +13,18 @@
  */
 package com.tolstoy.censorship.twitter.checker.api.installation;
 
+import org.openqa.selenium.WebDriver;
+
 public interface IBrowserScriptFactory {
 	IBrowserScript getScript( String name ) throws Exception;
 	String[] getAvailableScriptNames();
+
+	/**
+	 * Run the named script asynchronously. For the SuedeDenim scripts, the library
+	 * is installed into the current document once and later calls only send a
+	 * small stub; the library is reinstalled if the page doesn't have the current
+	 * version (for instance, after navigating).
+	 * @return whatever the script passes to its callback.
+	 */
+	Object executeAsyncScript( WebDriver driver, String name, Object... args ) throws Exception;
 }
@@ -18,6 +18,11 @@ import java.util.Map;
 import com.tolstoy.basic.api.tweet.ITweetUser;
 
 public interface ISearchRunItinerary {
+	/**
+	 * Attribute holding the JSON the itinerary was loaded from, if it was loaded from JSON.
+	 */
+	String ATTR_SOURCE_JSON = "source_json";
+
 	ITweetUser getInitiatingUser();
 	void setInitiatingUser( final ITweetUser user );
 
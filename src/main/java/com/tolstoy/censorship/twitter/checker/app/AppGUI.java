@@ -489,6 +489,9 @@ public class AppGUI implements RunEventListener, PreferencesEventListener, RunIt
 		guiElements.add( new ElementDescriptor( "textfield", "prefs.individual_pages_num_pages_to_scroll",
 													bundle.getString( "prefs_element_individual_pages_num_pages_to_scroll_name" ),
 													bundle.getString( "prefs_element_individual_pages_num_pages_to_scroll_help" ), 30 ) );
+		guiElements.add( new ElementDescriptor( "textfield", "prefs.reply_page_browser_pool_size",
+													bundle.getString( "prefs_element_reply_page_browser_pool_size_name" ),
+													bundle.getString( "prefs_element_reply_page_browser_pool_size_help" ), 30 ) );
 		guiElements.add( new ElementDescriptor( "checkbox", "prefs.upload_results",
 													bundle.getString( "prefs_element_upload_results_name" ),
 													bundle.getString( "prefs_element_upload_results_help" ), 30 ) );
@@ -99,6 +99,9 @@ import org.openqa.selenium.Point;
 import com.tolstoy.censorship.twitter.checker.app.jboto.replies.RepliesProduct;
 import com.tolstoy.censorship.twitter.checker.app.jboto.timeline.SearchRunTimelineData;
 import com.tolstoy.censorship.twitter.checker.app.jboto.OurEnvironment;
+import com.tolstoy.censorship.twitter.checker.app.jboto.ReplayManifest;
+import com.tolstoy.censorship.twitter.checker.app.jboto.common.CreateReplayEnvironment;
+import com.tolstoy.censorship.twitter.checker.app.jboto.common.SearchRunBaseData;
 import com.tolstoy.censorship.twitter.checker.api.webdriver.IPageParametersFactory;
 import com.tolstoy.censorship.twitter.checker.app.webdriver.PageParametersFactory;
 import com.tolstoy.censorship.twitter.checker.api.webdriver.IPageParametersSet;
@@ -228,6 +231,8 @@ public final class QuickStartJBoto implements IStatusMessageReceiver {
 
 		String testJSON = IOUtils.toString( getClass().getResource( "/jboto-replies-qs.json" ), StandardCharsets.UTF_8 );
 
+		env.setJBotoDefinition( testJSON );
+
 		IFrameworkFactory factory = new FrameworkFactory( createResolver() );
 
 		IFramework framework = factory.makeFrameworkFromJSON( "test", testJSON );
@@ -248,6 +253,8 @@ public final class QuickStartJBoto implements IStatusMessageReceiver {
 
 		String testJSON = IOUtils.toString( getClass().getResource( "/jboto-timeline-qs.json" ), StandardCharsets.UTF_8 );
 
+		env.setJBotoDefinition( testJSON );
+
 		IFrameworkFactory factory = new FrameworkFactory( createResolver() );
 
 		IFramework framework = factory.makeFrameworkFromJSON( "test", testJSON );
@@ -263,6 +270,43 @@ public final class QuickStartJBoto implements IStatusMessageReceiver {
 		System.exit( -1 );
 	}
 
+	/**
+	 * Replay a timeline or replies run recorded with prefs.replay_record=true, using the
+	 * manifest in prefs.replay_manifest. No browser is started.
+	 */
+	private void doReplay() throws Exception {
+		final ReplayManifest manifest = ReplayManifest.load( CreateReplayEnvironment.getManifestFile( env ), appDirectories.getReportsDirectory() );
+
+		final SearchRunBaseData product;
+		final String itineraryResource;
+
+		if ( manifest.getItineraryJSON() != null ) {
+			final ISearchRunItinerary itinerary = searchRunFactory.makeSearchRunItineraryFromJSON( manifest.getItineraryJSON() );
+			product = new RepliesProduct( prefs, manifest.getHandleToCheck(), (ISearchRunRepliesItinerary) itinerary, pageParametersSet );
+			itineraryResource = "/jboto-replies-replay.json";
+		}
+		else {
+			product = new SearchRunTimelineData( prefs, manifest.getHandleToCheck(), pageParametersSet );
+			itineraryResource = "/jboto-timeline-replay.json";
+		}
+
+		String testJSON = IOUtils.toString( getClass().getResource( itineraryResource ), StandardCharsets.UTF_8 );
+
+		env.setJBotoDefinition( testJSON );
+
+		IFrameworkFactory factory = new FrameworkFactory( createResolver() );
+
+		IFramework framework = factory.makeFrameworkFromJSON( "replay", testJSON );
+
+		final long startMillis = System.currentTimeMillis();
+
+		framework.run( product, env, null, 0 );
+
+		logger.info( "replay of " + itineraryResource + " took " + ( System.currentTimeMillis() - startMillis ) + "ms" );
+
+		System.exit( -1 );
+	}
+
 	private Map<String,String> createDefaultAppPreferences() throws Exception {
 		Properties systemProps = System.getProperties();
 
@@ -361,6 +405,9 @@ public final class QuickStartJBoto implements IStatusMessageReceiver {
 			if ( "replies".equals( cmd ) ) {
 				qs.doReplies( new File( itineraryFile ) );
 			}
+			else if ( "replay".equals( cmd ) ) {
+				qs.doReplay();
+			}
 			else {
 				qs.doTimeline();
 			}
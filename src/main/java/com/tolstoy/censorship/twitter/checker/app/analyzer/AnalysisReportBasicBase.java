@@ -15,7 +15,11 @@ package com.tolstoy.censorship.twitter.checker.app.analyzer;
 
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
@@ -31,6 +35,16 @@ import com.tolstoy.censorship.twitter.checker.api.preferences.IPreferences;
 class AnalysisReportBasicBase {
 	private static final Logger logger = LogManager.getLogger( AnalysisReportBasicBase.class );
 
+		//	0 means one thread per processor, 1 means no extra threads
+	private static final int DEFAULT_ANALYSIS_PARALLELISM = 1;
+
+	/**
+	 * Makes the report item for one source tweet, or returns null if there shouldn't be one.
+	 */
+	protected interface ReportItemMaker<T> {
+		T make( Long sourceTweetID ) throws Exception;
+	}
+
 	private final IAnalysisReportFactory analysisReportFactory;
 	private final ITweetFactory tweetFactory;
 	private final IPreferences prefs;
@@ -66,6 +80,67 @@ class AnalysisReportBasicBase {
 		return nameDateFormatter;
 	}
 
+	/**
+	 * The items for different source tweets don't depend on each other, so if
+	 * prefs.analysis_parallelism isn't 1 they're made at the same time on a fork/join
+	 * pool of that many threads (0 for one per processor).
+	 * @return the non-null items, in the same order as sourceTweetIDs either way.
+	 */
+	protected <T> List<T> makeReportItems( final Collection<Long> sourceTweetIDs, final ReportItemMaker<T> maker ) throws Exception {
+		final List<T> ret = new ArrayList<T>( sourceTweetIDs.size() );
+
+		int parallelism = Utils.parseIntDefault( prefs.getValue( "prefs.analysis_parallelism" ), DEFAULT_ANALYSIS_PARALLELISM );
+		if ( parallelism < 1 ) {
+			parallelism = Runtime.getRuntime().availableProcessors();
+		}
+		parallelism = Math.min( parallelism, sourceTweetIDs.size() );
+
+		if ( parallelism <= 1 ) {
+			for ( final Long sourceTweetID : sourceTweetIDs ) {
+				final T item = maker.make( sourceTweetID );
+				if ( item != null ) {
+					ret.add( item );
+				}
+			}
+
+			return ret;
+		}
+
+		logger.info( "making " + sourceTweetIDs.size() + " report items on " + parallelism + " threads" );
+
+		final ForkJoinPool pool = new ForkJoinPool( parallelism );
+
+		try {
+			final List<ForkJoinTask<T>> tasks = new ArrayList<ForkJoinTask<T>>( sourceTweetIDs.size() );
+			for ( final Long sourceTweetID : sourceTweetIDs ) {
+				tasks.add( pool.submit( () -> maker.make( sourceTweetID ) ) );
+			}
+
+				//	join in submission order so the items come out as they would sequentially
+			for ( final ForkJoinTask<T> task : tasks ) {
+				final T item;
+				try {
+					item = task.get();
+				}
+				catch ( final ExecutionException e ) {
+					if ( e.getCause() instanceof Exception ) {
+						throw (Exception) e.getCause();
+					}
+					throw e;
+				}
+
+				if ( item != null ) {
+					ret.add( item );
+				}
+			}
+		}
+		finally {
+			pool.shutdownNow();
+		}
+
+		return ret;
+	}
+
 	protected int getTweetOrder( final List<ITweet> tweets, final long tweetID ) {
 		int order = 1;
 		for ( final ITweet tweet : tweets ) {
@@ -78,6 +153,13 @@ class AnalysisReportBasicBase {
 		return 0;
 	}
 
+	/**
+	 * @return the tweet's time, for sorting with SortKeys.
+	 */
+	protected long getTimeKey( final ITweet tweet ) {
+		return Utils.parseIntDefault( tweet.getAttribute( "time" ) );
+	}
+
 	protected String summarizeTweetList( final List<ITweet> tweets ) {
 		final List<String> temp = new ArrayList<String>( tweets.size() );
 
@@ -13,16 +13,22 @@
  */
 package com.tolstoy.censorship.twitter.checker.app.analyzer;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import com.tolstoy.basic.api.tweet.ITweet;
 import com.tolstoy.basic.api.tweet.ITweetFactory;
 import com.tolstoy.basic.api.utils.IResourceBundleWithFormatting;
+import com.tolstoy.basic.app.utils.Utils;
+import com.tolstoy.censorship.twitter.checker.api.analyzer.AnalyzedTweetFeature;
 import com.tolstoy.censorship.twitter.checker.api.analyzer.IAnalysisReportFactory;
 import com.tolstoy.censorship.twitter.checker.api.analyzer.IAnalysisReportRepliesBasic;
 import com.tolstoy.censorship.twitter.checker.api.analyzer.IAnalysisReportTimelineBasic;
 import com.tolstoy.censorship.twitter.checker.api.analyzer.IAnalyzedTweet;
+import com.tolstoy.censorship.twitter.checker.api.analyzer.IReferenceTweetProfile;
 import com.tolstoy.censorship.twitter.checker.api.analyzer.ITweetRanker;
 import com.tolstoy.censorship.twitter.checker.api.preferences.IPreferences;
 import com.tolstoy.censorship.twitter.checker.api.searchrun.ISearchRunReplies;
@@ -32,6 +38,8 @@ import com.tolstoy.censorship.twitter.checker.api.installation.IAppDirectories;
 public class AnalysisReportFactory implements IAnalysisReportFactory {
 	private static final Logger logger = LogManager.getLogger( AnalysisReportFactory.class );
 
+	private static final int DEFAULT_MAX_LEVENSHTEIN_DISTANCE = 100;
+
 	private final ITweetFactory tweetFactory;
 	private final IAppDirectories appDirectories;
 	private final IPreferences prefs;
@@ -58,12 +66,30 @@ public class AnalysisReportFactory implements IAnalysisReportFactory {
 
 	@Override
 	public IAnalyzedTweet makeAnalyzedTweet( final ITweet tweet, final int order, final IAnalyzedTweet referenceTweet ) {
-		return new AnalyzedTweet( tweet, order, referenceTweet );
+		return new AnalyzedTweet( tweet, order, referenceTweet != null ? (ReferenceTweetProfile) makeReferenceTweetProfile( referenceTweet ) : null );
+	}
+
+	@Override
+	public IAnalyzedTweet makeAnalyzedTweet( final ITweet tweet, final int order, final IReferenceTweetProfile referenceProfile ) {
+			//	the profile has to be one from makeReferenceTweetProfile, since the replies' bags of words use its term dictionary
+		return new AnalyzedTweet( tweet, order, (ReferenceTweetProfile) referenceProfile );
+	}
+
+	@Override
+	public IReferenceTweetProfile makeReferenceTweetProfile( final IAnalyzedTweet referenceTweet ) {
+		return makeReferenceTweetProfile( referenceTweet, EnumSet.allOf( AnalyzedTweetFeature.class ) );
+	}
+
+	@Override
+	public IReferenceTweetProfile makeReferenceTweetProfile( final IAnalyzedTweet referenceTweet, final Set<AnalyzedTweetFeature> requiredFeatures ) {
+		final int maxLevenshteinDistance = Utils.parseIntDefault( prefs.getValue( "prefs.analysis_max_levenshtein_distance" ), DEFAULT_MAX_LEVENSHTEIN_DISTANCE );
+
+		return new ReferenceTweetProfile( referenceTweet, requiredFeatures, maxLevenshteinDistance );
 	}
 
 	@Override
 	public ITweetRanker makeTweetRankerBasic() {
-		return new TweetRankerBasic();
+		return new TweetRankerBasic( Utils.isStringTrue( prefs.getValue( "prefs.analysis_rank_attributes" ) ) );
 	}
 
 	@Override
@@ -76,5 +102,15 @@ public class AnalysisReportFactory implements IAnalysisReportFactory {
 			return null;
 		}
 	}
-}
 
+	@Override
+	public ITweetRanker makeTweetRankerFormula() {
+		try {
+			return new TweetRankerFormula( appDirectories );
+		}
+		catch ( final Exception e ) {
+			logger.error( "cannot create TweetRankerFormula; this can be ignored unless you expected a formula file to be used", e );
+			return null;
+		}
+	}
+}
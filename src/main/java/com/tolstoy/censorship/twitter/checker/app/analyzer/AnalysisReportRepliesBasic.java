@@ -17,7 +17,6 @@ import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -30,9 +29,6 @@ import org.apache.logging.log4j.Logger;
 import com.tolstoy.basic.api.tweet.ITweet;
 import com.tolstoy.basic.api.tweet.ITweetCollection;
 import com.tolstoy.basic.api.tweet.ITweetFactory;
-import com.tolstoy.basic.api.tweet.TweetComparatorDirection;
-import com.tolstoy.basic.api.tweet.TweetDateComparator;
-import com.tolstoy.basic.api.tweet.TweetInteractionComparator;
 import com.tolstoy.basic.api.tweet.TweetSupposedQuality;
 import com.tolstoy.basic.api.utils.IResourceBundleWithFormatting;
 import com.tolstoy.basic.app.utils.Utils;
@@ -79,7 +75,7 @@ class AnalysisReportRepliesBasic extends AnalysisReportBasicBase implements IAna
 
 		final Set<Long> sourceTweetIDs = searchRun.getSourceTweetIDs();
 
-		for ( final Long sourceTweetID : sourceTweetIDs ) {
+		reportItems.addAll( makeReportItems( sourceTweetIDs, sourceTweetID -> {
 			final ITweet sourceTweet = tweetColTimeline.getTweetByID( sourceTweetID );
 			final IReplyThread replyThread = searchRun.getReplyThreadBySourceTweetID( sourceTweetID );
 
@@ -87,9 +83,11 @@ class AnalysisReportRepliesBasic extends AnalysisReportBasicBase implements IAna
 			//logger.info( "replyThread=" + replyThread );
 
 			if ( sourceTweet != null && replyThread != null ) {
-				reportItems.add( createReportItem( sourceTweet, replyThread ) );
+				return createReportItem( sourceTweet, replyThread );
 			}
-		}
+
+			return null;
+		} ) );
 	}
 
 	protected IAnalysisReportRepliesItemBasic createReportItem( final ITweet sourceTweet, final IReplyThread replyThread ) {
@@ -100,7 +98,7 @@ class AnalysisReportRepliesBasic extends AnalysisReportBasicBase implements IAna
 		if ( replyThread.getReplyThreadType() == ReplyThreadType.INDIRECT &&
 				replyThread.getConversationTweetCollection() != null &&
 				!replyThread.getConversationTweetCollection().getTweets().isEmpty() ) {
-			ret.setAttribute( "initial conversation", summarizeTweetList( replyThread.getConversationTweetCollection().getTweets() ) );
+			ret.setLazyAttribute( "initial conversation", () -> summarizeTweetList( replyThread.getConversationTweetCollection().getTweets() ) );
 			ret.setAttribute( "initial conversation id", "" + replyThread.getSourceTweet().getRepliedToTweetID() );
 		}
 
@@ -111,7 +109,8 @@ class AnalysisReportRepliesBasic extends AnalysisReportBasicBase implements IAna
 		ret.setAttribute( "totalRepliesActual", "" + ret.getTotalRepliesActual() );
 
 		final List<ITweet> tweets = replyPage.getTweetCollection().getTweets();
-		ret.setAttribute( "_sourcetweets", summarizeTweetList( tweets ) );
+			//	the lists of summaries are only made if a debug report shows them
+		ret.setLazyAttribute( "_sourcetweets", () -> summarizeTweetList( tweets ) );
 
 		final int numNewerTweets = countNewerTweets( sourceTweet, tweets );
 		final int percentNewerTweets = Utils.makePercentInt( numNewerTweets, replyPage.getNumReplies() );
@@ -202,25 +201,40 @@ class AnalysisReportRepliesBasic extends AnalysisReportBasicBase implements IAna
 	}
 
 	protected int getTweetDateOrder( final AnalysisReportRepliesItemBasic ret, final List<ITweet> tweets, final long tweetID ) {
-		final List<ITweet> tempList = new ArrayList<ITweet>( tweets );
+		final long[] timeKeys = new long[ tweets.size() ];
+		for ( int i = 0; i < timeKeys.length; i++ ) {
+			timeKeys[ i ] = getTimeKey( tweets.get( i ) );
+		}
 
-		Collections.sort( tempList, new TweetDateComparator( TweetComparatorDirection.ASC ) );
+		final List<ITweet> tempList = SortKeys.inOrder( tweets, SortKeys.sortIndexes( timeKeys, false ) );
 
-		ret.setAttribute( "tweetsInDateOrder", summarizeTweetList( tempList ) );
+		ret.setLazyAttribute( "tweetsInDateOrder", () -> summarizeTweetList( tempList ) );
 
 		return getTweetOrder( tempList, tweetID );
 	}
 
 	protected int getTweetInteractionOrder( final AnalysisReportRepliesItemBasic ret, final List<ITweet> tweets, final long tweetID ) {
-		final List<ITweet> tempList = new ArrayList<ITweet>( tweets );
+		final long[] interactionKeys = new long[ tweets.size() ];
+		for ( int i = 0; i < interactionKeys.length; i++ ) {
+			interactionKeys[ i ] = getInteractionKey( tweets.get( i ) );
+		}
 
-		Collections.sort( tempList, new TweetInteractionComparator( BOOST_REPLIES, BOOST_RETWEETS, BOOST_FAVORITES, TweetComparatorDirection.DESC ) );
+		final List<ITweet> tempList = SortKeys.inOrder( tweets, SortKeys.sortIndexes( interactionKeys, true ) );
 
-		ret.setAttribute( "tweetsInInteractionOrder", summarizeTweetList( tempList ) );
+		ret.setLazyAttribute( "tweetsInInteractionOrder", () -> summarizeTweetList( tempList ) );
 
 		return getTweetOrder( tempList, tweetID );
 	}
 
+	/**
+	 * @return the tweet's replies, retweets and favorites, weighted.
+	 */
+	protected long getInteractionKey( final ITweet tweet ) {
+		return BOOST_REPLIES * (long) Utils.parseIntDefault( tweet.getAttribute( "replycount" ) ) +
+				BOOST_RETWEETS * (long) Utils.parseIntDefault( tweet.getAttribute( "retweetcount" ) ) +
+				BOOST_FAVORITES * (long) Utils.parseIntDefault( tweet.getAttribute( "favoritecount" ) );
+	}
+
 	@Override
 	public String getAnalysisType() {
 		return "basic";
@@ -15,6 +15,7 @@ package com.tolstoy.censorship.twitter.checker.app.analyzer;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Supplier;
 
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.logging.log4j.LogManager;
@@ -36,6 +37,7 @@ class AnalysisReportRepliesItemBasic implements IAnalysisReportRepliesItemBasic
 	private ITweetCollection anomalousHigherTweets, anomalousLowerTweets, suppressedOrHiddenTweets;
 	private AnalysisReportItemBasicTweetStatus status;
 	private Map<String,String> attributes;
+	private final Map<String,Supplier<String>> lazyAttributes;
 	private final int totalReplies, totalRepliesActual;
 
 	private int rank;
@@ -65,6 +67,7 @@ class AnalysisReportRepliesItemBasic implements IAnalysisReportRepliesItemBasic
 		this.anomalousLowerTweets = this.tweetFactory.makeTweetCollection();
 		this.suppressedOrHiddenTweets = this.tweetFactory.makeTweetCollection();
 		this.attributes = new HashMap<String,String>();
+		this.lazyAttributes = new HashMap<String,Supplier<String>>();
 	}
 
 	@Override
@@ -179,24 +182,42 @@ class AnalysisReportRepliesItemBasic implements IAnalysisReportRepliesItemBasic
 
 	@Override
 	public Map<String,String> getAttributes() {
+		for ( final Map.Entry<String,Supplier<String>> entry : lazyAttributes.entrySet() ) {
+			attributes.put( entry.getKey(), entry.getValue().get() );
+		}
+		lazyAttributes.clear();
+
 		return attributes;
 	}
 
 	@Override
 	public void setAttributes( final Map<String,String> attributes ) {
 		this.attributes = attributes;
+		lazyAttributes.clear();
 	}
 
 	@Override
 	public String getAttribute( final String key ) {
+		final Supplier<String> supplier = lazyAttributes.remove( key );
+		if ( supplier != null ) {
+			attributes.put( key, supplier.get() );
+		}
+
 		return attributes.get( key );
 	}
 
 	@Override
 	public void setAttribute( final String key, final String value ) {
+		lazyAttributes.remove( key );
 		attributes.put( key, value );
 	}
 
+	@Override
+	public void setLazyAttribute( final String key, final Supplier<String> supplier ) {
+		attributes.remove( key );
+		lazyAttributes.put( key, supplier );
+	}
+
 	@Override
 	public String toString() {
 		return new ToStringBuilder( this )
@@ -214,6 +235,7 @@ class AnalysisReportRepliesItemBasic implements IAnalysisReportRepliesItemBasic
 		.append( "anomalousLowerTweets", anomalousLowerTweets )
 		.append( "suppressedOrHiddenTweets", suppressedOrHiddenTweets )
 		.append( "attributes", attributes )
+		.append( "lazyAttributes", lazyAttributes.keySet() )
 		.toString();
 	}
 }
@@ -13,18 +13,16 @@
  */
 package com.tolstoy.censorship.twitter.checker.app.analyzer;
 
-import java.io.Serializable;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinTask;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.builder.ToStringBuilder;
@@ -37,14 +35,13 @@ import com.tolstoy.basic.api.tweet.ITweetFactory;
 import com.tolstoy.basic.api.utils.IResourceBundleWithFormatting;
 import com.tolstoy.basic.app.utils.Utils;
 import com.tolstoy.censorship.twitter.checker.api.analyzer.AnalysisReportItemBasicTimelineRepliesStatus;
-import com.tolstoy.censorship.twitter.checker.api.analyzer.AnalyzedTweetComparatorDirection;
-import com.tolstoy.censorship.twitter.checker.api.analyzer.AnalyzedTweetDateComparator;
-import com.tolstoy.censorship.twitter.checker.api.analyzer.AnalyzedTweetRankingComparator;
 import com.tolstoy.censorship.twitter.checker.api.analyzer.IAnalysisReportFactory;
 import com.tolstoy.censorship.twitter.checker.api.analyzer.IAnalysisReportTimelineBasic;
 import com.tolstoy.censorship.twitter.checker.api.analyzer.IAnalysisReportTimelineItemBasic;
 import com.tolstoy.censorship.twitter.checker.api.analyzer.IAnalyzedTweet;
+import com.tolstoy.censorship.twitter.checker.api.analyzer.IReferenceTweetProfile;
 import com.tolstoy.censorship.twitter.checker.api.analyzer.ITweetRanker;
+import com.tolstoy.censorship.twitter.checker.api.analyzer.TweetFeatureMatrix;
 import com.tolstoy.censorship.twitter.checker.api.preferences.IPreferences;
 import com.tolstoy.censorship.twitter.checker.api.searchrun.ISearchRunTimeline;
 import com.tolstoy.censorship.twitter.checker.api.snapshot.ISnapshotUserPageIndividualTweet;
@@ -57,6 +54,9 @@ class AnalysisReportTimelineBasic extends AnalysisReportBasicBase implements IAn
 	private static final int SUPPRESSED_MANY_HIDDEN_CUTOFF = 30;
 	private static final int VISIBLE_MANY_SUPPRESSED_CUTOFF = 20;
 	private static final int VISIBLE_MANY_HIDDEN_CUTOFF = 20;
+	private static final int DEFAULT_CHUNKED_ANALYSIS_THRESHOLD = 1000;
+	private static final int MIN_CHUNK_SIZE = 100;
+	private static final int CHUNKS_PER_PROCESSOR = 4;
 
 	private final ISearchRunTimeline searchRun;
 	private final ITweetRanker tweetRanker;
@@ -64,21 +64,6 @@ class AnalysisReportTimelineBasic extends AnalysisReportBasicBase implements IAn
 	private final Map<String,String> attributes;
 	private final DateTimeFormatter nameDateFormatter;
 
-	private static class ReportItemComparator implements Comparator<IAnalysisReportTimelineItemBasic>, Serializable {
-		/**
-		 * 
-		 */
-		private static final long serialVersionUID = 3967298488291325461L;
-
-		@Override
-		public int compare( final IAnalysisReportTimelineItemBasic a, final IAnalysisReportTimelineItemBasic b ) {
-			final int dateA = Utils.parseIntDefault( a.getSourceTweet().getAttribute( "time" ) );
-			final int dateB = Utils.parseIntDefault( b.getSourceTweet().getAttribute( "time" ) );
-
-			return dateB - dateA;
-		}
-	}
-
 	AnalysisReportTimelineBasic( final ISearchRunTimeline searchRun, final ITweetRanker tweetRanker,
 									final IAnalysisReportFactory analysisReportFactory, final ITweetFactory tweetFactory,
 									final IPreferences prefs, final IResourceBundleWithFormatting bundle ) {
@@ -101,7 +86,7 @@ class AnalysisReportTimelineBasic extends AnalysisReportBasicBase implements IAn
 
 		final Set<Long> sourceTweetIDs = searchRun.getSourceTweetIDs();
 
-		for ( final Long sourceTweetID : sourceTweetIDs ) {
+		reportItems.addAll( makeReportItems( sourceTweetIDs, sourceTweetID -> {
 			final ITweet sourceTweet = tweetColTimeline.getTweetByID( sourceTweetID );
 			final ISnapshotUserPageIndividualTweet individualPage = searchRun.getIndividualPageBySourceTweetID( sourceTweetID );
 
@@ -109,13 +94,23 @@ class AnalysisReportTimelineBasic extends AnalysisReportBasicBase implements IAn
 			//logger.info( "individualPage=" + individualPage );
 
 			if ( sourceTweet != null && individualPage != null ) {
-				reportItems.add( createReportItem( sourceTweet, individualPage ) );
+				return createReportItem( sourceTweet, individualPage );
 			}
-		}
+
+			return null;
+		} ) );
 
 		attributes.put( "rankingFunctionName", tweetRanker.getFunctionName() );
 
-		Collections.sort( reportItems, new ReportItemComparator() );
+			//	newest source tweet first
+		final long[] timeKeys = new long[ reportItems.size() ];
+		for ( int i = 0; i < timeKeys.length; i++ ) {
+			timeKeys[ i ] = getTimeKey( reportItems.get( i ).getSourceTweet() );
+		}
+
+		final List<IAnalysisReportTimelineItemBasic> sortedItems = SortKeys.inOrder( reportItems, SortKeys.sortIndexes( timeKeys, true ) );
+		reportItems.clear();
+		reportItems.addAll( sortedItems );
 	}
 
 	protected IAnalysisReportTimelineItemBasic createReportItem( final ITweet sourceTweet, final ISnapshotUserPageIndividualTweet individualPage )
@@ -123,24 +118,36 @@ class AnalysisReportTimelineBasic extends AnalysisReportBasicBase implements IAn
 		final AnalysisReportTimelineItemBasic ret = new AnalysisReportTimelineItemBasic( getTweetFactory(), sourceTweet, individualPage );
 
 		final List<ITweet> replyTweets = individualPage.getTweetCollection().getTweets();
-		ret.setAttribute( "_sourcetweets", summarizeTweetList( replyTweets ) );
+			//	the lists of summaries are only made if a debug report shows them
+		ret.setLazyAttribute( "_sourcetweets", () -> summarizeTweetList( replyTweets ) );
 
-		final IAnalyzedTweet analyzedSourceTweet = getAnalysisReportFactory().makeAnalyzedTweet( sourceTweet, 0, null );
+		final IAnalyzedTweet analyzedSourceTweet = getAnalysisReportFactory().makeAnalyzedTweet( sourceTweet, 0, (IReferenceTweetProfile) null );
+
+			//	sort and vectorize the source tweet's words once, rather than for each reply
+		final IReferenceTweetProfile referenceProfile = getAnalysisReportFactory().makeReferenceTweetProfile( analyzedSourceTweet, tweetRanker.getRequiredFeatures() );
 
 		List<IAnalyzedTweet> analyzedReplies = new ArrayList<IAnalyzedTweet>();
 		int order = 1;
 		for ( final ITweet tweet : replyTweets ) {
-			analyzedReplies.add( getAnalysisReportFactory().makeAnalyzedTweet( tweet, order, analyzedSourceTweet ) );
+			analyzedReplies.add( getAnalysisReportFactory().makeAnalyzedTweet( tweet, order, referenceProfile ) );
 			order++;
 		}
 
 		setDateOrders( analyzedReplies );
 
-		tweetRanker.rankTweets( analyzedReplies, analyzedSourceTweet );
+		final int chunkedAnalysisThreshold = Utils.parseIntDefault( getPrefs().getValue( "prefs.analysis_chunked_replies_threshold" ), DEFAULT_CHUNKED_ANALYSIS_THRESHOLD );
+
+		if ( chunkedAnalysisThreshold > 0 && analyzedReplies.size() >= chunkedAnalysisThreshold ) {
+			analyzeAndRankInChunks( analyzedReplies, analyzedSourceTweet );
+		}
+		else {
+			tweetRanker.rankTweets( new TweetFeatureMatrix( analyzedReplies ), analyzedSourceTweet );
+		}
 
 		analyzedReplies = setRankingOrders( analyzedReplies );
 
-		ret.setAttribute( "_rankedtweets", summarizeAnalyzedTweetList( analyzedReplies ) );
+		final List<IAnalyzedTweet> rankedReplies = analyzedReplies;
+		ret.setLazyAttribute( "_rankedtweets", () -> summarizeAnalyzedTweetList( rankedReplies ) );
 
 			//	Now, each IAnalyzedTweet in analyzedReplies has the original order as it appeared in the page,
 			//	plus a date order and a ranking order. They're ordered by ranking in analyzedReplies.
@@ -227,6 +234,46 @@ class AnalysisReportTimelineBasic extends AnalysisReportBasicBase implements IAn
 		return ret;
 	}
 
+	/**
+	 * Computes the replies' features in chunks on several threads, and ranks each chunk
+	 * there too if the ranker allows it; otherwise they're ranked together afterwards.
+	 * The date orders that ranking uses have to be set on the whole list first.
+	 *
+	 * When this is called on a pool thread, the chunks are run on that pool; otherwise
+	 * they're run on the common pool.
+	 */
+	protected void analyzeAndRankInChunks( final List<IAnalyzedTweet> analyzedReplies, final IAnalyzedTweet analyzedSourceTweet ) throws Exception {
+		final int count = analyzedReplies.size();
+		final boolean bRankChunks = tweetRanker.canRankConcurrently();
+		final int chunkSize = Math.max( MIN_CHUNK_SIZE, count / ( CHUNKS_PER_PROCESSOR * Runtime.getRuntime().availableProcessors() ) );
+
+		logger.info( "analyzing " + count + " replies in chunks of " + chunkSize + ", rankChunks=" + bRankChunks );
+
+		final List<ForkJoinTask<Void>> tasks = new ArrayList<ForkJoinTask<Void>>();
+		for ( int start = 0; start < count; start += chunkSize ) {
+			final List<IAnalyzedTweet> chunk = analyzedReplies.subList( start, Math.min( start + chunkSize, count ) );
+
+			tasks.add( ForkJoinTask.adapt( () -> {
+				for ( final IAnalyzedTweet analyzedReply : chunk ) {
+					analyzedReply.computeFeatures();
+				}
+
+				if ( bRankChunks ) {
+						//	the count is the whole list's, as ranking the whole list would give
+					tweetRanker.rankTweets( new TweetFeatureMatrix( chunk, count ), analyzedSourceTweet );
+				}
+
+				return null;
+			} ) );
+		}
+
+		ForkJoinTask.invokeAll( tasks );
+
+		if ( !bRankChunks ) {
+			tweetRanker.rankTweets( new TweetFeatureMatrix( analyzedReplies ), analyzedSourceTweet );
+		}
+	}
+
 	@Override
 	public String getAnalysisType() {
 		return "basic";
@@ -260,27 +307,31 @@ class AnalysisReportTimelineBasic extends AnalysisReportBasicBase implements IAn
 	}
 
 	protected List<IAnalyzedTweet> setDateOrders( final List<IAnalyzedTweet> analyzedTweets ) {
-		final List<IAnalyzedTweet> temp = new ArrayList<IAnalyzedTweet>( analyzedTweets );
-		Collections.sort( temp, new AnalyzedTweetDateComparator( AnalyzedTweetComparatorDirection.ASC ) );
-		int dateOrder = 1;
-		for ( final IAnalyzedTweet analyzedTweet : temp ) {
-			analyzedTweet.setDateOrder( dateOrder );
-			dateOrder++;
+		final long[] timeKeys = new long[ analyzedTweets.size() ];
+		for ( int i = 0; i < timeKeys.length; i++ ) {
+			timeKeys[ i ] = getTimeKey( analyzedTweets.get( i ).getTweet() );
 		}
 
-		return temp;
+		final int[] sortedIndexes = SortKeys.sortIndexes( timeKeys, false );
+		for ( int position = 0; position < sortedIndexes.length; position++ ) {
+			analyzedTweets.get( sortedIndexes[ position ] ).setDateOrder( position + 1 );
+		}
+
+		return SortKeys.inOrder( analyzedTweets, sortedIndexes );
 	}
 
 	protected List<IAnalyzedTweet> setRankingOrders( final List<IAnalyzedTweet> analyzedTweets ) {
-		final List<IAnalyzedTweet> temp = new ArrayList<IAnalyzedTweet>( analyzedTweets );
-		Collections.sort( temp, new AnalyzedTweetRankingComparator( AnalyzedTweetComparatorDirection.DESC ) );
-		int rankingOrder = 1;
-		for ( final IAnalyzedTweet analyzedTweet : temp ) {
-			analyzedTweet.setRankingOrder( rankingOrder );
-			rankingOrder++;
+		final long[] rankingKeys = new long[ analyzedTweets.size() ];
+		for ( int i = 0; i < rankingKeys.length; i++ ) {
+			rankingKeys[ i ] = SortKeys.doubleKey( analyzedTweets.get( i ).getRanking() );
+		}
+
+		final int[] sortedIndexes = SortKeys.sortIndexes( rankingKeys, true );
+		for ( int position = 0; position < sortedIndexes.length; position++ ) {
+			analyzedTweets.get( sortedIndexes[ position ] ).setRankingOrder( position + 1 );
 		}
 
-		return temp;
+		return SortKeys.inOrder( analyzedTweets, sortedIndexes );
 	}
 
 	protected String summarizeAnalyzedTweetList( final List<IAnalyzedTweet> analyzedTweets ) {
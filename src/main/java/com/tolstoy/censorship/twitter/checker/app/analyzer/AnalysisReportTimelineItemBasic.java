@@ -17,6 +17,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.logging.log4j.LogManager;
@@ -39,6 +40,7 @@ class AnalysisReportTimelineItemBasic implements IAnalysisReportTimelineItemBasi
 	private List<IAnalyzedTweet> anomalousElevatedTweets, anomalousSuppressedOrHiddenTweets, hiddenTweets;
 	private AnalysisReportItemBasicTimelineRepliesStatus status;
 	private Map<String,String> attributes;
+	private final Map<String,Supplier<String>> lazyAttributes;
 	private final int totalReplies, totalRepliesActual;
 
 	private int numSuppressed;
@@ -59,6 +61,7 @@ class AnalysisReportTimelineItemBasic implements IAnalysisReportTimelineItemBasi
 		this.anomalousSuppressedOrHiddenTweets = new ArrayList<IAnalyzedTweet>();
 		this.hiddenTweets = new ArrayList<IAnalyzedTweet>();
 		this.attributes = new HashMap<String,String>();
+		this.lazyAttributes = new HashMap<String,Supplier<String>>();
 
 		this.totalReplies = Math.max( Utils.parseIntDefault( sourceTweet.getAttribute( "replycount" ) ), individualPage.getNumReplies() );
 	}
@@ -150,24 +153,42 @@ class AnalysisReportTimelineItemBasic implements IAnalysisReportTimelineItemBasi
 
 	@Override
 	public Map<String,String> getAttributes() {
+		for ( final Map.Entry<String,Supplier<String>> entry : lazyAttributes.entrySet() ) {
+			attributes.put( entry.getKey(), entry.getValue().get() );
+		}
+		lazyAttributes.clear();
+
 		return attributes;
 	}
 
 	@Override
 	public void setAttributes( final Map<String,String> attributes ) {
 		this.attributes = attributes;
+		lazyAttributes.clear();
 	}
 
 	@Override
 	public String getAttribute( final String key ) {
+		final Supplier<String> supplier = lazyAttributes.remove( key );
+		if ( supplier != null ) {
+			attributes.put( key, supplier.get() );
+		}
+
 		return attributes.get( key );
 	}
 
 	@Override
 	public void setAttribute( final String key, final String value ) {
+		lazyAttributes.remove( key );
 		attributes.put( key, value );
 	}
 
+	@Override
+	public void setLazyAttribute( final String key, final Supplier<String> supplier ) {
+		attributes.remove( key );
+		lazyAttributes.put( key, supplier );
+	}
+
 	@Override
 	public String toString() {
 		return new ToStringBuilder( this )
@@ -180,6 +201,7 @@ class AnalysisReportTimelineItemBasic implements IAnalysisReportTimelineItemBasi
 		.append( "anomalousSuppressedOrHiddenTweets", anomalousSuppressedOrHiddenTweets )
 		.append( "hiddenTweets", hiddenTweets )
 		.append( "attributes", attributes )
+		.append( "lazyAttributes", lazyAttributes.keySet() )
 		.toString();
 	}
 }
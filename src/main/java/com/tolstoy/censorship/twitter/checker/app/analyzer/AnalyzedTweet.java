@@ -13,20 +13,14 @@
  */
 package com.tolstoy.censorship.twitter.checker.app.analyzer;
 
+import java.text.DecimalFormat;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.ObjectUtils;
-import org.apache.commons.text.similarity.CosineDistance;
-import org.apache.commons.text.similarity.FuzzyScore;
-import org.apache.commons.text.similarity.JaccardSimilarity;
-import org.apache.commons.text.similarity.JaroWinklerDistance;
-import org.apache.commons.text.similarity.LevenshteinDistance;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -34,14 +28,21 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.tolstoy.basic.api.tweet.ITweet;
+import com.tolstoy.censorship.twitter.checker.api.analyzer.AnalyzedTweetFeature;
 import com.tolstoy.censorship.twitter.checker.api.analyzer.IAnalyzedTweet;
+import com.tolstoy.censorship.twitter.checker.api.analyzer.RankingBreakdown;
+import com.tolstoy.censorship.twitter.checker.api.analyzer.RankingComponent;
 import com.tolstoy.external.de.tudarmstadt.ukp.dkpro.core.readability.measure.ReadabilityMeasures;
-import com.twitter.twittertext.Extractor;
-
-import cue.lang.SentenceIterator;
-import cue.lang.WordIterator;
-import cue.lang.stop.StopWords;
+import com.tolstoy.external.de.tudarmstadt.ukp.dkpro.core.readability.measure.ReadabilityProfile;
 
+/**
+ * The text features are computed on first use, in three groups: tokenizing (sentences, words,
+ * URLs etc., which the other two groups use), readability, and similarity to the reference
+ * tweet. A ranker or report that never reads a group never pays for it.
+ *
+ * Jackson serializes through the getters, so serializing computes everything and gives
+ * the same fields as before.
+ */
 @JsonIgnoreProperties(ignoreUnknown=true)
 class AnalyzedTweet implements IAnalyzedTweet {
 	@JsonIgnore
@@ -51,19 +52,28 @@ class AnalyzedTweet implements IAnalyzedTweet {
 	private static final float FRACTION_TO_BE_MOSTLY_UPPERCASE = 0.75f;
 
 	@JsonIgnore
-	private static final Extractor extractor = new Extractor();
+	private static final ThreadLocal<TweetTokenizer> tokenizers = ThreadLocal.withInitial( TweetTokenizer::new );
+
+	@JsonIgnore
+	private static final ReadabilityMeasures readabilityMeasures = new ReadabilityMeasures( "en" );
 
 	@JsonIgnore
-	private static final CosineDistance comparerCosineDistance = new CosineDistance();
+	private final ReferenceTweetProfile referenceProfile;
 
 	@JsonIgnore
-	private static final FuzzyScore comparerFuzzyScore = new FuzzyScore( Locale.ENGLISH );
+	private BagOfWords bagOfWords;
 
 	@JsonIgnore
-	private static final JaccardSimilarity comparerJaccardSimilarity = new JaccardSimilarity();
+	private final RankingBreakdown rankingBreakdown;
 
 	@JsonIgnore
-	private static final JaroWinklerDistance comparerJaroWinklerDistance = new JaroWinklerDistance();
+	private volatile boolean bTokenized;
+
+	@JsonIgnore
+	private volatile boolean bReadabilityComputed;
+
+	@JsonIgnore
+	private volatile boolean bSimilaritiesComputed;
 
 	@JsonProperty
 	private final ITweet tweet;
@@ -96,7 +106,7 @@ class AnalyzedTweet implements IAnalyzedTweet {
 	private final String textContentRaw;
 
 	@JsonProperty
-	private final String textContentPlain;
+	private String textContentPlain;
 
 	@JsonProperty
 	private Double toReferenceTweetCosineDistance;
@@ -141,10 +151,10 @@ class AnalyzedTweet implements IAnalyzedTweet {
 	private double readabilitySmog;
 
 	@JsonProperty
-	private final int numSentences;
+	private int numSentences;
 
 	@JsonProperty
-	private final int numWords;
+	private int numWords;
 
 	@JsonProperty
 	private final int originalOrder;
@@ -164,7 +174,7 @@ class AnalyzedTweet implements IAnalyzedTweet {
 	@JsonProperty
 	private boolean mostlyCaps;
 
-	AnalyzedTweet( final ITweet tweet, final int order, final IAnalyzedTweet referenceTweet ) {
+	AnalyzedTweet( final ITweet tweet, final int order, final ReferenceTweetProfile referenceProfile ) {
 		this.attributes = new HashMap<String,String>();
 
 		this.sentences = new ArrayList<String>();
@@ -179,6 +189,7 @@ class AnalyzedTweet implements IAnalyzedTweet {
 		this.toReferenceTweetJaroWinklerDistance = null;
 		this.toReferenceTweetFuzzyScore = null;
 		this.toReferenceTweetLevenshteinDistance = null;
+		this.bagOfWords = null;
 
 		this.readabilityFlesch = 0;
 		this.readabilityFog = 0;
@@ -190,38 +201,77 @@ class AnalyzedTweet implements IAnalyzedTweet {
 
 		this.ranking = 0;
 		this.rankingFunction = "";
+		this.rankingBreakdown = new RankingBreakdown();
 
 		this.dateOrder = 0;
 		this.rankingOrder = 0;
 
+		this.textContentPlain = "";
+		this.numSentences = 0;
+		this.numWords = 0;
+
 		this.hasPic = false;
+		this.hasCard = false;
 		this.mostlyCaps = false;
 
+		this.bTokenized = false;
+		this.bReadabilityComputed = false;
+		this.bSimilaritiesComputed = false;
+
 		this.tweet = tweet;
 		this.tweetMap = tweet.getAsMapBasic();
 		this.originalOrder = order;
 		this.textContentRaw = ObjectUtils.firstNonNull( tweet.getAttribute( "tweettext" ), "" );
+		this.referenceProfile = referenceProfile;
+	}
 
-		this.textContentPlain = extractPlainTextHashtagsURLsMentionsHasPicHasCards( this.textContentRaw );
+	private void ensureTokenized() {
+		if ( !bTokenized ) {
+			tokenize();
+		}
+	}
 
-		for ( final String sentence : new SentenceIterator( this.textContentPlain, Locale.ENGLISH ) ) {
-			sentences.add( sentence );
+	private void ensureReadabilityComputed() {
+		if ( !bReadabilityComputed ) {
+			computeReadability();
 		}
+	}
 
-		int numAllUpper = 0;
-		for ( final String word : new WordIterator( this.textContentPlain ) ) {
-			words.add( word );
-			if ( !StopWords.English.isStopWord( word ) ) {
-				final String baseWord = getBaseWord( word );
-				if ( baseWord != null ) {
-					wordsWithoutStopWordsLowercase.add( baseWord );
-				}
-			}
-			if ( StringUtils.isAllUpperCase( word ) ) {
-				numAllUpper++;
-			}
+	private void ensureSimilaritiesComputed() {
+		if ( !bSimilaritiesComputed ) {
+			computeSimilarities();
+		}
+	}
+
+	@Override
+	public void computeFeatures() {
+		ensureTokenized();
+		ensureReadabilityComputed();
+		ensureSimilaritiesComputed();
+	}
+
+	private synchronized void tokenize() {
+		if ( bTokenized ) {
+			return;
 		}
 
+		//	the tokenizer's buffers are reused for the next tweet on this thread,
+		//	so copy everything out
+		final TweetTokenizer tokenizer = tokenizers.get();
+		tokenizer.tokenize( this.textContentRaw );
+
+		this.textContentPlain = tokenizer.getTextContentPlain();
+		sentences.addAll( tokenizer.getSentences() );
+		words.addAll( tokenizer.getWords() );
+		wordsWithoutStopWordsLowercase.addAll( tokenizer.getWordsWithoutStopWordsLowercase() );
+		urls.addAll( tokenizer.getUrls() );
+		hashtags.addAll( tokenizer.getHashtags() );
+		mentions.addAll( tokenizer.getMentions() );
+		this.hasPic = tokenizer.getHasPic();
+		this.hasCard = tokenizer.getHasCard();
+
+		final int numAllUpper = tokenizer.getNumAllUpper();
+
 		//System.out.println( BlockUtil.guessUnicodeBlock( textContentRaw ) );
 		//System.out.println( StopWords.guess( textContentRaw ) );
 
@@ -232,132 +282,95 @@ class AnalyzedTweet implements IAnalyzedTweet {
 			mostlyCaps = true;
 		}
 
-		if ( this.numWords > 0 ) {
-			final ReadabilityMeasures readability = new ReadabilityMeasures( "en" );
-			this.readabilityFlesch = readability.getReadabilityScore( ReadabilityMeasures.Measures.flesch, words, numSentences );
-			this.readabilityFog = readability.getReadabilityScore( ReadabilityMeasures.Measures.fog, words, numSentences );
-			this.readabilityKincaid = readability.getReadabilityScore( ReadabilityMeasures.Measures.kincaid, words, numSentences );
-			this.readabilityAri = readability.getReadabilityScore( ReadabilityMeasures.Measures.ari, words, numSentences );
-			this.readabilityColemanLiau = readability.getReadabilityScore( ReadabilityMeasures.Measures.coleman_liau, words, numSentences );
-			this.readabilityLix = readability.getReadabilityScore( ReadabilityMeasures.Measures.lix, words, numSentences );
-			this.readabilitySmog = readability.getReadabilityScore( ReadabilityMeasures.Measures.smog, words, numSentences );
-		}
-
-		if ( referenceTweet != null &&
-				!wordsWithoutStopWordsLowercase.isEmpty() &&
-				!referenceTweet.getWordsWithoutStopWordsLowercase().isEmpty() ) {
-			List<String> temp = new ArrayList<String>( wordsWithoutStopWordsLowercase );
-			Collections.sort( temp );
-			final String thisText = StringUtils.join( temp, " " );
-
-			temp = new ArrayList<String>( referenceTweet.getWordsWithoutStopWordsLowercase() );
-			Collections.sort( temp );
-			final String referenceText = StringUtils.join( temp, " " );
-
-			try {
-				toReferenceTweetCosineDistance = comparerCosineDistance.apply( referenceText, thisText );
-			}
-			catch ( final Exception e ) {
-				logger.error( "bad comparerCosineDistance, referenceText=" + referenceText + ", thisText=" + thisText );
-			}
-
-			try {
-				toReferenceTweetJaccardSimilarity = comparerJaccardSimilarity.apply( referenceText, thisText );
-			}
-			catch ( final Exception e ) {
-				logger.error( "bad comparerJaccardSimilarity, referenceText=" + referenceText + ", thisText=" + thisText );
-			}
-
-			try {
-				toReferenceTweetJaroWinklerDistance = comparerJaroWinklerDistance.apply( referenceText, thisText );
-			}
-			catch ( final Exception e ) {
-				logger.error( "bad comparerJaroWinklerDistance, referenceText=" + referenceText + ", thisText=" + thisText );
-			}
-
-			try {
-				toReferenceTweetFuzzyScore = comparerFuzzyScore.fuzzyScore( referenceText, thisText );
-			}
-			catch ( final Exception e ) {
-				logger.error( "bad comparerFuzzyScore, referenceText=" + referenceText + ", thisText=" + thisText );
-			}
-
-			try {
-				toReferenceTweetLevenshteinDistance = LevenshteinDistance.getDefaultInstance().apply( referenceText, thisText );
-			}
-			catch ( final Exception e ) {
-				logger.error( "bad LevenshteinDistance, referenceText=" + referenceText + ", thisText=" + thisText );
-			}
-		}
+		bTokenized = true;
 	}
 
-	protected String getBaseWord( final String input ) {
-		if ( input == null || input.length() < 1 ) {
-			return null;
-		}
-		final int len = input.length();
-		final StringBuffer sb = new StringBuffer( len );
-		for ( int i = 0; i < len; i++ ) {
-			if ( Character.isLetterOrDigit( input.charAt( i ) ) ) {
-				sb.append( input.charAt( i ) );
-			}
+	private synchronized void computeReadability() {
+		if ( bReadabilityComputed ) {
+			return;
 		}
 
-		final String output = sb.toString().trim().toLowerCase();
+		ensureTokenized();
 
-		return output.length() > 0 ? output : null;
-	}
+		if ( this.numWords > 0 ) {
+			//	count syllables etc. once, then derive all the scores from the counts
+			final ReadabilityProfile profile = readabilityMeasures.getReadabilityProfile( words, numSentences );
+			this.readabilityFlesch = readabilityMeasures.getReadabilityScore( ReadabilityMeasures.Measures.flesch, profile );
+			this.readabilityFog = readabilityMeasures.getReadabilityScore( ReadabilityMeasures.Measures.fog, profile );
+			this.readabilityKincaid = readabilityMeasures.getReadabilityScore( ReadabilityMeasures.Measures.kincaid, profile );
+			this.readabilityAri = readabilityMeasures.getReadabilityScore( ReadabilityMeasures.Measures.ari, profile );
+			this.readabilityColemanLiau = readabilityMeasures.getReadabilityScore( ReadabilityMeasures.Measures.coleman_liau, profile );
+			this.readabilityLix = readabilityMeasures.getReadabilityScore( ReadabilityMeasures.Measures.lix, profile );
+			this.readabilitySmog = readabilityMeasures.getReadabilityScore( ReadabilityMeasures.Measures.smog, profile );
+		}
 
-	protected boolean isPictureURL( final String url ) {
-		return url.toLowerCase().indexOf( "pic.twitter" ) > -1;
+		bReadabilityComputed = true;
 	}
 
-	protected boolean isCardURL( final String url ) {
-		return url.toLowerCase().indexOf( "cards.twitter" ) > -1;
-	}
+	private synchronized void computeSimilarities() {
+		if ( bSimilaritiesComputed ) {
+			return;
+		}
 
-	private String extractPlainTextHashtagsURLsMentionsHasPicHasCards( String input ) {
-		input = input.replace( "…", " " ).trim();
+		ensureTokenized();
 
-		if ( input.toLowerCase().indexOf( "pic.twitter" ) > -1 ) {
-			hasPic = true;
-		}
+		if ( referenceProfile != null &&
+				!wordsWithoutStopWordsLowercase.isEmpty() &&
+				!referenceProfile.isEmpty() ) {
+			final String thisText = ReferenceTweetProfile.makeText( wordsWithoutStopWordsLowercase );
+			final String referenceText = referenceProfile.getText();
 
-		final List<Extractor.Entity> entities = extractor.extractEntitiesWithIndices( input );
-		if ( entities == null || entities.isEmpty() ) {
-			return input.replace( "#", "" );
-		}
+			if ( referenceProfile.isRequired( AnalyzedTweetFeature.COSINE_DISTANCE ) || referenceProfile.isRequired( AnalyzedTweetFeature.JACCARD_SIMILARITY ) ) {
+				this.bagOfWords = referenceProfile.makeBagOfWords( thisText );
+			}
 
-		for ( final Extractor.Entity entity : entities ) {
-			final Extractor.Entity.Type type = entity.getType();
-			final String value = entity.getValue();
-			if ( type == Extractor.Entity.Type.CASHTAG ) {
-				input = input.replace( "$" + value, "" );
+			if ( referenceProfile.isRequired( AnalyzedTweetFeature.COSINE_DISTANCE ) ) {
+				try {
+					toReferenceTweetCosineDistance = referenceProfile.getCosineDistance( bagOfWords );
+				}
+				catch ( final Exception e ) {
+					logger.error( "bad comparerCosineDistance, referenceText=" + referenceText + ", thisText=" + thisText );
+				}
 			}
-			else if ( type == Extractor.Entity.Type.HASHTAG ) {
-				hashtags.add( value );
-				//	#GoodMorning -> Good Morning
-				input = input.replace( "#" + value, StringUtils.join( StringUtils.splitByCharacterTypeCamelCase( value ), " " ) );
+
+			if ( referenceProfile.isRequired( AnalyzedTweetFeature.JACCARD_SIMILARITY ) ) {
+				try {
+					toReferenceTweetJaccardSimilarity = referenceProfile.getJaccardSimilarity( bagOfWords );
+				}
+				catch ( final Exception e ) {
+					logger.error( "bad comparerJaccardSimilarity, referenceText=" + referenceText + ", thisText=" + thisText );
+				}
 			}
-			else if ( type == Extractor.Entity.Type.MENTION ) {
-				mentions.add( value );
-				input = input.replace( "@" + value, "" );
+
+			if ( referenceProfile.isRequired( AnalyzedTweetFeature.JARO_WINKLER_DISTANCE ) ) {
+				try {
+					toReferenceTweetJaroWinklerDistance = referenceProfile.getJaroWinklerDistance( thisText );
+				}
+				catch ( final Exception e ) {
+					logger.error( "bad comparerJaroWinklerDistance, referenceText=" + referenceText + ", thisText=" + thisText );
+				}
 			}
-			else if ( type == Extractor.Entity.Type.URL ) {
-				urls.add( value );
-				input = input.replace( value, "" );
 
-				if ( isPictureURL( value ) ) {
-					hasPic = true;
+			if ( referenceProfile.isRequired( AnalyzedTweetFeature.FUZZY_SCORE ) ) {
+				try {
+					toReferenceTweetFuzzyScore = referenceProfile.getFuzzyScore( thisText );
+				}
+				catch ( final Exception e ) {
+					logger.error( "bad comparerFuzzyScore, referenceText=" + referenceText + ", thisText=" + thisText );
 				}
+			}
 
-				if ( isCardURL( value ) ) {
-					hasCard = true;
+			if ( referenceProfile.isRequired( AnalyzedTweetFeature.LEVENSHTEIN_DISTANCE ) ) {
+				try {
+					toReferenceTweetLevenshteinDistance = referenceProfile.getLevenshteinDistance( thisText );
+				}
+				catch ( final Exception e ) {
+					logger.error( "bad LevenshteinDistance, referenceText=" + referenceText + ", thisText=" + thisText );
 				}
 			}
 		}
 
-		return input.replace( "#", "" ).trim();
+		bSimilaritiesComputed = true;
 	}
 
 	@Override
@@ -372,31 +385,37 @@ class AnalyzedTweet implements IAnalyzedTweet {
 
 	@Override
 	public List<String> getSentences() {
+		ensureTokenized();
 		return sentences;
 	}
 
 	@Override
 	public List<String> getWords() {
+		ensureTokenized();
 		return words;
 	}
 
 	@Override
 	public List<String> getWordsWithoutStopWordsLowercase() {
+		ensureTokenized();
 		return wordsWithoutStopWordsLowercase;
 	}
 
 	@Override
 	public List<String> getUrls() {
+		ensureTokenized();
 		return urls;
 	}
 
 	@Override
 	public List<String> getHashtags() {
+		ensureTokenized();
 		return hashtags;
 	}
 
 	@Override
 	public List<String> getMentions() {
+		ensureTokenized();
 		return mentions;
 	}
 
@@ -407,6 +426,7 @@ class AnalyzedTweet implements IAnalyzedTweet {
 
 	@Override
 	public String getTextContentPlain() {
+		ensureTokenized();
 		return textContentPlain;
 	}
 
@@ -422,26 +442,31 @@ class AnalyzedTweet implements IAnalyzedTweet {
 
 	@Override
 	public double getToReferenceTweetCosineDistance() {
+		ensureSimilaritiesComputed();
 		return toReferenceTweetCosineDistance != null ? toReferenceTweetCosineDistance.doubleValue() : 0;
 	}
 
 	@Override
 	public double getToReferenceTweetJaccardSimilarity() {
+		ensureSimilaritiesComputed();
 		return toReferenceTweetJaccardSimilarity != null ? toReferenceTweetJaccardSimilarity.doubleValue() : 0;
 	}
 
 	@Override
 	public double getToReferenceTweetJaroWinklerDistance() {
+		ensureSimilaritiesComputed();
 		return toReferenceTweetJaroWinklerDistance != null ? toReferenceTweetJaroWinklerDistance.doubleValue() : 0;
 	}
 
 	@Override
 	public int getToReferenceTweetFuzzyScore() {
+		ensureSimilaritiesComputed();
 		return toReferenceTweetFuzzyScore != null ? toReferenceTweetFuzzyScore.intValue() : 0;
 	}
 
 	@Override
 	public int getToReferenceTweetLevenshteinDistance() {
+		ensureSimilaritiesComputed();
 		return toReferenceTweetLevenshteinDistance != null ? toReferenceTweetLevenshteinDistance.intValue() : 0;
 	}
 
@@ -455,48 +480,62 @@ class AnalyzedTweet implements IAnalyzedTweet {
 		this.ranking = ranking;
 	}
 
+	@Override
+	public RankingBreakdown getRankingBreakdown() {
+		return rankingBreakdown;
+	}
+
 	@Override
 	public double getReadabilityFlesch() {
+		ensureReadabilityComputed();
 		return readabilityFlesch;
 	}
 
 	@Override
 	public double getReadabilityFog() {
+		ensureReadabilityComputed();
 		return readabilityFog;
 	}
 
 	@Override
 	public double getReadabilityKincaid() {
+		ensureReadabilityComputed();
 		return readabilityKincaid;
 	}
 
 	@Override
 	public double getReadabilityAri() {
+		ensureReadabilityComputed();
 		return readabilityAri;
 	}
 
 	@Override
 	public double getReadabilityColemanLiau() {
+		ensureReadabilityComputed();
 		return readabilityColemanLiau;
 	}
 
 	@Override
 	public double getReadabilityLix() {
+		ensureReadabilityComputed();
 		return readabilityLix;
 	}
 
 	@Override
 	public double getReadabilitySmog() {
+		ensureReadabilityComputed();
 		return readabilitySmog;
 	}
 
 	@Override
 	public int getNumSentences() {
+		ensureTokenized();
 		return numSentences;
 	}
 
 	@Override
 	public int getNumWords() {
+		ensureTokenized();
 		return numWords;
 	}
 
@@ -527,16 +566,19 @@ class AnalyzedTweet implements IAnalyzedTweet {
 
 	@Override
 	public boolean getHasPic() {
+		ensureTokenized();
 		return hasPic;
 	}
 
 	@Override
 	public boolean getHasCard() {
+		ensureTokenized();
 		return hasCard;
 	}
 
 	@Override
 	public boolean getMostlyCaps() {
+		ensureTokenized();
 		return mostlyCaps;
 	}
 
@@ -568,6 +610,10 @@ class AnalyzedTweet implements IAnalyzedTweet {
 				rankAttributes.put( key.replace( "rank_", "" ), attributes.get( key ) );
 			}
 		}
+		final DecimalFormat rankingFormat = RankingBreakdown.makeDisplayFormat();
+		for ( final RankingComponent component : rankingBreakdown.getComponents() ) {
+			rankAttributes.put( component.getKey(), rankingFormat.format( rankingBreakdown.get( component ) ) );
+		}
 		final String rankString = "ranking=" + ranking + " from " + rankAttributes;
 		final String orderString = "orders: orig=" + originalOrder + ", rank=" + rankingOrder + ", date=" + dateOrder;
 
@@ -576,6 +622,9 @@ class AnalyzedTweet implements IAnalyzedTweet {
 
 	@Override
 	public String toString() {
+		ensureReadabilityComputed();
+		ensureSimilaritiesComputed();
+
 		final List<String> list = new ArrayList<String>();
 		list.add( "textContentRaw=" + textContentRaw );
 		list.add( "textContentPlain=" + textContentPlain );
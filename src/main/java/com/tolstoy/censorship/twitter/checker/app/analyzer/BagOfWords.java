@@ -0,0 +1,198 @@
+/*
+ * Copyright 2022 Chris Kelly
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.tolstoy.censorship.twitter.checker.app.analyzer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * A text as sorted primitive vectors: the IDs of its terms with how many times each
+ * appears, and the distinct chars in it. Cosine and Jaccard are merge loops over
+ * these, and give the same results as commons-text's CosineDistance and
+ * JaccardSimilarity do on the texts:
+ *
+ * Terms are runs of [a-zA-Z0-9_], which is what RegexTokenizer's \w+ matches.
+ *
+ * Jaccard is the number of distinct chars in both texts over the number in either,
+ * rounded to two places. The rounding is commons-text 1.2's: JaccardSimilarity.apply,
+ * which the analyzer used to call, rounds what calculateJaccardSimilarity returns.
+ * BagOfWordsTest checks both scores against commons-text bit for bit.
+ */
+final class BagOfWords {
+	private static final Logger logger = LogManager.getLogger( BagOfWords.class );
+
+	private final int[] termIDs;
+	private final float[] termCounts;
+	private final double sumOfSquares;
+	private final int[] chars;
+	private final int length;
+
+	private BagOfWords( final int[] termIDs, final float[] termCounts, final int[] chars, final int length ) {
+		this.termIDs = termIDs;
+		this.termCounts = termCounts;
+		this.chars = chars;
+		this.length = length;
+
+		double temp = 0;
+		for ( final float count : termCounts ) {
+			temp += Math.pow( count, 2 );
+		}
+		this.sumOfSquares = temp;
+	}
+
+	static BagOfWords make( final String text, final TermDictionary dictionary ) {
+		final List<String> tokens = tokenize( text );
+
+		final int[] occurrences = new int[ tokens.size() ];
+		for ( int i = 0; i < occurrences.length; i++ ) {
+			occurrences[ i ] = dictionary.getID( tokens.get( i ) );
+		}
+		Arrays.sort( occurrences );
+
+			//	collapse runs of the same ID into ID + count
+		int numTerms = 0;
+		for ( int i = 0; i < occurrences.length; i++ ) {
+			if ( i == 0 || occurrences[ i ] != occurrences[ i - 1 ] ) {
+				numTerms++;
+			}
+		}
+
+		final int[] termIDs = new int[ numTerms ];
+		final float[] termCounts = new float[ numTerms ];
+		int which = -1;
+		for ( int i = 0; i < occurrences.length; i++ ) {
+			if ( i == 0 || occurrences[ i ] != occurrences[ i - 1 ] ) {
+				which++;
+				termIDs[ which ] = occurrences[ i ];
+			}
+			termCounts[ which ]++;
+		}
+
+		return new BagOfWords( termIDs, termCounts, distinctChars( text ), text.length() );
+	}
+
+	static List<String> tokenize( final String text ) {
+		final List<String> ret = new ArrayList<String>();
+		final int len = text.length();
+
+		int start = -1;
+		for ( int i = 0; i <= len; i++ ) {
+			final boolean bWordChar = i < len && isWordChar( text.charAt( i ) );
+			if ( bWordChar && start < 0 ) {
+				start = i;
+			}
+			else if ( !bWordChar && start >= 0 ) {
+				ret.add( text.substring( start, i ) );
+				start = -1;
+			}
+		}
+
+		return ret;
+	}
+
+	double cosineDistance( final BagOfWords other ) {
+		final int[] otherIDs = other.termIDs;
+		final float[] otherCounts = other.termCounts;
+
+		double dotProduct = 0;
+		int i = 0, j = 0;
+		while ( i < termIDs.length && j < otherIDs.length ) {
+			if ( termIDs[ i ] < otherIDs[ j ] ) {
+				i++;
+			}
+			else if ( termIDs[ i ] > otherIDs[ j ] ) {
+				j++;
+			}
+			else {
+				dotProduct += (double) termCounts[ i ] * otherCounts[ j ];
+				i++;
+				j++;
+			}
+		}
+
+		double similarity = 0;
+		if ( sumOfSquares > 0 && other.sumOfSquares > 0 ) {
+			similarity = dotProduct / ( Math.sqrt( sumOfSquares ) * Math.sqrt( other.sumOfSquares ) );
+		}
+
+		return 1.0 - similarity;
+	}
+
+	double jaccardSimilarity( final BagOfWords other ) {
+		if ( length == 0 || other.length == 0 ) {
+			return 0;
+		}
+
+		final int[] otherChars = other.chars;
+
+		int numIntersection = 0;
+		int i = 0, j = 0;
+		while ( i < chars.length && j < otherChars.length ) {
+			if ( chars[ i ] < otherChars[ j ] ) {
+				i++;
+			}
+			else if ( chars[ i ] > otherChars[ j ] ) {
+				j++;
+			}
+			else {
+				numIntersection++;
+				i++;
+				j++;
+			}
+		}
+
+		final int numUnion = chars.length + otherChars.length - numIntersection;
+
+		return Math.round( ( (double) numIntersection / (double) numUnion ) * 100.0d ) / 100.0d;
+	}
+
+	int getNumTerms() {
+		return termIDs.length;
+	}
+
+	protected static int[] distinctChars( final String text ) {
+		final int[] temp = new int[ text.length() ];
+		for ( int i = 0; i < temp.length; i++ ) {
+			temp[ i ] = text.charAt( i );
+		}
+		Arrays.sort( temp );
+
+		int numDistinct = 0;
+		for ( int i = 0; i < temp.length; i++ ) {
+			if ( i == 0 || temp[ i ] != temp[ i - 1 ] ) {
+				temp[ numDistinct++ ] = temp[ i ];
+			}
+		}
+
+		return Arrays.copyOf( temp, numDistinct );
+	}
+
+	protected static boolean isWordChar( final char ch ) {
+		return ( ch >= 'a' && ch <= 'z' ) || ( ch >= 'A' && ch <= 'Z' ) || ( ch >= '0' && ch <= '9' ) || ch == '_';
+	}
+
+	@Override
+	public String toString() {
+		return new ToStringBuilder( this )
+		.append( "termIDs", termIDs )
+		.append( "termCounts", termCounts )
+		.append( "chars", chars.length )
+		.toString();
+	}
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2022 Chris Kelly
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.tolstoy.censorship.twitter.checker.app.analyzer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.text.similarity.FuzzyScore;
+import org.apache.commons.text.similarity.JaroWinklerDistance;
+import org.apache.commons.text.similarity.LevenshteinDistance;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.tolstoy.censorship.twitter.checker.api.analyzer.AnalyzedTweetFeature;
+import com.tolstoy.censorship.twitter.checker.api.analyzer.IAnalyzedTweet;
+import com.tolstoy.censorship.twitter.checker.api.analyzer.IReferenceTweetProfile;
+
+/**
+ * The reference tweet's text is turned into a BagOfWords once, with a TermDictionary
+ * that the replies' bags of words are then made with, so cosine and Jaccard are
+ * merge loops over sorted arrays instead of commons-text re-tokenizing both texts
+ * into maps for every reply.
+ *
+ * Levenshtein distance is bounded: commons-text gives up once the distance is known
+ * to be over the maximum, which makes it O(n * max) instead of O(n * m).
+ */
+class ReferenceTweetProfile implements IReferenceTweetProfile {
+	private static final Logger logger = LogManager.getLogger( ReferenceTweetProfile.class );
+
+		//	these hold no state between calls, so they can be shared by report items made in parallel
+	private static final FuzzyScore comparerFuzzyScore = new FuzzyScore( Locale.ENGLISH );
+	private static final JaroWinklerDistance comparerJaroWinklerDistance = new JaroWinklerDistance();
+
+	private final IAnalyzedTweet referenceTweet;
+	private final List<String> sortedWords;
+	private final String text;
+	private final TermDictionary dictionary;
+	private final BagOfWords bagOfWords;
+	private final Set<AnalyzedTweetFeature> requiredFeatures;
+	private final int maxLevenshteinDistance;
+	private final LevenshteinDistance comparerLevenshteinDistance;
+
+	ReferenceTweetProfile( final IAnalyzedTweet referenceTweet, final Set<AnalyzedTweetFeature> requiredFeatures, final int maxLevenshteinDistance ) {
+		this.referenceTweet = referenceTweet;
+		this.requiredFeatures = requiredFeatures.isEmpty() ? EnumSet.noneOf( AnalyzedTweetFeature.class ) : EnumSet.copyOf( requiredFeatures );
+		this.maxLevenshteinDistance = maxLevenshteinDistance;
+		this.comparerLevenshteinDistance = maxLevenshteinDistance > 0 ? new LevenshteinDistance( maxLevenshteinDistance ) : LevenshteinDistance.getDefaultInstance();
+
+		final List<String> temp = new ArrayList<String>( referenceTweet.getWordsWithoutStopWordsLowercase() );
+		Collections.sort( temp );
+
+		this.sortedWords = Collections.unmodifiableList( temp );
+		this.text = StringUtils.join( temp, " " );
+
+		this.dictionary = new TermDictionary();
+		this.bagOfWords = BagOfWords.make( text, dictionary );
+	}
+
+	/**
+	 * @return the words sorted and joined with spaces, which is the form the similarity methods take.
+	 */
+	static String makeText( final List<String> words ) {
+		final List<String> temp = new ArrayList<String>( words );
+		Collections.sort( temp );
+
+		return StringUtils.join( temp, " " );
+	}
+
+	/**
+	 * @param otherText text in the form makeText returns.
+	 * @return a bag of words that can be compared with this profile.
+	 */
+	BagOfWords makeBagOfWords( final String otherText ) {
+		return BagOfWords.make( otherText, dictionary );
+	}
+
+	double getCosineDistance( final BagOfWords other ) {
+		return bagOfWords.cosineDistance( other );
+	}
+
+	double getJaccardSimilarity( final BagOfWords other ) {
+		return bagOfWords.jaccardSimilarity( other );
+	}
+
+	@Override
+	public IAnalyzedTweet getReferenceTweet() {
+		return referenceTweet;
+	}
+
+	@Override
+	public boolean isRequired( final AnalyzedTweetFeature feature ) {
+		return requiredFeatures.contains( feature );
+	}
+
+	@Override
+	public int getMaxLevenshteinDistance() {
+		return maxLevenshteinDistance > 0 ? maxLevenshteinDistance : Integer.MAX_VALUE - 1;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return sortedWords.isEmpty();
+	}
+
+	@Override
+	public List<String> getSortedWords() {
+		return sortedWords;
+	}
+
+	@Override
+	public String getText() {
+		return text;
+	}
+
+	@Override
+	public double getCosineDistance( final String otherText ) {
+		if ( StringUtils.isBlank( text ) || StringUtils.isBlank( otherText ) ) {
+			throw new IllegalArgumentException( "Invalid text" );
+		}
+
+		return getCosineDistance( makeBagOfWords( otherText ) );
+	}
+
+	@Override
+	public double getJaccardSimilarity( final String otherText ) {
+		return getJaccardSimilarity( makeBagOfWords( otherText ) );
+	}
+
+	@Override
+	public double getJaroWinklerDistance( final String otherText ) {
+		return comparerJaroWinklerDistance.apply( text, otherText );
+	}
+
+	@Override
+	public int getFuzzyScore( final String otherText ) {
+		return comparerFuzzyScore.fuzzyScore( text, otherText );
+	}
+
+	@Override
+	public int getLevenshteinDistance( final String otherText ) {
+		final int distance = comparerLevenshteinDistance.apply( text, otherText );
+
+		return distance >= 0 ? distance : getMaxLevenshteinDistance() + 1;
+	}
+
+	@Override
+	public String toString() {
+		return new ToStringBuilder( this )
+		.append( "text", text )
+		.append( "dictionary", dictionary )
+		.append( "requiredFeatures", requiredFeatures )
+		.append( "maxLevenshteinDistance", maxLevenshteinDistance )
+		.toString();
+	}
+}
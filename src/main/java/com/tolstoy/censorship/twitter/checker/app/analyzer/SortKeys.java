@@ -0,0 +1,96 @@
+/*
+ * Copyright 2022 Chris Kelly
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.tolstoy.censorship.twitter.checker.app.analyzer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sorts a list by keys that were read once into an array, instead of with a Comparator
+ * that parses the same attributes again on every comparison.
+ *
+ * Items with the same key keep their order in the list, as with Collections.sort.
+ */
+final class SortKeys {
+	private SortKeys() {
+	}
+
+	/**
+	 * @return the indexes of keys, in order of their keys.
+	 */
+	static int[] sortIndexes( final long[] keys, final boolean bDescending ) {
+		final int size = keys.length;
+		int[] from = new int[ size ];
+		int[] to = new int[ size ];
+
+		for ( int i = 0; i < size; i++ ) {
+			from[ i ] = i;
+		}
+
+			//	bottom-up merge sort, which is stable
+		for ( int width = 1; width < size; width *= 2 ) {
+			for ( int left = 0; left < size; left += 2 * width ) {
+				final int mid = Math.min( left + width, size );
+				final int right = Math.min( left + 2 * width, size );
+				int i = left, j = mid, k = left;
+
+				while ( i < mid && j < right ) {
+					final long keyI = keys[ from[ i ] ];
+					final long keyJ = keys[ from[ j ] ];
+					if ( bDescending ? keyJ > keyI : keyJ < keyI ) {
+						to[ k++ ] = from[ j++ ];
+					}
+					else {
+						to[ k++ ] = from[ i++ ];
+					}
+				}
+
+				while ( i < mid ) {
+					to[ k++ ] = from[ i++ ];
+				}
+				while ( j < right ) {
+					to[ k++ ] = from[ j++ ];
+				}
+			}
+
+			final int[] temp = from;
+			from = to;
+			to = temp;
+		}
+
+		return from;
+	}
+
+	/**
+	 * @return a new list of the items, in the order from sortIndexes.
+	 */
+	static <T> List<T> inOrder( final List<T> items, final int[] sortedIndexes ) {
+		final List<T> ret = new ArrayList<T>( sortedIndexes.length );
+		for ( final int index : sortedIndexes ) {
+			ret.add( items.get( index ) );
+		}
+
+		return ret;
+	}
+
+	/**
+	 * @return a key that sorts the same as Double.compare sorts the values.
+	 */
+	static long doubleKey( final double value ) {
+		final long bits = Double.doubleToLongBits( value );
+
+			//	negative doubles sort backwards by their bits, so flip all but the sign bit
+		return bits ^ ( ( bits >> 63 ) & Long.MAX_VALUE );
+	}
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2022 Chris Kelly
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.tolstoy.censorship.twitter.checker.app.analyzer;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Gives each distinct term an int ID, so that bags of words can be compared as sorted
+ * int arrays. IDs are only meaningful within one dictionary.
+ *
+ * Replies can be analyzed on several threads at once, so IDs are handed out atomically.
+ */
+class TermDictionary {
+	private static final Logger logger = LogManager.getLogger( TermDictionary.class );
+
+	private final Map<String,Integer> termIDs;
+	private final AtomicInteger nextID;
+
+	TermDictionary() {
+		this.termIDs = new ConcurrentHashMap<String,Integer>();
+		this.nextID = new AtomicInteger();
+	}
+
+	int getID( final String term ) {
+		final Integer ID = termIDs.get( term );
+		if ( ID != null ) {
+			return ID.intValue();
+		}
+
+		return termIDs.computeIfAbsent( term, key -> nextID.getAndIncrement() ).intValue();
+	}
+
+	int size() {
+		return termIDs.size();
+	}
+
+	@Override
+	public String toString() {
+		return new ToStringBuilder( this )
+		.append( "size", termIDs.size() )
+		.toString();
+	}
+}
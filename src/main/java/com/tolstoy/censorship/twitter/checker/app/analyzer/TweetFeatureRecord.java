@@ -0,0 +1,294 @@
+/*
+ * Copyright 2022 Chris Kelly
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.tolstoy.censorship.twitter.checker.app.analyzer;
+
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.tolstoy.basic.api.tweet.ITweet;
+import com.tolstoy.basic.app.utils.Utils;
+import com.tolstoy.censorship.twitter.checker.api.analyzer.IAnalyzedTweet;
+
+/**
+ * What a ranking script's rankTweets function gets for each tweet: the features of an
+ * IAnalyzedTweet, read once into fields so that the script reading them doesn't call back
+ * into the analyzed tweet each time. It has the same getters as IAnalyzedTweet for the
+ * tweet, its text, words and features, plus getReplyCount etc., so that a rankTweet
+ * function can be shared by both. The word lists are the analyzed tweet's own, not copies.
+ *
+ * It doesn't have the getters for what's set after ranking (getRankingOrder,
+ * getRankingBreakdown, getSummary); use getAnalyzedTweet() for those.
+ *
+ * The script sets the ranking here, and TweetRankerJavascript copies it to the analyzed
+ * tweet afterwards. This has to be public for the script to see it.
+ */
+public final class TweetFeatureRecord {
+	private static final Logger logger = LogManager.getLogger( TweetFeatureRecord.class );
+
+	private final IAnalyzedTweet analyzedTweet;
+	private final Map<String,String> tweetMap;
+	private final String textContentRaw;
+	private final String textContentPlain;
+	private final List<String> sentences;
+	private final List<String> words;
+	private final List<String> wordsWithoutStopWordsLowercase;
+	private final List<String> urls;
+	private final List<String> hashtags;
+	private final List<String> mentions;
+	private final int originalOrder;
+	private final int dateOrder;
+	private final int numWords;
+	private final int numSentences;
+	private final boolean hasPic;
+	private final boolean hasCard;
+	private final boolean mostlyCaps;
+	private final double readabilityFlesch;
+	private final double readabilityFog;
+	private final double readabilityKincaid;
+	private final double readabilityAri;
+	private final double readabilityColemanLiau;
+	private final double readabilityLix;
+	private final double readabilitySmog;
+	private final double toReferenceTweetCosineDistance;
+	private final double toReferenceTweetJaccardSimilarity;
+	private final double toReferenceTweetJaroWinklerDistance;
+	private final int toReferenceTweetFuzzyScore;
+	private final int toReferenceTweetLevenshteinDistance;
+	private final int replyCount;
+	private final int retweetCount;
+	private final int favoriteCount;
+	private double ranking;
+	private String rankingFunction;
+
+	TweetFeatureRecord( final IAnalyzedTweet analyzedTweet, final String rankingFunction ) {
+		this.analyzedTweet = analyzedTweet;
+		this.tweetMap = analyzedTweet.getTweetMap();
+		this.textContentRaw = analyzedTweet.getTextContentRaw();
+		this.textContentPlain = analyzedTweet.getTextContentPlain();
+		this.sentences = analyzedTweet.getSentences();
+		this.words = analyzedTweet.getWords();
+		this.wordsWithoutStopWordsLowercase = analyzedTweet.getWordsWithoutStopWordsLowercase();
+		this.urls = analyzedTweet.getUrls();
+		this.hashtags = analyzedTweet.getHashtags();
+		this.mentions = analyzedTweet.getMentions();
+		this.originalOrder = analyzedTweet.getOriginalOrder();
+		this.dateOrder = analyzedTweet.getDateOrder();
+		this.numWords = analyzedTweet.getNumWords();
+		this.numSentences = analyzedTweet.getNumSentences();
+		this.hasPic = analyzedTweet.getHasPic();
+		this.hasCard = analyzedTweet.getHasCard();
+		this.mostlyCaps = analyzedTweet.getMostlyCaps();
+		this.readabilityFlesch = analyzedTweet.getReadabilityFlesch();
+		this.readabilityFog = analyzedTweet.getReadabilityFog();
+		this.readabilityKincaid = analyzedTweet.getReadabilityKincaid();
+		this.readabilityAri = analyzedTweet.getReadabilityAri();
+		this.readabilityColemanLiau = analyzedTweet.getReadabilityColemanLiau();
+		this.readabilityLix = analyzedTweet.getReadabilityLix();
+		this.readabilitySmog = analyzedTweet.getReadabilitySmog();
+		this.toReferenceTweetCosineDistance = analyzedTweet.getToReferenceTweetCosineDistance();
+		this.toReferenceTweetJaccardSimilarity = analyzedTweet.getToReferenceTweetJaccardSimilarity();
+		this.toReferenceTweetJaroWinklerDistance = analyzedTweet.getToReferenceTweetJaroWinklerDistance();
+		this.toReferenceTweetFuzzyScore = analyzedTweet.getToReferenceTweetFuzzyScore();
+		this.toReferenceTweetLevenshteinDistance = analyzedTweet.getToReferenceTweetLevenshteinDistance();
+
+		final ITweet tweet = analyzedTweet.getTweet();
+		this.replyCount = Utils.parseIntDefault( tweet.getAttribute( "replycount" ) );
+		this.retweetCount = Utils.parseIntDefault( tweet.getAttribute( "retweetcount" ) );
+		this.favoriteCount = Utils.parseIntDefault( tweet.getAttribute( "favoritecount" ) );
+
+		this.ranking = 0;
+		this.rankingFunction = rankingFunction;
+	}
+
+	/** Copies what the script set back to the analyzed tweet. */
+	void apply() {
+		analyzedTweet.setRanking( ranking );
+		analyzedTweet.setRankingFunction( rankingFunction );
+	}
+
+	public IAnalyzedTweet getAnalyzedTweet() {
+		return analyzedTweet;
+	}
+
+	public ITweet getTweet() {
+		return analyzedTweet.getTweet();
+	}
+
+	public Map<String,String> getTweetMap() {
+		return tweetMap;
+	}
+
+	public String getTextContentRaw() {
+		return textContentRaw;
+	}
+
+	public String getTextContentPlain() {
+		return textContentPlain;
+	}
+
+	public List<String> getSentences() {
+		return sentences;
+	}
+
+	public List<String> getWords() {
+		return words;
+	}
+
+	public List<String> getWordsWithoutStopWordsLowercase() {
+		return wordsWithoutStopWordsLowercase;
+	}
+
+	public List<String> getUrls() {
+		return urls;
+	}
+
+	public List<String> getHashtags() {
+		return hashtags;
+	}
+
+	public List<String> getMentions() {
+		return mentions;
+	}
+
+	public int getOriginalOrder() {
+		return originalOrder;
+	}
+
+	public int getDateOrder() {
+		return dateOrder;
+	}
+
+	public int getNumWords() {
+		return numWords;
+	}
+
+	public int getNumSentences() {
+		return numSentences;
+	}
+
+	public boolean getHasPic() {
+		return hasPic;
+	}
+
+	public boolean getHasCard() {
+		return hasCard;
+	}
+
+	public boolean getMostlyCaps() {
+		return mostlyCaps;
+	}
+
+	public double getReadabilityFlesch() {
+		return readabilityFlesch;
+	}
+
+	public double getReadabilityFog() {
+		return readabilityFog;
+	}
+
+	public double getReadabilityKincaid() {
+		return readabilityKincaid;
+	}
+
+	public double getReadabilityAri() {
+		return readabilityAri;
+	}
+
+	public double getReadabilityColemanLiau() {
+		return readabilityColemanLiau;
+	}
+
+	public double getReadabilityLix() {
+		return readabilityLix;
+	}
+
+	public double getReadabilitySmog() {
+		return readabilitySmog;
+	}
+
+	public double getToReferenceTweetCosineDistance() {
+		return toReferenceTweetCosineDistance;
+	}
+
+	public double getToReferenceTweetJaccardSimilarity() {
+		return toReferenceTweetJaccardSimilarity;
+	}
+
+	public double getToReferenceTweetJaroWinklerDistance() {
+		return toReferenceTweetJaroWinklerDistance;
+	}
+
+	public int getToReferenceTweetFuzzyScore() {
+		return toReferenceTweetFuzzyScore;
+	}
+
+	public int getToReferenceTweetLevenshteinDistance() {
+		return toReferenceTweetLevenshteinDistance;
+	}
+
+	public int getReplyCount() {
+		return replyCount;
+	}
+
+	public int getRetweetCount() {
+		return retweetCount;
+	}
+
+	public int getFavoriteCount() {
+		return favoriteCount;
+	}
+
+	public double getRanking() {
+		return ranking;
+	}
+
+	public void setRanking( final double ranking ) {
+		this.ranking = ranking;
+	}
+
+	public String getRankingFunction() {
+		return rankingFunction;
+	}
+
+	public void setRankingFunction( final String rankingFunction ) {
+		this.rankingFunction = rankingFunction;
+	}
+
+	/** @return the analyzed tweet's attribute, including any the script has set. */
+	public String getAttribute( final String key ) {
+		return analyzedTweet.getAttribute( key );
+	}
+
+	public Map<String,String> getAttributes() {
+		return analyzedTweet.getAttributes();
+	}
+
+	/** Sets a debugging attribute on the analyzed tweet, as IAnalyzedTweet.setAttribute does. */
+	public void setAttribute( final String key, final String value ) {
+		analyzedTweet.setAttribute( key, value );
+	}
+
+	@Override
+	public String toString() {
+		return new ToStringBuilder( this )
+		.append( "originalOrder", originalOrder )
+		.append( "ranking", ranking )
+		.append( "rankingFunction", rankingFunction )
+		.toString();
+	}
+}
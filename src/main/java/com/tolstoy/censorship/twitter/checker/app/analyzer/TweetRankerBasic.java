@@ -13,16 +13,22 @@
  */
 package com.tolstoy.censorship.twitter.checker.app.analyzer;
 
-import java.math.RoundingMode;
 import java.text.DecimalFormat;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import com.tolstoy.basic.app.utils.Utils;
+import com.tolstoy.censorship.twitter.checker.api.analyzer.AnalyzedTweetFeature;
 import com.tolstoy.censorship.twitter.checker.api.analyzer.IAnalyzedTweet;
 import com.tolstoy.censorship.twitter.checker.api.analyzer.ITweetRanker;
+import com.tolstoy.censorship.twitter.checker.api.analyzer.RankingBreakdown;
+import com.tolstoy.censorship.twitter.checker.api.analyzer.RankingComponent;
+import com.tolstoy.censorship.twitter.checker.api.analyzer.TweetFeatureMatrix;
+import com.tolstoy.censorship.twitter.checker.api.analyzer.TweetFeatureMatrix.Column;
 
 class TweetRankerBasic implements ITweetRanker {
 	private static final Logger logger = LogManager.getLogger( TweetRankerBasic.class );
@@ -54,14 +60,28 @@ class TweetRankerBasic implements ITweetRanker {
 	private static final double BOOST_FAVORITES = 2.0d;
 	private static final double BOOST_DATE_RATIO = 2.0d;
 
-	private static final DecimalFormat decimalFormat;
+	private static final Set<AnalyzedTweetFeature> REQUIRED_FEATURES = EnumSet.of( AnalyzedTweetFeature.COSINE_DISTANCE,
+																					AnalyzedTweetFeature.JACCARD_SIMILARITY,
+																					AnalyzedTweetFeature.JARO_WINKLER_DISTANCE,
+																					AnalyzedTweetFeature.FUZZY_SCORE );
 
-	static {
-		decimalFormat = new DecimalFormat( "#.##" );
-		decimalFormat.setRoundingMode( RoundingMode.CEILING );
-	}
+	private static final Set<RankingComponent> PENALTIES = EnumSet.of( RankingComponent.FEW_WORDS,
+																		RankingComponent.FEW_WORDS_AND_PIC,
+																		RankingComponent.MOSTLY_CAPS );
+
+	private final boolean bRankAttributes;
 
 	public TweetRankerBasic() {
+		this( false );
+	}
+
+	/**
+	 * @param bRankAttributes if true, also copy each tweet's breakdown to "rank_" attributes
+	 * for debugging, formatted the way they were before RankingBreakdown: penalties as
+	 * plain doubles (e.g. "-5.0") and everything else with RankingBreakdown.makeDisplayFormat.
+	 */
+	public TweetRankerBasic( final boolean bRankAttributes ) {
+		this.bRankAttributes = bRankAttributes;
 	}
 
 	@Override
@@ -69,121 +89,177 @@ class TweetRankerBasic implements ITweetRanker {
 		return RANKING_FUNCTION_NAME;
 	}
 
+	@Override
+	public Set<AnalyzedTweetFeature> getRequiredFeatures() {
+		return REQUIRED_FEATURES;
+	}
+
+	@Override
+	public boolean canRankConcurrently() {
+		return true;
+	}
+
 	@Override
 	public void rankTweets( final List<IAnalyzedTweet> analyzedTweets, final IAnalyzedTweet referenceAnalyzedTweet ) {
-		final int count = analyzedTweets.size();
-		for ( final IAnalyzedTweet analyzedTweet : analyzedTweets ) {
-			rankTweet( analyzedTweet, count, referenceAnalyzedTweet );
-		}
+		rankTweets( new TweetFeatureMatrix( analyzedTweets ), referenceAnalyzedTweet );
 	}
 
 	@Override
 	public void rankTweet( final IAnalyzedTweet analyzedTweet, final int count, final IAnalyzedTweet referenceAnalyzedTweet ) {
-		double ranking = 0.0d, temp = 0.0d;
+		rankTweets( new TweetFeatureMatrix( Collections.singletonList( analyzedTweet ), count ), referenceAnalyzedTweet );
+	}
 
-		temp = analyzedTweet.getToReferenceTweetFuzzyScore();
-		if ( temp != 0 ) {
-			temp = temp / FUZZY_DIVISOR;
-			if ( temp > FUZZY_LIMIT ) {
-				temp = temp * BOOST_FUZZY_OVER_LIMIT;
+	@Override
+	public void rankTweets( final TweetFeatureMatrix matrix, final IAnalyzedTweet referenceAnalyzedTweet ) {
+		final int size = matrix.size();
+		final int count = matrix.getCount();
+		final double[] rankings = matrix.getRankings();
+		final double[] fuzzyScores = matrix.getColumn( Column.FUZZY_SCORE );
+		final double[] numWords = matrix.getColumn( Column.NUM_WORDS );
+		final double[] hasPics = matrix.getColumn( Column.HAS_PIC );
+		final double[] hasCards = matrix.getColumn( Column.HAS_CARD );
+		final double[] mostlyCaps = matrix.getColumn( Column.MOSTLY_CAPS );
+		final double[] readabilityFlesch = matrix.getColumn( Column.READABILITY_FLESCH );
+		final double[] readabilityFog = matrix.getColumn( Column.READABILITY_FOG );
+		final double[] readabilityKincaid = matrix.getColumn( Column.READABILITY_KINCAID );
+		final double[] readabilityAri = matrix.getColumn( Column.READABILITY_ARI );
+		final double[] readabilityColemanLiau = matrix.getColumn( Column.READABILITY_COLEMAN_LIAU );
+		final double[] readabilityLix = matrix.getColumn( Column.READABILITY_LIX );
+		final double[] readabilitySmog = matrix.getColumn( Column.READABILITY_SMOG );
+		final double[] cosineDistances = matrix.getColumn( Column.COSINE_DISTANCE );
+		final double[] jaccardSimilarities = matrix.getColumn( Column.JACCARD_SIMILARITY );
+		final double[] jaroWinklerDistances = matrix.getColumn( Column.JARO_WINKLER_DISTANCE );
+		final double[] numSentences = matrix.getColumn( Column.NUM_SENTENCES );
+		final double[] replyCounts = matrix.getColumn( Column.REPLY_COUNT );
+		final double[] retweetCounts = matrix.getColumn( Column.RETWEET_COUNT );
+		final double[] favoriteCounts = matrix.getColumn( Column.FAVORITE_COUNT );
+		final double[] dateOrders = matrix.getColumn( Column.DATE_ORDER );
+
+		for ( int row = 0; row < size; row++ ) {
+			final RankingBreakdown breakdown = matrix.getRankingBreakdown( row );
+			double ranking = 0.0d, temp = 0.0d;
+
+			breakdown.clear();
+
+			temp = fuzzyScores[ row ];
+			if ( temp != 0 ) {
+				temp = temp / FUZZY_DIVISOR;
+				if ( temp > FUZZY_LIMIT ) {
+					temp = temp * BOOST_FUZZY_OVER_LIMIT;
+				}
+
+				breakdown.set( RankingComponent.FUZZY, temp );
+				ranking += temp;
 			}
 
-			analyzedTweet.setAttribute( "rank_fuzzy", decimalFormat.format( temp ) );
-			ranking += temp;
-		}
+			if ( numWords[ row ] <= FEW_WORDS_LIMIT ) {
+				breakdown.set( RankingComponent.FEW_WORDS, FEW_WORDS_PENALTY );
+				ranking += FEW_WORDS_PENALTY;
+				if ( hasPics[ row ] != 0 || hasCards[ row ] != 0 ) {
+					breakdown.set( RankingComponent.FEW_WORDS_AND_PIC, FEW_WORDS_AND_PIC_PENALTY );
+					ranking += FEW_WORDS_AND_PIC_PENALTY;
+				}
+			}
 
-		if ( analyzedTweet.getNumWords() <= FEW_WORDS_LIMIT ) {
-			analyzedTweet.setAttribute( "rank_fww", "" + FEW_WORDS_PENALTY );
-			ranking += FEW_WORDS_PENALTY;
-			if ( analyzedTweet.getHasPic() || analyzedTweet.getHasCard() ) {
-				analyzedTweet.setAttribute( "rank_fwwp", "" + FEW_WORDS_AND_PIC_PENALTY );
-				ranking += FEW_WORDS_AND_PIC_PENALTY;
+			if ( mostlyCaps[ row ] != 0 ) {
+				breakdown.set( RankingComponent.MOSTLY_CAPS, MOSTLY_CAPS_PENALTY );
+				ranking += MOSTLY_CAPS_PENALTY;
 			}
-		}
 
-		if ( analyzedTweet.getMostlyCaps() ) {
-			analyzedTweet.setAttribute( "rank_caps", "" + MOSTLY_CAPS_PENALTY );
-			ranking += MOSTLY_CAPS_PENALTY;
-		}
+			temp = 200.0d - Math.min( 200.0d, readabilityFlesch[ row ] );
+			temp = temp / FLESCH_DIVISOR;
+			breakdown.set( RankingComponent.FLESCH, temp );
+			ranking += temp;
+
+			temp = readabilityFog[ row ] / FOG_DIVISOR;
+			breakdown.set( RankingComponent.FOG, temp );
+			ranking += temp;
 
-		temp = 200.0d - Math.min( 200.0d, analyzedTweet.getReadabilityFlesch() );
-		temp = temp / FLESCH_DIVISOR;
-		analyzedTweet.setAttribute( "rank_flesch", decimalFormat.format( temp ) );
-		ranking += temp;
+			temp = readabilityKincaid[ row ] / KINCAID_DIVISOR;
+			breakdown.set( RankingComponent.KINCAID, temp );
+			ranking += temp;
 
-		temp = analyzedTweet.getReadabilityFog() / FOG_DIVISOR;
-		analyzedTweet.setAttribute( "rank_fog", decimalFormat.format( temp ) );
-		ranking += temp;
+			temp = readabilityAri[ row ] / ARI_DIVISOR;
+			breakdown.set( RankingComponent.ARI, temp );
+			ranking += temp;
 
-		temp = analyzedTweet.getReadabilityKincaid() / KINCAID_DIVISOR;
-		analyzedTweet.setAttribute( "rank_kincaid", decimalFormat.format( temp ) );
-		ranking += temp;
+			temp = readabilityColemanLiau[ row ] / COLEMAN_LIAU_DIVISOR;
+			breakdown.set( RankingComponent.COLEMAN_LIAU, temp );
+			ranking += temp;
 
-		temp = analyzedTweet.getReadabilityAri() / ARI_DIVISOR;
-		analyzedTweet.setAttribute( "rank_ari", decimalFormat.format( temp ) );
-		ranking += temp;
+			temp = readabilityLix[ row ] / LIX_DIVISOR;
+			breakdown.set( RankingComponent.LIX, temp );
+			ranking += temp;
 
-		temp = analyzedTweet.getReadabilityColemanLiau() / COLEMAN_LIAU_DIVISOR;
-		analyzedTweet.setAttribute( "rank_coleman", decimalFormat.format( temp ) );
-		ranking += temp;
+			temp = readabilitySmog[ row ] / SMOG_DIVISOR;
+			breakdown.set( RankingComponent.SMOG, temp );
+			ranking += temp;
 
-		temp = analyzedTweet.getReadabilityLix() / LIX_DIVISOR;
-		analyzedTweet.setAttribute( "rank_lix", decimalFormat.format( temp ) );
-		ranking += temp;
+			if ( cosineDistances[ row ] > COSINE_MIN_DISTANCE ) {
+				temp = 1.0d - cosineDistances[ row ];
+				temp = COSINE_MULTIPLIER * temp;
+				breakdown.set( RankingComponent.COSINE, temp );
+				ranking += temp;
+			}
 
-		temp = analyzedTweet.getReadabilitySmog() / SMOG_DIVISOR;
-		analyzedTweet.setAttribute( "rank_smog", decimalFormat.format( temp ) );
-		ranking += temp;
+			if ( jaccardSimilarities[ row ] > JACCARD_MIN_DISTANCE ) {
+				temp = jaccardSimilarities[ row ] / JACCARD_DIVISOR;
+				breakdown.set( RankingComponent.JACCARD, temp );
+				ranking += temp;
+			}
 
-		if ( analyzedTweet.getToReferenceTweetCosineDistance() > COSINE_MIN_DISTANCE ) {
-			temp = 1.0d - analyzedTweet.getToReferenceTweetCosineDistance();
-			temp = COSINE_MULTIPLIER * temp;
-			analyzedTweet.setAttribute( "rank_cos", decimalFormat.format( temp ) );
-			ranking += temp;
-		}
+			if ( jaroWinklerDistances[ row ] > JARO_WINKLER_MIN_DISTANCE ) {
+				temp = jaroWinklerDistances[ row ] / JARO_WINKLER_DIVISOR;
+				breakdown.set( RankingComponent.JARO_WINKLER, temp );
+				ranking += temp;
+			}
 
-		if ( analyzedTweet.getToReferenceTweetJaccardSimilarity() > JACCARD_MIN_DISTANCE ) {
-			temp = analyzedTweet.getToReferenceTweetJaccardSimilarity() / JACCARD_DIVISOR;
-			analyzedTweet.setAttribute( "rank_jac", decimalFormat.format( temp ) );
+			temp = numSentences[ row ];
+			breakdown.set( RankingComponent.NUM_SENTENCES, temp );
 			ranking += temp;
-		}
 
-		if ( analyzedTweet.getToReferenceTweetJaroWinklerDistance() > JARO_WINKLER_MIN_DISTANCE ) {
-			temp = analyzedTweet.getToReferenceTweetJaroWinklerDistance() / JARO_WINKLER_DIVISOR;
-			analyzedTweet.setAttribute( "rank_jrw", decimalFormat.format( temp ) );
+			temp = numWords[ row ];
+			temp = temp / NUM_WORDS_DIVISOR;
+			temp = Math.floor( temp );
+			breakdown.set( RankingComponent.NUM_WORDS, temp );
 			ranking += temp;
-		}
-
-		temp = analyzedTweet.getNumSentences();
-		analyzedTweet.setAttribute( "rank_numsent", decimalFormat.format( temp ) );
-		ranking += temp;
 
-		temp = analyzedTweet.getNumWords();
-		temp = temp / NUM_WORDS_DIVISOR;
-		temp = Math.floor( temp );
-		analyzedTweet.setAttribute( "rank_numword", decimalFormat.format( temp ) );
-		ranking += temp;
+			temp = ( BOOST_REPLIES * replyCounts[ row ] ) + ( BOOST_RETWEETS * retweetCounts[ row ] ) + ( BOOST_FAVORITES * favoriteCounts[ row ] );
 
-		final double numReplies = Utils.parseIntDefault( analyzedTweet.getTweet().getAttribute( "replycount" ) );
-		final double numRetweets = Utils.parseIntDefault( analyzedTweet.getTweet().getAttribute( "retweetcount" ) );
-		final double numFavorites = Utils.parseIntDefault( analyzedTweet.getTweet().getAttribute( "favoritecount" ) );
+			if ( temp > 0d ) {
+				temp = Math.log( temp );
+				breakdown.set( RankingComponent.POPULARITY, temp );
+				ranking += temp;
+			}
 
-		temp = ( BOOST_REPLIES * numReplies ) + ( BOOST_RETWEETS * numRetweets ) + ( BOOST_FAVORITES * numFavorites );
+			temp = dateOrders[ row ];
+			temp = ( ( count - temp + 1.0d ) / count );
+			temp = BOOST_DATE_RATIO * temp;
 
-		if ( temp > 0d ) {
-			temp = Math.log( temp );
-			analyzedTweet.setAttribute( "rank_pop", decimalFormat.format( temp ) );
+			breakdown.set( RankingComponent.TIME, temp );
 			ranking += temp;
+
+			rankings[ row ] = ranking;
+		}
+
+		matrix.writeRankings( getFunctionName() );
+
+		if ( bRankAttributes ) {
+			writeRankAttributes( matrix );
 		}
+	}
 
-		temp = analyzedTweet.getDateOrder();
-		temp = ( ( count - temp + 1.0d ) / count );
-		temp = BOOST_DATE_RATIO * temp;
+	protected void writeRankAttributes( final TweetFeatureMatrix matrix ) {
+		final DecimalFormat decimalFormat = RankingBreakdown.makeDisplayFormat();
 
-		analyzedTweet.setAttribute( "rank_time", decimalFormat.format( temp ) );
-		ranking += temp;
+		for ( int row = 0; row < matrix.size(); row++ ) {
+			final RankingBreakdown breakdown = matrix.getRankingBreakdown( row );
+			final IAnalyzedTweet analyzedTweet = matrix.getAnalyzedTweet( row );
 
-		analyzedTweet.setRanking( ranking );
-		analyzedTweet.setRankingFunction( getFunctionName() );
+			for ( final RankingComponent component : breakdown.getComponents() ) {
+				final double value = breakdown.get( component );
+				analyzedTweet.setAttribute( "rank_" + component.getKey(), PENALTIES.contains( component ) ? "" + value : decimalFormat.format( value ) );
+			}
+		}
 	}
 }
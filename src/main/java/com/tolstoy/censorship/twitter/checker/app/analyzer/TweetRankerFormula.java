@@ -0,0 +1,481 @@
+/*
+ * Copyright 2022 Chris Kelly
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.tolstoy.censorship.twitter.checker.app.analyzer;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.DoublePredicate;
+import java.util.function.DoubleUnaryOperator;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.tolstoy.basic.app.utils.Utils;
+import com.tolstoy.censorship.twitter.checker.api.analyzer.AnalyzedTweetFeature;
+import com.tolstoy.censorship.twitter.checker.api.analyzer.IAnalyzedTweet;
+import com.tolstoy.censorship.twitter.checker.api.analyzer.ITweetRanker;
+import com.tolstoy.censorship.twitter.checker.api.analyzer.RankingBreakdown;
+import com.tolstoy.censorship.twitter.checker.api.analyzer.RankingComponent;
+import com.tolstoy.censorship.twitter.checker.api.analyzer.TweetFeatureMatrix;
+import com.tolstoy.censorship.twitter.checker.api.analyzer.TweetFeatureMatrix.Column;
+import com.tolstoy.censorship.twitter.checker.api.installation.IAppDirectories;
+
+/**
+ * Ranks tweets with a formula read from a JSON file in the userscripts directory, so that
+ * the weights can be changed between runs without rebuilding. The file is read once and
+ * each term is turned into a chain of lambdas over doubles, so ranking is about as fast
+ * as TweetRankerBasic.
+ *
+ * The file is named "tweetformula_", followed by the name of the formula, followed by
+ * ".json". It has a list of terms, each of which adds to the ranking and sets one
+ * RankingComponent of the breakdown:
+ *
+ * <pre>
+ * { "component": "pop",
+ *   "input": { "replyCount": 5, "retweetCount": 3, "favoriteCount": 2 },
+ *   "when": [ [ "gt", 0 ] ],
+ *   "apply": [ [ "log" ] ] }
+ * </pre>
+ *
+ * "input" is the name of a feature, or features and their weights to be added up. "when"
+ * is a list of conditions that all have to hold for the term to count, and "apply" is what's
+ * done to the input, in order; "penalty": n adds n instead. The notes at the top of
+ * userscripts/_tweetformula_formula1.json list the features and operations.
+ *
+ * Terms are added in the order they're in the file, so _tweetformula_formula1.json gives
+ * exactly the same rankings as TweetRankerBasic.
+ */
+class TweetRankerFormula implements ITweetRanker {
+	private static final Logger logger = LogManager.getLogger( TweetRankerFormula.class );
+
+	private static final String FORMULA_FILENAME_STARTSWITH = "tweetformula_";
+	private static final String FORMULA_FILENAME_ENDSWITH = ".json";
+
+	private static final Map<String,Input> INPUTS;
+	private static final Map<String,AnalyzedTweetFeature> INPUT_FEATURES;
+
+	private static final Condition ALWAYS = ( matrix, row, value ) -> true;
+
+	private final String functionName;
+	private final Term[] terms;
+	private final Set<AnalyzedTweetFeature> requiredFeatures;
+
+	/**
+	 * Reads one number for the tweet in a row of the matrix.
+	 */
+	@FunctionalInterface
+	private interface Input {
+		double read( TweetFeatureMatrix matrix, int row );
+	}
+
+	/**
+	 * value is what the term's input read for the row.
+	 */
+	@FunctionalInterface
+	private interface Condition {
+		boolean test( TweetFeatureMatrix matrix, int row, double value );
+	}
+
+	private static final class Term {
+		private final RankingComponent component;
+		private final Input input;
+		private final Condition condition;
+		private final DoubleUnaryOperator transform;
+
+		Term( final RankingComponent component, final Input input, final Condition condition, final DoubleUnaryOperator transform ) {
+			this.component = component;
+			this.input = input;
+			this.condition = condition;
+			this.transform = transform;
+		}
+	}
+
+	static {
+		final Map<String,Input> inputs = new HashMap<String,Input>();
+		final Map<String,AnalyzedTweetFeature> inputFeatures = new HashMap<String,AnalyzedTweetFeature>();
+
+		inputs.put( "originalOrder", column( Column.ORIGINAL_ORDER ) );
+		inputs.put( "dateOrder", column( Column.DATE_ORDER ) );
+		inputs.put( "count", ( matrix, row ) -> matrix.getCount() );
+			//	1 for the newest tweet down to 1/count for the oldest
+		inputs.put( "dateRatio", ( matrix, row ) -> ( matrix.getCount() - matrix.getColumn( Column.DATE_ORDER )[ row ] + 1.0d ) / matrix.getCount() );
+		inputs.put( "numWords", column( Column.NUM_WORDS ) );
+		inputs.put( "numSentences", column( Column.NUM_SENTENCES ) );
+		inputs.put( "hasPic", column( Column.HAS_PIC ) );
+		inputs.put( "hasCard", column( Column.HAS_CARD ) );
+		inputs.put( "mostlyCaps", column( Column.MOSTLY_CAPS ) );
+		inputs.put( "readabilityFlesch", column( Column.READABILITY_FLESCH ) );
+		inputs.put( "readabilityFog", column( Column.READABILITY_FOG ) );
+		inputs.put( "readabilityKincaid", column( Column.READABILITY_KINCAID ) );
+		inputs.put( "readabilityAri", column( Column.READABILITY_ARI ) );
+		inputs.put( "readabilityColemanLiau", column( Column.READABILITY_COLEMAN_LIAU ) );
+		inputs.put( "readabilityLix", column( Column.READABILITY_LIX ) );
+		inputs.put( "readabilitySmog", column( Column.READABILITY_SMOG ) );
+		inputs.put( "toReferenceTweetCosineDistance", column( Column.COSINE_DISTANCE ) );
+		inputs.put( "toReferenceTweetJaccardSimilarity", column( Column.JACCARD_SIMILARITY ) );
+		inputs.put( "toReferenceTweetJaroWinklerDistance", column( Column.JARO_WINKLER_DISTANCE ) );
+		inputs.put( "toReferenceTweetFuzzyScore", column( Column.FUZZY_SCORE ) );
+		inputs.put( "toReferenceTweetLevenshteinDistance", column( Column.LEVENSHTEIN_DISTANCE ) );
+		inputs.put( "replyCount", column( Column.REPLY_COUNT ) );
+		inputs.put( "retweetCount", column( Column.RETWEET_COUNT ) );
+		inputs.put( "favoriteCount", column( Column.FAVORITE_COUNT ) );
+
+		inputFeatures.put( "toReferenceTweetCosineDistance", AnalyzedTweetFeature.COSINE_DISTANCE );
+		inputFeatures.put( "toReferenceTweetJaccardSimilarity", AnalyzedTweetFeature.JACCARD_SIMILARITY );
+		inputFeatures.put( "toReferenceTweetJaroWinklerDistance", AnalyzedTweetFeature.JARO_WINKLER_DISTANCE );
+		inputFeatures.put( "toReferenceTweetFuzzyScore", AnalyzedTweetFeature.FUZZY_SCORE );
+		inputFeatures.put( "toReferenceTweetLevenshteinDistance", AnalyzedTweetFeature.LEVENSHTEIN_DISTANCE );
+
+		INPUTS = Collections.unmodifiableMap( inputs );
+		INPUT_FEATURES = Collections.unmodifiableMap( inputFeatures );
+	}
+
+	public TweetRankerFormula( final IAppDirectories appDirectories ) throws Exception {
+		this( findFile( appDirectories ) );
+	}
+
+	TweetRankerFormula( final File formulaFile ) throws Exception {
+		this.functionName = formulaFile.getName().replace( FORMULA_FILENAME_STARTSWITH, "" ).replace( FORMULA_FILENAME_ENDSWITH, "" ).replaceFirst( "^_", "" );
+		this.requiredFeatures = EnumSet.noneOf( AnalyzedTweetFeature.class );
+
+		final JsonNode root = Utils.getPlainObjectMapper().reader().with( JsonParser.Feature.ALLOW_COMMENTS ).readTree( FileUtils.readFileToString( formulaFile, StandardCharsets.UTF_8 ) );
+		final JsonNode termNodes = root.get( "terms" );
+		if ( termNodes == null || !termNodes.isArray() || termNodes.size() == 0 ) {
+			throw new RuntimeException( "no terms in " + formulaFile );
+		}
+
+		final Set<RankingComponent> components = EnumSet.noneOf( RankingComponent.class );
+		final List<Term> termList = new ArrayList<Term>();
+
+		for ( final JsonNode termNode : termNodes ) {
+			final Term term = compileTerm( termNode );
+			if ( !components.add( term.component ) ) {
+				throw new RuntimeException( "more than one term for " + term.component.getKey() + " in " + formulaFile );
+			}
+			termList.add( term );
+		}
+
+		this.terms = termList.toArray( new Term[ termList.size() ] );
+
+		logger.info( "using the " + functionName + " formula as the tweet ranker, terms=" + terms.length + ", features=" + requiredFeatures );
+	}
+
+	private static Input column( final Column column ) {
+		return ( matrix, row ) -> matrix.getColumn( column )[ row ];
+	}
+
+	protected static File findFile( final IAppDirectories appDirectories ) throws Exception {
+		final File userScriptsDir = appDirectories.getSubdirectory( "userscripts" );
+		if ( !userScriptsDir.exists() ) {
+			throw new RuntimeException( "does not exist: " + userScriptsDir );
+		}
+
+		final String[] userScriptsFilenames = userScriptsDir.list();
+		for ( final String filename : userScriptsFilenames ) {
+			if ( filename.startsWith( FORMULA_FILENAME_STARTSWITH ) &&
+					filename.endsWith( FORMULA_FILENAME_ENDSWITH ) &&
+					filename.length() > FORMULA_FILENAME_STARTSWITH.length() + FORMULA_FILENAME_ENDSWITH.length() ) {
+				final File formulaFile = new File( userScriptsDir, filename );
+				if ( formulaFile.exists() && formulaFile.isFile() ) {
+					return formulaFile;
+				}
+			}
+		}
+
+		throw new RuntimeException( "no " + FORMULA_FILENAME_STARTSWITH + "*" + FORMULA_FILENAME_ENDSWITH + " in " + userScriptsDir );
+	}
+
+	protected Term compileTerm( final JsonNode termNode ) {
+		final RankingComponent component = findComponent( termNode.path( "component" ).asText() );
+
+		final JsonNode inputNode = termNode.get( "input" );
+		if ( inputNode == null ) {
+			throw new RuntimeException( "no input for " + component.getKey() );
+		}
+		final Input input = compileInput( inputNode );
+
+		Condition condition = ALWAYS;
+		final JsonNode whenNode = termNode.get( "when" );
+		if ( whenNode != null ) {
+			if ( !whenNode.isArray() ) {
+				throw new RuntimeException( "when for " + component.getKey() + " should be a list of conditions" );
+			}
+			for ( final JsonNode conditionNode : whenNode ) {
+				final Condition first = condition, next = compileCondition( conditionNode );
+				condition = first == ALWAYS ? next : ( matrix, row, value ) -> first.test( matrix, row, value ) && next.test( matrix, row, value );
+			}
+		}
+
+		final DoubleUnaryOperator transform;
+		final JsonNode penaltyNode = termNode.get( "penalty" );
+		if ( penaltyNode != null ) {
+			if ( !penaltyNode.isNumber() ) {
+				throw new RuntimeException( "penalty for " + component.getKey() + " is not a number" );
+			}
+			final double penalty = penaltyNode.asDouble();
+			transform = value -> penalty;
+		}
+		else {
+			DoubleUnaryOperator temp = null;
+			final JsonNode applyNode = termNode.get( "apply" );
+			if ( applyNode != null ) {
+				if ( !applyNode.isArray() ) {
+					throw new RuntimeException( "apply for " + component.getKey() + " should be a list of operations" );
+				}
+				for ( final JsonNode operationNode : applyNode ) {
+					final DoubleUnaryOperator next = compileOperation( operationNode );
+					temp = temp == null ? next : temp.andThen( next );
+				}
+			}
+			transform = temp != null ? temp : DoubleUnaryOperator.identity();
+		}
+
+		return new Term( component, input, condition, transform );
+	}
+
+	/**
+	 * A feature name, or an object of feature names and weights, which are added up.
+	 */
+	protected Input compileInput( final JsonNode inputNode ) {
+		if ( inputNode.isTextual() ) {
+			return findInput( inputNode.asText() );
+		}
+
+		if ( !inputNode.isObject() || inputNode.size() == 0 ) {
+			throw new RuntimeException( "input should be a feature or features and weights: " + inputNode );
+		}
+
+		final int size = inputNode.size();
+		final Input[] inputs = new Input[ size ];
+		final double[] weights = new double[ size ];
+
+		int index = 0;
+		final Iterator<Map.Entry<String,JsonNode>> fields = inputNode.fields();
+		while ( fields.hasNext() ) {
+			final Map.Entry<String,JsonNode> field = fields.next();
+			if ( !field.getValue().isNumber() ) {
+				throw new RuntimeException( "weight for " + field.getKey() + " is not a number" );
+			}
+			inputs[ index ] = findInput( field.getKey() );
+			weights[ index ] = field.getValue().asDouble();
+			index++;
+		}
+
+		return ( matrix, row ) -> {
+			double sum = weights[ 0 ] * inputs[ 0 ].read( matrix, row );
+			for ( int i = 1; i < size; i++ ) {
+				sum += weights[ i ] * inputs[ i ].read( matrix, row );
+			}
+			return sum;
+		};
+	}
+
+	/**
+	 * [ op, number ] tests the term's input, [ feature, op, number ] tests that feature.
+	 */
+	protected Condition compileCondition( final JsonNode conditionNode ) {
+		if ( !conditionNode.isArray() || ( conditionNode.size() != 2 && conditionNode.size() != 3 ) ) {
+			throw new RuntimeException( "condition should be [ op, number ] or [ feature, op, number ]: " + conditionNode );
+		}
+
+		final boolean bOtherInput = conditionNode.size() == 3;
+		final DoublePredicate predicate = compilePredicate( conditionNode.get( bOtherInput ? 1 : 0 ).asText(),
+															number( conditionNode, bOtherInput ? 2 : 1 ) );
+
+		if ( !bOtherInput ) {
+			return ( matrix, row, value ) -> predicate.test( value );
+		}
+
+		final Input other = findInput( conditionNode.get( 0 ).asText() );
+
+		return ( matrix, row, value ) -> predicate.test( other.read( matrix, row ) );
+	}
+
+	protected DoublePredicate compilePredicate( final String op, final double operand ) {
+		switch ( op ) {
+			case "eq":
+				return value -> value == operand;
+			case "ne":
+				return value -> value != operand;
+			case "lt":
+				return value -> value < operand;
+			case "le":
+				return value -> value <= operand;
+			case "gt":
+				return value -> value > operand;
+			case "ge":
+				return value -> value >= operand;
+			default:
+				throw new RuntimeException( "unknown condition: " + op );
+		}
+	}
+
+	protected DoubleUnaryOperator compileOperation( final JsonNode operationNode ) {
+		if ( !operationNode.isArray() || operationNode.size() == 0 ) {
+			throw new RuntimeException( "operation should be [ op, numbers... ]: " + operationNode );
+		}
+
+		final String op = operationNode.get( 0 ).asText();
+
+		switch ( op ) {
+			case "add": {
+				final double operand = number( operationNode, 1 );
+				return value -> value + operand;
+			}
+			case "sub": {
+				final double operand = number( operationNode, 1 );
+				return value -> value - operand;
+			}
+			case "subfrom": {
+				final double operand = number( operationNode, 1 );
+				return value -> operand - value;
+			}
+			case "mul": {
+				final double operand = number( operationNode, 1 );
+				return value -> value * operand;
+			}
+			case "div": {
+				final double operand = number( operationNode, 1 );
+				return value -> value / operand;
+			}
+			case "min": {
+				final double operand = number( operationNode, 1 );
+				return value -> Math.min( operand, value );
+			}
+			case "max": {
+				final double operand = number( operationNode, 1 );
+				return value -> Math.max( operand, value );
+			}
+			case "scaleabove": {
+				final double limit = number( operationNode, 1 );
+				final double operand = number( operationNode, 2 );
+				return value -> value > limit ? value * operand : value;
+			}
+			case "log":
+				return Math::log;
+			case "floor":
+				return Math::floor;
+			default:
+				throw new RuntimeException( "unknown operation: " + op );
+		}
+	}
+
+	protected double number( final JsonNode node, final int index ) {
+		final JsonNode numberNode = node.get( index );
+		if ( numberNode == null || !numberNode.isNumber() ) {
+			throw new RuntimeException( "expected a number at " + index + " in " + node );
+		}
+
+		return numberNode.asDouble();
+	}
+
+	protected Input findInput( final String name ) {
+		final Input ret = INPUTS.get( name );
+		if ( ret == null ) {
+			throw new RuntimeException( "unknown feature: " + name + ", known features are " + INPUTS.keySet() );
+		}
+
+		final AnalyzedTweetFeature feature = INPUT_FEATURES.get( name );
+		if ( feature != null ) {
+			requiredFeatures.add( feature );
+		}
+
+		return ret;
+	}
+
+	protected RankingComponent findComponent( final String key ) {
+		for ( final RankingComponent component : RankingComponent.values() ) {
+			if ( component.getKey().equals( key ) ) {
+				return component;
+			}
+		}
+
+		throw new RuntimeException( "unknown component: " + key );
+	}
+
+	@Override
+	public String getFunctionName() {
+		return functionName;
+	}
+
+	/**
+	 * Only the features that the formula reads.
+	 */
+	@Override
+	public Set<AnalyzedTweetFeature> getRequiredFeatures() {
+		return requiredFeatures;
+	}
+
+	@Override
+	public boolean canRankConcurrently() {
+		return true;
+	}
+
+	@Override
+	public void rankTweets( final List<IAnalyzedTweet> analyzedTweets, final IAnalyzedTweet referenceAnalyzedTweet ) {
+		rankTweets( new TweetFeatureMatrix( analyzedTweets ), referenceAnalyzedTweet );
+	}
+
+	@Override
+	public void rankTweet( final IAnalyzedTweet analyzedTweet, final int count, final IAnalyzedTweet referenceAnalyzedTweet ) {
+		rankTweets( new TweetFeatureMatrix( Collections.singletonList( analyzedTweet ), count ), referenceAnalyzedTweet );
+	}
+
+	@Override
+	public void rankTweets( final TweetFeatureMatrix matrix, final IAnalyzedTweet referenceAnalyzedTweet ) {
+		final int size = matrix.size();
+		final double[] rankings = matrix.getRankings();
+
+		for ( int row = 0; row < size; row++ ) {
+			final RankingBreakdown breakdown = matrix.getRankingBreakdown( row );
+			double ranking = 0.0d;
+
+			breakdown.clear();
+
+			for ( final Term term : terms ) {
+				final double value = term.input.read( matrix, row );
+				if ( term.condition.test( matrix, row, value ) ) {
+					final double temp = term.transform.applyAsDouble( value );
+					breakdown.set( term.component, temp );
+					ranking += temp;
+				}
+			}
+
+			rankings[ row ] = ranking;
+		}
+
+		matrix.writeRankings( functionName );
+	}
+
+	@Override
+	public String toString() {
+		return new ToStringBuilder( this )
+		.append( "functionName", functionName )
+		.append( "terms", terms.length )
+		.append( "requiredFeatures", requiredFeatures )
+		.toString();
+	}
+}
@@ -15,59 +15,207 @@ package com.tolstoy.censorship.twitter.checker.app.analyzer;
 
 import java.io.File;
 import java.nio.charset.Charset;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 import javax.script.Bindings;
 import javax.script.Compilable;
 import javax.script.CompiledScript;
+import javax.script.Invocable;
 import javax.script.ScriptEngine;
 import javax.script.ScriptEngineManager;
 
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import com.tolstoy.basic.api.tweet.ITweetFactory;
 import com.tolstoy.basic.api.utils.IResourceBundleWithFormatting;
+import com.tolstoy.basic.app.utils.Utils;
+import com.tolstoy.censorship.twitter.checker.api.analyzer.AnalyzedTweetFeature;
 import com.tolstoy.censorship.twitter.checker.api.analyzer.IAnalyzedTweet;
 import com.tolstoy.censorship.twitter.checker.api.analyzer.ITweetRanker;
+import com.tolstoy.censorship.twitter.checker.api.analyzer.TweetFeatureMatrix;
 import com.tolstoy.censorship.twitter.checker.api.preferences.IPreferences;
 import com.tolstoy.censorship.twitter.checker.api.installation.IAppDirectories;
 
+/**
+ * Ranks tweets with a user script, run with the standalone Nashorn engine since Nashorn
+ * is no longer part of the JDK.
+ *
+ * If the script defines rankTweets( records, count, referenceAnalyzedTweet ), it's called
+ * once per list of replies with an array of TweetFeatureRecord, and sets each record's
+ * ranking. Otherwise, if it defines rankTweet( analyzedTweet, count, referenceAnalyzedTweet ),
+ * that's called for each reply. Older scripts that do their work when they're run are
+ * run once per reply with analyzedTweet, count and referenceAnalyzedTweet bound.
+ *
+ * Each engine is only used by one thread at a time, so there's a pool of them, each with the
+ * script already run, and report items being made in parallel each take one. One engine is
+ * made up front, to find problems with the script early; the rest are only made when every
+ * existing one is in use, up to the pool size.
+ */
 class TweetRankerJavascript implements ITweetRanker {
 	private static final Logger logger = LogManager.getLogger( TweetRankerJavascript.class );
 
 	private static final String SCRIPT_FILENAME_STARTSWITH = "tweetranker_";
 	private static final String SCRIPT_FILENAME_ENDSWITH = ".js";
+	private static final String ENGINE_NAME = "nashorn";
+	private static final String BATCH_FUNCTION_NAME = "rankTweets";
+	private static final String SINGLE_FUNCTION_NAME = "rankTweet";
 
-	private final ScriptEngine engine;
-	private CompiledScript compiledScript;
 	private final ITweetFactory tweetFactory;
 	private final IAppDirectories appDirectories;
 	private final IPreferences prefs;
 	private final IResourceBundleWithFormatting bundle;
+	private final ScriptEngineManager manager;
+	private final BlockingQueue<ScriptRunner> runners;
+	private final int poolSize;
+	private int numRunners;
 	private String functionName;
 	private String script;
 
+	/**
+	 * One engine with the script loaded into it.
+	 */
+	private final class ScriptRunner {
+		private final ScriptEngine engine;
+		private final boolean bHasBatchFunction;
+		private final boolean bHasSingleFunction;
+		private final CompiledScript compiledScript;
+
+		ScriptRunner() throws Exception {
+			engine = manager.getEngineByName( ENGINE_NAME );
+			if ( engine == null ) {
+				throw new RuntimeException( "no " + ENGINE_NAME + " script engine, is nashorn-core on the classpath?" );
+			}
+
+			boolean bLoaded;
+			try {
+				engine.eval( script );
+				bLoaded = true;
+			}
+			catch ( final Exception e ) {
+					//	an older script that needs analyzedTweet etc. to be bound when it's run
+				logger.info( "cannot run the " + functionName + " script without a tweet, it will be run once per tweet: " + e.getMessage() );
+				bLoaded = false;
+			}
+
+			bHasBatchFunction = bLoaded && hasFunction( BATCH_FUNCTION_NAME );
+			bHasSingleFunction = bLoaded && hasFunction( SINGLE_FUNCTION_NAME );
+			compiledScript = bHasBatchFunction || bHasSingleFunction ? null : ( (Compilable) engine ).compile( script );
+		}
+
+		private boolean hasFunction( final String name ) throws Exception {
+			return Boolean.TRUE.equals( engine.eval( "typeof " + name + " === 'function'" ) );
+		}
+
+		void rankTweets( final List<IAnalyzedTweet> analyzedTweets, final IAnalyzedTweet referenceAnalyzedTweet ) throws Exception {
+			final int count = analyzedTweets.size();
+
+			if ( !bHasBatchFunction ) {
+				for ( final IAnalyzedTweet analyzedTweet : analyzedTweets ) {
+					rankTweet( analyzedTweet, count, referenceAnalyzedTweet );
+				}
+				return;
+			}
+
+			final TweetFeatureRecord[] records = new TweetFeatureRecord[ count ];
+			for ( int i = 0; i < count; i++ ) {
+				records[ i ] = new TweetFeatureRecord( analyzedTweets.get( i ), functionName );
+			}
+
+			( (Invocable) engine ).invokeFunction( BATCH_FUNCTION_NAME, records, count, referenceAnalyzedTweet );
+
+			for ( final TweetFeatureRecord record : records ) {
+				record.apply();
+			}
+		}
+
+		void rankTweet( final IAnalyzedTweet analyzedTweet, final int count, final IAnalyzedTweet referenceAnalyzedTweet ) throws Exception {
+			if ( bHasSingleFunction ) {
+				( (Invocable) engine ).invokeFunction( SINGLE_FUNCTION_NAME, analyzedTweet, count, referenceAnalyzedTweet );
+			}
+			else if ( bHasBatchFunction ) {
+				final TweetFeatureRecord record = new TweetFeatureRecord( analyzedTweet, functionName );
+				( (Invocable) engine ).invokeFunction( BATCH_FUNCTION_NAME, new TweetFeatureRecord[] { record }, count, referenceAnalyzedTweet );
+				record.apply();
+			}
+			else {
+				final Bindings bindings = engine.createBindings();
+
+				bindings.put( "analyzedTweet", analyzedTweet );
+				bindings.put( "count", count );
+				bindings.put( "referenceAnalyzedTweet", referenceAnalyzedTweet );
+
+				compiledScript.eval( bindings );
+			}
+		}
+	}
+
 	public TweetRankerJavascript( final ITweetFactory tweetFactory, final IAppDirectories appDirectories, final IPreferences prefs, final IResourceBundleWithFormatting bundle )
 	throws Exception {
 		this.tweetFactory = tweetFactory;
 		this.appDirectories = appDirectories;
 		this.prefs = prefs;
 		this.bundle = bundle;
-		this.compiledScript = null;
 		this.functionName = "";
 		this.script = "";
 
 		loadScript();
 
-		final ScriptEngineManager manager = new ScriptEngineManager();
-		engine = manager.getEngineByName( "nashorn" );
+		int tempPoolSize = Utils.parseIntDefault( prefs.getValue( "prefs.tweetranker_script_pool_size" ), 0 );
+		if ( tempPoolSize < 1 ) {
+			tempPoolSize = Runtime.getRuntime().availableProcessors();
+		}
+		this.poolSize = tempPoolSize;
 
-		final Compilable compilableEngine = (Compilable) engine;
-		compiledScript = compilableEngine.compile( script );
+		this.manager = new ScriptEngineManager();
+		this.runners = new ArrayBlockingQueue<ScriptRunner>( poolSize );
 
-		logger.info( "using the " + functionName + " script as the tweet ranker" );
+			//	if the engine is missing or the script is broken, fail now rather than in a report
+		runners.add( new ScriptRunner() );
+		this.numRunners = 1;
+
+		logger.info( "using the " + functionName + " script as the tweet ranker, max engines=" + poolSize );
+	}
+
+	/**
+	 * Returns an idle engine, makes a new one if they're all in use and there are fewer
+	 * than poolSize, or otherwise waits for one to be returned.
+	 */
+	private ScriptRunner takeRunner() throws Exception {
+		final ScriptRunner idle = runners.poll();
+		if ( idle != null ) {
+			return idle;
+		}
+
+		boolean bMakeRunner = false;
+		synchronized ( this ) {
+			if ( numRunners < poolSize ) {
+				numRunners++;
+				bMakeRunner = true;
+			}
+		}
+
+		if ( !bMakeRunner ) {
+			return runners.take();
+		}
+
+		try {
+			final ScriptRunner ret = new ScriptRunner();
+			logger.info( "made another engine for the " + functionName + " script" );
+			return ret;
+		}
+		catch ( final Exception e ) {
+			synchronized ( this ) {
+				numRunners--;
+			}
+			throw e;
+		}
 	}
 
 	protected void loadScript() throws Exception {
@@ -107,22 +255,67 @@ class TweetRankerJavascript implements ITweetRanker {
 		return functionName;
 	}
 
+	/**
+	 * There's no telling what the script reads, so everything is computed.
+	 */
+	@Override
+	public Set<AnalyzedTweetFeature> getRequiredFeatures() {
+		return EnumSet.allOf( AnalyzedTweetFeature.class );
+	}
+
+	/**
+	 * rankTweet can be called on several threads, but calling a script's rankTweets once
+	 * for the whole list is much faster than calling it for each tweet.
+	 */
+	@Override
+	public boolean canRankConcurrently() {
+		return false;
+	}
+
 	@Override
 	public void rankTweets( final List<IAnalyzedTweet> analyzedTweets, final IAnalyzedTweet referenceAnalyzedTweet ) throws Exception {
-		final int count = analyzedTweets.size();
-		for ( final IAnalyzedTweet analyzedTweet : analyzedTweets ) {
-			rankTweet( analyzedTweet, count, referenceAnalyzedTweet );
+		final ScriptRunner runner = takeRunner();
+
+		try {
+			runner.rankTweets( analyzedTweets, referenceAnalyzedTweet );
+		}
+		finally {
+			runners.put( runner );
+		}
+	}
+
+	/**
+	 * Scripts read the tweets through their getters, so this only uses the matrix's tweets.
+	 */
+	@Override
+	public void rankTweets( final TweetFeatureMatrix matrix, final IAnalyzedTweet referenceAnalyzedTweet ) throws Exception {
+		if ( matrix.getCount() == matrix.size() ) {
+			rankTweets( matrix.getAnalyzedTweets(), referenceAnalyzedTweet );
+			return;
+		}
+
+		for ( final IAnalyzedTweet analyzedTweet : matrix.getAnalyzedTweets() ) {
+			rankTweet( analyzedTweet, matrix.getCount(), referenceAnalyzedTweet );
 		}
 	}
 
 	@Override
 	public void rankTweet( final IAnalyzedTweet analyzedTweet, final int count, final IAnalyzedTweet referenceAnalyzedTweet ) throws Exception {
-		final Bindings bindings = engine.createBindings();
+		final ScriptRunner runner = takeRunner();
 
-		bindings.put( "analyzedTweet", analyzedTweet );
-		bindings.put( "count", count );
-		bindings.put( "referenceAnalyzedTweet", referenceAnalyzedTweet );
+		try {
+			runner.rankTweet( analyzedTweet, count, referenceAnalyzedTweet );
+		}
+		finally {
+			runners.put( runner );
+		}
+	}
 
-		compiledScript.eval( bindings );
+	@Override
+	public String toString() {
+		return new ToStringBuilder( this )
+		.append( "functionName", functionName )
+		.append( "poolSize", poolSize )
+		.toString();
 	}
 }
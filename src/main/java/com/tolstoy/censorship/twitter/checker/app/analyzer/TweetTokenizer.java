@@ -0,0 +1,389 @@
+/*
+ * Copyright 2022 Chris Kelly
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.tolstoy.censorship.twitter.checker.app.analyzer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.twitter.twittertext.Extractor;
+
+import cue.lang.SentenceIterator;
+import cue.lang.WordIterator;
+import cue.lang.stop.StopWords;
+
+/**
+ * Splits a tweet's text into the plain text, sentences, words, URLs, hashtags and mentions
+ * that AnalyzedTweet keeps, giving the same results AnalyzedTweet used to get on its own.
+ *
+ * The entities found by twitter-text are stripped from the text in one pass when they can't
+ * interact with each other, which is almost always, instead of with one String.replace per
+ * entity. Each word's chars are scanned once for both its base word and whether it's all
+ * uppercase.
+ *
+ * The results are kept in buffers that are reused by the next call to tokenize(), so callers
+ * have to copy out what they need first. Instances aren't thread-safe; use one per thread.
+ */
+class TweetTokenizer {
+	private static final Logger logger = LogManager.getLogger( TweetTokenizer.class );
+
+	private static final Extractor extractor = new Extractor();
+
+	private final List<String> sentences;
+	private final List<String> words;
+	private final List<String> wordsWithoutStopWordsLowercase;
+	private final List<String> urls;
+	private final List<String> hashtags;
+	private final List<String> mentions;
+	private final StringBuilder textBuilder;
+	private final StringBuilder wordBuilder;
+	private String textContentPlain;
+	private int numAllUpper;
+	private boolean hasPic;
+	private boolean hasCard;
+
+	TweetTokenizer() {
+		this.sentences = new ArrayList<String>();
+		this.words = new ArrayList<String>();
+		this.wordsWithoutStopWordsLowercase = new ArrayList<String>();
+		this.urls = new ArrayList<String>();
+		this.hashtags = new ArrayList<String>();
+		this.mentions = new ArrayList<String>();
+		this.textBuilder = new StringBuilder( 512 );
+		this.wordBuilder = new StringBuilder( 64 );
+		this.textContentPlain = "";
+		this.numAllUpper = 0;
+		this.hasPic = false;
+		this.hasCard = false;
+	}
+
+	void tokenize( final String textContentRaw ) {
+		sentences.clear();
+		words.clear();
+		wordsWithoutStopWordsLowercase.clear();
+		urls.clear();
+		hashtags.clear();
+		mentions.clear();
+		numAllUpper = 0;
+		hasPic = false;
+		hasCard = false;
+
+		textContentPlain = extractPlainText( textContentRaw );
+
+		for ( final String sentence : new SentenceIterator( textContentPlain, Locale.ENGLISH ) ) {
+			sentences.add( sentence );
+		}
+
+		for ( final String word : new WordIterator( textContentPlain ) ) {
+			words.add( word );
+			if ( scanWord( word, !StopWords.English.isStopWord( word ) ) ) {
+				numAllUpper++;
+			}
+		}
+	}
+
+	String getTextContentPlain() {
+		return textContentPlain;
+	}
+
+	List<String> getSentences() {
+		return sentences;
+	}
+
+	List<String> getWords() {
+		return words;
+	}
+
+	List<String> getWordsWithoutStopWordsLowercase() {
+		return wordsWithoutStopWordsLowercase;
+	}
+
+	List<String> getUrls() {
+		return urls;
+	}
+
+	List<String> getHashtags() {
+		return hashtags;
+	}
+
+	List<String> getMentions() {
+		return mentions;
+	}
+
+	int getNumAllUpper() {
+		return numAllUpper;
+	}
+
+	boolean getHasPic() {
+		return hasPic;
+	}
+
+	boolean getHasCard() {
+		return hasCard;
+	}
+
+	/**
+	 * Scans the word's chars once. If addBaseWord, the word lowercased and with everything
+	 * but letters and digits removed is added to wordsWithoutStopWordsLowercase, unless
+	 * that leaves nothing.
+	 * @return whether the word is all uppercase, as with StringUtils.isAllUpperCase().
+	 */
+	private boolean scanWord( final String word, final boolean addBaseWord ) {
+		final int len = word.length();
+		if ( len < 1 ) {
+			return false;
+		}
+
+		boolean bAllUpper = true;
+		boolean bUnchanged = true;
+
+		wordBuilder.setLength( 0 );
+
+		for ( int i = 0; i < len; i++ ) {
+			final char c = word.charAt( i );
+
+			if ( !Character.isUpperCase( c ) ) {
+				bAllUpper = false;
+			}
+
+			if ( Character.isLetterOrDigit( c ) ) {
+				wordBuilder.append( c );
+				if ( Character.toLowerCase( c ) != c ) {
+					bUnchanged = false;
+				}
+			}
+			else {
+				bUnchanged = false;
+			}
+		}
+
+		if ( addBaseWord && wordBuilder.length() > 0 ) {
+			//	String.toLowerCase() rather than per char, since a few chars lowercase
+			//	to two chars or differently in some locales
+			wordsWithoutStopWordsLowercase.add( bUnchanged ? word : wordBuilder.toString().toLowerCase() );
+		}
+
+		return bAllUpper;
+	}
+
+	private String extractPlainText( final String textContentRaw ) {
+		final String input = textContentRaw.replace( "…", " " ).trim();
+
+		if ( isPictureURL( input ) ) {
+			hasPic = true;
+		}
+
+		final List<Extractor.Entity> entities = extractor.extractEntitiesWithIndices( input );
+		if ( entities == null || entities.isEmpty() ) {
+			return input.replace( "#", "" );
+		}
+
+		for ( final Extractor.Entity entity : entities ) {
+			final Extractor.Entity.Type type = entity.getType();
+			final String value = entity.getValue();
+			if ( type == Extractor.Entity.Type.HASHTAG ) {
+				hashtags.add( value );
+			}
+			else if ( type == Extractor.Entity.Type.MENTION ) {
+				mentions.add( value );
+			}
+			else if ( type == Extractor.Entity.Type.URL ) {
+				urls.add( value );
+
+				if ( isPictureURL( value ) ) {
+					hasPic = true;
+				}
+
+				if ( isCardURL( value ) ) {
+					hasCard = true;
+				}
+			}
+		}
+
+		if ( canStripInOnePass( input, entities ) ) {
+			return stripInOnePass( input, entities );
+		}
+
+		return stripByReplacing( input, entities );
+	}
+
+	/**
+	 * Copies input to textBuilder without the entities or any '#'. This gives the same
+	 * text as stripByReplacing() when canStripInOnePass() is true.
+	 */
+	private String stripInOnePass( final String input, final List<Extractor.Entity> entities ) {
+		textBuilder.setLength( 0 );
+
+		int pos = 0;
+		for ( final Extractor.Entity entity : entities ) {
+			appendWithoutHashes( input, pos, entity.getStart() );
+
+			if ( entity.getType() == Extractor.Entity.Type.HASHTAG ) {
+				textBuilder.append( getHashtagReplacement( entity.getValue() ) );
+			}
+
+			pos = entity.getEnd();
+		}
+
+		appendWithoutHashes( input, pos, input.length() );
+
+		return textBuilder.toString().trim();
+	}
+
+	private void appendWithoutHashes( final String input, final int start, final int end ) {
+		for ( int i = start; i < end; i++ ) {
+			final char c = input.charAt( i );
+			if ( c != '#' ) {
+				textBuilder.append( c );
+			}
+		}
+	}
+
+	/**
+	 * Replaces every occurrence of every entity, in the order twitter-text found them,
+	 * which is what the text has always been stripped with.
+	 */
+	private String stripByReplacing( String input, final List<Extractor.Entity> entities ) {
+		for ( final Extractor.Entity entity : entities ) {
+			final String target = getReplaceTarget( entity );
+			if ( target != null ) {
+				input = input.replace( target, entity.getType() == Extractor.Entity.Type.HASHTAG ? getHashtagReplacement( entity.getValue() ) : "" );
+			}
+		}
+
+		return input.replace( "#", "" ).trim();
+	}
+
+	/**
+	 * Replacing every occurrence of each entity in turn is the same as cutting each one out
+	 * where twitter-text found it when:
+	 * - the entities are in order, don't overlap, and the text at each one is exactly what's
+	 *   replaced (it isn't for a fullwidth '＃' or a mention of a list, for instance)
+	 * - what's replaced occurs only there
+	 * - each entity follows whitespace or the start of the text, and is followed by whitespace,
+	 *   the end of the text or punctuation that can't be part of what's replaced, so that
+	 *   cutting it out can't join up a new occurrence of a later entity
+	 */
+	private boolean canStripInOnePass( final String input, final List<Extractor.Entity> entities ) {
+		final int len = input.length();
+
+		int prevEnd = 0;
+		for ( final Extractor.Entity entity : entities ) {
+			final String target = getReplaceTarget( entity );
+			if ( target == null || entity.getStart() == null || entity.getEnd() == null ) {
+				return false;
+			}
+
+			final int start = entity.getStart();
+			final int end = entity.getEnd();
+
+			if ( start < prevEnd || end > len || end - start != target.length() ||
+					!input.regionMatches( start, target, 0, target.length() ) ) {
+				return false;
+			}
+
+			if ( input.indexOf( target ) != start || input.indexOf( target, start + 1 ) > -1 ) {
+				return false;
+			}
+
+			if ( start > 0 && !Character.isWhitespace( input.charAt( start - 1 ) ) ) {
+				return false;
+			}
+
+			if ( end < len && !isSafeAfterEntity( input, end ) ) {
+				return false;
+			}
+
+			prevEnd = end;
+		}
+
+		return true;
+	}
+
+	private boolean isSafeAfterEntity( final String input, final int index ) {
+		final char c = input.charAt( index );
+		if ( Character.isWhitespace( c ) ) {
+			return true;
+		}
+
+		switch ( c ) {
+			case ',':
+			case '!':
+			case '?':
+			case ';':
+			case ')':
+			case '"':
+			case '\'':
+				return true;
+			case '.':
+				return index + 1 == input.length() || Character.isWhitespace( input.charAt( index + 1 ) );
+			default:
+				return false;
+		}
+	}
+
+	/**
+	 * @return what stripByReplacing() replaces for the entity, or null if it leaves it alone.
+	 */
+	private String getReplaceTarget( final Extractor.Entity entity ) {
+		final Extractor.Entity.Type type = entity.getType();
+		final String value = entity.getValue();
+
+		if ( type == Extractor.Entity.Type.CASHTAG ) {
+			return "$" + value;
+		}
+		else if ( type == Extractor.Entity.Type.HASHTAG ) {
+			return "#" + value;
+		}
+		else if ( type == Extractor.Entity.Type.MENTION ) {
+			return "@" + value;
+		}
+		else if ( type == Extractor.Entity.Type.URL ) {
+			return value;
+		}
+
+		return null;
+	}
+
+	/**
+	 * #GoodMorning -> Good Morning
+	 */
+	private String getHashtagReplacement( final String value ) {
+		return StringUtils.join( StringUtils.splitByCharacterTypeCamelCase( value ), " " );
+	}
+
+	private boolean isPictureURL( final String url ) {
+		return url.toLowerCase().indexOf( "pic.twitter" ) > -1;
+	}
+
+	private boolean isCardURL( final String url ) {
+		return url.toLowerCase().indexOf( "cards.twitter" ) > -1;
+	}
+
+	@Override
+	public String toString() {
+		return new ToStringBuilder( this )
+		.append( "textContentPlain", textContentPlain )
+		.append( "numWords", words.size() )
+		.append( "numSentences", sentences.size() )
+		.append( "hasPic", hasPic )
+		.append( "hasCard", hasCard )
+		.toString();
+	}
+}
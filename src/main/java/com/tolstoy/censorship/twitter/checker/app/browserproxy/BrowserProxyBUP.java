@@ -17,6 +17,8 @@ import java.util.List;
 import java.util.ArrayList;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -36,21 +38,43 @@ import com.browserup.harreader.model.HarLog;
 import com.browserup.harreader.model.HarEntry;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.tolstoy.basic.app.utils.Utils;
 import com.tolstoy.basic.api.utils.IResourceBundleWithFormatting;
 import com.tolstoy.censorship.twitter.checker.api.browserproxy.IBrowserProxy;
 import com.tolstoy.censorship.twitter.checker.api.browserproxy.IBrowserProxyResponseListener;
 import com.tolstoy.censorship.twitter.checker.api.preferences.IPreferences;
 import com.tolstoy.censorship.twitter.checker.api.browserproxy.IBrowserProxyLogEntry;
 
+import io.netty.handler.codec.http.HttpHeaderNames;
 import io.netty.handler.codec.http.HttpResponse;
 import io.netty.handler.codec.DecoderResult;
 
+/**
+ * Records responses using the BrowserUp proxy.
+ *
+ * If prefs.bup_capture_filtered is true, no HAR is made. Instead filterResponse checks
+ * each response's URL and content type against a BrowserProxyCaptureFilter and, only for
+ * the ones that match, reads the body and queues it if it's JSON. BrowserUp still
+ * aggregates every full response before calling the filter, but images, video, etc. aren't
+ * turned into text, copied into events, or kept past the filter call. endRecording just
+ * drains the queue.
+ *
+ * In that mode, only matching responses are posted to the response listeners. Turn the
+ * pref off if a listener needs to see everything.
+ *
+ * Otherwise every response is captured into a HAR that endRecording walks, which is how
+ * this originally worked.
+ */
 public class BrowserProxyBUP implements IBrowserProxy, ResponseFilter {
 	@JsonIgnore
 	private static final Logger logger = LogManager.getLogger( BrowserProxyBUP.class );
 
 	private final IPreferences prefs;
 	private final IResourceBundleWithFormatting bundle;
+	private final boolean bFiltered;
+	private final BrowserProxyCaptureFilter captureFilter;
+	private final Queue<IBrowserProxyLogEntry> capturedEntries;
+	private volatile boolean bRecording;
 	private BrowserUpProxy proxy = null;
 	private Proxy seleniumProxy = null;
 	private JBus jbus = null;
@@ -59,6 +83,10 @@ public class BrowserProxyBUP implements IBrowserProxy, ResponseFilter {
 		this.prefs = prefs;
 		this.bundle = bundle;
 		this.jbus = jbus;
+		this.bFiltered = Utils.isStringTrue( prefs.getValue( "prefs.bup_capture_filtered" ) );
+		this.captureFilter = new BrowserProxyCaptureFilter( prefs );
+		this.capturedEntries = new ConcurrentLinkedQueue<IBrowserProxyLogEntry>();
+		this.bRecording = false;
 	}
 
 	@Override
@@ -95,6 +123,12 @@ public class BrowserProxyBUP implements IBrowserProxy, ResponseFilter {
 	public void beginRecording( WebDriver driver, String name ) throws Exception {
 		logger.info( "beginning recording..." );
 
+		if ( bFiltered ) {
+			capturedEntries.clear();
+			bRecording = true;
+			return;
+		}
+
 		Har unusedHAR = proxy.endHar();
 
 		proxy.enableHarCaptureTypes( CaptureType.REQUEST_HEADERS,
@@ -110,6 +144,21 @@ public class BrowserProxyBUP implements IBrowserProxy, ResponseFilter {
 	public List<IBrowserProxyLogEntry> endRecording( WebDriver driver ) throws Exception {
 		logger.info( "end recording..." );
 
+		if ( bFiltered ) {
+			bRecording = false;
+
+			final List<IBrowserProxyLogEntry> list = new ArrayList<IBrowserProxyLogEntry>( capturedEntries.size() );
+
+			IBrowserProxyLogEntry entry;
+			while ( ( entry = capturedEntries.poll() ) != null ) {
+				list.add( entry );
+			}
+
+			logger.info( "  filtered recording count=" + list.size() );
+
+			return list;
+		}
+
 		Har har = proxy.endHar();
 		HarLog log = har.getLog();
 
@@ -124,6 +173,11 @@ public class BrowserProxyBUP implements IBrowserProxy, ResponseFilter {
 		return list;
 	}
 
+	@Override
+	public int getNumDroppedResponses() {
+		return 0;
+	}
+
 	@Override
 	public Proxy getSeleniumProxy() {
 		return seleniumProxy;
@@ -134,6 +188,26 @@ public class BrowserProxyBUP implements IBrowserProxy, ResponseFilter {
 		DecoderResult res = response.getDecoderResult();
 
 		try {
+			if ( bFiltered ) {
+				final String url = messageInfo.getOriginalUrl();
+
+					//	decide from the URL and headers alone so the bodies of images etc. are never decoded or copied;
+					//	this also means listeners don't get an event for them
+				if ( !captureFilter.accepts( url, response.headers().get( HttpHeaderNames.CONTENT_TYPE ) ) ) {
+					return;
+				}
+
+				if ( bRecording && response.status().code() == 200 ) {
+					final String text = contents.getTextContents();
+					if ( text != null ) {
+						final String trimmed = text.trim();
+						if ( trimmed.startsWith( "{" ) || trimmed.startsWith( "[" ) ) {
+							capturedEntries.add( new BrowserProxyLogEntry( trimmed, url, "none", "none" ) );
+						}
+					}
+				}
+			}
+
 			final BrowserProxyResponseEventBUP event = new BrowserProxyResponseEventBUP( response, contents, messageInfo );
 
 			jbus.post( event );
@@ -143,6 +217,9 @@ public class BrowserProxyBUP implements IBrowserProxy, ResponseFilter {
 		}
 	}
 
+	/**
+	 * With prefs.bup_capture_filtered on, l only gets responses that pass the capture filter.
+	 */
 	@Override
 	public void addBrowserProxyResponseListener( final IBrowserProxyResponseListener l ) {
 		jbus.register( new BrowserProxyResponseListenerAdapter( l ) );
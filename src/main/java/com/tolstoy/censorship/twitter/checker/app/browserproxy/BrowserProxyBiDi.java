@@ -0,0 +1,299 @@
+/*
+ * Copyright 2022 Chris Kelly
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.tolstoy.censorship.twitter.checker.app.browserproxy;
+
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.HashMap;
+import java.util.Base64;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.dizitart.jbus.JBus;
+import org.openqa.selenium.Proxy;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.bidi.BiDi;
+import org.openqa.selenium.bidi.Command;
+import org.openqa.selenium.bidi.Event;
+import org.openqa.selenium.bidi.HasBiDi;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.tolstoy.basic.app.utils.Utils;
+import com.tolstoy.basic.api.utils.IResourceBundleWithFormatting;
+import com.tolstoy.censorship.twitter.checker.api.browserproxy.IBrowserProxy;
+import com.tolstoy.censorship.twitter.checker.api.browserproxy.IBrowserProxyResponseListener;
+import com.tolstoy.censorship.twitter.checker.api.preferences.IPreferences;
+import com.tolstoy.censorship.twitter.checker.api.browserproxy.IBrowserProxyLogEntry;
+
+/**
+ * Records responses using WebDriver BiDi network events, so there's no proxy in front of
+ * the browser, no extension, and nothing injected into the page.
+ *
+ * The driver has to have been created with the webSocketUrl capability (see
+ * CreateWebdriverFromFirefoxProfile). On the first beginRecording this subscribes to
+ * network.responseCompleted and registers a network data collector so the browser keeps
+ * response bodies around until we ask for them.
+ *
+ * Each responseCompleted event is checked against a BrowserProxyCaptureFilter using only
+ * the URL and MIME type. For the ones that match, the body is fetched with network.getData
+ * on a separate thread (a BiDi command can't be sent from the thread delivering events),
+ * queued if it's JSON, and posted to the IBrowserProxyResponseListeners as it arrives.
+ * endRecording waits for outstanding fetches and drains the queue.
+ */
+public class BrowserProxyBiDi implements IBrowserProxy {
+	@JsonIgnore
+	private static final Logger logger = LogManager.getLogger( BrowserProxyBiDi.class );
+
+	private static final Event<Map<String,Object>> RESPONSE_COMPLETED = new Event<Map<String,Object>>( "network.responseCompleted", params -> params );
+
+	private static final int MAX_ENCODED_DATA_SIZE = 50 * 1024 * 1024;
+	private static final long END_RECORDING_WAIT_MILLIS = 10000;
+
+	private final IPreferences prefs;
+	private final IResourceBundleWithFormatting bundle;
+	private final JBus jbus;
+	private final BrowserProxyCaptureFilter captureFilter;
+	private final Queue<IBrowserProxyLogEntry> capturedEntries;
+	private final AtomicInteger numPending;
+	private ExecutorService bodyFetcher;
+	private volatile boolean bRecording;
+	private BiDi bidi;
+	private String collectorID;
+
+	/**
+	 * @return true if prefs.browser_data_recorder_bidi asks for this recorder.
+	 */
+	public static boolean isEnabled( final IPreferences prefs ) {
+		return Utils.isStringTrue( prefs.getValue( "prefs.browser_data_recorder_bidi" ) );
+	}
+
+	public BrowserProxyBiDi( final IPreferences prefs, final IResourceBundleWithFormatting bundle, final JBus jbus ) {
+		this.prefs = prefs;
+		this.bundle = bundle;
+		this.jbus = jbus;
+		this.captureFilter = new BrowserProxyCaptureFilter( prefs );
+		this.capturedEntries = new ConcurrentLinkedQueue<IBrowserProxyLogEntry>();
+		this.numPending = new AtomicInteger( 0 );
+		this.bRecording = false;
+		this.bidi = null;
+		this.collectorID = null;
+	}
+
+	@Override
+	public boolean start() throws Exception {
+		if ( bodyFetcher != null ) {
+			return false;
+		}
+
+		bodyFetcher = Executors.newSingleThreadExecutor();
+
+		return true;
+	}
+
+	@Override
+	public void stop() throws Exception {
+		bRecording = false;
+
+		if ( bidi != null ) {
+			try {
+				bidi.clearListener( RESPONSE_COMPLETED );
+
+				if ( collectorID != null ) {
+					bidi.send( new Command<Object>( "network.removeDataCollector", Map.of( "collector", collectorID ) ) );
+				}
+			}
+			catch ( final Exception e ) {
+				logger.info( "cannot clear BiDi listener: " + e.getMessage() );
+			}
+
+			bidi = null;
+			collectorID = null;
+		}
+
+		if ( bodyFetcher != null ) {
+			bodyFetcher.shutdownNow();
+			bodyFetcher = null;
+		}
+	}
+
+	@Override
+	public void beginRecording( WebDriver driver, String name ) throws Exception {
+		logger.info( "beginning BrowserProxyBiDi recording..." );
+
+		if ( bidi == null ) {
+			attach( driver );
+		}
+
+		capturedEntries.clear();
+		bRecording = true;
+	}
+
+	@Override
+	public List<IBrowserProxyLogEntry> endRecording( WebDriver driver ) throws Exception {
+		logger.info( "end BrowserProxyBiDi recording" );
+
+			//	let body fetches that are already underway finish
+		final long deadline = System.currentTimeMillis() + END_RECORDING_WAIT_MILLIS;
+		while ( numPending.get() > 0 && System.currentTimeMillis() < deadline ) {
+			Utils.delay( 50 );
+		}
+
+		if ( numPending.get() > 0 ) {
+			logger.warn( "BrowserProxyBiDi: " + numPending.get() + " responses still pending at end of recording" );
+		}
+
+		bRecording = false;
+
+		final List<IBrowserProxyLogEntry> list = new ArrayList<IBrowserProxyLogEntry>( capturedEntries.size() );
+
+		IBrowserProxyLogEntry entry;
+		while ( ( entry = capturedEntries.poll() ) != null ) {
+			list.add( entry );
+		}
+
+		logger.info( "  BiDi recording count=" + list.size() );
+
+		return list;
+	}
+
+	protected void attach( final WebDriver driver ) throws Exception {
+		if ( !( driver instanceof HasBiDi ) ) {
+			throw new IllegalArgumentException( "BrowserProxyBiDi needs a driver with BiDi support" );
+		}
+
+		if ( bodyFetcher == null ) {
+			start();
+		}
+
+		bidi = ( (HasBiDi) driver ).getBiDi();
+
+		try {
+			final Map<String,Object> params = new HashMap<String,Object>();
+			params.put( "dataTypes", List.of( "response" ) );
+			params.put( "maxEncodedDataSize", MAX_ENCODED_DATA_SIZE );
+
+			final Map<String,Object> result = bidi.send( new Command<Map<String,Object>>( "network.addDataCollector", params, Map.class ) );
+			collectorID = result != null ? (String) result.get( "collector" ) : null;
+		}
+		catch ( final Exception e ) {
+			logger.warn( "BrowserProxyBiDi: browser doesn't support network.addDataCollector, response bodies may be unavailable", e );
+		}
+
+			//	addListener also sends session.subscribe for the event
+		bidi.addListener( RESPONSE_COMPLETED, this::responseCompleted );
+
+		logger.info( "BrowserProxyBiDi attached, collector=" + collectorID );
+	}
+
+	protected void responseCompleted( final Map<String,Object> params ) {
+		if ( !bRecording ) {
+			return;
+		}
+
+		try {
+			final Map<String,Object> request = (Map<String,Object>) params.get( "request" );
+			final Map<String,Object> response = (Map<String,Object>) params.get( "response" );
+			if ( request == null || response == null ) {
+				return;
+			}
+
+			final String url = (String) response.get( "url" );
+			final String mimeType = (String) response.get( "mimeType" );
+			final int status = response.get( "status" ) instanceof Number ? ( (Number) response.get( "status" ) ).intValue() : 0;
+			final String requestID = (String) request.get( "request" );
+
+				//	decide from the URL and MIME type alone so the bodies of images etc. are never fetched
+			if ( status != 200 || requestID == null || !captureFilter.accepts( url, mimeType ) ) {
+				return;
+			}
+
+			numPending.incrementAndGet();
+
+			bodyFetcher.submit( () -> {
+				try {
+					fetchBody( requestID, url, mimeType, status );
+				}
+				finally {
+					numPending.decrementAndGet();
+				}
+			} );
+		}
+		catch ( final Exception e ) {
+			logger.error( "BrowserProxyBiDi: cannot handle responseCompleted", e );
+		}
+	}
+
+	protected void fetchBody( final String requestID, final String url, final String mimeType, final int status ) {
+		try {
+			final Map<String,Object> params = new HashMap<String,Object>();
+			params.put( "request", requestID );
+			params.put( "dataType", "response" );
+			if ( collectorID != null ) {
+				params.put( "collector", collectorID );
+			}
+
+			final Map<String,Object> result = bidi.send( new Command<Map<String,Object>>( "network.getData", params, Map.class ) );
+			final Map<String,Object> bytes = result != null ? (Map<String,Object>) result.get( "bytes" ) : null;
+			if ( bytes == null || bytes.get( "value" ) == null ) {
+				return;
+			}
+
+			String text = (String) bytes.get( "value" );
+			if ( "base64".equals( bytes.get( "type" ) ) ) {
+				text = new String( Base64.getDecoder().decode( text ), StandardCharsets.UTF_8 );
+			}
+
+			final String trimmed = text.trim();
+			if ( trimmed.startsWith( "{" ) || trimmed.startsWith( "[" ) ) {
+				capturedEntries.add( new BrowserProxyLogEntry( trimmed, url, "none", "none" ) );
+			}
+
+			jbus.post( new BrowserProxyResponseEventBiDi( status, trimmed, mimeType, url ) );
+		}
+		catch ( final Exception e ) {
+			logger.info( "BrowserProxyBiDi: cannot get body for " + url + ": " + e.getMessage() );
+		}
+	}
+
+	@Override
+	public int getNumDroppedResponses() {
+		return 0;
+	}
+
+	@Override
+	public Proxy getSeleniumProxy() {
+		return null;
+	}
+
+	@Override
+	public void addBrowserProxyResponseListener( final IBrowserProxyResponseListener l ) {
+		jbus.register( new BrowserProxyResponseListenerAdapter( l ) );
+	}
+
+	@Override
+	public void removeBrowserProxyResponseListener( final IBrowserProxyResponseListener l ) {
+	}
+
+	@Override
+	public String toString() {
+		return "BiDi recorder, collector=" + collectorID + ", pending=" + numPending.get();
+	}
+}
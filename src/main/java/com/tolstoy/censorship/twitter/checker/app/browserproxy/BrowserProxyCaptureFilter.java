@@ -0,0 +1,139 @@
+/*
+ * Copyright 2022 Chris Kelly
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.tolstoy.censorship.twitter.checker.app.browserproxy;
+
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.tolstoy.basic.app.utils.Utils;
+import com.tolstoy.censorship.twitter.checker.api.preferences.IPreferences;
+
+/**
+ * Decides which responses a browser data recorder keeps, based only on the URL
+ * and the content type so that the body of anything else never has to be read.
+ *
+ * A response is kept if its URL contains one of the URL patterns, its content type
+ * contains one of the MIME patterns, and its path doesn't end with one of the skipped
+ * extensions (images, video, fonts, JS bundles, etc.).
+ *
+ * The URL patterns can be replaced with the comma-separated list in
+ * prefs.capture_url_patterns.
+ */
+public final class BrowserProxyCaptureFilter {
+	private static final Logger logger = LogManager.getLogger( BrowserProxyCaptureFilter.class );
+
+	private static final List<String> DEFAULT_URL_PATTERNS = Arrays.asList( "/graphql/",
+																			"TweetDetail",
+																			"UserTweets",
+																			"/i/api/",
+																			"adaptive.json" );
+
+	private static final List<String> DEFAULT_MIME_PATTERNS = Arrays.asList( "application/json",
+																			"text/json",
+																			"+json" );
+
+	private static final List<String> SKIPPED_EXTENSIONS = Arrays.asList( ".jpg", ".jpeg", ".png", ".gif", ".webp", ".svg", ".ico",
+																			".mp4", ".m3u8", ".m4s", ".ts", ".webm",
+																			".woff", ".woff2", ".ttf", ".otf",
+																			".js", ".mjs", ".css", ".map" );
+
+	private final List<String> urlPatterns;
+	private final List<String> mimePatterns;
+
+	public BrowserProxyCaptureFilter( final List<String> urlPatterns, final List<String> mimePatterns ) {
+		this.urlPatterns = new ArrayList<String>( urlPatterns );
+		this.mimePatterns = new ArrayList<String>( mimePatterns );
+	}
+
+	public BrowserProxyCaptureFilter( final IPreferences prefs ) {
+		this( getURLPatterns( prefs ), DEFAULT_MIME_PATTERNS );
+	}
+
+	/**
+	 * @return true if the URL could be one we want. Call this before reading the body.
+	 */
+	public boolean acceptsURL( final String url ) {
+		if ( Utils.isEmpty( url ) ) {
+			return false;
+		}
+
+		String path = StringUtils.substringBefore( url, "?" ).toLowerCase();
+		for ( final String ext : SKIPPED_EXTENSIONS ) {
+			if ( path.endsWith( ext ) ) {
+				return false;
+			}
+		}
+
+		for ( final String pattern : urlPatterns ) {
+			if ( url.contains( pattern ) ) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * @return true if the content type is one we want. A missing content type is accepted
+	 * since the body will be checked for JSON anyway.
+	 */
+	public boolean acceptsMimeType( final String contentType ) {
+		if ( Utils.isEmpty( contentType ) ) {
+			return true;
+		}
+
+		final String lower = contentType.toLowerCase();
+		for ( final String pattern : mimePatterns ) {
+			if ( lower.contains( pattern ) ) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	public boolean accepts( final String url, final String contentType ) {
+		return acceptsURL( url ) && acceptsMimeType( contentType );
+	}
+
+	private static List<String> getURLPatterns( final IPreferences prefs ) {
+		final String value = prefs != null ? Utils.trimDefault( prefs.getValue( "prefs.capture_url_patterns" ) ) : "";
+		if ( Utils.isEmpty( value ) ) {
+			return DEFAULT_URL_PATTERNS;
+		}
+
+		final List<String> ret = new ArrayList<String>();
+		for ( final String pattern : value.split( "," ) ) {
+			if ( !Utils.isEmpty( pattern.trim() ) ) {
+				ret.add( pattern.trim() );
+			}
+		}
+
+		return ret.isEmpty() ? DEFAULT_URL_PATTERNS : ret;
+	}
+
+	@Override
+	public String toString() {
+		return new ToStringBuilder( this )
+		.append( "urlPatterns", urlPatterns )
+		.append( "mimePatterns", mimePatterns )
+		.toString();
+	}
+}
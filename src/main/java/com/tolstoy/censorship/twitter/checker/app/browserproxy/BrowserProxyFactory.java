@@ -62,6 +62,9 @@ public class BrowserProxyFactory implements IBrowserProxyFactory {
 			case HAR_EXPORT_EXTENSION:
 				return new BrowserProxyHAR( prefs, bundle, jbus, browserScriptFactory );
 
+			case BIDI_NETWORK_EVENTS:
+				return new BrowserProxyBiDi( prefs, bundle, jbus );
+
 			default:
 				return new BrowserProxyXHR( prefs, bundle, jbus, browserScriptFactory );
 		}
@@ -74,12 +74,9 @@ public class BrowserProxyHAR implements IBrowserProxy {
 	public List<IBrowserProxyLogEntry> endRecording( WebDriver driver ) throws Exception {
 		logger.info( "end recording" );
 
-		final String suedeDenimHARRetrieverScript = browserScriptFactory.getScript( "har_retriever" ).getScript();
-		logger.info( "got script, calling it" );
+		logger.info( "calling har_retriever script" );
 
-		JavascriptExecutor javascriptExecutor = (JavascriptExecutor) driver;
-
-		Map<String,Object> resultsData = (Map<String,Object>) javascriptExecutor.executeAsyncScript( suedeDenimHARRetrieverScript, new HashMap<String,Object>() );
+		Map<String,Object> resultsData = (Map<String,Object>) browserScriptFactory.executeAsyncScript( driver, "har_retriever", new HashMap<String,Object>() );
 		logger.info( "called script" );
 
 		List<Map<String,Object>> entries = (List<Map<String,Object>>) resultsData.get( "entries" );
@@ -101,6 +98,11 @@ public class BrowserProxyHAR implements IBrowserProxy {
 		return list;
 	}
 
+	@Override
+	public int getNumDroppedResponses() {
+		return 0;
+	}
+
 	@Override
 	public Proxy getSeleniumProxy() {
 		return null;
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2022 Chris Kelly
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.tolstoy.censorship.twitter.checker.app.browserproxy;
+
+import java.util.List;
+import java.util.ArrayList;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.Proxy;
+import org.openqa.selenium.WebDriver;
+
+import com.tolstoy.censorship.twitter.checker.api.browserproxy.IBrowserProxy;
+import com.tolstoy.censorship.twitter.checker.api.browserproxy.IBrowserProxyResponseListener;
+import com.tolstoy.censorship.twitter.checker.api.browserproxy.IBrowserProxyLogEntry;
+import com.tolstoy.censorship.twitter.checker.app.jboto.ReplayManifest;
+
+/**
+ * Plays back the JSON responses that were archived for each page of a recorded run.
+ * beginRecording is given the page URL, and endRecording returns that page's responses
+ * as read back from the archive directory.
+ */
+public class BrowserProxyReplay implements IBrowserProxy {
+	private static final Logger logger = LogManager.getLogger( BrowserProxyReplay.class );
+
+	private final ReplayManifest manifest;
+	private String currentURL;
+
+	public BrowserProxyReplay( final ReplayManifest manifest ) {
+		this.manifest = manifest;
+		this.currentURL = null;
+	}
+
+	@Override
+	public boolean start() throws Exception {
+		return true;
+	}
+
+	@Override
+	public void stop() throws Exception {
+	}
+
+	@Override
+	public void beginRecording( WebDriver driver, String name ) throws Exception {
+		currentURL = name;
+	}
+
+	@Override
+	public List<IBrowserProxyLogEntry> endRecording( WebDriver driver ) throws Exception {
+		final List<String> jsonStrings = manifest.getJSONStrings( currentURL );
+
+		final List<IBrowserProxyLogEntry> list = new ArrayList<IBrowserProxyLogEntry>( jsonStrings.size() );
+		for ( final String json : jsonStrings ) {
+			list.add( new BrowserProxyLogEntry( json, currentURL, "none", "none" ) );
+		}
+
+		logger.info( "replayed " + list.size() + " responses for " + currentURL );
+
+		return list;
+	}
+
+	@Override
+	public int getNumDroppedResponses() {
+		return 0;
+	}
+
+	@Override
+	public Proxy getSeleniumProxy() {
+		return null;
+	}
+
+	@Override
+	public void addBrowserProxyResponseListener( final IBrowserProxyResponseListener l ) {
+	}
+
+	@Override
+	public void removeBrowserProxyResponseListener( final IBrowserProxyResponseListener l ) {
+	}
+
+	@Override
+	public String toString() {
+		return "replaying " + currentURL;
+	}
+}
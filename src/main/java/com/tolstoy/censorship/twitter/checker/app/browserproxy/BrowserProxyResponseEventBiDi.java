@@ -0,0 +1,105 @@
+/*
+ * Copyright 2018 Chris Kelly
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.tolstoy.censorship.twitter.checker.app.browserproxy;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import com.tolstoy.censorship.twitter.checker.api.browserproxy.IBrowserProxyResponseEvent;
+
+public class BrowserProxyResponseEventBiDi implements IBrowserProxyResponseEvent {
+	private final String text, contentType, requestURL;
+	private final int responseCode;
+
+	public BrowserProxyResponseEventBiDi( final int responseCode, final String text, final String contentType, final String requestURL ) {
+		this.responseCode = responseCode;
+		this.text = text;
+		this.contentType = contentType;
+		this.requestURL = requestURL;
+	}
+
+	@Override
+	public boolean isJSON() {
+		String test = getText();
+		if ( test == null || test.length() < 3 ) {
+			return false;
+		}
+
+		test = test.trim();
+		if ( test.length() < 3 || !( test.charAt( 0 ) == '[' || test.charAt( 0 ) == '{' ) ) {
+			return false;
+		}
+
+		if ( contentType == null || !( contentType.indexOf( "javascript" ) > -1 || contentType.indexOf( "json" ) > -1 ) ) {
+			return false;
+		}
+
+		return true;
+	}
+
+	@Override
+	public int getResponseCode() {
+		return responseCode;
+	}
+
+	@Override
+	public String getText() {
+		return text;
+	}
+
+	@Override
+	public long getTextLength() {
+		return StringUtils.length( getText() );
+	}
+
+	@Override
+	public byte[] getBinary() {
+		return text != null ? text.getBytes( StandardCharsets.UTF_8 ) : null;
+	}
+
+	@Override
+	public long getBinaryLength() {
+		final byte[] binary = getBinary();
+		return binary != null ? binary.length : 0;
+	}
+
+	@Override
+	public String getContentType() {
+		return contentType;
+	}
+
+	@Override
+	public Charset getCharset() {
+		return StandardCharsets.UTF_8;
+	}
+
+	@Override
+	public String getRequestURL() {
+		return requestURL;
+	}
+
+	@Override
+	public String toString() {
+		return new ToStringBuilder( this )
+		.appendSuper( super.toString() )
+		.append( "url", getRequestURL() )
+		.append( "content type", getContentType() )
+		.append( "code", getResponseCode() )
+		.append( "text len", getTextLength() )
+		.toString();
+	}
+}
@@ -28,4 +28,9 @@ public class BrowserProxyResponseListenerAdapter {
 	public void listen( final BrowserProxyResponseEventBUP event ) {
 		target.responseEventFired( event );
 	}
+
+	@Subscribe
+	public void listen( final BrowserProxyResponseEventBiDi event ) {
+		target.responseEventFired( event );
+	}
 }
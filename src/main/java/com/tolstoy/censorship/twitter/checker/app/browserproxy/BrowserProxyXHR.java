@@ -53,12 +53,25 @@ public class BrowserProxyXHR implements IBrowserProxy {
 	private final IResourceBundleWithFormatting bundle;
 	private final IBrowserScriptFactory browserScriptFactory;
 	private final JBus jbus;
+	private final List<IBrowserProxyLogEntry> drained;
+	private long cursor;
+	private int numDropped;
+
+	private static final int DRAIN_CHUNK_SIZE = 50;
+
+	private static final String DRAIN_SCRIPT = "var c = window.ajaxCollector;" +
+												"if ( !c ) { return null; }" +
+												"c.ack( arguments[ 0 ] );" +
+												"return JSON.stringify( c.drain( arguments[ 0 ], arguments[ 1 ] ) );";
 
 	public BrowserProxyXHR( final IPreferences prefs, final IResourceBundleWithFormatting bundle, final JBus jbus, IBrowserScriptFactory browserScriptFactory ) {
 		this.prefs = prefs;
 		this.bundle = bundle;
 		this.jbus = jbus;
 		this.browserScriptFactory = browserScriptFactory;
+		this.drained = new ArrayList<IBrowserProxyLogEntry>( 1000 );
+		this.cursor = 0;
+		this.numDropped = 0;
 	}
 
 	@Override
@@ -76,6 +89,13 @@ public class BrowserProxyXHR implements IBrowserProxy {
 
 		( (JavascriptExecutor) driver ).executeScript( ajaxCollectorScript );
 
+		synchronized ( drained ) {
+			drained.clear();
+			numDropped = 0;
+			final Object start = ( (JavascriptExecutor) driver ).executeScript( "return window.ajaxCollector ? window.ajaxCollector.cursor() : 0;" );
+			cursor = start instanceof Number ? ( (Number) start ).longValue() : 0;
+		}
+
 		logger.info( "beginning BrowserProxyXHR recording..." );
 	}
 
@@ -83,9 +103,80 @@ public class BrowserProxyXHR implements IBrowserProxy {
 	public List<IBrowserProxyLogEntry> endRecording( WebDriver driver ) throws Exception {
 		logger.info( "end BrowserProxyXHR recording" );
 
+		synchronized ( drained ) {
+			if ( drain( driver ) < 0 ) {
+				return endRecordingFromSessionStorage( driver );
+			}
+
+			final List<IBrowserProxyLogEntry> list = new ArrayList<IBrowserProxyLogEntry>( drained );
+			drained.clear();
+
+			return list;
+		}
+	}
+
+	/**
+	 * Move everything the page has collected since the last call into our list, a chunk
+	 * at a time, and tell the page it can free what we've taken. Only endRecording calls this:
+	 * the scrolling happens inside the tweet_retriever script, which holds the driver until
+	 * it's done, so the page keeps the whole recording until then. The collector's own
+	 * maxEntries/maxChars limits bound that, and anything it has to throw away is counted
+	 * in getNumDroppedResponses.
+	 * @return the number of responses moved, or -1 if the collector isn't installed on the page.
+	 */
+	public int drain( final WebDriver driver ) throws Exception {
+		final JavascriptExecutor js = (JavascriptExecutor) driver;
+		int total = 0;
+		int dropped = 0;
+
+		synchronized ( drained ) {
+			while ( true ) {
+				final String json = (String) js.executeScript( DRAIN_SCRIPT, Long.valueOf( cursor ), Integer.valueOf( DRAIN_CHUNK_SIZE ) );
+				if ( json == null ) {
+					return -1;
+				}
+
+				final JSONObject chunk = new JSONObject( json );
+				final JSONArray ary = chunk.getJSONArray( "entries" );
+
+				for ( Object raw : ary ) {
+					if ( raw instanceof String && Utils.isJSON( (String) raw ) ) {
+						drained.add( new BrowserProxyLogEntry( (String) raw, "none", "none", "none" ) );
+					}
+				}
+
+				total += ary.length();
+				cursor = chunk.getLong( "next" );
+
+				dropped = chunk.optInt( "dropped", 0 );
+
+				if ( ary.length() < 1 || chunk.optInt( "remaining", 0 ) < 1 ) {
+					break;
+				}
+			}
+
+			js.executeScript( "if ( window.ajaxCollector ) { window.ajaxCollector.ack( arguments[ 0 ] ); }", Long.valueOf( cursor ) );
+
+			if ( dropped > numDropped ) {
+				logger.warn( "BrowserProxyXHR: page dropped " + ( dropped - numDropped ) + " responses before they could be drained" );
+				numDropped = dropped;
+			}
+		}
+
+		return total;
+	}
+
+	/**
+	 * Older collector scripts stored base64-encoded responses in sessionStorage.
+	 */
+	protected List<IBrowserProxyLogEntry> endRecordingFromSessionStorage( WebDriver driver ) throws Exception {
 		List<IBrowserProxyLogEntry> list = new ArrayList<IBrowserProxyLogEntry>( 1000 );
 
 		String json = (String) ( (JavascriptExecutor) driver ).executeScript( "return sessionStorage.getItem( 'JSONStrings' );" );
+		if ( json == null ) {
+			return list;
+		}
+
 		JSONArray ary = new JSONArray( json );
 		for ( Object raw : ary ) {
 			try {
@@ -104,6 +195,13 @@ public class BrowserProxyXHR implements IBrowserProxy {
 		return list;
 	}
 
+	@Override
+	public int getNumDroppedResponses() {
+		synchronized ( drained ) {
+			return numDropped;
+		}
+	}
+
 	@Override
 	public Proxy getSeleniumProxy() {
 		return null;
@@ -57,6 +57,9 @@ public class SearchRunProcessorWriteReport implements ISearchRunProcessor {
 		ITweetRanker tweetRanker;
 
 		tweetRanker = analysisReportFactory.makeTweetRankerJavascript();
+		if ( tweetRanker == null ) {
+			tweetRanker = analysisReportFactory.makeTweetRankerFormula();
+		}
 		if ( tweetRanker == null ) {
 			tweetRanker = analysisReportFactory.makeTweetRankerBasic();
 		}
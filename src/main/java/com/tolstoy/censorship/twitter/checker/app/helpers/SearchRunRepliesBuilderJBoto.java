@@ -174,6 +174,8 @@ final public class SearchRunRepliesBuilderJBoto {
 
 			String testJSON = IOUtils.toString( getClass().getResource( "/jboto-replies.json" ), StandardCharsets.UTF_8 );
 
+			env.setJBotoDefinition( testJSON );
+
 			IFrameworkFactory factory = new FrameworkFactory( createResolver() );
 
 			IFramework framework = factory.makeFrameworkFromJSON( "test", testJSON );
@@ -176,6 +176,8 @@ final public class SearchRunTimelineBuilder /*implements IBrowserProxyResponseLi
 
 			String testJSON = IOUtils.toString( getClass().getResource( "/jboto-timeline.json" ), StandardCharsets.UTF_8 );
 
+			env.setJBotoDefinition( testJSON );
+
 			IFrameworkFactory factory = new FrameworkFactory( createResolver() );
 
 			IFramework framework = factory.makeFrameworkFromJSON( "test", testJSON );
@@ -21,6 +21,8 @@ import java.nio.charset.Charset;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.commons.io.FileUtils;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
 
 import com.tolstoy.censorship.twitter.checker.api.installation.IBrowserScriptFactory;
 import com.tolstoy.censorship.twitter.checker.api.installation.IBrowserScript;
@@ -28,11 +30,28 @@ import com.tolstoy.censorship.twitter.checker.api.installation.IBrowserScript;
 public class BrowserScriptFactory implements IBrowserScriptFactory {
 	private static final Logger logger = LogManager.getLogger( BrowserScriptFactory.class );
 
+	//	returned by a stub when the page doesn't have the current library installed
+	private static final String RESIDENT_MISSING = "SUEDEDENIM_RESIDENT_MISSING";
+
 	private final Map<String,IBrowserScript> map;
+	private final Map<String,String> residentStubs;
 	private final String[] scriptNames = { "tweet_retriever", "json_parser", "har_retriever" };
+	private final String residentLibrary, residentVersion;
+	private final boolean bResident;
 
 	public BrowserScriptFactory( final File stockscriptsDir ) throws Exception {
+		this( stockscriptsDir, true );
+	}
+
+	/**
+	 * @param bResident if true, executeAsyncScript installs jQuery and SuedeDenim into
+	 * each page once and then only sends a stub that calls the installed code. If false,
+	 * the full script is sent every time.
+	 */
+	public BrowserScriptFactory( final File stockscriptsDir, final boolean bResident ) throws Exception {
 		this.map = new HashMap<String,IBrowserScript>( 2 );
+		this.residentStubs = new HashMap<String,String>( 4 );
+		this.bResident = bResident;
 
 		final File jqueryFile = new File( stockscriptsDir, "jquery.js" );
 		if ( !jqueryFile.exists() ) {
@@ -75,6 +94,57 @@ public class BrowserScriptFactory implements IBrowserScriptFactory {
 		map.put( "json_parser", new BrowserScript( "json_parser", jQueryContents + "\n\n" + suedeDenimContents + "\n\n" + jsonParserFooterContents ) );
 		map.put( "har_retriever", new BrowserScript( "har_retriever", jQueryContents + "\n\n" + suedeDenimContents + "\n\n" + harRetrieverFooterContents ) );
 		map.put( "ajax_collector", new BrowserScript( "ajax_collector", ajaxCollectorContents ) );
+
+		//	jQuery.noConflict( true ) in the Starters removes window.jQuery, so keep our copy next to the version
+		this.residentVersion = Integer.toHexString( jQueryContents.hashCode() ) + Integer.toHexString( suedeDenimContents.hashCode() );
+		this.residentLibrary = jQueryContents + "\n\n" + suedeDenimContents + "\n\n" +
+								"window.com.tolstoy.resident = { version: arguments[ 0 ], jQuery: window.jQuery };\n";
+
+		residentStubs.put( "tweet_retriever", makeResidentStub( tweetRetrieverFooterContents ) );
+		residentStubs.put( "json_parser", makeResidentStub( jsonParserFooterContents ) );
+		residentStubs.put( "har_retriever", makeResidentStub( harRetrieverFooterContents ) );
+	}
+
+	@Override
+	public Object executeAsyncScript( final WebDriver driver, final String name, final Object... args ) throws Exception {
+		final JavascriptExecutor javascriptExecutor = (JavascriptExecutor) driver;
+
+		final String stub = residentStubs.get( name );
+		if ( !bResident || stub == null ) {
+			return javascriptExecutor.executeAsyncScript( getScript( name ).getScript(), args );
+		}
+
+		Object ret = javascriptExecutor.executeAsyncScript( stub, args );
+		if ( !RESIDENT_MISSING.equals( ret ) ) {
+			return ret;
+		}
+
+		logger.info( "installing SuedeDenim version " + residentVersion + " before running " + name );
+
+		javascriptExecutor.executeScript( residentLibrary, residentVersion );
+
+		ret = javascriptExecutor.executeAsyncScript( stub, args );
+		if ( !RESIDENT_MISSING.equals( ret ) ) {
+			return ret;
+		}
+
+		logger.info( "cannot install SuedeDenim, sending the full " + name + " script" );
+
+		return javascriptExecutor.executeAsyncScript( getScript( name ).getScript(), args );
+	}
+
+	/**
+	 * The footers get their callback from the arguments array, so the stub just checks
+	 * for the installed library, restores jQuery, and then runs the footer.
+	 */
+	protected String makeResidentStub( final String footerContents ) {
+		return "var resident = window.com && window.com.tolstoy ? window.com.tolstoy.resident : null;\n" +
+				"if ( !resident || resident.version !== '" + residentVersion + "' ) {\n" +
+				"\targuments[ arguments.length - 1 ]( '" + RESIDENT_MISSING + "' );\n" +
+				"\treturn;\n" +
+				"}\n" +
+				"window.jQuery = resident.jQuery;\n\n" +
+				footerContents;
 	}
 
 	public IBrowserScript getScript( String name ) throws Exception {
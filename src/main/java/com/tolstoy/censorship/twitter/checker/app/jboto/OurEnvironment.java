@@ -13,12 +13,15 @@
  */
 package com.tolstoy.censorship.twitter.checker.app.jboto;
 
+import java.io.File;
 import java.util.List;
 import java.util.ArrayList;
 import java.time.Duration;
+import java.time.Instant;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.WebDriver;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.exception.ExceptionUtils;
@@ -33,6 +36,7 @@ import com.tolstoy.basic.api.tweet.ITweet;
 import com.tolstoy.basic.api.tweet.ITweetCollection;
 import com.tolstoy.basic.api.tweet.ITweetFactory;
 import com.tolstoy.basic.api.tweet.ITweetUser;
+import com.tolstoy.basic.api.tweet.TargetPageType;
 import com.tolstoy.basic.api.utils.IResourceBundleWithFormatting;
 import com.tolstoy.basic.api.utils.IArchiveDirectory;
 import com.tolstoy.basic.app.utils.KeyedLists;
@@ -61,6 +65,9 @@ import com.tolstoy.censorship.twitter.checker.api.webdriver.IWebDriverFactoryFac
 import com.tolstoy.censorship.twitter.checker.api.webdriver.IWebDriverUtils;
 import com.tolstoy.censorship.twitter.checker.api.webdriver.InfiniteScrollingActivatorType;
 import com.tolstoy.censorship.twitter.checker.api.webdriver.WebDriverFactoryType;
+import com.tolstoy.censorship.twitter.checker.app.webdriver.ntjs.JavascriptInterchangeContainer;
+import com.tolstoy.censorship.twitter.checker.app.webdriver.ntjs.JavascriptParams;
+import com.tolstoy.censorship.twitter.checker.app.webdriver.ntjs.JSONInterchangeContainerMaker;
 
 public class OurEnvironment implements IEnvironment {
 	private static final Logger logger = LogManager.getLogger( OurEnvironment.class );
@@ -84,6 +91,7 @@ public class OurEnvironment implements IEnvironment {
 	private final IAppDirectories appDirectories;
 	private final IBrowserExtensionFactory browserExtensionFactory;
 	private final IBrowserExtensionList extensionsToInstall;
+	private final JSONInterchangeContainerMaker jsonInterchangeContainerMaker;
 	/*private final KeyedLists<IBrowserProxyResponseEvent> proxyEvents;*/
 	private IWebDriverUtils webDriverUtils;
 	private IWebDriverFactory webDriverFactory;
@@ -91,6 +99,9 @@ public class OurEnvironment implements IEnvironment {
 	private WebDriver webDriver;
 	private IBrowserProxy browserProxy;
 	private DebugLevel debugLevel;
+	private ReplayManifest replayRecording;
+	private String jbotoDefinition;
+	private boolean bArchiveResponses = true;
 
 	public OurEnvironment( final IResourceBundleWithFormatting bundle,
 							final IStorage storage,
@@ -126,12 +137,43 @@ public class OurEnvironment implements IEnvironment {
 		this.browserExtensionFactory = browserExtensionFactory;
 		this.extensionsToInstall = extensionsToInstall;
 		this.debugLevel = debugLevel;
+		this.jsonInterchangeContainerMaker = new JSONInterchangeContainerMaker( browserScriptFactory, prefs, tweetFactory, bundle );
 
 		if ( webDriverFactoryFactory == null ) {
 			throw new RuntimeException( bundle.getString( "exc_no_webdriverfactory" ) );
 		}
 	}
 
+	/**
+	 * Make an environment that shares everything with this one except for
+	 * the per-browser state (WebDriver, WebDriverUtils, data recorder, etc.),
+	 * so that another browser can be driven from another thread.
+	 */
+	public OurEnvironment makeWorkerEnvironment() throws Exception {
+		final OurEnvironment ret = new OurEnvironment( bundle,
+									storage,
+									prefsFactory,
+									prefs,
+									webDriverFactoryFactory,
+									searchRunFactory,
+									snapshotFactory,
+									tweetFactory,
+									browserProxyFactory,
+									archiveDirectory,
+									statusMessageReceiver,
+									appDirectories,
+									analysisReportFactory,
+									browserScriptFactory,
+									browserExtensionFactory,
+									extensionsToInstall,
+									debugLevel );
+
+		ret.setReplayRecording( replayRecording );
+		ret.setJBotoDefinition( jbotoDefinition );
+
+		return ret;
+	}
+
 	public Duration getGeneralTimeout() {
 		return TIMEOUT;
 	}
@@ -253,8 +295,88 @@ public class OurEnvironment implements IEnvironment {
 		return archiveDirectory;
 	}
 
+	/**
+	 * @return the manifest that pages are being recorded to so the run can be replayed, or null if not recording.
+	 */
+	public ReplayManifest getReplayRecording() {
+		return replayRecording;
+	}
+
+	public void setReplayRecording( ReplayManifest val ) {
+		replayRecording = val;
+	}
+
+	/**
+	 * @return the JSON of the jboto definition being run, or null if it wasn't set.
+	 */
+	public String getJBotoDefinition() {
+		return jbotoDefinition;
+	}
+
+	public void setJBotoDefinition( String val ) {
+		jbotoDefinition = val;
+	}
+
+	/**
+	 * If prefs.replay_record is on, start recording a replay manifest for this run.
+	 * @return the new manifest, or null if not recording.
+	 */
+	public ReplayManifest beginReplayRecording( final String handleToCheck ) {
+		if ( !Utils.isStringTrue( prefs.getValue( "prefs.replay_record" ) ) ) {
+			return null;
+		}
+
+		final ReplayManifest manifest = new ReplayManifest( appDirectories.getReportsDirectory() );
+		manifest.setHandleToCheck( handleToCheck );
+		setReplayRecording( manifest );
+
+		return manifest;
+	}
+
+	/**
+	 * If a replay manifest is being recorded, save it to the reports directory as
+	 * replay-HANDLE-STARTMILLIS.json and stop recording.
+	 */
+	public void endReplayRecording( final String handleToCheck, final Instant startTime ) throws Exception {
+		final ReplayManifest manifest = getReplayRecording();
+		if ( manifest == null ) {
+			return;
+		}
+
+		final File file = new File( appDirectories.getReportsDirectory(), "replay-" + handleToCheck + "-" + startTime.toEpochMilli() + ".json" );
+		manifest.save( file );
+		setReplayRecording( null );
+		logInfo( logger, "Saved replay manifest to " + file );
+	}
+
+	/**
+	 * @param val if false, saveJSONStrings doesn't put the responses in the archive directory.
+	 * Used when replaying, since the responses came from there.
+	 */
+	public void setArchiveResponses( boolean val ) {
+		bArchiveResponses = val;
+	}
+
+	/**
+	 * Record what tweet_retriever returned for a page, if a replay manifest is being recorded.
+	 */
+	public void recordReplayPage( final String url, final List<? extends Object> rawInterchangeData ) {
+		if ( replayRecording != null && rawInterchangeData != null ) {
+			replayRecording.recordPage( url, webDriver != null ? webDriver.getTitle() : "", rawInterchangeData );
+		}
+	}
+
 	public List<String> saveJSONStrings( final List<IBrowserProxyLogEntry> responses, final IArchiveDirectory archiveDirectory ) throws Exception {
+		return saveJSONStrings( responses, archiveDirectory, null );
+	}
+
+	/**
+	 * Archive the JSON responses and, if a replay manifest is being recorded and url isn't
+	 * null, add the archive file names to the manifest for that url.
+	 */
+	public List<String> saveJSONStrings( final List<IBrowserProxyLogEntry> responses, final IArchiveDirectory archiveDirectory, final String url ) throws Exception {
 		final List<String> jsonStrings = new ArrayList<String>( 10 );
+		final List<String> archiveFilenames = new ArrayList<String>( 10 );
 
 		for ( IBrowserProxyLogEntry response : responses ) {
 			String responseContent = response.getContent();
@@ -282,22 +404,81 @@ public class OurEnvironment implements IEnvironment {
 
 			jsonStrings.add( responseContent );
 
-			String archiveFilename = archiveDirectory.put( responseContent );
+			if ( !bArchiveResponses ) {
+				continue;
+			}
+
+				//	worker environments share the archive directory
+			String archiveFilename;
+			synchronized ( archiveDirectory ) {
+				archiveFilename = archiveDirectory.put( responseContent );
+			}
+			archiveFilenames.add( archiveFilename );
 			//logger.info( "ARCHIVE SAVED " + responseURL + " TO " + archiveFilename );
 		}
 
+		if ( replayRecording != null && url != null ) {
+			replayRecording.recordArchiveFiles( url, archiveFilenames );
+		}
+
 		return jsonStrings;
 	}
 
 	public List<String> saveJSONStringsDirect( final List<String> responses, final IArchiveDirectory archiveDirectory ) throws Exception {
 		for ( String responseContent : responses ) {
-			String archiveFilename = archiveDirectory.put( responseContent );
+			String archiveFilename;
+			synchronized ( archiveDirectory ) {
+				archiveFilename = archiveDirectory.put( responseContent );
+			}
 			//logger.info( "ARCHIVE SAVED " + responseURL + " TO " + archiveFilename );
 		}
 
 		return responses;
 	}
 
+	/**
+	 * Turn the JSON strings captured by the browser data recorder into tweets, users,
+	 * and supposed qualities. See JSONInterchangeContainerMaker.
+	 * @return null if the json_parser script didn't return anything.
+	 */
+	public JavascriptInterchangeContainer makeJSONInterchangeContainer( final String url, final List<String> jsonStrings ) throws Exception {
+		final JavascriptParams jsParams = new JavascriptParams( url, TargetPageType.TIMELINE, debugLevel );
+
+		return jsonInterchangeContainerMaker.makeJSONInterchangeContainer( webDriver, jsonStrings, jsParams, getGeneralTimeout() );
+	}
+
+	/**
+	 * If the browser data recorder lost responses during the recording that just ended, the
+	 * page's tweets can't all be supplemented, so mark the page incomplete.
+	 */
+	public void checkDroppedResponses( final JavascriptInterchangeContainer jic, final String url ) {
+		final String message = checkDroppedResponses( browserProxy, jic, url );
+		if ( message != null ) {
+			statusMessageReceiver.addMessage( new StatusMessage( message, StatusMessageSeverity.WARN ) );
+		}
+	}
+
+	/**
+	 * The same check for code that has a browser proxy but no environment.
+	 * @return the warning that was logged, or null if nothing was dropped.
+	 */
+	public static String checkDroppedResponses( final IBrowserProxy browserProxy, final JavascriptInterchangeContainer jic, final String url ) {
+		final int numDropped = browserProxy != null ? browserProxy.getNumDroppedResponses() : 0;
+		if ( numDropped < 1 ) {
+			return null;
+		}
+
+		final String message = "browser data recorder dropped " + numDropped + " responses from " + url + ", marking the page incomplete";
+
+		logger.warn( message );
+
+		if ( jic != null && jic.getMetadata() != null ) {
+			jic.getMetadata().setCompleted( false );
+		}
+
+		return message;
+	}
+
 	public void logInfo( final Logger logger, final String s ) {
 		logger.info( s );
 		statusMessageReceiver.addMessage( new StatusMessage( s, StatusMessageSeverity.INFO ) );
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2022 Chris Kelly
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.tolstoy.censorship.twitter.checker.app.jboto;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.LinkedHashMap;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.tolstoy.basic.app.utils.Utils;
+
+/**
+ * Everything about a run that came from the browser, so the run can be replayed later
+ * without one: for each page URL, the page title, what the tweet_retriever script
+ * returned, and the names of the archive files that the page's JSON responses were
+ * saved to. Replies runs also keep the itinerary they were run from, so replay
+ * can start from the same tweets.
+ *
+ * The responses themselves aren't copied; they're read back from the archive
+ * directory. Files that have been deleted from the archive are skipped.
+ *
+ * Pages can be recorded from several browsers at once, so the recording methods
+ * are synchronized.
+ */
+public class ReplayManifest {
+	private static final Logger logger = LogManager.getLogger( ReplayManifest.class );
+
+	private static final String KEY_HANDLE = "handleToCheck";
+	private static final String KEY_ITINERARY = "itinerary";
+	private static final String KEY_PAGES = "pages";
+	private static final String KEY_TITLE = "title";
+	private static final String KEY_INTERCHANGE = "interchange";
+	private static final String KEY_ARCHIVE_FILES = "archiveFiles";
+
+	private final File archiveBaseDirectory;
+	private final Map<String,Map<String,Object>> pages;
+	private String handleToCheck;
+	private String itineraryJSON;
+
+	/**
+	 * @param archiveBaseDirectory directory that relative archive file names are resolved against.
+	 */
+	public ReplayManifest( final File archiveBaseDirectory ) {
+		this.archiveBaseDirectory = archiveBaseDirectory;
+		this.pages = new LinkedHashMap<String,Map<String,Object>>();
+		this.handleToCheck = "";
+		this.itineraryJSON = null;
+	}
+
+	public static ReplayManifest load( final File file, final File archiveBaseDirectory ) throws Exception {
+		final String json = FileUtils.readFileToString( file, StandardCharsets.UTF_8 );
+
+		final Map<String,Object> map = Utils.getDefaultObjectMapper().readValue( json, new TypeReference<Map<String,Object>>(){} );
+
+		final ReplayManifest ret = new ReplayManifest( archiveBaseDirectory );
+		ret.handleToCheck = Utils.trimDefault( (String) map.get( KEY_HANDLE ) );
+		ret.itineraryJSON = (String) map.get( KEY_ITINERARY );
+
+		final Map<String,Map<String,Object>> pages = (Map<String,Map<String,Object>>) map.get( KEY_PAGES );
+		if ( pages != null ) {
+			ret.pages.putAll( pages );
+		}
+
+		logger.info( "loaded replay manifest " + file + " with " + ret.pages.size() + " pages" );
+
+		return ret;
+	}
+
+	public synchronized void save( final File file ) throws Exception {
+		final Map<String,Object> map = new LinkedHashMap<String,Object>();
+		map.put( KEY_HANDLE, handleToCheck );
+		if ( itineraryJSON != null ) {
+			map.put( KEY_ITINERARY, itineraryJSON );
+		}
+		map.put( KEY_PAGES, pages );
+
+		FileUtils.writeStringToFile( file, Utils.getDefaultObjectMapper().writeValueAsString( map ), StandardCharsets.UTF_8 );
+
+		logger.info( "saved replay manifest with " + pages.size() + " pages to " + file );
+	}
+
+	public synchronized String getHandleToCheck() {
+		return handleToCheck;
+	}
+
+	public synchronized void setHandleToCheck( final String val ) {
+		handleToCheck = Utils.trimDefault( val );
+	}
+
+	/**
+	 * @return the JSON of the itinerary a replies run was started from, or null for a timeline run.
+	 */
+	public synchronized String getItineraryJSON() {
+		return itineraryJSON;
+	}
+
+	public synchronized void setItineraryJSON( final String val ) {
+		itineraryJSON = val;
+	}
+
+	public synchronized boolean hasPage( final String url ) {
+		return pages.containsKey( url );
+	}
+
+	public synchronized void recordPage( final String url, final String title, final List<? extends Object> rawInterchangeData ) {
+		final Map<String,Object> page = getOrCreatePage( url );
+		page.put( KEY_TITLE, title );
+		page.put( KEY_INTERCHANGE, rawInterchangeData );
+	}
+
+	public synchronized void recordArchiveFiles( final String url, final List<String> archiveFilenames ) {
+		getOrCreatePage( url ).put( KEY_ARCHIVE_FILES, new ArrayList<String>( archiveFilenames ) );
+	}
+
+	public synchronized String getTitle( final String url ) {
+		final Map<String,Object> page = pages.get( url );
+		return page != null ? (String) page.get( KEY_TITLE ) : null;
+	}
+
+	/**
+	 * @return what tweet_retriever returned for the page, or null if the page wasn't recorded.
+	 */
+	public synchronized List<? extends Object> getInterchangeData( final String url ) {
+		final Map<String,Object> page = pages.get( url );
+		return page != null ? (List<? extends Object>) page.get( KEY_INTERCHANGE ) : null;
+	}
+
+	/**
+	 * @return the page's JSON responses, read back from the archive.
+	 */
+	public List<String> getJSONStrings( final String url ) {
+		final List<String> filenames;
+
+		synchronized ( this ) {
+			final Map<String,Object> page = pages.get( url );
+			filenames = page != null && page.get( KEY_ARCHIVE_FILES ) != null ? new ArrayList<String>( (List<String>) page.get( KEY_ARCHIVE_FILES ) ) : new ArrayList<String>();
+		}
+
+		final List<String> ret = new ArrayList<String>( filenames.size() );
+
+		for ( final String filename : filenames ) {
+			File file = new File( filename );
+			if ( !file.isAbsolute() ) {
+				file = new File( archiveBaseDirectory, filename );
+			}
+
+			try {
+				ret.add( FileUtils.readFileToString( file, StandardCharsets.UTF_8 ) );
+			}
+			catch ( final Exception e ) {
+				logger.warn( "cannot read archive file " + file + " for " + url + ": " + e.getMessage() );
+			}
+		}
+
+		return ret;
+	}
+
+	protected Map<String,Object> getOrCreatePage( final String url ) {
+		Map<String,Object> page = pages.get( url );
+		if ( page == null ) {
+			page = new LinkedHashMap<String,Object>();
+			pages.put( url, page );
+		}
+
+		return page;
+	}
+
+	@Override
+	public String toString() {
+		return new ToStringBuilder( this )
+		.append( "handleToCheck", handleToCheck )
+		.append( "replies", itineraryJSON != null )
+		.append( "archiveBaseDirectory", archiveBaseDirectory )
+		.append( "pages", pages.keySet() )
+		.toString();
+	}
+}
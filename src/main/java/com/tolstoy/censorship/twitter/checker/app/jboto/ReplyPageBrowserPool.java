@@ -0,0 +1,231 @@
+/*
+ * Copyright 2022 Chris Kelly
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.tolstoy.censorship.twitter.checker.app.jboto;
+
+import java.util.List;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import com.tolstoy.basic.api.tweet.ITweet;
+import com.tolstoy.basic.app.utils.Utils;
+import com.tolstoy.censorship.twitter.checker.api.preferences.IPreferences;
+import com.tolstoy.censorship.twitter.checker.app.jboto.common.ChooseWebdriverFactory;
+import com.tolstoy.censorship.twitter.checker.app.jboto.common.CloseEverything;
+import com.tolstoy.censorship.twitter.checker.app.jboto.common.CreateBrowserDataRecorder;
+import com.tolstoy.censorship.twitter.checker.app.jboto.common.CreateLoginToSite;
+import com.tolstoy.censorship.twitter.checker.app.jboto.common.CreateWebdriverFromFirefoxProfile;
+import com.tolstoy.censorship.twitter.checker.app.jboto.common.CreateWebdriverUtils;
+import com.tolstoy.censorship.twitter.checker.app.jboto.common.SearchRunBaseData;
+import com.tolstoy.censorship.twitter.checker.app.jboto.common.TestCreateLoginToSite;
+import com.tolstoy.jboto.api.IBasicCommand;
+import com.tolstoy.jboto.api.IIfCommand;
+
+/**
+ * Runs the per-tweet reply page commands (SetReplyPageURL ... CreateReplyPageSnapshot)
+ * on several browsers at once.
+ *
+ * The first worker uses the browser that's already open in the environment. Each of
+ * the others opens its own Firefox instance with its own browser data recorder,
+ * logs in if needed, and closes everything when the queue is empty.
+ *
+ * Workers stop claiming tweets once the completed plus in-flight pages reach the
+ * timeline's items-to-process limit. A tweet that fails isn't retried here; the
+ * sequential foreach that follows in the jboto graph will pick it up.
+ */
+public class ReplyPageBrowserPool {
+	private static final Logger logger = LogManager.getLogger( ReplyPageBrowserPool.class );
+
+	private final SearchRunBaseData product;
+	private final OurEnvironment ourEnv;
+	private final IIfCommand replyShouldBeProcessed;
+	private final List<IBasicCommand> replyPageCommands;
+	private final int poolSize;
+	private final int maxPages;
+
+	private final LinkedList<WorkItem> queue;
+	private int numInFlight;
+	private int numCompleted;
+
+	private static class WorkItem {
+		final ITweet tweet;
+		final int index;
+
+		WorkItem( final ITweet tweet, final int index ) {
+			this.tweet = tweet;
+			this.index = index;
+		}
+	}
+
+	/**
+	 * @return the number of browsers to use for reply pages, from prefs.reply_page_browser_pool_size. Always at least 1.
+	 */
+	public static int getPoolSize( final IPreferences prefs ) {
+		return Math.max( 1, Utils.parseIntDefault( prefs.getValue( "prefs.reply_page_browser_pool_size" ), 1 ) );
+	}
+
+	public ReplyPageBrowserPool( final SearchRunBaseData product,
+									final OurEnvironment ourEnv,
+									final IIfCommand replyShouldBeProcessed,
+									final List<IBasicCommand> replyPageCommands,
+									final int poolSize ) {
+		this.product = product;
+		this.ourEnv = ourEnv;
+		this.replyShouldBeProcessed = replyShouldBeProcessed;
+		this.replyPageCommands = replyPageCommands;
+		this.poolSize = poolSize;
+		this.maxPages = product.getPageParametersSet().getTimeline().getItemsToProcess();
+		this.queue = new LinkedList<WorkItem>();
+		this.numInFlight = 0;
+		this.numCompleted = 0;
+	}
+
+	/**
+	 * Process the given tweets and wait for all of the workers to finish.
+	 * @return the number of reply pages that were processed successfully.
+	 */
+	public int run( final List<? extends Object> tweets ) throws Exception {
+		int index = 0;
+		for ( final Object obj : tweets ) {
+			final ITweet tweet = (ITweet) obj;
+
+			if ( replyShouldBeProcessed.test( product, ourEnv, tweet, index ) ) {
+				queue.add( new WorkItem( tweet, index ) );
+			}
+
+			index++;
+		}
+
+		final int numWorkers = Math.min( poolSize, queue.size() );
+
+		logger.info( "processing " + queue.size() + " reply pages with " + numWorkers + " browsers, max=" + maxPages );
+
+		if ( numWorkers < 1 ) {
+			return 0;
+		}
+
+		final ExecutorService executor = Executors.newFixedThreadPool( numWorkers );
+
+		try {
+			final List<Future<?>> futures = new ArrayList<Future<?>>( numWorkers );
+
+			for ( int i = 0; i < numWorkers; i++ ) {
+				final int workerNum = i;
+				futures.add( executor.submit( () -> runWorker( workerNum ) ) );
+			}
+
+			for ( final Future<?> future : futures ) {
+				future.get();
+			}
+		}
+		finally {
+			executor.shutdownNow();
+		}
+
+		logger.info( "browser pool finished, completed=" + numCompleted );
+
+		return numCompleted;
+	}
+
+	protected void runWorker( final int workerNum ) {
+		OurEnvironment workerEnv = null;
+
+		try {
+			if ( workerNum == 0 ) {
+				workerEnv = ourEnv;
+			}
+			else {
+				workerEnv = ourEnv.makeWorkerEnvironment();
+				openBrowser( workerEnv );
+			}
+
+			WorkItem item;
+			while ( ( item = claim() ) != null ) {
+				boolean bSuccess = false;
+
+				try {
+					for ( final IBasicCommand command : replyPageCommands ) {
+						command.run( product, workerEnv, item.tweet, item.index );
+					}
+
+					bSuccess = true;
+				}
+				catch ( final Exception e ) {
+					ourEnv.logWarn( logger, "browser " + workerNum + " cannot process reply page for tweet " + item.tweet.getID(), e );
+				}
+				finally {
+					release( bSuccess );
+				}
+			}
+		}
+		catch ( final Exception e ) {
+			ourEnv.logWarn( logger, "browser " + workerNum + " failed", e );
+		}
+		finally {
+			if ( workerEnv != null && workerEnv != ourEnv ) {
+				try {
+					new CloseEverything().run( product, workerEnv, null, 0 );
+				}
+				catch ( final Exception e ) {
+					ourEnv.logWarn( logger, "browser " + workerNum + " cannot be closed", e );
+				}
+			}
+		}
+	}
+
+	protected void openBrowser( final OurEnvironment workerEnv ) throws Exception {
+		new ChooseWebdriverFactory().run( product, workerEnv, null, 0 );
+		new CreateWebdriverFromFirefoxProfile().run( product, workerEnv, null, 0 );
+		new CreateWebdriverUtils().run( product, workerEnv, null, 0 );
+		new CreateBrowserDataRecorder().run( product, workerEnv, null, 0 );
+
+		if ( new TestCreateLoginToSite().test( product, workerEnv, null, 0 ) ) {
+			new CreateLoginToSite().run( product, workerEnv, null, 0 );
+		}
+	}
+
+	protected synchronized WorkItem claim() {
+		if ( queue.isEmpty() || numCompleted + numInFlight >= maxPages ) {
+			return null;
+		}
+
+		numInFlight++;
+
+		return queue.removeFirst();
+	}
+
+	protected synchronized void release( final boolean bSuccess ) {
+		numInFlight--;
+		if ( bSuccess ) {
+			numCompleted++;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return new ToStringBuilder( this )
+		.append( "poolSize", poolSize )
+		.append( "maxPages", maxPages )
+		.append( "queue", queue.size() )
+		.append( "numInFlight", numInFlight )
+		.append( "numCompleted", numCompleted )
+		.toString();
+	}
+}
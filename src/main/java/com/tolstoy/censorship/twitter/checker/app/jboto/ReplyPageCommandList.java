@@ -0,0 +1,154 @@
+/*
+ * Copyright 2022 Chris Kelly
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.tolstoy.censorship.twitter.checker.app.jboto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.tolstoy.basic.app.utils.Utils;
+import com.tolstoy.jboto.api.IBasicCommand;
+
+/**
+ * The reply page commands (SetReplyPageURL ... CreateReplyPageSnapshot) as declared
+ * in a jboto definition: the commands inside the ReplyShouldBeProcessed "if" of the
+ * GetTimelineTweetsList foreach.
+ *
+ * ReplyPageBrowserPool runs these on its own threads, so reading them from the
+ * definition that's being run keeps the parallel and sequential paths in step.
+ */
+public class ReplyPageCommandList {
+	private static final Logger logger = LogManager.getLogger( ReplyPageCommandList.class );
+
+	private static final String FOREACH_NAME = "GetTimelineTweetsList";
+	private static final String IF_NAME = "ReplyShouldBeProcessed";
+
+	private final List<String> classNames;
+
+	/**
+	 * @param definitionJSON the jboto definition, as given to makeFrameworkFromJSON
+	 * @param packageName the package that the definition's alias (replies:, timeline:) stands for
+	 */
+	public ReplyPageCommandList( final String definitionJSON, final String packageName ) throws Exception {
+		final JsonNode root = Utils.getPlainObjectMapper().reader().with( JsonParser.Feature.ALLOW_TRAILING_COMMA ).readTree( definitionJSON );
+
+		final JsonNode ifNode = findChild( findNode( root, "foreach", FOREACH_NAME ), "if", IF_NAME );
+		if ( ifNode == null ) {
+			throw new RuntimeException( "no " + IF_NAME + " inside " + FOREACH_NAME + " in jboto definition" );
+		}
+
+		final String alias = getAlias( ifNode );
+
+		this.classNames = new ArrayList<String>();
+
+		for ( final JsonNode child : ifNode.path( "commands" ) ) {
+			final String type = child.path( "type" ).asText();
+			final String classname = child.path( "classname" ).asText();
+
+			if ( !"command".equals( type ) ) {
+				throw new RuntimeException( "reply page commands must be plain commands, found " + type + " " + classname );
+			}
+
+			if ( !alias.equals( getAlias( child ) ) ) {
+				throw new RuntimeException( "reply page command " + classname + " isn't in " + alias + ":" );
+			}
+
+			classNames.add( packageName + "." + classname.substring( alias.length() + 1 ) );
+		}
+
+		if ( classNames.isEmpty() ) {
+			throw new RuntimeException( "no reply page commands in jboto definition" );
+		}
+	}
+
+	/**
+	 * @return the fully qualified class names, in the order they're run.
+	 */
+	public List<String> getClassNames() {
+		return classNames;
+	}
+
+	/**
+	 * @return new instances of the commands, in the order they're run.
+	 */
+	public List<IBasicCommand> makeCommands() throws Exception {
+		final List<IBasicCommand> ret = new ArrayList<IBasicCommand>( classNames.size() );
+
+		for ( final String className : classNames ) {
+			ret.add( (IBasicCommand) Class.forName( className ).getDeclaredConstructor().newInstance() );
+		}
+
+		logger.info( "reply page commands: " + classNames );
+
+		return ret;
+	}
+
+	protected static String getAlias( final JsonNode node ) {
+		final String classname = node.path( "classname" ).asText();
+		final int colon = classname.indexOf( ':' );
+
+		return colon > 0 ? classname.substring( 0, colon ) : "";
+	}
+
+	protected static boolean matches( final JsonNode node, final String type, final String name ) {
+		if ( !type.equals( node.path( "type" ).asText() ) ) {
+			return false;
+		}
+
+		final String classname = node.path( "classname" ).asText();
+
+		return classname.equals( name ) || classname.endsWith( ":" + name );
+	}
+
+	protected static JsonNode findChild( final JsonNode node, final String type, final String name ) {
+		if ( node == null ) {
+			return null;
+		}
+
+		for ( final JsonNode child : node.path( "commands" ) ) {
+			if ( matches( child, type, name ) ) {
+				return child;
+			}
+		}
+
+		return null;
+	}
+
+	protected static JsonNode findNode( final JsonNode node, final String type, final String name ) {
+		if ( matches( node, type, name ) ) {
+			return node;
+		}
+
+		for ( final JsonNode child : node.path( "commands" ) ) {
+			final JsonNode ret = findNode( child, type, name );
+			if ( ret != null ) {
+				return ret;
+			}
+		}
+
+		return null;
+	}
+
+	@Override
+	public String toString() {
+		return new ToStringBuilder( this )
+		.append( "classNames", classNames )
+		.toString();
+	}
+}
@@ -38,6 +38,7 @@ import com.tolstoy.jboto.api.IForeachCommand;
 import com.tolstoy.jboto.api.IIfCommand;
 import com.tolstoy.jboto.api.IBasicCommand;
 import com.tolstoy.censorship.twitter.checker.app.jboto.OurEnvironment;
+import com.tolstoy.censorship.twitter.checker.app.webdriver.ReplayWebDriver;
 
 public class CloseEverything implements IBasicCommand {
 	private static final Logger logger = LogManager.getLogger( CloseEverything.class );
@@ -67,7 +68,9 @@ public class CloseEverything implements IBasicCommand {
 		if ( webDriver != null ) {
 			try {
 				ourEnv.setWebDriver( null );
-				Utils.delay( WEBDRIVER_CLOSE_DELAY_MILLIS );
+				if ( !( webDriver instanceof ReplayWebDriver ) ) {
+					Utils.delay( WEBDRIVER_CLOSE_DELAY_MILLIS );
+				}
 				webDriver.close();
 			}
 			catch ( final Exception e ) {
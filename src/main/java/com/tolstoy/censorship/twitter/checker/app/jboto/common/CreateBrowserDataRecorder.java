@@ -23,6 +23,7 @@ import org.openqa.selenium.By;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.interactions.Actions;
+import org.openqa.selenium.bidi.HasBiDi;
 
 import com.tolstoy.basic.api.statusmessage.StatusMessage;
 import com.tolstoy.basic.api.statusmessage.StatusMessageSeverity;
@@ -31,6 +32,7 @@ import com.tolstoy.censorship.twitter.checker.api.browserproxy.IBrowserProxy;
 import com.tolstoy.censorship.twitter.checker.api.browserproxy.BrowserDataRecorderType;
 import com.tolstoy.censorship.twitter.checker.api.preferences.IPreferences;
 import com.tolstoy.censorship.twitter.checker.api.webdriver.IWebDriverUtils;
+import com.tolstoy.censorship.twitter.checker.app.browserproxy.BrowserProxyBiDi;
 import com.tolstoy.jboto.api.framework.IFrameworkFactory;
 import com.tolstoy.jboto.api.framework.IFramework;
 import com.tolstoy.jboto.app.framework.FrameworkFactory;
@@ -54,7 +56,10 @@ public class CreateBrowserDataRecorder implements IBasicCommand {
 		try {
 			BrowserDataRecorderType type;
 
-			if ( ourEnv.getInstalledExtensions() != null && ourEnv.getInstalledExtensions().getByKey( "har_export_trigger" ) != null ) {
+			if ( BrowserProxyBiDi.isEnabled( ourEnv.getPrefs() ) && ourEnv.getWebDriver() instanceof HasBiDi ) {
+				type = BrowserDataRecorderType.BIDI_NETWORK_EVENTS;
+			}
+			else if ( ourEnv.getInstalledExtensions() != null && ourEnv.getInstalledExtensions().getByKey( "har_export_trigger" ) != null ) {
 				type = BrowserDataRecorderType.HAR_EXPORT_EXTENSION;
 			}
 			else {
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2022 Chris Kelly
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.tolstoy.censorship.twitter.checker.app.jboto.common;
+
+import java.io.File;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.tolstoy.basic.api.statusmessage.StatusMessage;
+import com.tolstoy.basic.api.statusmessage.StatusMessageSeverity;
+import com.tolstoy.basic.app.utils.Utils;
+import com.tolstoy.jboto.api.IProduct;
+import com.tolstoy.jboto.api.IEnvironment;
+import com.tolstoy.jboto.api.IBasicCommand;
+import com.tolstoy.censorship.twitter.checker.app.browserproxy.BrowserProxyReplay;
+import com.tolstoy.censorship.twitter.checker.app.jboto.OurEnvironment;
+import com.tolstoy.censorship.twitter.checker.app.jboto.ReplayManifest;
+import com.tolstoy.censorship.twitter.checker.app.webdriver.ReplayWebDriver;
+
+/**
+ * Used instead of CreateWebdriverFromFirefoxProfile and CreateBrowserDataRecorder when
+ * replaying the run recorded in the manifest named by prefs.replay_manifest.
+ */
+public class CreateReplayEnvironment implements IBasicCommand {
+	private static final Logger logger = LogManager.getLogger( CreateReplayEnvironment.class );
+
+	public CreateReplayEnvironment() {
+	}
+
+	public void run( IProduct prod, IEnvironment env, Object extra, int index ) throws Exception {
+		SearchRunBaseData product = (SearchRunBaseData) prod;
+		OurEnvironment ourEnv = (OurEnvironment) env;
+
+		try {
+			final ReplayManifest manifest = ReplayManifest.load( getManifestFile( ourEnv ), ourEnv.getAppDirectories().getReportsDirectory() );
+
+				//	don't record a replay of the replay
+			ourEnv.setReplayRecording( null );
+			ourEnv.setArchiveResponses( false );
+
+			ourEnv.setWebDriver( new ReplayWebDriver( manifest ) );
+
+			ourEnv.setBrowserDataRecorder( new BrowserProxyReplay( manifest ) );
+
+			ourEnv.getBrowserDataRecorder().start();
+		}
+		catch ( final Exception e ) {
+			ourEnv.logWarn( logger, "cannot create replay environment", e );
+			ourEnv.getStatusMessageReceiver().addMessage( new StatusMessage( "cannot create replay environment", StatusMessageSeverity.ERROR ) );
+			throw e;
+		}
+	}
+
+	public static File getManifestFile( final OurEnvironment ourEnv ) {
+		final String filename = Utils.trimDefault( ourEnv.getPrefs().getValue( "prefs.replay_manifest" ) );
+		if ( Utils.isEmpty( filename ) ) {
+			throw new IllegalArgumentException( "prefs.replay_manifest must be the path to a replay manifest" );
+		}
+
+		return new File( filename );
+	}
+}
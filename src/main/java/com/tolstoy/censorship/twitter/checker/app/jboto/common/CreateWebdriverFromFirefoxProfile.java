@@ -34,6 +34,7 @@ import com.tolstoy.basic.app.utils.Utils;
 import com.tolstoy.censorship.twitter.checker.api.preferences.IPreferences;
 import com.tolstoy.censorship.twitter.checker.api.webdriver.IWebDriverUtils;
 import com.tolstoy.censorship.twitter.checker.app.webdriver.CustomProfilesIni;
+import com.tolstoy.censorship.twitter.checker.app.browserproxy.BrowserProxyBiDi;
 import com.tolstoy.censorship.twitter.checker.api.installation.IBrowserExtension;
 import com.tolstoy.censorship.twitter.checker.api.installation.IBrowserExtensionList;
 import com.tolstoy.censorship.twitter.checker.api.installation.IBrowserExtensionFactory;
@@ -123,6 +124,8 @@ public class CreateWebdriverFromFirefoxProfile implements IBasicCommand {
 
 			firefoxOptions.setProfile( firefoxProfile );
 
+			setBiDiCapability( ourEnv, firefoxOptions );
+
 			ourEnv.setInstalledExtensions( installedExtensions );
 
 			return firefoxOptions;
@@ -144,6 +147,8 @@ public class CreateWebdriverFromFirefoxProfile implements IBasicCommand {
 
 			firefoxOptions.setProfile( firefoxProfile );
 
+			setBiDiCapability( ourEnv, firefoxOptions );
+
 			//	empty list
 			ourEnv.setInstalledExtensions( ourEnv.getBrowserExtensionFactory().makeBrowserExtensionList() );
 
@@ -156,6 +161,13 @@ public class CreateWebdriverFromFirefoxProfile implements IBasicCommand {
 		}
 	}
 
+	protected void setBiDiCapability( final OurEnvironment ourEnv, final FirefoxOptions firefoxOptions ) {
+		if ( BrowserProxyBiDi.isEnabled( ourEnv.getPrefs() ) ) {
+			//	opens the WebDriver BiDi websocket that BrowserProxyBiDi listens on
+			firefoxOptions.setCapability( "webSocketUrl", true );
+		}
+	}
+
 	protected void setFirefoxProfilePreferences( final OurEnvironment ourEnv, final FirefoxProfile firefoxProfile ) {
 		firefoxProfile.setPreference( "app.update.auto", false );
 		firefoxProfile.setPreference( "app.update.enabled", false );
@@ -27,6 +27,7 @@ import org.openqa.selenium.interactions.Actions;
 
 import com.tolstoy.basic.app.utils.Utils;
 import com.tolstoy.censorship.twitter.checker.api.preferences.IPreferences;
+import com.tolstoy.censorship.twitter.checker.api.searchrun.ISearchRunItinerary;
 import com.tolstoy.censorship.twitter.checker.api.snapshot.ISnapshotUserPageIndividualTweet;
 import com.tolstoy.censorship.twitter.checker.api.webdriver.IWebDriverUtils;
 import com.tolstoy.censorship.twitter.checker.api.webdriver.IWebDriverUtils;
@@ -39,6 +40,7 @@ import com.tolstoy.jboto.api.IForeachCommand;
 import com.tolstoy.jboto.api.IIfCommand;
 import com.tolstoy.jboto.api.IBasicCommand;
 import com.tolstoy.censorship.twitter.checker.app.jboto.OurEnvironment;
+import com.tolstoy.censorship.twitter.checker.app.jboto.ReplayManifest;
 
 public class BeginReplies implements IBasicCommand {
 	private static final Logger logger = LogManager.getLogger( BeginReplies.class );
@@ -51,5 +53,17 @@ public class BeginReplies implements IBasicCommand {
 		OurEnvironment ourEnv = (OurEnvironment) env;
 
 		product.setUser( product.getItinerary().getInitiatingUser() );
+
+		final ReplayManifest manifest = ourEnv.beginReplayRecording( product.getHandleToCheck() );
+		if ( manifest != null ) {
+			final String itineraryJSON = product.getItinerary().getAttribute( ISearchRunItinerary.ATTR_SOURCE_JSON );
+			if ( itineraryJSON == null ) {
+				ourEnv.logWarn( logger, "the itinerary wasn't loaded from JSON, so this run can't be recorded for replay" );
+				ourEnv.setReplayRecording( null );
+			}
+			else {
+				manifest.setItineraryJSON( itineraryJSON );
+			}
+		}
 	}
 }
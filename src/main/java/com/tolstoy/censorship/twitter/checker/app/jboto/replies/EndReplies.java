@@ -69,5 +69,7 @@ public class EndReplies implements IBasicCommand {
 		//logger.info( Utils.getDefaultObjectMapper().writeValueAsString( searchRunReplies ) );
 
 		product.setSearchRun( searchRunReplies );
+
+		ourEnv.endReplayRecording( product.getHandleToCheck(), product.getStartTime() );
 	}
 }
@@ -56,7 +56,9 @@ public class EndReplyPageBrowserDataRecorder implements IBasicCommand {
 		final List<IBrowserProxyLogEntry> responses = ourEnv.getBrowserDataRecorder().endRecording( ourEnv.getWebDriver() );
 		logger.info( "GOT " + responses.size() + " RESPONSES" );
 
-		final List<String> jsonStrings = ourEnv.saveJSONStrings( responses, ourEnv.getArchiveDirectory() );
+		ourEnv.checkDroppedResponses( product.getIndividualPageJIC( tweet.getID() ), product.getIndividualPageURL( tweet.getID() ) );
+
+		final List<String> jsonStrings = ourEnv.saveJSONStrings( responses, ourEnv.getArchiveDirectory(), product.getIndividualPageURL( tweet.getID() ) );
 		logger.info( "GOT " + jsonStrings.size() + " JSON STRINGS" );
 
 		product.setIndividualPageJSONStringList( tweet.getID(), jsonStrings );
@@ -18,6 +18,7 @@ import java.util.List;
 import java.util.ArrayList;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -59,13 +60,13 @@ public class RepliesProduct extends SearchRunBaseData {
 								final IPageParametersSet pageParametersSet ) {
 		super( prefs, handleToCheck, pageParametersSet );
 
-		this.replyThreads = new HashMap<Long,IReplyThread>();
+		this.replyThreads = new ConcurrentHashMap<Long,IReplyThread>();
 		this.itinerary = itinerary;
 		this.timelineURL = String.format( prefs.getValue( "targetsite.pattern.timeline" ), getHandleToCheck() );
-		this.individualPages = new HashMap<Long,ISnapshotUserPageIndividualTweet>();
-		this.individualPageJICs = new HashMap<Long,JavascriptInterchangeContainer>();
-		this.individualPageJSONStringList = new HashMap<Long,List<String>>();
-		this.individualPageURLs = new HashMap<Long,String>();
+		this.individualPages = new ConcurrentHashMap<Long,ISnapshotUserPageIndividualTweet>();
+		this.individualPageJICs = new ConcurrentHashMap<Long,JavascriptInterchangeContainer>();
+		this.individualPageJSONStringList = new ConcurrentHashMap<Long,List<String>>();
+		this.individualPageURLs = new ConcurrentHashMap<Long,String>();
 	}
 
 	public ISearchRunRepliesItinerary getItinerary() {
@@ -57,6 +57,12 @@ public class ReplyShouldBeProcessed implements IIfCommand {
 		OurEnvironment ourEnv = (OurEnvironment) env;
 		ITweet tweet = (ITweet) extra;
 
+			//	already done by RetrieveReplyPagesInParallel
+		if ( product.getIndividualPage( tweet.getID() ) != null ) {
+			logger.info( "skipped tweet #" + index + " because its reply page was already processed" );
+			return false;
+		}
+
 		if ( !Utils.isStringTrue( tweet.getAttribute( "hasparenttweet" ) ) || !Utils.isStringTrue( tweet.getAttribute( "isreplyto" ) ) ) {
 			logger.info( "skipped because not a reply: " + tweet.toDebugString( "" ) );
 			return false;
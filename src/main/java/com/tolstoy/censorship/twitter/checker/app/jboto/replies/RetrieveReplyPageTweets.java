@@ -77,14 +77,20 @@ public class RetrieveReplyPageTweets implements IBasicCommand {
 		jsParams.setValue( "scrollerNumTimesToScroll", "" + ( 5 * product.getPageParametersSet().getIndividualPage().getPagesToScroll() ) );
 		jsParams.setValue( "scrollerHeightMultiplier", "0.25" );
 
-		final String suedeDenimRetrieverScript = ourEnv.getBrowserScriptFactory().getScript( "tweet_retriever" ).getScript();
+			//	we only need to know where the user's reply is, so there's no need to scroll past it
+		if ( Utils.isStringTrue( ourEnv.getPrefs().getValue( "prefs.replies_stop_at_target" ) ) ) {
+			jsParams.setStopAfterTweet( tweet.getID(), Utils.parseIntDefault( ourEnv.getPrefs().getValue( "prefs.replies_screens_after_target" ), 1 ) );
+			jsParams.setStopAtBoundary( true );
+		}
 
-		final List rawInterchangeData = (List) javascriptExecutor.executeAsyncScript( suedeDenimRetrieverScript, jsParams.getMap() );
+		final List rawInterchangeData = (List) ourEnv.getBrowserScriptFactory().executeAsyncScript( ourEnv.getWebDriver(), "tweet_retriever", jsParams.getMap() );
 		if ( rawInterchangeData == null ) {
 			logger.info( "rawInterchangeData IS NULL, cannot retrive tweets" );
 			return;
 		}
 
+		ourEnv.recordReplayPage( product.getIndividualPageURL( tweet.getID() ), rawInterchangeData );
+
 		JavascriptInterchangeContainer interchangeContainer = new JavascriptInterchangeContainer( rawInterchangeData, ourEnv.getTweetFactory(), ourEnv.getBundle() );
 		product.setIndividualPageJIC( tweet.getID(), interchangeContainer );
 
@@ -94,5 +100,10 @@ public class RetrieveReplyPageTweets implements IBasicCommand {
 		tweetCollection.setAttribute( "url", product.getIndividualPageURL( tweet.getID() ) );
 		tweetCollection.setAttribute( "numberOfPagesToCheck", "" + product.getPageParametersSet().getIndividualPage().getPagesToScroll() );
 		tweetCollection.setAttribute( "maxTweets", "" + product.getPageParametersSet().getIndividualPage().getPagesToScroll() );
+
+		final JavascriptInterchangeMetadata meta = interchangeContainer.getMetadata();
+		if ( meta != null ) {
+			tweetCollection.setAttribute( "scrollStopReason", meta.getStopReason() );
+		}
 	}
 }
@@ -49,5 +49,7 @@ public class BeginTimeline implements IBasicCommand {
 	public void run( IProduct prod, IEnvironment env, Object extra, int index ) throws Exception {
 		SearchRunTimelineData product = (SearchRunTimelineData) prod;
 		OurEnvironment ourEnv = (OurEnvironment) env;
+
+		ourEnv.beginReplayRecording( product.getHandleToCheck() );
 	}
 }
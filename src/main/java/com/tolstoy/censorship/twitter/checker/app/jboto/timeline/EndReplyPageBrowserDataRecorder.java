@@ -56,7 +56,9 @@ public class EndReplyPageBrowserDataRecorder implements IBasicCommand {
 		final List<IBrowserProxyLogEntry> responses = ourEnv.getBrowserDataRecorder().endRecording( ourEnv.getWebDriver() );
 		logger.info( "number of log entries=" + responses.size() );
 
-		final List<String> jsonStrings = ourEnv.saveJSONStrings( responses, ourEnv.getArchiveDirectory() );
+		ourEnv.checkDroppedResponses( product.getIndividualPageJIC( tweet.getID() ), product.getIndividualPageURL( tweet.getID() ) );
+
+		final List<String> jsonStrings = ourEnv.saveJSONStrings( responses, ourEnv.getArchiveDirectory(), product.getIndividualPageURL( tweet.getID() ) );
 
 		product.setIndividualPageJSONStringList( tweet.getID(), jsonStrings );
 	}
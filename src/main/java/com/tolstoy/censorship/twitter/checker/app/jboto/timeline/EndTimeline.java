@@ -67,5 +67,7 @@ public class EndTimeline implements IBasicCommand {
 		//logger.info( Utils.getDefaultObjectMapper().writeValueAsString( searchRunTimeline ) );
 
 		product.setSearchRun( searchRunTimeline );
+
+		ourEnv.endReplayRecording( product.getHandleToCheck(), product.getStartTime() );
 	}
 }
@@ -53,7 +53,9 @@ public class EndTimelineBrowserDataRecorder implements IBasicCommand {
 
 		final List<IBrowserProxyLogEntry> responses = ourEnv.getBrowserDataRecorder().endRecording( ourEnv.getWebDriver() );
 
-		final List<String> jsonStrings = ourEnv.saveJSONStrings( responses, ourEnv.getArchiveDirectory() );
+		ourEnv.checkDroppedResponses( product.getTimelineJIC(), product.getTimelineURL() );
+
+		final List<String> jsonStrings = ourEnv.saveJSONStrings( responses, ourEnv.getArchiveDirectory(), product.getTimelineURL() );
 
 		logger.info( "GOT " + ( responses != null ? responses.size() : "[null]" ) + " RESPONSES AND " + ( jsonStrings != null ? jsonStrings.size() : "[null]" ) + " JSONSTRINGS" );
 
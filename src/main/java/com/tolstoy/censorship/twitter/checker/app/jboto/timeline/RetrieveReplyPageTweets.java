@@ -77,14 +77,14 @@ public class RetrieveReplyPageTweets implements IBasicCommand {
 		jsParams.setValue( "scrollerNumTimesToScroll", "" + ( 5 * product.getPageParametersSet().getIndividualPage().getPagesToScroll() ) );
 		jsParams.setValue( "scrollerHeightMultiplier", "0.25" );
 
-		final String suedeDenimRetrieverScript = ourEnv.getBrowserScriptFactory().getScript( "tweet_retriever" ).getScript();
-
-		final List rawInterchangeData = (List) javascriptExecutor.executeAsyncScript( suedeDenimRetrieverScript, jsParams.getMap() );
+		final List rawInterchangeData = (List) ourEnv.getBrowserScriptFactory().executeAsyncScript( ourEnv.getWebDriver(), "tweet_retriever", jsParams.getMap() );
 		if ( rawInterchangeData == null ) {
 			logger.info( "rawInterchangeData IS NULL, cannot retrieve tweets" );
 			return;
 		}
 
+		ourEnv.recordReplayPage( product.getIndividualPageURL( tweet.getID() ), rawInterchangeData );
+
 		JavascriptInterchangeContainer interchangeContainer = new JavascriptInterchangeContainer( rawInterchangeData, ourEnv.getTweetFactory(), ourEnv.getBundle() );
 		product.setIndividualPageJIC( tweet.getID(), interchangeContainer );
 
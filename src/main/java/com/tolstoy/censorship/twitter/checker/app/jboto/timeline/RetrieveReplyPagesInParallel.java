@@ -0,0 +1,67 @@
+/*
+ * Copyright 2022 Chris Kelly
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.tolstoy.censorship.twitter.checker.app.jboto.timeline;
+
+import java.util.List;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.tolstoy.censorship.twitter.checker.app.jboto.OurEnvironment;
+import com.tolstoy.censorship.twitter.checker.app.jboto.ReplyPageBrowserPool;
+import com.tolstoy.censorship.twitter.checker.app.jboto.ReplyPageCommandList;
+import com.tolstoy.jboto.api.IBasicCommand;
+import com.tolstoy.jboto.api.IEnvironment;
+import com.tolstoy.jboto.api.IProduct;
+
+/**
+ * If prefs.reply_page_browser_pool_size is more than 1, load the reply pages
+ * using that many browsers at once. Otherwise this does nothing and the
+ * sequential foreach that follows it does all the work.
+ *
+ * The commands run for each reply page are the ones inside the foreach's
+ * ReplyShouldBeProcessed in the jboto definition; see ReplyPageCommandList.
+ */
+public class RetrieveReplyPagesInParallel implements IBasicCommand {
+	private static final Logger logger = LogManager.getLogger( RetrieveReplyPagesInParallel.class );
+
+	public RetrieveReplyPagesInParallel() {
+	}
+
+	public void run( IProduct prod, IEnvironment env, Object extra, int index ) throws Exception {
+		SearchRunTimelineData product = (SearchRunTimelineData) prod;
+		OurEnvironment ourEnv = (OurEnvironment) env;
+
+		final int poolSize = ReplyPageBrowserPool.getPoolSize( ourEnv.getPrefs() );
+		if ( poolSize < 2 ) {
+			return;
+		}
+
+		if ( ourEnv.getJBotoDefinition() == null ) {
+			logger.info( "no jboto definition in the environment, leaving the reply pages to the foreach" );
+			return;
+		}
+
+		final List<IBasicCommand> replyPageCommands = new ReplyPageCommandList( ourEnv.getJBotoDefinition(),
+																				getClass().getPackage().getName() ).makeCommands();
+
+		final ReplyPageBrowserPool pool = new ReplyPageBrowserPool( product,
+																	ourEnv,
+																	new ReplyShouldBeProcessed(),
+																	replyPageCommands,
+																	poolSize );
+
+		pool.run( new GetTimelineTweetsList().getList( product, ourEnv, null, 0 ) );
+	}
+}
@@ -71,14 +71,14 @@ public class RetrieveTimelineTweets implements IBasicCommand {
 		jsParams.setValue( "scrollerNumTimesToScroll", "" + ( 5 * product.getPageParametersSet().getTimeline().getPagesToScroll() ) );
 		jsParams.setValue( "scrollerHeightMultiplier", "0.25" );
 
-		final String suedeDenimRetrieverScript = ourEnv.getBrowserScriptFactory().getScript( "tweet_retriever" ).getScript();
-
-		final List<? extends Object> rawInterchangeData = (List<? extends Object>) javascriptExecutor.executeAsyncScript( suedeDenimRetrieverScript, jsParams.getMap() );
+		final List<? extends Object> rawInterchangeData = (List<? extends Object>) ourEnv.getBrowserScriptFactory().executeAsyncScript( ourEnv.getWebDriver(), "tweet_retriever", jsParams.getMap() );
 		if ( rawInterchangeData == null ) {
 			logger.info( "rawInterchangeData IS NULL, cannot retrieve tweets" );
 			return;
 		}
 
+		ourEnv.recordReplayPage( product.getTimelineURL(), rawInterchangeData );
+
 		product.setTimelineJIC( new JavascriptInterchangeContainer( rawInterchangeData, ourEnv.getTweetFactory(), ourEnv.getBundle() ) );
 
 		logger.info( "makeTweetCollectionFromURL: SuedeDenim tweet_retriever script called, javascript interchange=\n" + product.getTimelineJIC().toDebugString( "  " ) );
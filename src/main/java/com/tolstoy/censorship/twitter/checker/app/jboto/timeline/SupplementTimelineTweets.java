@@ -63,25 +63,13 @@ public class SupplementTimelineTweets implements IBasicCommand {
 
 		final ITweetCollection tweetCollection = product.getTimelineJIC().getTweetCollection();
 
-		final JavascriptExecutor javascriptExecutor = (JavascriptExecutor) ourEnv.getWebDriver();
-
-		ourEnv.getWebDriver().manage().timeouts().scriptTimeout( ourEnv.getGeneralTimeout() );
-
-		logger.info( "calling SuedeDenim json_parser script" );
-
-		final JavascriptParams jsParams = new JavascriptParams( product.getTimelineURL(), TargetPageType.TIMELINE, ourEnv.getDebugLevel() );
-
-		final String suedeDenimJSONParserScript = ourEnv.getBrowserScriptFactory().getScript( "json_parser" ).getScript();
-
-		final List<? extends Object> rawInterchangeData = (List<? extends Object>) javascriptExecutor.executeAsyncScript( suedeDenimJSONParserScript, jsParams.getMap(), product.getTimelineJSONStringList() );
-		if ( rawInterchangeData == null ) {
+		final JavascriptInterchangeContainer interchangeContainer = ourEnv.makeJSONInterchangeContainer( product.getTimelineURL(), product.getTimelineJSONStringList() );
+		if ( interchangeContainer == null ) {
 			logger.info( "rawInterchangeData IS NULL, cannot supplement tweets" );
 			return;
 		}
 
-		final JavascriptInterchangeContainer interchangeContainer = new JavascriptInterchangeContainer( rawInterchangeData, ourEnv.getTweetFactory(), ourEnv.getBundle() );
-
-		logger.info( "\n\n\njson_parser script called, javascript interchange=\n" + interchangeContainer.toDebugString( "  " ) );
+		logger.info( "\n\n\nJSON parsed, javascript interchange=\n" + interchangeContainer.toDebugString( "  " ) );
 
 		final List<String> tweetSupplementMessages = tweetCollection.supplementFrom( interchangeContainer.getTweetCollection() );
 
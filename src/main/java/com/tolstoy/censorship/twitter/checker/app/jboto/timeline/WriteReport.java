@@ -52,6 +52,9 @@ public class WriteReport implements IBasicCommand {
 		ITweetRanker tweetRanker;
 
 		tweetRanker = ourEnv.getAnalysisReportFactory().makeTweetRankerJavascript();
+		if ( tweetRanker == null ) {
+			tweetRanker = ourEnv.getAnalysisReportFactory().makeTweetRankerFormula();
+		}
 		if ( tweetRanker == null ) {
 			tweetRanker = ourEnv.getAnalysisReportFactory().makeTweetRankerBasic();
 		}
@@ -15,6 +15,7 @@ package com.tolstoy.censorship.twitter.checker.app.reportwriter;
 
 import java.io.File;
 import java.io.FileOutputStream;
+import java.text.DecimalFormat;
 import java.text.Format;
 import java.util.ArrayList;
 import java.util.Date;
@@ -39,6 +40,8 @@ import com.tolstoy.basic.app.utils.Utils;
 import com.tolstoy.censorship.twitter.checker.api.analyzer.IAnalysisReportTimelineBasic;
 import com.tolstoy.censorship.twitter.checker.api.analyzer.IAnalysisReportTimelineItemBasic;
 import com.tolstoy.censorship.twitter.checker.api.analyzer.IAnalyzedTweet;
+import com.tolstoy.censorship.twitter.checker.api.analyzer.RankingBreakdown;
+import com.tolstoy.censorship.twitter.checker.api.analyzer.RankingComponent;
 import com.tolstoy.censorship.twitter.checker.api.preferences.IPreferences;
 import com.tolstoy.censorship.twitter.checker.api.installation.IAppDirectories;
 
@@ -55,6 +58,7 @@ public class ReportWriterTimelineBasic {
 	private final JtwigTemplate layoutTemplate, helpAreaTemplate, tableTemplate,
 							tweetSourceTemplate, tweetReplyTemplate, numRepliesTemplate, statusTemplate;
 	private final Format tweetDateFormat;
+	private final DecimalFormat rankingFormat;
 	private String filename;
 	private final boolean debugMode;
 
@@ -74,6 +78,8 @@ public class ReportWriterTimelineBasic {
 		this.statusTemplate = JtwigTemplate.classpathTemplate( "templates/reporttimelinebasic_element_status.twig" );
 
 		this.tweetDateFormat = FastDateFormat.getInstance( bundle.getString( "rpt_tweet_dateformat" ) );
+
+		this.rankingFormat = RankingBreakdown.makeDisplayFormat();
 	}
 
 	public void writeReport( final IAnalysisReportTimelineBasic report ) throws Exception {
@@ -188,6 +194,10 @@ public class ReportWriterTimelineBasic {
 			.with( "dateStr", Utils.formatTimestampString( tweet.getAttribute( "time" ), "date unknown" ) )
 			.with( "text", Utils.removeNewlines( Utils.trimDefault( Utils.replaceAllEmojis( ObjectUtils.firstNonNull( tweet.getAttribute( "tweettext" ), "" ) ) ) ) );
 
+		if ( debugMode && !analyzedTweet.getRankingBreakdown().isEmpty() ) {
+			model.with( "rankingBreakdown", formatRankingBreakdown( analyzedTweet.getRankingBreakdown() ) );
+		}
+
 		Map<String,String> attributes = tweet.getUser().getAttributes();
 
 		if ( Utils.isStringTrue( attributes.get( "blueSubscriber" ) ) ) {
@@ -230,6 +240,18 @@ public class ReportWriterTimelineBasic {
 		return tweetReplyTemplate.render( model );
 	}
 
+	/**
+	 * The breakdown is only formatted here, for the debug view, rather than when the tweet is ranked.
+	 */
+	protected String formatRankingBreakdown( final RankingBreakdown breakdown ) {
+		final List<String> list = new ArrayList<String>();
+		for ( final RankingComponent component : breakdown.getComponents() ) {
+			list.add( component.getKey() + "=" + rankingFormat.format( breakdown.get( component ) ) );
+		}
+
+		return StringUtils.join( list, ", " );
+	}
+
 	protected String makeTweetSourceElement( final ITweet tweet ) {
 		final JtwigModel model = getTweetParams( tweet );
 
@@ -131,6 +131,9 @@ public class SearchRunFactory implements ISearchRunFactory {
 
 		final ISearchRunItinerary obj = new SearchRunRepliesItinerary( initiatingUser, tweetCollection );
 
+			//	kept so that a recorded run can be replayed from the same itinerary; see ReplayManifest
+		obj.setAttribute( ISearchRunItinerary.ATTR_SOURCE_JSON, jsonData );
+
 		return obj;
 	}
 }
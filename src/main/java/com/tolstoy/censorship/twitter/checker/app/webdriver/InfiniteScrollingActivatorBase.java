@@ -30,8 +30,23 @@ abstract class InfiniteScrollingActivatorBase implements IInfiniteScrollingActiv
 	private static final Logger logger = LogManager.getLogger( InfiniteScrollingActivatorBase.class );
 
 	private static final int MAX_LIMIT = 1000;
+
+		//	the longest we'll wait for a screen to load before deciding we're at the bottom;
+		//	also the longest we'll wait on pending XHRs, after which only the height counts
 	private static final int DELAY_PER_SCREEN_MILLIS = 3000;
 
+		//	hard limit in case the page keeps growing
+	private static final int MAX_DELAY_PER_SCREEN_MILLIS = 10000;
+
+		//	how long the height and pending XHR count have to hold still for a screen to count as loaded
+	private static final int SETTLE_MILLIS = 400;
+
+		//	polling starts at this and doubles while nothing new arrives
+	private static final int POLL_MIN_MILLIS = 100;
+	private static final int POLL_MAX_MILLIS = 800;
+
+	private static final String OUTSTANDING_XHR_SCRIPT = "return window.ajaxCollectorStats ? window.ajaxCollectorStats.outstanding : 0;";
+
 	private final WebDriver driver;
 	private final IWebDriverUtils driverutils;
 	private boolean complete;
@@ -88,9 +103,7 @@ abstract class InfiniteScrollingActivatorBase implements IInfiniteScrollingActiv
 				logger.info( "can't send page down" );
 			}
 
-			Utils.delay( DELAY_PER_SCREEN_MILLIS );
-
-			tempHeight = getOverlayHeight( driver, getHeightScript() );
+			tempHeight = waitForScreen( driver, curHeight );
 			logger.info( "curHeight=" + curHeight + ", tempHeight=" + tempHeight );
 			if ( Math.abs( tempHeight - curHeight ) < 10 ) {
 				logger.info( "heights similar, setting complete true and breaking" );
@@ -105,6 +118,67 @@ abstract class InfiniteScrollingActivatorBase implements IInfiniteScrollingActiv
 		logger.info( "finished scrolling" );
 	}
 
+	/**
+	 * Wait until the page has grown and then stopped changing, or until DELAY_PER_SCREEN_MILLIS
+	 * passes without it growing. Returns the last height seen.
+	 *
+	 * Pending XHRs hold the screen open only during the first DELAY_PER_SCREEN_MILLIS, so that
+	 * a long poll or analytics request that never finishes can't keep every screen waiting until
+	 * MAX_DELAY_PER_SCREEN_MILLIS. After that the screen settles on the height alone.
+	 */
+	private int waitForScreen( final WebDriver driver, final int startHeight ) {
+		final long start = System.currentTimeMillis();
+		long lastChange = start;
+		int pollMillis = POLL_MIN_MILLIS;
+		int height = startHeight;
+
+		while ( true ) {
+			Utils.delay( pollMillis );
+
+			final long now = System.currentTimeMillis();
+			final int tempHeight = getOverlayHeight( driver, getHeightScript() );
+			final boolean bWaitingForXHRs = now - start < DELAY_PER_SCREEN_MILLIS && getOutstandingXHRs( driver ) > 0;
+
+			if ( now - start >= MAX_DELAY_PER_SCREEN_MILLIS ) {
+				logger.info( "screen still changing after " + ( now - start ) + "ms" );
+				height = tempHeight;
+				break;
+			}
+
+			if ( Math.abs( tempHeight - height ) >= 10 || bWaitingForXHRs ) {
+				height = tempHeight;
+				lastChange = now;
+				pollMillis = POLL_MIN_MILLIS;
+				continue;
+			}
+
+			if ( Math.abs( height - startHeight ) >= 10 && now - lastChange >= SETTLE_MILLIS ) {
+				logger.info( "screen settled after " + ( now - start ) + "ms" );
+				break;
+			}
+
+			if ( now - start >= DELAY_PER_SCREEN_MILLIS ) {
+				logger.info( "screen didn't settle after " + ( now - start ) + "ms" );
+				break;
+			}
+
+			pollMillis = Math.min( 2 * pollMillis, POLL_MAX_MILLIS );
+		}
+
+		return height;
+	}
+
+	private int getOutstandingXHRs( final WebDriver driver ) {
+		try {
+			final JavascriptExecutor javascriptExecutor = (JavascriptExecutor) driver;
+
+			return Utils.numberObjectToInteger( javascriptExecutor.executeScript( OUTSTANDING_XHR_SCRIPT ) );
+		}
+		catch ( final Exception e ) {
+			return 0;
+		}
+	}
+
 	private int getOverlayHeight( final WebDriver driver, final String script ) {
 		final JavascriptExecutor javascriptExecutor = (JavascriptExecutor) driver;
 
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2022 Chris Kelly
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.tolstoy.censorship.twitter.checker.app.webdriver;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.HashSet;
+
+import org.apache.commons.text.StringEscapeUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import com.tolstoy.censorship.twitter.checker.app.jboto.ReplayManifest;
+
+/**
+ * A WebDriver that doesn't drive a browser. get() just remembers the URL, and the
+ * title and tweet_retriever results come from a ReplayManifest.
+ *
+ * executeAsyncScript with one argument is taken to be tweet_retriever and returns the
+ * recorded interchange data for the current URL. Anything else (for instance json_parser,
+ * which takes two) returns null, so the native JSON parser has to be used when replaying.
+ *
+ * manage() and switchTo() return objects that accept every call and do nothing.
+ */
+public class ReplayWebDriver implements WebDriver, JavascriptExecutor {
+	private static final Logger logger = LogManager.getLogger( ReplayWebDriver.class );
+
+	private static final String WINDOW_HANDLE = "replay";
+
+	private final ReplayManifest manifest;
+	private String currentURL;
+
+	public ReplayWebDriver( final ReplayManifest manifest ) {
+		this.manifest = manifest;
+		this.currentURL = "about:blank";
+	}
+
+	@Override
+	public void get( final String url ) {
+		currentURL = url;
+
+		if ( !manifest.hasPage( url ) ) {
+			logger.warn( "no recorded page for " + url );
+		}
+	}
+
+	@Override
+	public String getCurrentUrl() {
+		return currentURL;
+	}
+
+	@Override
+	public String getTitle() {
+		final String title = manifest.getTitle( currentURL );
+		return title != null ? title : "";
+	}
+
+	@Override
+	public List<WebElement> findElements( final By by ) {
+		return new ArrayList<WebElement>();
+	}
+
+	@Override
+	public WebElement findElement( final By by ) {
+		throw new NoSuchElementException( "replaying, no elements: " + by );
+	}
+
+	@Override
+	public String getPageSource() {
+		return "<html><head><title>" + StringEscapeUtils.escapeHtml4( getTitle() ) + "</title></head><body></body></html>";
+	}
+
+	@Override
+	public void close() {
+	}
+
+	@Override
+	public void quit() {
+	}
+
+	@Override
+	public Set<String> getWindowHandles() {
+		final Set<String> ret = new HashSet<String>();
+		ret.add( WINDOW_HANDLE );
+		return ret;
+	}
+
+	@Override
+	public String getWindowHandle() {
+		return WINDOW_HANDLE;
+	}
+
+	@Override
+	public TargetLocator switchTo() {
+		return makeNoOp( TargetLocator.class );
+	}
+
+	@Override
+	public Navigation navigate() {
+		return makeNoOp( Navigation.class );
+	}
+
+	@Override
+	public Options manage() {
+		return makeNoOp( Options.class );
+	}
+
+	@Override
+	public Object executeScript( final String script, final Object... args ) {
+		return null;
+	}
+
+	@Override
+	public Object executeAsyncScript( final String script, final Object... args ) {
+		if ( args != null && args.length == 1 ) {
+			return manifest.getInterchangeData( currentURL );
+		}
+
+		return null;
+	}
+
+	/**
+	 * @return an implementation of the interface whose methods do nothing. Methods that
+	 * return another WebDriver interface (e.g. manage().timeouts()) return a no-op for that
+	 * one too, methods returning a primitive return its zero value, and the rest return null.
+	 */
+	protected static <T> T makeNoOp( final Class<T> iface ) {
+		final InvocationHandler handler = ( Object proxy, Method method, Object[] args ) -> {
+			final Class<?> returnType = method.getReturnType();
+
+			if ( "toString".equals( method.getName() ) ) {
+				return "replay no-op " + iface.getSimpleName();
+			}
+
+			if ( returnType.isInterface() && returnType.getEnclosingClass() == WebDriver.class ) {
+				return makeNoOp( returnType );
+			}
+
+			if ( returnType == boolean.class ) {
+				return false;
+			}
+
+			if ( returnType == int.class || returnType == long.class ) {
+				return returnType == int.class ? (Object) 0 : (Object) 0L;
+			}
+
+			return null;
+		};
+
+		return iface.cast( Proxy.newProxyInstance( iface.getClassLoader(), new Class<?>[] { iface }, handler ) );
+	}
+
+	@Override
+	public String toString() {
+		return "ReplayWebDriver at " + currentURL;
+	}
+}
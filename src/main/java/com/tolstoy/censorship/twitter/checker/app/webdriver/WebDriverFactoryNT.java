@@ -76,10 +76,12 @@ import com.tolstoy.censorship.twitter.checker.api.webdriver.IInfiniteScrollingAc
 import com.tolstoy.censorship.twitter.checker.api.webdriver.IWebDriverFactory;
 import com.tolstoy.censorship.twitter.checker.api.webdriver.IWebDriverUtils;
 import com.tolstoy.censorship.twitter.checker.api.webdriver.InfiniteScrollingActivatorType;
+import com.tolstoy.censorship.twitter.checker.app.jboto.OurEnvironment;
 import com.tolstoy.censorship.twitter.checker.app.webdriver.ntjs.JavascriptInterchangeContainer;
 import com.tolstoy.censorship.twitter.checker.app.webdriver.ntjs.JavascriptInterchangeMetadata;
 import com.tolstoy.censorship.twitter.checker.app.webdriver.ntjs.JavascriptInterchangeSupposedQualities;
 import com.tolstoy.censorship.twitter.checker.app.webdriver.ntjs.JavascriptParams;
+import com.tolstoy.censorship.twitter.checker.app.webdriver.ntjs.JSONInterchangeContainerMaker;
 
 class WebDriverFactoryNT implements IWebDriverFactory {
 	private static final Logger logger = LogManager.getLogger( WebDriverFactoryNT.class );
@@ -95,6 +97,7 @@ class WebDriverFactoryNT implements IWebDriverFactory {
 	private final IPreferences prefs;
 	private final IResourceBundleWithFormatting bundle;
 	private final DebugLevel debugLevel;
+	private final JSONInterchangeContainerMaker jsonInterchangeContainerMaker;
 
 	private static class TweetCollectionExtended {
 		ITweetCollection tweetCollection;
@@ -122,6 +125,7 @@ class WebDriverFactoryNT implements IWebDriverFactory {
 		this.prefs = prefs;
 		this.bundle = bundle;
 		this.debugLevel = debugLevel;
+		this.jsonInterchangeContainerMaker = new JSONInterchangeContainerMaker( browserScriptFactory, prefs, tweetFactory, bundle );
 	}
 
 	@Override
@@ -149,6 +153,8 @@ class WebDriverFactoryNT implements IWebDriverFactory {
 
 		final List<IBrowserProxyLogEntry> responses = browserProxy.endRecording( driver );
 
+		OurEnvironment.checkDroppedResponses( browserProxy, tweetCollectionExtended.interchangeContainer, url );
+
 		final List<String> jsonStrings = saveJSONStrings( responses, archiveDirectory );
 
 		final List<String> tweetSupplementMessages = supplementTweetCollection( driver, tweetCollection, jsonStrings, TargetPageType.TIMELINE, url );
@@ -207,6 +213,8 @@ class WebDriverFactoryNT implements IWebDriverFactory {
 
 		List<IBrowserProxyLogEntry> responses = browserProxy.endRecording( driver );
 
+		OurEnvironment.checkDroppedResponses( browserProxy, tweetCollectionExtended.interchangeContainer, url );
+
 		List<String> jsonStrings = saveJSONStrings( responses, archiveDirectory );
 
 		final List<String> tweetSupplementMessages = supplementTweetCollection( driver, tweetCollection, jsonStrings, TargetPageType.REPLYPAGE, url );
@@ -283,9 +291,7 @@ class WebDriverFactoryNT implements IWebDriverFactory {
 		jsParams.setValue( "scrollerNumTimesToScroll", "" + ( 5 * numberOfPagesToCheck ) );
 		jsParams.setValue( "scrollerHeightMultiplier", "0.25" );
 
-		final String suedeDenimRetrieverScript = browserScriptFactory.getScript( "tweet_retriever" ).getScript();
-
-		final List rawInterchangeData = (List) javascriptExecutor.executeAsyncScript( suedeDenimRetrieverScript, jsParams.getMap() );
+		final List rawInterchangeData = (List) browserScriptFactory.executeAsyncScript( driver, "tweet_retriever", jsParams.getMap() );
 
 		final JavascriptInterchangeContainer interchangeContainer = new JavascriptInterchangeContainer( rawInterchangeData, tweetFactory, bundle );
 
@@ -313,28 +319,9 @@ class WebDriverFactoryNT implements IWebDriverFactory {
 														final List<String> jsonStrings,
 														final TargetPageType pageType,
 														final String url ) throws Exception {
-		final JavascriptExecutor javascriptExecutor = (JavascriptExecutor) driver;
-
-		driver.manage().timeouts().scriptTimeout( TIMEOUT );
-
-		logger.info( "supplementTweetCollection: calling SuedeDenim json_parser script" );
-
-		final JavascriptParams jsParams = new JavascriptParams( url, pageType, debugLevel );
-
-		final String suedeDenimJSONParserScript = browserScriptFactory.getScript( "json_parser" ).getScript();
-
-		final List rawInterchangeData = (List) javascriptExecutor.executeAsyncScript( suedeDenimJSONParserScript, jsParams.getMap(), jsonStrings );
-
-		final JavascriptInterchangeContainer interchangeContainer = new JavascriptInterchangeContainer( rawInterchangeData, tweetFactory, bundle );
+		final JavascriptInterchangeContainer interchangeContainer = makeJSONInterchangeContainer( driver, jsonStrings, pageType, url );
 
-/*
-		logger.info( "SuedeDenim json_parser script called, messages=" );
-		for ( String message : getBrowserLogs( driver ) ) {
-			logger.info( "  " + message );
-		}
-*/
-
-		logger.info( "\n\n\nsupplementTweetCollection: SuedeDenim json_parser script called, javascript interchange=\n" + interchangeContainer.toDebugString( "  " ) );
+		logger.info( "\n\n\nsupplementTweetCollection: JSON parsed, javascript interchange=\n" + interchangeContainer.toDebugString( "  " ) );
 
 		final List<String> tweetSupplementMessages = tweetCollection.supplementFrom( interchangeContainer.getTweetCollection() );
 
@@ -353,6 +340,20 @@ class WebDriverFactoryNT implements IWebDriverFactory {
 		return tweetSupplementMessages;
 	}
 
+	protected JavascriptInterchangeContainer makeJSONInterchangeContainer( final WebDriver driver,
+																			final List<String> jsonStrings,
+																			final TargetPageType pageType,
+																			final String url ) throws Exception {
+		final JavascriptParams jsParams = new JavascriptParams( url, pageType, debugLevel );
+
+		final JavascriptInterchangeContainer ret = jsonInterchangeContainerMaker.makeJSONInterchangeContainer( driver, jsonStrings, jsParams, TIMEOUT );
+		if ( ret == null ) {
+			throw new RuntimeException( "json_parser script returned nothing for " + url );
+		}
+
+		return ret;
+	}
+
 	@Override
 	public IInfiniteScrollingActivator makeInfiniteScrollingActivator( final WebDriver driver,
 																		final IWebDriverUtils driverutils,
@@ -395,6 +396,11 @@ class WebDriverFactoryNT implements IWebDriverFactory {
 				Proxy seleniumProxy = proxy.getSeleniumProxy();
 				if ( seleniumProxy != null ) {
 					firefoxOptions.setProxy( seleniumProxy );
+						//	otherwise Firefox bypasses the proxy for 127.0.0.1/localhost, so
+						//	nothing from StandInTwitterServer would be recorded.
+					if ( Utils.isStringTrue( prefs.getValue( "prefs.proxy_allow_localhost" ) ) ) {
+						firefoxOptions.addPreference( "network.proxy.allow_hijacking_localhost", true );
+					}
 				}
 			}
 
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2022 Chris Kelly
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.tolstoy.censorship.twitter.checker.app.webdriver.ntjs;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.WebDriver;
+
+import com.tolstoy.basic.api.tweet.ITweetFactory;
+import com.tolstoy.basic.api.utils.IResourceBundleWithFormatting;
+import com.tolstoy.basic.app.utils.Utils;
+import com.tolstoy.censorship.twitter.checker.api.installation.IBrowserScriptFactory;
+import com.tolstoy.censorship.twitter.checker.api.preferences.IPreferences;
+
+/*
+ * Turns the JSON strings captured by the browser data recorders into
+ * a JavascriptInterchangeContainer.
+ *
+ * They're parsed natively with JSONResponseParser unless
+ * prefs.json_parser_use_script is set or the native parser throws.
+ * In those cases the SuedeDenim json_parser script is run in the
+ * browser instead.
+ */
+public final class JSONInterchangeContainerMaker {
+	private static final Logger logger = LogManager.getLogger( JSONInterchangeContainerMaker.class );
+
+	private final IBrowserScriptFactory browserScriptFactory;
+	private final IPreferences prefs;
+	private final ITweetFactory tweetFactory;
+	private final IResourceBundleWithFormatting bundle;
+
+	public JSONInterchangeContainerMaker( final IBrowserScriptFactory browserScriptFactory,
+											final IPreferences prefs,
+											final ITweetFactory tweetFactory,
+											final IResourceBundleWithFormatting bundle ) {
+		this.browserScriptFactory = browserScriptFactory;
+		this.prefs = prefs;
+		this.tweetFactory = tweetFactory;
+		this.bundle = bundle;
+	}
+
+	/**
+	 * @param driver only used if the json_parser script is run.
+	 * @param scriptTimeout the script timeout to set before running the json_parser script.
+	 * @return null if the json_parser script didn't return anything.
+	 */
+	public JavascriptInterchangeContainer makeJSONInterchangeContainer( final WebDriver driver,
+																		final List<String> jsonStrings,
+																		final JavascriptParams jsParams,
+																		final Duration scriptTimeout ) throws Exception {
+		if ( !Utils.isStringTrue( prefs.getValue( "prefs.json_parser_use_script" ) ) ) {
+			try {
+				return new JavascriptInterchangeContainer( new JSONResponseParser().parse( jsonStrings ), tweetFactory, bundle );
+			}
+			catch ( final Exception e ) {
+				Utils.logException( logger, "native JSON parser failed, falling back to the json_parser script", e );
+			}
+		}
+
+		driver.manage().timeouts().scriptTimeout( scriptTimeout );
+
+		logger.info( "calling SuedeDenim json_parser script" );
+
+		final List<? extends Object> rawInterchangeData = (List<? extends Object>) browserScriptFactory.executeAsyncScript( driver, "json_parser", jsParams.getMap(), jsonStrings );
+		if ( rawInterchangeData == null ) {
+			return null;
+		}
+
+		return new JavascriptInterchangeContainer( rawInterchangeData, tweetFactory, bundle );
+	}
+
+	@Override
+	public String toString() {
+		return new ToStringBuilder( this )
+		.append( "browserScriptFactory", browserScriptFactory )
+		.append( "prefs", prefs )
+		.toString();
+	}
+}
@@ -0,0 +1,661 @@
+/*
+ * Copyright 2022 Chris Kelly
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.tolstoy.censorship.twitter.checker.app.webdriver.ntjs;
+
+import java.io.IOException;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import com.tolstoy.basic.app.utils.Utils;
+
+/*
+ * Native replacement for the SuedeDenim json_parser script.
+ *
+ * Takes the JSON strings captured by the browser data recorder and
+ * returns the same List<Map<String,String>> the script returns, so
+ * the result can be handed to JavascriptInterchangeContainer as-is
+ * and the script can still be used as a fallback.
+ *
+ * The input is read with a streaming parser. Only one timeline entry
+ * or one user at a time is turned into a tree, the instructions and
+ * entries arrays around them never are.
+ */
+public final class JSONResponseParser {
+	private static final Logger logger = LogManager.getLogger( JSONResponseParser.class );
+
+	private static final DateTimeFormatter CREATED_AT_FORMATTER = DateTimeFormatter.ofPattern( "EEE MMM dd HH:mm:ss Z yyyy", Locale.ENGLISH );
+	private static final String WITHHELD_SEPARATOR = " ;;; ";
+
+	//	same keys and defaults as the Tweet class and TweetHelper in suededenim.java.js
+	private final static String[][] tweetDefaults = {
+		{ "avatarURL", "" },
+		{ "componentcontext", "" },
+		{ "conversationid", "" },
+		{ "datestring", "" },
+		{ "disclosuretype", "" },
+		{ "favoritecount", "0" },
+		{ "followsyou", "" },
+		{ "fullname", "" },
+		{ "hascards", "0" },
+		{ "hasparenttweet", "" },
+		{ "innertweetid", "" },
+		{ "innertweetrawhref", "" },
+		{ "is_pinned", "" },
+		{ "is_toptweet", "" },
+		{ "isreplyto", "" },
+		{ "itemid", "" },
+		{ "iterationindex", "0" },
+		{ "iterationnumber", "0" },
+		{ "name", "" },
+		{ "nexttweetid", "0" },
+		{ "permalinkpath", "" },
+		{ "photourl", "" },
+		{ "previoustweetid", "0" },
+		{ "quality", "unknown_quality" },
+		{ "repliedtohandle", "" },
+		{ "repliedtouserid", "" },
+		{ "replycount", "0" },
+		{ "replytousersjson", "" },
+		{ "retweetcount", "0" },
+		{ "retweetid", "0" },
+		{ "screenname", "" },
+		{ "suggestionjson", "" },
+		{ "time", "0" },
+		{ "tweetclasses", "" },
+		{ "tweethtml", "" },
+		{ "tweetid", "0" },
+		{ "tweetlanguage", "en" },
+		{ "tweetmentions", "" },
+		{ "tweetnonce", "" },
+		{ "tweetphoto_image", "" },
+		{ "tweetphoto_link", "" },
+		{ "tweetstatinitialized", "" },
+		{ "tweettext", "" },
+		{ "userid", "0" },
+		{ "username", "" },
+		{ "verifiedText", "" },
+		{ "videothumburl", "" },
+		{ "viewscount", "0" },
+		{ "youblock", "" },
+		{ "youfollow", "" },
+		{ "errors", "" }
+	};
+
+	//	same keys and defaults as the TweetUser class in suededenim.java.js
+	private final static String[][] userDefaults = {
+		{ "id", "0" },
+		{ "handle", "placeholder_handle" },
+		{ "displayName", "" },
+		{ "verifiedStatus", "UNKNOWN" },
+		{ "avatarURL", "" },
+		{ "numTotalTweets", "0" },
+		{ "numFollowers", "0" },
+		{ "numFollowing", "0" },
+		{ "canDM", "" },
+		{ "canMediaTag", "" },
+		{ "advertiserAccountType", "" },
+		{ "withheldInCountries", "" },
+		{ "blueSubscriber", "" },
+		{ "requireSomeConsent", "" },
+		{ "hasGraduatedAccess", "" },
+		{ "superFollowEligible", "" },
+		{ "errors", "" }
+	};
+
+	private final ObjectMapper objectMapper;
+
+	private static class Results {
+		final Map<String,String> supposedQualities = new LinkedHashMap<String,String>();
+		final List<Map<String,String>> tweets = new ArrayList<Map<String,String>>();
+		final List<Map<String,String>> users = new ArrayList<Map<String,String>>();
+		final List<String> errors = new ArrayList<String>();
+	}
+
+	public JSONResponseParser() {
+		this.objectMapper = Utils.getPlainObjectMapper();
+	}
+
+	/**
+	 * Parse the captured JSON strings.
+	 * @param jsonStrings the strings saved by saveJSONStrings; can be null.
+	 * @return a "tweetid_to_supposed_qualities" map followed by one map per
+	 * tweet and one map per user, in the format the json_parser script returns.
+	 */
+	public List<Map<String,String>> parse( final List<String> jsonStrings ) {
+		final Results results = new Results();
+
+		if ( jsonStrings != null ) {
+			for ( int i = 0; i < jsonStrings.size(); i++ ) {
+				final String jsonString = jsonStrings.get( i );
+				if ( Utils.isEmpty( jsonString ) ) {
+					continue;
+				}
+
+				try ( final JsonParser parser = objectMapper.getFactory().createParser( jsonString ) ) {
+					parseRoot( parser, results );
+				}
+				catch ( final Exception e ) {
+					results.errors.add( "Cannot parse string at position " + i + ": " + e.getMessage() );
+				}
+			}
+		}
+
+		if ( !results.errors.isEmpty() ) {
+			logger.info( "JSONResponseParser errors:\n  " + StringUtils.join( results.errors, "\n  " ) );
+		}
+
+		final List<Map<String,String>> ret = new ArrayList<Map<String,String>>( 1 + results.tweets.size() + results.users.size() );
+
+		final Map<String,String> supposedQualitiesMap = new HashMap<String,String>( results.supposedQualities );
+		supposedQualitiesMap.put( "map_type", "tweetid_to_supposed_qualities" );
+		ret.add( supposedQualitiesMap );
+
+		for ( final Map<String,String> map : results.tweets ) {
+			map.put( "map_type", "tweet" );
+			ret.add( map );
+		}
+
+		for ( final Map<String,String> map : results.users ) {
+			map.put( "map_type", "user" );
+			ret.add( map );
+		}
+
+		logger.info( "JSONResponseParser: " + results.tweets.size() + " tweets, " +
+						results.users.size() + " users, " +
+						results.supposedQualities.size() + " supposed qualities" );
+
+		return ret;
+	}
+
+	protected void parseRoot( final JsonParser parser, final Results results ) throws IOException {
+		final JsonToken token = parser.nextToken();
+
+		if ( token == JsonToken.START_OBJECT ) {
+			parseRootObject( parser, results );
+		}
+		else if ( token == JsonToken.START_ARRAY ) {
+			parseUserList( parser, results );
+		}
+	}
+
+	protected void parseRootObject( final JsonParser parser, final Results results ) throws IOException {
+		while ( parser.nextToken() == JsonToken.FIELD_NAME ) {
+			final String name = parser.getCurrentName();
+			final JsonToken token = parser.nextToken();
+
+			if ( token != JsonToken.START_OBJECT ) {
+				parser.skipChildren();
+			}
+			else if ( "JSON".equals( name ) ) {
+				parseRootObject( parser, results );
+			}
+			else if ( "data".equals( name ) ) {
+				parseData( parser, results );
+			}
+			else if ( "globalObjects".equals( name ) || "timeline".equals( name ) ) {
+				parseGlobalTimeline( parser, results );
+			}
+			else {
+				parser.skipChildren();
+			}
+		}
+	}
+
+	/**
+	 * Handles data.users (IncompleteUserList), data.user.result with or without
+	 * timeline_v2 (TimelineV2 / IncompleteUser), and
+	 * data.threaded_conversation_with_injections_v2 (ThreadedConversation).
+	 */
+	protected void parseData( final JsonParser parser, final Results results ) throws IOException {
+		while ( parser.nextToken() == JsonToken.FIELD_NAME ) {
+			final String name = parser.getCurrentName();
+			final JsonToken token = parser.nextToken();
+
+			if ( "users".equals( name ) && token == JsonToken.START_ARRAY ) {
+				while ( parser.nextToken() != JsonToken.END_ARRAY ) {
+					final JsonNode node = parser.readValueAsTree();
+					if ( node != null && node.path( "result" ).isObject() ) {
+						results.users.add( makeUser( node.get( "result" ) ) );
+					}
+				}
+			}
+			else if ( "user".equals( name ) && token == JsonToken.START_OBJECT ) {
+				while ( parser.nextToken() == JsonToken.FIELD_NAME ) {
+					final String userFieldName = parser.getCurrentName();
+					if ( parser.nextToken() == JsonToken.START_OBJECT && "result".equals( userFieldName ) ) {
+						parseUserResult( parser, results );
+					}
+					else {
+						parser.skipChildren();
+					}
+				}
+			}
+			else if ( "threaded_conversation_with_injections_v2".equals( name ) && token == JsonToken.START_OBJECT ) {
+				parseInstructionsContainer( parser, results );
+			}
+			else {
+				parser.skipChildren();
+			}
+		}
+	}
+
+	/**
+	 * The user's fields are collected into a tree, except for timeline_v2 which
+	 * is streamed. The user is only reported if there was no timeline_v2, like
+	 * the script does.
+	 */
+	protected void parseUserResult( final JsonParser parser, final Results results ) throws IOException {
+		final ObjectNode user = objectMapper.createObjectNode();
+		boolean bHasTimeline = false;
+
+		while ( parser.nextToken() == JsonToken.FIELD_NAME ) {
+			final String name = parser.getCurrentName();
+			final JsonToken token = parser.nextToken();
+
+			if ( "timeline_v2".equals( name ) && token == JsonToken.START_OBJECT ) {
+				bHasTimeline = true;
+
+				while ( parser.nextToken() == JsonToken.FIELD_NAME ) {
+					final String timelineFieldName = parser.getCurrentName();
+					if ( parser.nextToken() == JsonToken.START_OBJECT && "timeline".equals( timelineFieldName ) ) {
+						parseInstructionsContainer( parser, results );
+					}
+					else {
+						parser.skipChildren();
+					}
+				}
+			}
+			else {
+				final JsonNode node = parser.readValueAsTree();
+				if ( node != null ) {
+					user.set( name, node );
+				}
+			}
+		}
+
+		if ( !bHasTimeline && user.size() > 0 ) {
+			results.users.add( makeUser( user ) );
+		}
+	}
+
+	protected void parseGlobalTimeline( final JsonParser parser, final Results results ) throws IOException {
+		while ( parser.nextToken() == JsonToken.FIELD_NAME ) {
+			final String name = parser.getCurrentName();
+			final JsonToken token = parser.nextToken();
+
+			if ( ( "tweets".equals( name ) || "users".equals( name ) ) && token == JsonToken.START_OBJECT ) {
+				final boolean bTweets = "tweets".equals( name );
+
+				while ( parser.nextToken() == JsonToken.FIELD_NAME ) {
+					parser.nextToken();
+					final JsonNode node = parser.readValueAsTree();
+					if ( node == null || !node.isObject() ) {
+						continue;
+					}
+
+					if ( bTweets ) {
+						results.tweets.add( makeTweet( node ) );
+					}
+					else {
+						results.users.add( makeUser( node ) );
+					}
+				}
+			}
+			else if ( "instructions".equals( name ) && token == JsonToken.START_ARRAY ) {
+				parseInstructions( parser, results );
+			}
+			else {
+				parser.skipChildren();
+			}
+		}
+	}
+
+	protected void parseUserList( final JsonParser parser, final Results results ) throws IOException {
+		while ( parser.nextToken() != JsonToken.END_ARRAY ) {
+			final JsonNode node = parser.readValueAsTree();
+			if ( node != null && node.has( "token" ) && node.path( "user" ).isObject() ) {
+				results.users.add( makeUser( node.get( "user" ) ) );
+			}
+		}
+	}
+
+	protected void parseInstructionsContainer( final JsonParser parser, final Results results ) throws IOException {
+		while ( parser.nextToken() == JsonToken.FIELD_NAME ) {
+			final String name = parser.getCurrentName();
+			final JsonToken token = parser.nextToken();
+
+			if ( "instructions".equals( name ) && token == JsonToken.START_ARRAY ) {
+				parseInstructions( parser, results );
+			}
+			else {
+				parser.skipChildren();
+			}
+		}
+	}
+
+	/**
+	 * Only TimelineAddEntries instructions have an entries array. Each entry
+	 * is read as a tree and then discarded.
+	 */
+	protected void parseInstructions( final JsonParser parser, final Results results ) throws IOException {
+		while ( parser.nextToken() != JsonToken.END_ARRAY ) {
+			if ( parser.getCurrentToken() != JsonToken.START_OBJECT ) {
+				parser.skipChildren();
+				continue;
+			}
+
+			while ( parser.nextToken() == JsonToken.FIELD_NAME ) {
+				final String name = parser.getCurrentName();
+				final JsonToken token = parser.nextToken();
+
+				if ( "entries".equals( name ) && token == JsonToken.START_ARRAY ) {
+					while ( parser.nextToken() != JsonToken.END_ARRAY ) {
+						final JsonNode entry = parser.readValueAsTree();
+						if ( entry != null ) {
+							try {
+								parseEntry( entry, results );
+							}
+							catch ( final Exception e ) {
+								results.errors.add( "Cannot parse entry " + entry.path( "entryId" ).asText() + ": " + e.getMessage() );
+							}
+						}
+					}
+				}
+				else {
+					parser.skipChildren();
+				}
+			}
+		}
+	}
+
+	protected void parseEntry( final JsonNode entry, final Results results ) {
+		final String entryType = entry.path( "content" ).path( "entryType" ).asText();
+
+		if ( "TimelineTimelineItem".equals( entryType ) ) {
+			parseTimelineItem( entry, results );
+		}
+		else if ( "TimelineTimelineModule".equals( entryType ) ) {
+			parseTimelineModule( entry, results );
+		}
+	}
+
+	protected void parseTimelineItem( final JsonNode entry, final Results results ) {
+		addTweetAndUser( entry.at( "/content/itemContent/tweet_results/result" ), results );
+
+		final JsonNode rawUser = entry.at( "/core/user_results/result" );
+		if ( isTypename( rawUser, "User" ) ) {
+			results.users.add( makeUser( rawUser ) );
+		}
+
+		final JsonNode items = entry.at( "/content/items" );
+		if ( !items.isArray() ) {
+			return;
+		}
+
+		for ( final JsonNode item : items ) {
+			if ( item.path( "entryId" ).asText().indexOf( "whoToFollow" ) > -1 ) {
+				continue;
+			}
+
+			addTweetAndUser( item.at( "/item/itemContent/tweet_results/result" ), results );
+		}
+	}
+
+	protected void parseTimelineModule( final JsonNode entry, final Results results ) {
+		final JsonNode items = entry.at( "/content/items" );
+		if ( !items.isArray() ) {
+			return;
+		}
+
+		for ( final JsonNode item : items ) {
+			final String tweetID = item.at( "/item/itemContent/tweet_results/result/rest_id" ).asText();
+			final String supposedQuality = item.at( "/item/clientEventInfo/details/conversationDetails/conversationSection" ).asText();
+
+			if ( !Utils.isEmpty( tweetID ) && !Utils.isEmpty( supposedQuality ) ) {
+				results.supposedQualities.put( tweetID, supposedQuality );
+			}
+
+			addTweetAndUser( item.at( "/item/itemContent/tweet_results/result" ), results );
+		}
+	}
+
+	protected void addTweetAndUser( final JsonNode rawTweet, final Results results ) {
+		final JsonNode rawUser = rawTweet.at( "/core/user_results/result" );
+		if ( isTypename( rawUser, "User" ) ) {
+			results.users.add( makeUser( rawUser ) );
+		}
+
+		if ( isTypename( rawTweet, "Tweet" ) ) {
+			results.tweets.add( makeTweet( rawTweet ) );
+		}
+	}
+
+	/**
+	 * Port of TweetHelper.makeTweet and Tweet.export. Values at the top level
+	 * of the tweet take precedence over the ones in its legacy object.
+	 */
+	protected Map<String,String> makeTweet( final JsonNode json ) {
+		final Map<String,String> map = new HashMap<String,String>( 2 * ( tweetDefaults.length + userDefaults.length ) );
+		final JsonNode legacy = json.path( "legacy" );
+
+		for ( final String[] pair : tweetDefaults ) {
+			map.put( pair[ 0 ], pair[ 1 ] );
+		}
+
+		for ( final String[] pair : userDefaults ) {
+			map.put( "user__" + pair[ 0 ], pair[ 1 ] );
+		}
+
+		putText( map, "tweetid", json, legacy, "id_str" );
+		if ( "0".equals( map.get( "tweetid" ) ) ) {
+			putNumericID( map, "tweetid", json );
+		}
+
+		putText( map, "userid", json, legacy, "user_id_str" );
+		putText( map, "datestring", json, legacy, "created_at" );
+		putText( map, "tweettext", json, legacy, "full_text" );
+		putText( map, "tweetlanguage", json, legacy, "lang" );
+		putText( map, "isreplyto", json, legacy, "in_reply_to_status_id_str" );
+		putText( map, "repliedtohandle", json, legacy, "in_reply_to_screen_name" );
+		putText( map, "repliedtouserid", json, legacy, "in_reply_to_user_id_str" );
+		putText( map, "favoritecount", json, legacy, "favoritecount", "favorite_count" );
+		putText( map, "replycount", json, legacy, "replycount", "reply_count" );
+		putText( map, "retweetcount", json, legacy, "retweetcount", "retweet_count" );
+		putText( map, "viewscount", json, legacy, "viewscount" );
+		putText( map, "conversationid", json, legacy, "conversation_id_str" );
+
+		final String viewsCount = getText( json.path( "views" ), "count" );
+		if ( viewsCount != null && "0".equals( map.get( "viewscount" ) ) ) {
+			map.put( "viewscount", viewsCount );
+		}
+
+		final List<String> mentions = new ArrayList<String>();
+		JsonNode userMentions = json.at( "/entities/user_mentions" );
+		if ( !userMentions.isArray() || userMentions.size() < 1 ) {
+			userMentions = legacy.at( "/entities/user_mentions" );
+		}
+		for ( final JsonNode mention : userMentions ) {
+			final String screenName = getText( mention, "screen_name" );
+			if ( screenName != null ) {
+				mentions.add( screenName );
+			}
+		}
+		map.put( "tweetmentions", StringUtils.join( mentions, "," ) );
+
+		final JsonNode media = getFirstMedia( json, legacy, "entities" );
+		if ( media != null ) {
+			putText( map, "tweetphoto_link", media, media, "expanded_url" );
+			putText( map, "tweetphoto_image", media, media, "media_url_https", "media_url" );
+		}
+
+		final JsonNode extendedMedia = getFirstMedia( json, legacy, "extended_entities" );
+		if ( extendedMedia != null && extendedMedia.has( "video_info" ) ) {
+			putText( map, "videothumburl", extendedMedia, extendedMedia, "media_url_https", "media_url" );
+		}
+
+		map.put( "time", "" + parseCreatedAt( map.get( "datestring" ) ) );
+
+		map.put( "hascards", ( json.has( "card" ) || legacy.has( "card" ) ) ? "1" : "0" );
+
+		final String innerTweetID = getText( json.at( "/quoted_status_result/result" ), "rest_id" );
+		if ( innerTweetID != null ) {
+			map.put( "innertweetid", innerTweetID );
+		}
+
+		final String innerTweetRawHref = getText( legacy.path( "quoted_status_permalink" ), "expanded" );
+		if ( innerTweetRawHref != null ) {
+			map.put( "innertweetrawhref", innerTweetRawHref );
+		}
+
+		return map;
+	}
+
+	/**
+	 * Port of UserHelper.makeUser and TweetUser.export, including the
+	 * id/rest_id swap the script does for GraphQL users.
+	 */
+	protected Map<String,String> makeUser( final JsonNode json ) {
+		final Map<String,String> map = new HashMap<String,String>( 2 * userDefaults.length );
+		final JsonNode legacy = json.path( "legacy" );
+
+		for ( final String[] pair : userDefaults ) {
+			map.put( pair[ 0 ], pair[ 1 ] );
+		}
+
+		putText( map, "id", json, legacy, "id_str" );
+		if ( "0".equals( map.get( "id" ) ) ) {
+			putNumericID( map, "id", json );
+		}
+
+		map.put( "handle", "" );
+		putText( map, "handle", json, legacy, "screen_name" );
+		putText( map, "displayName", json, legacy, "name" );
+		putText( map, "avatarURL", json, legacy, "profile_image_url_https" );
+		putText( map, "numTotalTweets", json, legacy, "statuses_count" );
+		putText( map, "numFollowers", json, legacy, "followers_count" );
+		putText( map, "numFollowing", json, legacy, "friends_count" );
+		putText( map, "canDM", json, legacy, "can_dm" );
+		putText( map, "canMediaTag", json, legacy, "can_media_tag" );
+		putText( map, "advertiserAccountType", json, legacy, "advertiser_account_type" );
+		putText( map, "blueSubscriber", json, legacy, "is_blue_verified", "ext_is_blue_verified" );
+		putText( map, "requireSomeConsent", json, legacy, "require_some_consent" );
+		putText( map, "hasGraduatedAccess", json, legacy, "has_graduated_access" );
+		putText( map, "superFollowEligible", json, legacy, "super_follow_eligible" );
+
+		final boolean bVerified = json.path( "verified" ).asBoolean( false ) || legacy.path( "verified" ).asBoolean( false );
+		map.put( "verifiedStatus", bVerified ? "VERIFIED" : "UNKNOWN" );
+
+		JsonNode withheld = json.path( "withheld_in_countries" );
+		if ( !withheld.isArray() ) {
+			withheld = legacy.path( "withheld_in_countries" );
+		}
+		if ( withheld.isArray() ) {
+			final List<String> countries = new ArrayList<String>( withheld.size() );
+			for ( final JsonNode country : withheld ) {
+				countries.add( country.asText() );
+			}
+			map.put( "withheldInCountries", StringUtils.join( countries, WITHHELD_SEPARATOR ) );
+		}
+
+		return map;
+	}
+
+	protected JsonNode getFirstMedia( final JsonNode json, final JsonNode legacy, final String entitiesKey ) {
+		JsonNode media = json.path( entitiesKey ).path( "media" );
+		if ( !media.isArray() || media.size() < 1 ) {
+			media = legacy.path( entitiesKey ).path( "media" );
+		}
+
+		return media.isArray() && media.size() > 0 ? media.get( 0 ) : null;
+	}
+
+	protected long parseCreatedAt( final String createdAt ) {
+		if ( Utils.isEmpty( createdAt ) ) {
+			return 0;
+		}
+
+		try {
+			return ZonedDateTime.parse( createdAt, CREATED_AT_FORMATTER ).toEpochSecond();
+		}
+		catch ( final Exception e ) {
+			return 0;
+		}
+	}
+
+	protected static boolean isTypename( final JsonNode node, final String typename ) {
+		return node.isObject() && typename.equals( node.path( "__typename" ).asText() );
+	}
+
+	/**
+	 * GraphQL objects have a non-numeric 'id' and a numeric 'rest_id'.
+	 */
+	protected static void putNumericID( final Map<String,String> map, final String targetKey, final JsonNode json ) {
+		for ( final String sourceKey : new String[] { "id", "rest_id" } ) {
+			final String text = getText( json, sourceKey );
+			if ( text != null && StringUtils.isNumeric( text ) ) {
+				map.put( targetKey, text );
+				return;
+			}
+		}
+	}
+
+	protected static void putText( final Map<String,String> map, final String targetKey, final JsonNode json, final JsonNode legacy, final String... sourceKeys ) {
+		for ( final String sourceKey : sourceKeys ) {
+			String text = getText( json, sourceKey );
+			if ( text == null ) {
+				text = getText( legacy, sourceKey );
+			}
+
+			if ( text != null ) {
+				map.put( targetKey, text );
+				return;
+			}
+		}
+	}
+
+	protected static String getText( final JsonNode json, final String key ) {
+		final JsonNode node = json.get( key );
+		if ( node == null || node.isNull() || node.isContainerNode() ) {
+			return null;
+		}
+
+		final String text = node.asText();
+
+		return Utils.isEmpty( text ) ? null : text;
+	}
+
+	@Override
+	public String toString() {
+		return new ToStringBuilder( this )
+		.append( "objectMapper", objectMapper )
+		.toString();
+	}
+}
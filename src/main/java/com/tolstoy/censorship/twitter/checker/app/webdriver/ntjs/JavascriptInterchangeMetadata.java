@@ -35,6 +35,7 @@ public final class JavascriptInterchangeMetadata {
 		"show_hidden_replies",
 		"show_hidden_replies2",
 		"completed",
+		"stop_reason",
 		"error_code",
 		"error_message"
 	};
@@ -86,6 +87,22 @@ public final class JavascriptInterchangeMetadata {
 		return Utils.parseBoolean( getValue( "completed" ) );
 	}
 
+	/**
+	 * Used to mark a page incomplete when something outside the page's script,
+	 * such as the browser data recorder, lost part of it.
+	 */
+	public void setCompleted( final boolean val ) {
+		map.put( "completed", val ? "true" : "false" );
+	}
+
+	/**
+	 * Why the tweet_retriever stopped scrolling: 'target_found', 'boundary', 'bottom', 'limit',
+	 * or empty if the page's script didn't report it.
+	 */
+	public String getStopReason() {
+		return getValue( "stop_reason" );
+	}
+
 	public String getErrorCode() {
 		return getValue( "error_code" );
 	}
@@ -45,12 +45,41 @@ public final class JavascriptParams {
 		this.map.put( "scrollerNumTimesToScroll", "20" );
 		this.map.put( "scrollerHeightMultiplier", "0.25" );
 
+		this.map.put( "settleQuietMillis", "250" );
+		this.map.put( "settleMaxWaitMillis", "4000" );
+		this.map.put( "settlePollMillis", "100" );
+
 		this.map.put( "checkLoggedInDelay", "5" );
 
 		this.map.put( "maxWaitForTweetSelector", "30" );
 
 		this.map.put( "hiddenRepliesAfterClickIterations", "2" );
 		this.map.put( "hiddenRepliesAttemptIterations", "10" );
+
+		this.map.put( "stopAfterTweetID", "0" );
+		this.map.put( "stopAfterScreens", "0" );
+		this.map.put( "stopAtBoundary", "false" );
+	}
+
+	/**
+	 * Have the tweet_retriever stop scrolling once the tweet with the given ID has been
+	 * seen and it has scrolled numScreens more screens. The interchange metadata's
+	 * stop_reason will be 'target_found' and completed will be false, since the rest
+	 * of the page wasn't read.
+	 */
+	public void setStopAfterTweet( final long tweetID, final int numScreens ) {
+		setValue( "stopAfterTweetID", "" + tweetID );
+		setValue( "stopAfterScreens", "" + numScreens );
+	}
+
+	/**
+	 * Have the tweet_retriever stop scrolling when the hidden replies section comes into view,
+	 * leaving the rest to the show hidden replies steps. The stop_reason will be 'boundary'.
+	 * The boundary is only checked while reading the uncensored tweets; completed is true
+	 * only if a later step reaches the bottom of the page.
+	 */
+	public void setStopAtBoundary( final boolean val ) {
+		setValue( "stopAtBoundary", val ? "true" : "false" );
 	}
 
 	public String getURL() {
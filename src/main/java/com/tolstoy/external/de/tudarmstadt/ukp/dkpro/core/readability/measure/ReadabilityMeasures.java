@@ -86,6 +86,80 @@ public class ReadabilityMeasures
             throw new IllegalArgumentException("Unknown measure: " + measure.name());
         }
     }
+
+    /**
+     * Count everything the measures need in one pass over the words, so that
+     * syllables aren't recounted for each measure.
+     * 
+     * @param words words.
+     * @param nrofSentences number of sentences.
+     * @return the counts, to pass to {@link #getReadabilityScore(Measures, ReadabilityProfile)}.
+     */
+    public ReadabilityProfile getReadabilityProfile(final List<String> words, final int nrofSentences)
+    {
+        int nrofWords = 0;
+        int nrofSyllables = 0;
+        int nrofBigwords = 0;
+        int nrofLongwords = 0;
+        int nrofLetters = 0;
+
+        for (final String word : words) {
+            if (!isWord(word)) {
+                continue;
+            }
+
+            final int nrofWordSyllables = this.syllableCounter.countSyllables(word);
+
+            nrofWords++;
+            nrofSyllables += nrofWordSyllables;
+            nrofLetters += word.length();
+
+            if (nrofWordSyllables >= 3) {
+                nrofBigwords++;
+            }
+            if (word.length() > 6) {
+                nrofLongwords++;
+            }
+        }
+
+        return new ReadabilityProfile(nrofWords, nrofSentences, nrofSyllables, nrofBigwords,
+                nrofLongwords, nrofLetters);
+    }
+
+    /**
+     * Gives the same result as {@link #getReadabilityScore(Measures, List, int)} for the
+     * words and sentence count that the profile was made from.
+     */
+    public double getReadabilityScore(final Measures measure, final ReadabilityProfile profile)
+    {
+        final int nrofWords = profile.getNrofWords();
+        final int nrofSentences = profile.getNrofSentences();
+
+        if (measure.equals(Measures.ari)) {
+            return ari(profile.getNrofLetters(), nrofWords, nrofSentences);
+        }
+        else if (measure.equals(Measures.coleman_liau)) {
+            return coleman_liau(profile.getNrofLetters(), nrofWords, nrofSentences);
+        }
+        else if (measure.equals(Measures.flesch)) {
+            return flesch(profile.getNrofSyllables(), nrofWords, nrofSentences);
+        }
+        else if (measure.equals(Measures.fog)) {
+            return fog(nrofWords, profile.getNrofBigwords(), nrofSentences);
+        }
+        else if (measure.equals(Measures.kincaid)) {
+            return kincaid(nrofWords, profile.getNrofSyllables(), nrofSentences);
+        }
+        else if (measure.equals(Measures.lix)) {
+            return lix(nrofWords, profile.getNrofLongwords(), nrofSentences);
+        }
+        else if (measure.equals(Measures.smog)) {
+            return smog(profile.getNrofBigwords(), nrofSentences);
+        }
+        else {
+            throw new IllegalArgumentException("Unknown measure: " + measure.name());
+        }
+    }
     
     /*
      * only the strings consist of numbers or letters
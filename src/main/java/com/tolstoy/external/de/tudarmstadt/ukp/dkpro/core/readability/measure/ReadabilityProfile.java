@@ -0,0 +1,86 @@
+/*
+ * Copyright 2022 Chris Kelly
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.tolstoy.external.de.tudarmstadt.ukp.dkpro.core.readability.measure;
+
+/**
+ * The counts that the readability measures are computed from, gathered in one
+ * pass over the words by {@link ReadabilityMeasures#getReadabilityProfile}.
+ *
+ * Only words made of letters and digits are counted, as with the per-measure
+ * methods in ReadabilityMeasures.
+ */
+public class ReadabilityProfile
+{
+    private final int nrofWords;
+    private final int nrofSentences;
+    private final int nrofSyllables;
+    private final int nrofBigwords;
+    private final int nrofLongwords;
+    private final int nrofLetters;
+
+    ReadabilityProfile(final int nrofWords, final int nrofSentences, final int nrofSyllables,
+            final int nrofBigwords, final int nrofLongwords, final int nrofLetters)
+    {
+        this.nrofWords = nrofWords;
+        this.nrofSentences = nrofSentences;
+        this.nrofSyllables = nrofSyllables;
+        this.nrofBigwords = nrofBigwords;
+        this.nrofLongwords = nrofLongwords;
+        this.nrofLetters = nrofLetters;
+    }
+
+    public int getNrofWords()
+    {
+        return nrofWords;
+    }
+
+    public int getNrofSentences()
+    {
+        return nrofSentences;
+    }
+
+    public int getNrofSyllables()
+    {
+        return nrofSyllables;
+    }
+
+    /**
+     * @return The number of words with 3 or more syllables.
+     */
+    public int getNrofBigwords()
+    {
+        return nrofBigwords;
+    }
+
+    /**
+     * @return The number of words with more than 6 letters.
+     */
+    public int getNrofLongwords()
+    {
+        return nrofLongwords;
+    }
+
+    public int getNrofLetters()
+    {
+        return nrofLetters;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "words=" + nrofWords + ", sentences=" + nrofSentences + ", syllables=" + nrofSyllables
+                + ", bigwords=" + nrofBigwords + ", longwords=" + nrofLongwords + ", letters=" + nrofLetters;
+    }
+}
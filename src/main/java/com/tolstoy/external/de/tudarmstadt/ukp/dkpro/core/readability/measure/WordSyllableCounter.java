@@ -23,9 +23,7 @@
 
 package com.tolstoy.external.de.tudarmstadt.ukp.dkpro.core.readability.measure;
 
-import java.util.Arrays;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.Locale;
 
 /**
  * Counts syllables in words.  
@@ -33,40 +31,62 @@ import java.util.Set;
  * This class is based on the methods of 'syll_en' and 'syll_de' 
  * in Linux'Style' command (a part of 'diction' package). 
  * 
+ * The vowels for the language are looked up in a table indexed by char
+ * that's built once in the constructor, and words are lowercased a char
+ * at a time as they're scanned, so counting doesn't allocate.
  *
  */
 public class WordSyllableCounter {
 
-    private final String[] vowelsArray   = {"a", "e", "i", "o", "u"};
-    private final String[] enVowelsArray = {"a", "e", "i", "o", "u", "y"};
-    private final String[] deVowelsArray = {"a", "e", "i", "o", "u", "ä", "ö", "ü"};
+    private static final char[] vowelsArray   = {'a', 'e', 'i', 'o', 'u'};
+    private static final char[] enVowelsArray = {'a', 'e', 'i', 'o', 'u', 'y'};
+    private static final char[] deVowelsArray = {'a', 'e', 'i', 'o', 'u', '\u00e4', '\u00f6', '\u00fc'};
 
-    private final Set<String> vowels;
-    private final Set<String> deVowels;
-    private final Set<String> enVowels;
-    
-    private final String languageCode;
+    // all of the vowels above are Latin-1
+    private static final int VOWEL_TABLE_SIZE = 256;
+
+    // String.toLowerCase() turns this one into two chars, 'i' and a combining dot
+    private static final char CAPITAL_I_WITH_DOT = '\u0130';
+
+    private static final int LANGUAGE_OTHER = 0;
+    private static final int LANGUAGE_EN = 1;
+    private static final int LANGUAGE_DE = 2;
+
+    private final boolean[] vowelTable;
+    private final int language;
+
+    // Turkish, Azeri and Lithuanian lowercase some letters differently from Character.toLowerCase()
+    private final boolean lowercaseWholeWord;
     
     public WordSyllableCounter(final String languageCode)
     {
-        vowels   = new HashSet<String>(Arrays.asList(vowelsArray));
-        deVowels = new HashSet<String>(Arrays.asList(deVowelsArray));
-        enVowels = new HashSet<String>(Arrays.asList(enVowelsArray));
-        
-        this.languageCode = languageCode;
-    }
-    
-    private boolean isVowel(final String character)
-    {
+        final char[] languageVowels;
         if (languageCode.equals("en")) {
-            return enVowels.contains(character);
+            language = LANGUAGE_EN;
+            languageVowels = enVowelsArray;
         }
         else if (languageCode.equals("de")) {
-            return deVowels.contains(character);
+            language = LANGUAGE_DE;
+            languageVowels = deVowelsArray;
         }
         else {
-            return vowels.contains(character);
+            language = LANGUAGE_OTHER;
+            languageVowels = vowelsArray;
         }
+
+        vowelTable = new boolean[VOWEL_TABLE_SIZE];
+        for (final char ch : languageVowels) {
+            vowelTable[ch] = true;
+        }
+
+        final String defaultLanguage = Locale.getDefault().getLanguage();
+        lowercaseWholeWord = defaultLanguage.equals("tr") || defaultLanguage.equals("az")
+                || defaultLanguage.equals("lt");
+    }
+    
+    private boolean isVowel(final char ch)
+    {
+        return ch < VOWEL_TABLE_SIZE && vowelTable[ch];
     }
     
     public int countSyllables(final Iterable<String> words) {
@@ -79,32 +99,52 @@ public class WordSyllableCounter {
     
     public int countSyllables(final String word)
     {
-        String lowcaseWord = word.toLowerCase();
+        if (lowercaseWholeWord || word.indexOf(CAPITAL_I_WITH_DOT) > -1) {
+            return countSyllables(word.toLowerCase(), false);
+        }
+
+        return countSyllables(word, true);
+    }
+
+    /**
+     * @param word the word.
+     * @param lowercaseChars whether the chars of word still need to be lowercased.
+     */
+    private int countSyllables(final String word, final boolean lowercaseChars)
+    {
+        int len = word.length();
         int count = 0;
         
-        if (this.languageCode.equals("en")) {
-            if (lowcaseWord.length() >= 2 && lowcaseWord
-                    .substring(lowcaseWord.length() - 2, lowcaseWord.length()).equals("ed")) {
-                lowcaseWord = lowcaseWord.substring(0, lowcaseWord.length() - 2);
+        if (language == LANGUAGE_EN) {
+            if (len >= 2 && charAt(word, len - 2, lowercaseChars) == 'e'
+                    && charAt(word, len - 1, lowercaseChars) == 'd') {
+                len -= 2;
             }
         }
-        else if (this.languageCode.equals("de")) {
-            if (lowcaseWord.length() >= 2 && lowcaseWord.charAt(lowcaseWord.length() - 1) == 'e'
-                    && !isVowel(lowcaseWord.substring(lowcaseWord.length() - 2,
-                            lowcaseWord.length() - 1))) {
+        else if (language == LANGUAGE_DE) {
+            if (len >= 2 && charAt(word, len - 1, lowercaseChars) == 'e'
+                    && !isVowel(charAt(word, len - 2, lowercaseChars))) {
                 count++;
-                lowcaseWord = lowcaseWord.substring(0, lowcaseWord.length() - 2);
+                len -= 2;
             }
-
         }
 
-        for (int i = 0; i < lowcaseWord.length() - 1; ++i) {
-            final String curCh = lowcaseWord.substring(i, i + 1);
-            final String nextCh = lowcaseWord.substring(i + 1, i + 2);
-            if (isVowel(curCh) && !isVowel(nextCh)) {
-                ++count;
+        if (len > 1) {
+            boolean curVowel = isVowel(charAt(word, 0, lowercaseChars));
+            for (int i = 0; i < len - 1; ++i) {
+                final boolean nextVowel = isVowel(charAt(word, i + 1, lowercaseChars));
+                if (curVowel && !nextVowel) {
+                    ++count;
+                }
+                curVowel = nextVowel;
             }
         }
         return (count == 0 ? 1 : count);
     }
+
+    private static char charAt(final String word, final int index, final boolean lowercaseChars)
+    {
+        final char ch = word.charAt(index);
+        return lowercaseChars ? Character.toLowerCase(ch) : ch;
+    }
 }
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2022 Chris Kelly
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.tolstoy.censorship.twitter.checker.app.analyzer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.text.similarity.CosineDistance;
+import org.apache.commons.text.similarity.JaccardSimilarity;
+
+import com.tolstoy.censorship.twitter.checker.api.analyzer.AnalyzedTweetFeature;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Checks that BagOfWords, and ReferenceTweetProfile which uses it, give exactly the same
+ * cosine distances and Jaccard similarities as commons-text's CosineDistance and
+ * JaccardSimilarity, for the golden tweets and some awkward extra texts.
+ */
+public class BagOfWordsTest extends TestCase {
+	private static final String[] EXTRA_TEXTS = {
+		"",
+		" ",
+		"\t\n",
+		"😀",
+		"😀😀 🎉",
+		"🇺🇸🇺🇸🇺🇸",
+		"naïve café über straße",
+		"Ünïcödé ÜNÏCÖDÉ",
+		"Привет мир",
+		"日本語のテキスト",
+		"İstanbul ΣΟΦΙΑ",
+		"a",
+		"a a a a",
+		"_ __ ___",
+		"hello_world hello world",
+		"AAA aaa AaA",
+		"123 456 123",
+	};
+
+	private static final CosineDistance comparerCosineDistance = new CosineDistance();
+	private static final JaccardSimilarity comparerJaccardSimilarity = new JaccardSimilarity();
+
+	public BagOfWordsTest( String testName ) {
+		super( testName );
+	}
+
+	public static Test suite() {
+		return new TestSuite( BagOfWordsTest.class );
+	}
+
+	/**
+	 * Every pair of texts, each as its own BagOfWords made with one dictionary.
+	 */
+	public void testPairsMatchCommonsText() throws Exception {
+		final List<String> texts = getTexts();
+		final TermDictionary dictionary = new TermDictionary();
+
+		final List<BagOfWords> bags = new ArrayList<BagOfWords>( texts.size() );
+		for ( final String text : texts ) {
+			bags.add( BagOfWords.make( text, dictionary ) );
+		}
+
+		for ( int i = 0; i < texts.size(); i++ ) {
+			for ( int j = 0; j < texts.size(); j++ ) {
+				final String left = texts.get( i );
+				final String right = texts.get( j );
+				final String message = "[" + left + "] [" + right + "]";
+
+				assertSameDouble( message + " jaccard", comparerJaccardSimilarity.apply( left, right ), bags.get( i ).jaccardSimilarity( bags.get( j ) ) );
+
+					//	commons-text throws for blank text, see testProfileMatchesCommonsText
+				if ( !StringUtils.isBlank( left ) && !StringUtils.isBlank( right ) ) {
+					assertSameDouble( message + " cosine", comparerCosineDistance.apply( left, right ), bags.get( i ).cosineDistance( bags.get( j ) ) );
+				}
+			}
+		}
+	}
+
+	/**
+	 * Each text as the reference tweet, compared with every text as a reply, through
+	 * ReferenceTweetProfile's String methods, which throw where commons-text does.
+	 */
+	public void testProfileMatchesCommonsText() throws Exception {
+		final List<String> texts = getTexts();
+
+		for ( int i = 0; i < texts.size(); i++ ) {
+			final AnalyzedTweet referenceTweet = new AnalyzedTweet( GoldenTweets.makeTweet( 1 + i, texts.get( i ), null ), 0, null );
+			final ReferenceTweetProfile profile = new ReferenceTweetProfile( referenceTweet, EnumSet.allOf( AnalyzedTweetFeature.class ), 100 );
+			final String referenceText = profile.getText();
+
+			for ( final String text : texts ) {
+				final String message = "[" + referenceText + "] [" + text + "]";
+
+				assertSameDouble( message + " jaccard", comparerJaccardSimilarity.apply( referenceText, text ), profile.getJaccardSimilarity( text ) );
+
+				Double expected = null;
+				try {
+					expected = comparerCosineDistance.apply( referenceText, text );
+				}
+				catch ( final IllegalArgumentException e ) {
+				}
+
+				try {
+					final double actual = profile.getCosineDistance( text );
+					assertNotNull( message + " cosine should have thrown", expected );
+					assertSameDouble( message + " cosine", expected, actual );
+				}
+				catch ( final IllegalArgumentException e ) {
+					assertNull( message + " cosine should not have thrown", expected );
+				}
+			}
+		}
+	}
+
+	protected void assertSameDouble( final String message, final double expected, final double actual ) {
+		assertEquals( message + " expected " + expected + " but was " + actual,
+						Double.doubleToLongBits( expected ), Double.doubleToLongBits( actual ) );
+	}
+
+	protected List<String> getTexts() throws Exception {
+		final List<String> ret = new ArrayList<String>( GoldenTweets.load() );
+		ret.addAll( Arrays.asList( EXTRA_TEXTS ) );
+
+		return ret;
+	}
+}
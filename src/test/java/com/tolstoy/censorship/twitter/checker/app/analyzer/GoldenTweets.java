@@ -0,0 +1,75 @@
+/*
+ * Copyright 2022 Chris Kelly
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.tolstoy.censorship.twitter.checker.app.analyzer;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.io.IOUtils;
+import org.json.JSONArray;
+
+import com.tolstoy.basic.api.tweet.ITweet;
+import com.tolstoy.basic.api.tweet.ITweetFactory;
+import com.tolstoy.basic.app.tweet.TweetFactory;
+import com.tolstoy.basic.app.utils.StringList;
+
+import junit.framework.Assert;
+
+/**
+ * The tweet texts in analyzer/tweet-tokenizer-golden.json, and tweets made from texts,
+ * for the analyzer tests.
+ */
+final class GoldenTweets {
+	static final String GOLDEN_RESOURCE = "/analyzer/tweet-tokenizer-golden.json";
+
+	private static final ITweetFactory tweetFactory = new TweetFactory();
+
+	private GoldenTweets() {
+	}
+
+	static List<String> load() throws Exception {
+		final InputStream in = GoldenTweets.class.getResourceAsStream( GOLDEN_RESOURCE );
+		Assert.assertNotNull( GOLDEN_RESOURCE, in );
+
+		final List<String> ret = new ArrayList<String>();
+		try {
+			final JSONArray array = new JSONArray( IOUtils.toString( in, StandardCharsets.UTF_8 ) );
+			for ( int i = 0; i < array.length(); i++ ) {
+				ret.add( array.getString( i ) );
+			}
+		}
+		finally {
+			in.close();
+		}
+
+		return ret;
+	}
+
+	/**
+	 * @param counts replycount etc., or null.
+	 */
+	static ITweet makeTweet( final long id, final String text, final Map<String,String> counts ) {
+		final Map<String,String> attributes = new HashMap<String,String>();
+		attributes.put( "tweettext", text );
+		if ( counts != null ) {
+			attributes.putAll( counts );
+		}
+
+		return tweetFactory.makeTweet( id, attributes, new StringList( "" ), new StringList( "" ), tweetFactory.makeTweetUser( "testuser" ) );
+	}
+}
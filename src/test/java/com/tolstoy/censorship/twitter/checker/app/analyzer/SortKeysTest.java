@@ -0,0 +1,77 @@
+/*
+ * Copyright 2022 Chris Kelly
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.tolstoy.censorship.twitter.checker.app.analyzer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Checks that SortKeys sorts the same as Collections.sort with a Comparator, including
+ * keeping the order of items with the same key.
+ */
+public class SortKeysTest extends TestCase {
+	private static final Logger logger = LogManager.getLogger( SortKeysTest.class );
+
+	public SortKeysTest( String testName ) {
+		super( testName );
+	}
+
+	public static Test suite() {
+		return new TestSuite( SortKeysTest.class );
+	}
+
+	public void testMatchesCollectionsSort() throws Exception {
+		final Random random = new Random( 1 );
+
+		for ( final int size : new int[] { 0, 1, 2, 3, 7, 64, 100, 1000, 2001 } ) {
+				//	few distinct keys, so there are lots of ties
+			final long[] keys = new long[ size ];
+			final List<Integer> items = new ArrayList<Integer>( size );
+			for ( int i = 0; i < size; i++ ) {
+				keys[ i ] = random.nextInt( 1 + size / 4 ) - size / 8;
+				items.add( i );
+			}
+
+			for ( final boolean bDescending : new boolean[] { false, true } ) {
+				final List<Integer> expected = new ArrayList<Integer>( items );
+				final Comparator<Integer> comparator = ( a, b ) -> Long.compare( keys[ a ], keys[ b ] );
+				Collections.sort( expected, bDescending ? comparator.reversed() : comparator );
+
+				final int[] sortedIndexes = SortKeys.sortIndexes( keys, bDescending );
+				assertEquals( expected, SortKeys.inOrder( items, sortedIndexes ) );
+			}
+		}
+	}
+
+	public void testDoubleKey() throws Exception {
+		final double[] values = { Double.NEGATIVE_INFINITY, -Double.MAX_VALUE, -12.5, -1, -Double.MIN_VALUE, -0.0d, 0.0d,
+									Double.MIN_VALUE, 0.25, 1, 12.5, Double.MAX_VALUE, Double.POSITIVE_INFINITY, Double.NaN };
+
+		for ( final double a : values ) {
+			for ( final double b : values ) {
+				assertEquals( a + " " + b, Integer.signum( Double.compare( a, b ) ), Long.signum( Long.compare( SortKeys.doubleKey( a ), SortKeys.doubleKey( b ) ) ) );
+			}
+		}
+	}
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright 2022 Chris Kelly
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.tolstoy.censorship.twitter.checker.app.analyzer;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.tolstoy.censorship.twitter.checker.api.analyzer.AnalyzedTweetFeature;
+import com.tolstoy.censorship.twitter.checker.api.analyzer.IAnalyzedTweet;
+import com.tolstoy.censorship.twitter.checker.api.analyzer.ITweetRanker;
+import com.tolstoy.censorship.twitter.checker.api.analyzer.RankingBreakdown;
+import com.tolstoy.censorship.twitter.checker.api.analyzer.RankingComponent;
+import com.tolstoy.censorship.twitter.checker.api.analyzer.TweetFeatureMatrix;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Checks that userscripts/_tweetformula_formula1.json ranks the tweets in
+ * analyzer/tweet-tokenizer-golden.json exactly the same as TweetRankerBasic,
+ * and that both rank a TweetFeatureMatrix the same as one tweet at a time.
+ */
+public class TweetRankerFormulaTest extends TestCase {
+	private static final Logger logger = LogManager.getLogger( TweetRankerFormulaTest.class );
+
+	private static final String FORMULA1_FILENAME = "userscripts/_tweetformula_formula1.json";
+
+	public TweetRankerFormulaTest( String testName ) {
+		super( testName );
+	}
+
+	public static Test suite() {
+		return new TestSuite( TweetRankerFormulaTest.class );
+	}
+
+	public void testFormula1MatchesBasic() throws Exception {
+		final List<String> texts = GoldenTweets.load();
+		final TweetRankerBasic basic = new TweetRankerBasic();
+		final TweetRankerFormula formula = new TweetRankerFormula( new File( FORMULA1_FILENAME ) );
+
+		assertEquals( basic.getFunctionName(), formula.getFunctionName() );
+		assertEquals( basic.getRequiredFeatures(), formula.getRequiredFeatures() );
+
+		final AnalyzedTweet referenceTweet = new AnalyzedTweet( GoldenTweets.makeTweet( 1, "@alice @bob I agree with both of you. Mostly.", null ), 0, null );
+		final ReferenceTweetProfile profile = new ReferenceTweetProfile( referenceTweet, EnumSet.allOf( AnalyzedTweetFeature.class ), 100 );
+
+			//	the same counts every time, so a failure can be repeated
+		final Random random = new Random( 1 );
+
+		int order = 0;
+		for ( int i = 0; i < 5; i++ ) {
+			for ( final String text : texts ) {
+				final Map<String,String> counts = new HashMap<String,String>();
+				if ( random.nextBoolean() ) {
+					counts.put( "replycount", "" + random.nextInt( 50 ) );
+					counts.put( "retweetcount", "" + random.nextInt( 50 ) );
+					counts.put( "favoritecount", "" + random.nextInt( 500 ) );
+				}
+
+				final AnalyzedTweet analyzedTweet = new AnalyzedTweet( GoldenTweets.makeTweet( 100 + order, text, counts ), order, profile );
+				final int count = 1 + random.nextInt( 300 );
+				analyzedTweet.setDateOrder( 1 + random.nextInt( count ) );
+
+				basic.rankTweet( analyzedTweet, count, referenceTweet );
+				final double expectedRanking = analyzedTweet.getRanking();
+				final double[] expectedBreakdown = getBreakdown( analyzedTweet );
+
+				formula.rankTweet( analyzedTweet, count, referenceTweet );
+
+				final double[] actualBreakdown = getBreakdown( analyzedTweet );
+
+				assertEquals( text, Double.doubleToLongBits( expectedRanking ), Double.doubleToLongBits( analyzedTweet.getRanking() ) );
+				for ( final RankingComponent component : RankingComponent.values() ) {
+					assertEquals( text + " " + component,
+									Double.doubleToLongBits( expectedBreakdown[ component.ordinal() ] ),
+									Double.doubleToLongBits( actualBreakdown[ component.ordinal() ] ) );
+				}
+
+				order++;
+			}
+		}
+	}
+
+	/**
+	 * With rank attributes on, TweetRankerBasic copies the breakdown to "rank_" attributes
+	 * in the format it used before RankingBreakdown existed; with them off it writes none.
+	 */
+	public void testRankAttributes() throws Exception {
+		final AnalyzedTweet referenceTweet = new AnalyzedTweet( GoldenTweets.makeTweet( 1, "Good morning everyone!", null ), 0, null );
+		final ReferenceTweetProfile profile = new ReferenceTweetProfile( referenceTweet, EnumSet.allOf( AnalyzedTweetFeature.class ), 100 );
+
+		final AnalyzedTweet plain = new AnalyzedTweet( GoldenTweets.makeTweet( 100, "NO WAY", null ), 1, profile );
+		plain.setDateOrder( 1 );
+		new TweetRankerBasic().rankTweet( plain, 1, referenceTweet );
+
+		for ( final String key : plain.getAttributes().keySet() ) {
+			assertFalse( key, key.startsWith( "rank_" ) );
+		}
+
+		final AnalyzedTweet debug = new AnalyzedTweet( GoldenTweets.makeTweet( 101, "NO WAY", null ), 1, profile );
+		debug.setDateOrder( 1 );
+		new TweetRankerBasic( true ).rankTweet( debug, 1, referenceTweet );
+
+		assertEquals( "-5.0", debug.getAttribute( "rank_fww" ) );
+
+		final DecimalFormat decimalFormat = RankingBreakdown.makeDisplayFormat();
+		final RankingBreakdown breakdown = debug.getRankingBreakdown();
+		assertFalse( breakdown.isEmpty() );
+
+		for ( final RankingComponent component : breakdown.getComponents() ) {
+			final double value = breakdown.get( component );
+			final boolean bPenalty = component == RankingComponent.FEW_WORDS || component == RankingComponent.FEW_WORDS_AND_PIC || component == RankingComponent.MOSTLY_CAPS;
+			assertEquals( component.toString(), bPenalty ? "" + value : decimalFormat.format( value ), debug.getAttribute( "rank_" + component.getKey() ) );
+		}
+	}
+
+	/**
+	 * Ranking a whole TweetFeatureMatrix, or chunks of one, gives the same as ranking each tweet.
+	 */
+	public void testMatrixMatchesSingleTweets() throws Exception {
+		final List<String> texts = GoldenTweets.load();
+		final ITweetRanker[] rankers = { new TweetRankerBasic(), new TweetRankerFormula( new File( FORMULA1_FILENAME ) ) };
+
+		final AnalyzedTweet referenceTweet = new AnalyzedTweet( GoldenTweets.makeTweet( 1, "Good morning everyone!", null ), 0, null );
+		final ReferenceTweetProfile profile = new ReferenceTweetProfile( referenceTweet, EnumSet.allOf( AnalyzedTweetFeature.class ), 100 );
+
+		final List<IAnalyzedTweet> analyzedTweets = new ArrayList<IAnalyzedTweet>();
+		for ( final String text : texts ) {
+			final Map<String,String> counts = new HashMap<String,String>();
+			counts.put( "replycount", "" + ( analyzedTweets.size() % 7 ) );
+
+			final AnalyzedTweet analyzedTweet = new AnalyzedTweet( GoldenTweets.makeTweet( 100 + analyzedTweets.size(), text, counts ), analyzedTweets.size() + 1, profile );
+			analyzedTweet.setDateOrder( texts.size() - analyzedTweets.size() );
+			analyzedTweets.add( analyzedTweet );
+		}
+
+		final int count = analyzedTweets.size();
+		final double[] expected = new double[ count ];
+
+		for ( final ITweetRanker ranker : rankers ) {
+			for ( int i = 0; i < count; i++ ) {
+				ranker.rankTweet( analyzedTweets.get( i ), count, referenceTweet );
+				expected[ i ] = analyzedTweets.get( i ).getRanking();
+			}
+
+			ranker.rankTweets( new TweetFeatureMatrix( analyzedTweets ), referenceTweet );
+			for ( int i = 0; i < count; i++ ) {
+				assertEquals( Double.doubleToLongBits( expected[ i ] ), Double.doubleToLongBits( analyzedTweets.get( i ).getRanking() ) );
+			}
+
+			for ( int start = 0; start < count; start += 10 ) {
+				ranker.rankTweets( new TweetFeatureMatrix( analyzedTweets.subList( start, Math.min( start + 10, count ) ), count ), referenceTweet );
+			}
+			for ( int i = 0; i < count; i++ ) {
+				assertEquals( Double.doubleToLongBits( expected[ i ] ), Double.doubleToLongBits( analyzedTweets.get( i ).getRanking() ) );
+			}
+		}
+	}
+
+	public void testBadFormulas() throws Exception {
+		assertBadFormula( "{ \"terms\": [] }" );
+		assertBadFormula( "{ \"terms\": [ { \"component\": \"nosuchcomponent\", \"input\": \"numWords\" } ] }" );
+		assertBadFormula( "{ \"terms\": [ { \"component\": \"fww\", \"input\": \"nosuchfeature\" } ] }" );
+		assertBadFormula( "{ \"terms\": [ { \"component\": \"fww\", \"input\": \"numWords\", \"apply\": [ [ \"div\" ] ] } ] }" );
+		assertBadFormula( "{ \"terms\": [ { \"component\": \"fww\", \"input\": \"numWords\", \"when\": [ [ \"about\", 5 ] ] } ] }" );
+		assertBadFormula( "{ \"terms\": [ { \"component\": \"fww\", \"input\": \"numWords\" }, { \"component\": \"fww\", \"input\": \"numSentences\" } ] }" );
+	}
+
+	/**
+	 * The breakdown as it was when this was called, with NaN for the components that weren't set.
+	 */
+	protected double[] getBreakdown( final AnalyzedTweet analyzedTweet ) {
+		final double[] ret = new double[ RankingComponent.values().length ];
+		for ( final RankingComponent component : RankingComponent.values() ) {
+			ret[ component.ordinal() ] = analyzedTweet.getRankingBreakdown().isSet( component ) ? analyzedTweet.getRankingBreakdown().get( component ) : Double.NaN;
+		}
+
+		return ret;
+	}
+
+	protected void assertBadFormula( final String json ) throws Exception {
+		final File file = File.createTempFile( "tweetformula_", ".json" );
+
+		try {
+			FileUtils.writeStringToFile( file, json, StandardCharsets.UTF_8 );
+			new TweetRankerFormula( file );
+			fail( "should not have compiled: " + json );
+		}
+		catch ( final RuntimeException e ) {
+			logger.info( "as expected: " + e.getMessage() );
+		}
+		finally {
+			file.delete();
+		}
+	}
+}
@@ -0,0 +1,301 @@
+/*
+ * Copyright 2022 Chris Kelly
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.tolstoy.censorship.twitter.checker.app.analyzer;
+
+import java.io.File;
+import java.lang.reflect.Method;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineManager;
+
+import org.apache.commons.io.FileUtils;
+
+import com.tolstoy.basic.api.tweet.ITweetFactory;
+import com.tolstoy.basic.app.tweet.TweetFactory;
+import com.tolstoy.censorship.twitter.checker.api.analyzer.AnalyzedTweetFeature;
+import com.tolstoy.censorship.twitter.checker.api.analyzer.IAnalyzedTweet;
+import com.tolstoy.censorship.twitter.checker.api.installation.IAppDirectories;
+import com.tolstoy.censorship.twitter.checker.api.preferences.IPreferences;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Checks that TweetRankerJavascript ranks a list of replies with the stock
+ * userscripts/_tweetranker_formula1js.js script exactly the same as the old way of
+ * running the whole script once per reply with analyzedTweet etc. bound.
+ */
+public class TweetRankerJavascriptTest extends TestCase {
+	private static final String STOCK_SCRIPT_FILENAME = "userscripts/_tweetranker_formula1js.js";
+	private static final int NUM_REPLIES = 25;
+	private static final int NUM_THREADS = 4;
+
+		//	only set once the tweets are ranked, see TweetFeatureRecord
+	private static final List<String> GETTERS_NOT_ON_RECORDS = Arrays.asList( "getRankingOrder", "getRankingBreakdown", "getSummary" );
+
+	private ITweetFactory tweetFactory;
+	private File tempDir;
+
+	public TweetRankerJavascriptTest( String testName ) {
+		super( testName );
+	}
+
+	public static Test suite() {
+		return new TestSuite( TweetRankerJavascriptTest.class );
+	}
+
+	protected void setUp() throws Exception {
+		tweetFactory = new TweetFactory();
+
+		tempDir = Files.createTempDirectory( "tweetrankerjs" ).toFile();
+		final File userScriptsDir = new File( tempDir, "userscripts" );
+		userScriptsDir.mkdirs();
+		FileUtils.copyFile( new File( STOCK_SCRIPT_FILENAME ), new File( userScriptsDir, "tweetranker_formula1js.js" ) );
+	}
+
+	protected void tearDown() throws Exception {
+		FileUtils.deleteDirectory( tempDir );
+		tempDir = null;
+		tweetFactory = null;
+	}
+
+	public void testListMatchesPerTweetScript() throws Exception {
+		final AnalyzedTweet referenceTweet = makeReferenceTweet();
+
+		final List<IAnalyzedTweet> expected = makeReplies( referenceTweet );
+		rankOldWay( expected, referenceTweet );
+
+		final TweetRankerJavascript ranker = new TweetRankerJavascript( tweetFactory, makeAppDirectories(), makePrefs( "1" ), null );
+		assertEquals( "formula1js", ranker.getFunctionName() );
+
+		final List<IAnalyzedTweet> actual = makeReplies( referenceTweet );
+		ranker.rankTweets( actual, referenceTweet );
+		assertSameRankings( expected, actual );
+
+		final List<IAnalyzedTweet> actualSingle = makeReplies( referenceTweet );
+		for ( final IAnalyzedTweet analyzedTweet : actualSingle ) {
+			ranker.rankTweet( analyzedTweet, actualSingle.size(), referenceTweet );
+		}
+		assertSameRankings( expected, actualSingle );
+	}
+
+	/**
+	 * Several threads ranking at once, so the pool has to make more engines.
+	 */
+	public void testConcurrentListsMatchPerTweetScript() throws Exception {
+		final AnalyzedTweet referenceTweet = makeReferenceTweet();
+
+		final List<IAnalyzedTweet> expected = makeReplies( referenceTweet );
+		rankOldWay( expected, referenceTweet );
+
+		final TweetRankerJavascript ranker = new TweetRankerJavascript( tweetFactory, makeAppDirectories(), makePrefs( "" + ( NUM_THREADS - 1 ) ), null );
+
+		final ExecutorService executor = Executors.newFixedThreadPool( NUM_THREADS );
+		try {
+			final List<Future<List<IAnalyzedTweet>>> futures = new ArrayList<Future<List<IAnalyzedTweet>>>();
+			for ( int i = 0; i < 3 * NUM_THREADS; i++ ) {
+				futures.add( executor.submit( new Callable<List<IAnalyzedTweet>>() {
+					@Override
+					public List<IAnalyzedTweet> call() throws Exception {
+						final List<IAnalyzedTweet> actual = makeReplies( referenceTweet );
+						ranker.rankTweets( actual, referenceTweet );
+						return actual;
+					}
+				} ) );
+			}
+
+			for ( final Future<List<IAnalyzedTweet>> future : futures ) {
+				assertSameRankings( expected, future.get() );
+			}
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * A script's shared rankTweet gets records from rankTweets and analyzed tweets from
+	 * rankTweet, so the records need the analyzed tweets' getters.
+	 */
+	public void testRecordHasAnalyzedTweetGetters() throws Exception {
+		for ( final Method method : IAnalyzedTweet.class.getMethods() ) {
+			final String name = method.getName();
+			if ( !name.startsWith( "get" ) || GETTERS_NOT_ON_RECORDS.contains( name ) ) {
+				continue;
+			}
+
+			try {
+				TweetFeatureRecord.class.getMethod( name, method.getParameterTypes() );
+			}
+			catch ( final NoSuchMethodException e ) {
+				fail( "TweetFeatureRecord has no " + method );
+			}
+		}
+
+		final AnalyzedTweet referenceTweet = makeReferenceTweet();
+		final IAnalyzedTweet analyzedTweet = makeReplies( referenceTweet ).get( 3 );
+		final TweetFeatureRecord record = new TweetFeatureRecord( analyzedTweet, "formula1js" );
+
+		assertEquals( analyzedTweet.getWords(), record.getWords() );
+		assertEquals( analyzedTweet.getWordsWithoutStopWordsLowercase(), record.getWordsWithoutStopWordsLowercase() );
+		assertEquals( analyzedTweet.getTextContentPlain(), record.getTextContentPlain() );
+
+		record.setAttribute( "rank_test", "1.5" );
+		assertEquals( "1.5", record.getAttribute( "rank_test" ) );
+		assertEquals( "1.5", analyzedTweet.getAttribute( "rank_test" ) );
+	}
+
+	/**
+	 * What TweetRankerJavascript did before it used rankTweets: run the compiled script for
+	 * each reply, with analyzedTweet, count and referenceAnalyzedTweet bound.
+	 */
+	protected void rankOldWay( final List<IAnalyzedTweet> analyzedTweets, final IAnalyzedTweet referenceAnalyzedTweet ) throws Exception {
+		final ScriptEngine engine = new ScriptEngineManager().getEngineByName( "nashorn" );
+		assertNotNull( "no nashorn script engine", engine );
+
+		final String script = FileUtils.readFileToString( new File( STOCK_SCRIPT_FILENAME ), Charset.defaultCharset() );
+		final CompiledScript compiledScript = ( (Compilable) engine ).compile( script );
+
+		for ( final IAnalyzedTweet analyzedTweet : analyzedTweets ) {
+			final Bindings bindings = engine.createBindings();
+
+			bindings.put( "analyzedTweet", analyzedTweet );
+			bindings.put( "count", analyzedTweets.size() );
+			bindings.put( "referenceAnalyzedTweet", referenceAnalyzedTweet );
+
+			compiledScript.eval( bindings );
+		}
+	}
+
+	protected void assertSameRankings( final List<IAnalyzedTweet> expected, final List<IAnalyzedTweet> actual ) {
+		assertEquals( expected.size(), actual.size() );
+
+		for ( int i = 0; i < expected.size(); i++ ) {
+			final IAnalyzedTweet e = expected.get( i );
+			final IAnalyzedTweet a = actual.get( i );
+			final String message = e.getTweet().getAttribute( "tweettext" );
+
+			assertEquals( message, Double.doubleToLongBits( e.getRanking() ), Double.doubleToLongBits( a.getRanking() ) );
+			assertEquals( message, e.getRankingFunction(), a.getRankingFunction() );
+			assertEquals( message, e.getAttributes(), a.getAttributes() );
+		}
+	}
+
+	protected AnalyzedTweet makeReferenceTweet() {
+		return new AnalyzedTweet( GoldenTweets.makeTweet( 1, "@alice @bob I agree with both of you. Mostly.", null ), 0, null );
+	}
+
+	/**
+	 * The first NUM_REPLIES golden tweets, with counts and date orders that vary but are
+	 * the same every time this is called.
+	 */
+	protected List<IAnalyzedTweet> makeReplies( final AnalyzedTweet referenceTweet ) throws Exception {
+		final List<String> texts = GoldenTweets.load();
+		final int count = Math.min( NUM_REPLIES, texts.size() );
+		final ReferenceTweetProfile profile = new ReferenceTweetProfile( referenceTweet, EnumSet.allOf( AnalyzedTweetFeature.class ), count );
+
+		final List<IAnalyzedTweet> ret = new ArrayList<IAnalyzedTweet>( count );
+		for ( int i = 0; i < count; i++ ) {
+			final Map<String,String> counts = new HashMap<String,String>();
+			if ( i % 3 != 0 ) {
+				counts.put( "replycount", "" + ( i % 7 ) );
+				counts.put( "retweetcount", "" + ( i % 5 ) );
+				counts.put( "favoritecount", "" + ( 3 * i ) );
+			}
+
+			final AnalyzedTweet analyzedTweet = new AnalyzedTweet( GoldenTweets.makeTweet( 100 + i, texts.get( i ), counts ), i + 1, profile );
+			analyzedTweet.setDateOrder( count - i );
+			ret.add( analyzedTweet );
+		}
+
+		return ret;
+	}
+
+	protected IAppDirectories makeAppDirectories() {
+		return new IAppDirectories() {
+			@Override
+			public File getInstallDirectory() {
+				return tempDir;
+			}
+
+			@Override
+			public File getDatabaseParentDirectory() {
+				return tempDir;
+			}
+
+			@Override
+			public File getDatabaseDirectory() {
+				return tempDir;
+			}
+
+			@Override
+			public File getReportsDirectory() {
+				return tempDir;
+			}
+
+			@Override
+			public File getSubdirectory( final String name ) {
+				return new File( tempDir, name );
+			}
+		};
+	}
+
+	protected IPreferences makePrefs( final String poolSize ) {
+		final Map<String,String> map = new HashMap<String,String>();
+		map.put( "prefs.tweetranker_script_pool_size", poolSize );
+
+		return new IPreferences() {
+			@Override
+			public String getValue( final String key ) {
+				return map.get( key );
+			}
+
+			@Override
+			public boolean isEmpty( final String key ) {
+				return map.get( key ) == null || map.get( key ).isEmpty();
+			}
+
+			@Override
+			public void setValue( final String key, final String value ) {
+				map.put( key, value );
+			}
+
+			@Override
+			public Map<String,String> getValues() {
+				return new HashMap<String,String>( map );
+			}
+
+			@Override
+			public void save() throws Exception {
+			}
+		};
+	}
+}
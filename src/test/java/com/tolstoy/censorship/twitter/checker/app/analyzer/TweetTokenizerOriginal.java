@@ -0,0 +1,135 @@
+/*
+ * Copyright 2022 Chris Kelly
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.tolstoy.censorship.twitter.checker.app.analyzer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.twitter.twittertext.Extractor;
+
+import cue.lang.SentenceIterator;
+import cue.lang.WordIterator;
+import cue.lang.stop.StopWords;
+
+/**
+ * The tokenizing AnalyzedTweet did before TweetTokenizer, kept as-is so that
+ * TweetTokenizerTest can check that TweetTokenizer gives the same results.
+ */
+class TweetTokenizerOriginal {
+	private static final Extractor extractor = new Extractor();
+
+	final List<String> sentences = new ArrayList<String>();
+	final List<String> words = new ArrayList<String>();
+	final List<String> wordsWithoutStopWordsLowercase = new ArrayList<String>();
+	final List<String> urls = new ArrayList<String>();
+	final List<String> hashtags = new ArrayList<String>();
+	final List<String> mentions = new ArrayList<String>();
+	String textContentPlain = "";
+	int numAllUpper = 0;
+	boolean hasPic = false;
+	boolean hasCard = false;
+
+	TweetTokenizerOriginal( final String textContentRaw ) {
+		this.textContentPlain = extractPlainTextHashtagsURLsMentionsHasPicHasCards( textContentRaw );
+
+		for ( final String sentence : new SentenceIterator( this.textContentPlain, Locale.ENGLISH ) ) {
+			sentences.add( sentence );
+		}
+
+		for ( final String word : new WordIterator( this.textContentPlain ) ) {
+			words.add( word );
+			if ( !StopWords.English.isStopWord( word ) ) {
+				final String baseWord = getBaseWord( word );
+				if ( baseWord != null ) {
+					wordsWithoutStopWordsLowercase.add( baseWord );
+				}
+			}
+			if ( StringUtils.isAllUpperCase( word ) ) {
+				numAllUpper++;
+			}
+		}
+	}
+
+	protected String getBaseWord( final String input ) {
+		if ( input == null || input.length() < 1 ) {
+			return null;
+		}
+		final int len = input.length();
+		final StringBuffer sb = new StringBuffer( len );
+		for ( int i = 0; i < len; i++ ) {
+			if ( Character.isLetterOrDigit( input.charAt( i ) ) ) {
+				sb.append( input.charAt( i ) );
+			}
+		}
+
+		final String output = sb.toString().trim().toLowerCase();
+
+		return output.length() > 0 ? output : null;
+	}
+
+	protected boolean isPictureURL( final String url ) {
+		return url.toLowerCase().indexOf( "pic.twitter" ) > -1;
+	}
+
+	protected boolean isCardURL( final String url ) {
+		return url.toLowerCase().indexOf( "cards.twitter" ) > -1;
+	}
+
+	private String extractPlainTextHashtagsURLsMentionsHasPicHasCards( String input ) {
+		input = input.replace( "…", " " ).trim();
+
+		if ( input.toLowerCase().indexOf( "pic.twitter" ) > -1 ) {
+			hasPic = true;
+		}
+
+		final List<Extractor.Entity> entities = extractor.extractEntitiesWithIndices( input );
+		if ( entities == null || entities.isEmpty() ) {
+			return input.replace( "#", "" );
+		}
+
+		for ( final Extractor.Entity entity : entities ) {
+			final Extractor.Entity.Type type = entity.getType();
+			final String value = entity.getValue();
+			if ( type == Extractor.Entity.Type.CASHTAG ) {
+				input = input.replace( "$" + value, "" );
+			}
+			else if ( type == Extractor.Entity.Type.HASHTAG ) {
+				hashtags.add( value );
+				//	#GoodMorning -> Good Morning
+				input = input.replace( "#" + value, StringUtils.join( StringUtils.splitByCharacterTypeCamelCase( value ), " " ) );
+			}
+			else if ( type == Extractor.Entity.Type.MENTION ) {
+				mentions.add( value );
+				input = input.replace( "@" + value, "" );
+			}
+			else if ( type == Extractor.Entity.Type.URL ) {
+				urls.add( value );
+				input = input.replace( value, "" );
+
+				if ( isPictureURL( value ) ) {
+					hasPic = true;
+				}
+
+				if ( isCardURL( value ) ) {
+					hasCard = true;
+				}
+			}
+		}
+
+		return input.replace( "#", "" ).trim();
+	}
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2022 Chris Kelly
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.tolstoy.censorship.twitter.checker.app.analyzer;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.tolstoy.censorship.twitter.checker.app.webdriver.ntjs.JSONResponseParser;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Checks that TweetTokenizer gives exactly what AnalyzedTweet's tokenizing used to give
+ * (kept in TweetTokenizerOriginal), for the tweets in analyzer/tweet-tokenizer-golden.json.
+ *
+ * To also check the tweets in an archive directory of saved JSON responses, run with
+ * -Dtweettokenizer.archive=/path/to/archive
+ */
+public class TweetTokenizerTest extends TestCase {
+	private static final Logger logger = LogManager.getLogger( TweetTokenizerTest.class );
+
+	private static final String ARCHIVE_PROPERTY = "tweettokenizer.archive";
+
+	public TweetTokenizerTest( String testName ) {
+		super( testName );
+	}
+
+	public static Test suite() {
+		return new TestSuite( TweetTokenizerTest.class );
+	}
+
+	public void testGoldenTweets() throws Exception {
+		final List<String> texts = GoldenTweets.load();
+		assertTrue( texts.size() > 0 );
+
+		//	one tokenizer for all of them, to check that nothing is left over from the last tweet
+		final TweetTokenizer tokenizer = new TweetTokenizer();
+
+		for ( final String text : texts ) {
+			assertMatchesOriginal( text, tokenizer );
+		}
+	}
+
+	public void testGoldenTweetsReversed() throws Exception {
+		final List<String> texts = GoldenTweets.load();
+		final TweetTokenizer tokenizer = new TweetTokenizer();
+
+		for ( int i = texts.size() - 1; i >= 0; i-- ) {
+			assertMatchesOriginal( texts.get( i ), tokenizer );
+		}
+	}
+
+	public void testEntities() throws Exception {
+		final TweetTokenizer tokenizer = new TweetTokenizer();
+
+		tokenizer.tokenize( "mixed: https://t.co/x1 #GoodMorning @two pic.twitter.com/four" );
+		assertEquals( List.of( "two" ), tokenizer.getMentions() );
+		assertEquals( List.of( "GoodMorning" ), tokenizer.getHashtags() );
+		assertTrue( tokenizer.getUrls().contains( "https://t.co/x1" ) );
+		assertTrue( tokenizer.getHasPic() );
+		assertFalse( tokenizer.getHasCard() );
+		assertTrue( tokenizer.getTextContentPlain().indexOf( "Good Morning" ) > -1 );
+		assertTrue( tokenizer.getTextContentPlain().indexOf( "@two" ) < 0 );
+
+		tokenizer.tokenize( "THIS IS OUTRAGEOUS" );
+		assertTrue( tokenizer.getMentions().isEmpty() );
+		assertTrue( tokenizer.getHashtags().isEmpty() );
+		assertFalse( tokenizer.getHasPic() );
+		assertEquals( 3, tokenizer.getNumAllUpper() );
+	}
+
+	public void testArchive() throws Exception {
+		final String archivePath = System.getProperty( ARCHIVE_PROPERTY );
+		if ( archivePath == null || archivePath.length() < 1 ) {
+			logger.info( "no " + ARCHIVE_PROPERTY + " given, not checking archived tweets" );
+			return;
+		}
+
+		final List<String> texts = new ArrayList<String>();
+		collectArchivedTweets( new File( archivePath ), texts );
+		logger.info( "checking " + texts.size() + " archived tweets from " + archivePath );
+
+		final TweetTokenizer tokenizer = new TweetTokenizer();
+		for ( final String text : texts ) {
+			assertMatchesOriginal( text, tokenizer );
+		}
+	}
+
+	protected void assertMatchesOriginal( final String text, final TweetTokenizer tokenizer ) {
+		final TweetTokenizerOriginal expected = new TweetTokenizerOriginal( text );
+		tokenizer.tokenize( text );
+
+		assertEquals( text, expected.textContentPlain, tokenizer.getTextContentPlain() );
+		assertEquals( text, expected.sentences, tokenizer.getSentences() );
+		assertEquals( text, expected.words, tokenizer.getWords() );
+		assertEquals( text, expected.wordsWithoutStopWordsLowercase, tokenizer.getWordsWithoutStopWordsLowercase() );
+		assertEquals( text, expected.urls, tokenizer.getUrls() );
+		assertEquals( text, expected.hashtags, tokenizer.getHashtags() );
+		assertEquals( text, expected.mentions, tokenizer.getMentions() );
+		assertEquals( text, expected.numAllUpper, tokenizer.getNumAllUpper() );
+		assertEquals( text, expected.hasPic, tokenizer.getHasPic() );
+		assertEquals( text, expected.hasCard, tokenizer.getHasCard() );
+	}
+
+	protected void collectArchivedTweets( final File file, final List<String> texts ) throws Exception {
+		if ( file.isDirectory() ) {
+			final File[] children = file.listFiles();
+			if ( children != null ) {
+				for ( final File child : children ) {
+					collectArchivedTweets( child, texts );
+				}
+			}
+			return;
+		}
+
+		final String content = new String( Files.readAllBytes( file.toPath() ), StandardCharsets.UTF_8 ).trim();
+		if ( !( content.startsWith( "[" ) || content.startsWith( "{" ) ) ) {
+			return;
+		}
+
+		try {
+			for ( final Map<String,String> map : new JSONResponseParser().parse( List.of( content ) ) ) {
+				if ( "tweet".equals( map.get( "map_type" ) ) && map.get( "tweettext" ) != null ) {
+					texts.add( map.get( "tweettext" ) );
+				}
+			}
+		}
+		catch ( final Exception e ) {
+			logger.info( "can't parse archived file " + file + ": " + e );
+		}
+	}
+}
@@ -0,0 +1,500 @@
+/*
+ * Copyright 2022 Chris Kelly
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.tolstoy.censorship.twitter.checker.app.jboto;
+
+import java.io.File;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.tolstoy.basic.api.installation.DebugLevel;
+import com.tolstoy.basic.api.statusmessage.IStatusMessageReceiver;
+import com.tolstoy.basic.api.tweet.ITweet;
+import com.tolstoy.basic.api.tweet.ITweetCollection;
+import com.tolstoy.basic.api.tweet.ITweetFactory;
+import com.tolstoy.basic.api.tweet.ITweetUser;
+import com.tolstoy.basic.api.utils.IResourceBundleWithFormatting;
+import com.tolstoy.basic.app.tweet.TweetFactory;
+import com.tolstoy.basic.app.utils.ArchiveDirectory;
+import com.tolstoy.basic.app.utils.ResourceBundleWithFormatting;
+import com.tolstoy.censorship.twitter.checker.api.installation.IAppDirectories;
+import com.tolstoy.censorship.twitter.checker.api.preferences.IPreferences;
+import com.tolstoy.censorship.twitter.checker.api.searchrun.ISearchRunRepliesItinerary;
+import com.tolstoy.censorship.twitter.checker.api.snapshot.ISnapshotUserPageIndividualTweet;
+import com.tolstoy.censorship.twitter.checker.api.snapshot.ISnapshotUserPageTimeline;
+import com.tolstoy.censorship.twitter.checker.api.webdriver.IPageParametersFactory;
+import com.tolstoy.censorship.twitter.checker.api.webdriver.IPageParametersSet;
+import com.tolstoy.censorship.twitter.checker.api.webdriver.IWebDriverFactory;
+import com.tolstoy.censorship.twitter.checker.api.webdriver.IWebDriverFactoryFactory;
+import com.tolstoy.censorship.twitter.checker.app.browserproxy.BrowserProxyReplay;
+import com.tolstoy.censorship.twitter.checker.app.installation.BrowserScriptFactory;
+import com.tolstoy.censorship.twitter.checker.app.jboto.common.CreateReplayEnvironment;
+import com.tolstoy.censorship.twitter.checker.app.jboto.replies.BeginReplies;
+import com.tolstoy.censorship.twitter.checker.app.jboto.replies.EndReplies;
+import com.tolstoy.censorship.twitter.checker.app.jboto.replies.RepliesProduct;
+import com.tolstoy.censorship.twitter.checker.app.jboto.timeline.BeginTimeline;
+import com.tolstoy.censorship.twitter.checker.app.jboto.timeline.BeginTimelineBrowserDataRecorder;
+import com.tolstoy.censorship.twitter.checker.app.jboto.timeline.CreateTimelineSnapshot;
+import com.tolstoy.censorship.twitter.checker.app.jboto.timeline.EndTimeline;
+import com.tolstoy.censorship.twitter.checker.app.jboto.timeline.EndTimelineBrowserDataRecorder;
+import com.tolstoy.censorship.twitter.checker.app.jboto.timeline.LoadTimelineURL;
+import com.tolstoy.censorship.twitter.checker.app.jboto.timeline.RetrieveTimelineTweets;
+import com.tolstoy.censorship.twitter.checker.app.jboto.timeline.SearchRunTimelineData;
+import com.tolstoy.censorship.twitter.checker.app.jboto.timeline.SupplementTimelineTweets;
+import com.tolstoy.censorship.twitter.checker.app.searchrun.SearchRunFactory;
+import com.tolstoy.censorship.twitter.checker.app.snapshot.SnapshotFactory;
+import com.tolstoy.censorship.twitter.checker.app.webdriver.PageParametersFactory;
+import com.tolstoy.censorship.twitter.checker.app.webdriver.ReplayWebDriver;
+import com.tolstoy.jboto.api.IBasicCommand;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Records a timeline run and a replies run and then replays them, and checks that the
+ * replay builds the same timeline and reply page snapshots as the recording.
+ *
+ * The "browser" for the recording is itself a ReplayWebDriver and BrowserProxyReplay
+ * over a hand-made manifest whose responses are the captured GraphQL files in
+ * src/test/resources/ntjs, so the recorded run goes through the same commands that
+ * a real one would: the page data is recorded into a new manifest, the responses are
+ * archived, and EndTimeline saves the manifest. The replay loads that manifest via
+ * CreateReplayEnvironment and runs the same commands again.
+ */
+public class ReplayRoundTripTest extends TestCase {
+	private static final Logger logger = LogManager.getLogger( ReplayRoundTripTest.class );
+
+	private static final String HANDLE = "alice";
+	private static final String USERID = "12345678";
+	private static final long PINNED_ID = 1712345678901234500L;
+	private static final long PHOTO_ID = 1712400000000000001L;
+
+	private static final String TIMELINE_PATTERN = "https://twitter.com/%s";
+	private static final String INDIVIDUAL_PATTERN = "https://twitter.com/%s/status/%s";
+
+	private static final String TIMELINE_PACKAGE = "com.tolstoy.censorship.twitter.checker.app.jboto.timeline";
+	private static final String REPLIES_PACKAGE = "com.tolstoy.censorship.twitter.checker.app.jboto.replies";
+
+	private static final String ITINERARY_JSON = "{\"meta\":{\"action\":\"checkreplies\"},\"data\":[]}";
+
+	private static final List<String> TWEET_KEYS = Arrays.asList( "tweettext", "username", "userid", "favoritecount", "retweetcount",
+																	"replycount", "viewscount", "tweetmentions", "tweetphoto_image" );
+
+	private File tempDir;
+	private ITweetFactory tweetFactory;
+	private IResourceBundleWithFormatting bundle;
+	private BrowserScriptFactory browserScriptFactory;
+
+	public ReplayRoundTripTest( String testName ) {
+		super( testName );
+	}
+
+	public static Test suite() {
+		return new TestSuite( ReplayRoundTripTest.class );
+	}
+
+	protected void setUp() throws Exception {
+		tempDir = Files.createTempDirectory( "replay-round-trip" ).toFile();
+		tweetFactory = new TweetFactory();
+		bundle = new ResourceBundleWithFormatting( "GUI" );
+		browserScriptFactory = new BrowserScriptFactory( new File( "stockscripts" ) );
+	}
+
+	protected void tearDown() throws Exception {
+		FileUtils.deleteQuietly( tempDir );
+		tempDir = null;
+	}
+
+	public void testTimelineAndReplyPageRoundTrip() throws Exception {
+		final ReplayManifest source = makeSourceManifest();
+
+		final OurEnvironment recordEnv = makeEnvironment( "true", "" );
+		final SearchRunTimelineData recorded = new SearchRunTimelineData( recordEnv.getPrefs(), HANDLE, makePageParametersSet() );
+
+		new BeginTimeline().run( recorded, recordEnv, null, 0 );
+		assertNotNull( "prefs.replay_record didn't start a recording", recordEnv.getReplayRecording() );
+
+		recordEnv.setWebDriver( new ReplayWebDriver( source ) );
+		recordEnv.setBrowserDataRecorder( new BrowserProxyReplay( source ) );
+
+		runTimeline( recorded, recordEnv );
+
+		new EndTimeline().run( recorded, recordEnv, null, 0 );
+
+		final File manifestFile = findManifestFile();
+
+		final ReplayManifest saved = ReplayManifest.load( manifestFile, tempDir );
+		assertEquals( HANDLE, saved.getHandleToCheck() );
+		assertNull( "a timeline run has no itinerary", saved.getItineraryJSON() );
+		assertTrue( saved.hasPage( timelineURL() ) );
+		assertTrue( saved.hasPage( replyPageURL() ) );
+		assertEquals( 1, saved.getJSONStrings( timelineURL() ).size() );
+		assertEquals( 1, saved.getJSONStrings( replyPageURL() ).size() );
+
+		final OurEnvironment replayEnv = makeEnvironment( "false", manifestFile.getAbsolutePath() );
+		final SearchRunTimelineData replayed = new SearchRunTimelineData( replayEnv.getPrefs(), HANDLE, makePageParametersSet() );
+
+		new BeginTimeline().run( replayed, replayEnv, null, 0 );
+		new CreateReplayEnvironment().run( replayed, replayEnv, null, 0 );
+		assertTrue( replayEnv.getWebDriver() instanceof ReplayWebDriver );
+		assertNull( "replaying shouldn't record another manifest", replayEnv.getReplayRecording() );
+
+		runTimeline( replayed, replayEnv );
+
+		new EndTimeline().run( replayed, replayEnv, null, 0 );
+
+		final List<String> recordedDescription = describe( recorded );
+		final List<String> replayedDescription = describe( replayed );
+
+		logger.info( "recorded product:\n" + String.join( "\n", recordedDescription ) );
+
+		assertEquals( recordedDescription, replayedDescription );
+
+			//	the archived responses were read back for both pages, not just the recorded tweet_retriever output
+		assertEquals( 1, replayed.getTimelineJSONStringList().size() );
+		assertEquals( 1, replayed.getIndividualPageJSONStringList( PINNED_ID ).size() );
+		assertEquals( 1, replayed.getIndividualPages().size() );
+		assertEquals( PINNED_ID, replayed.getIndividualPages().get( PINNED_ID ).getIndividualTweet().getID() );
+		assertEquals( 2, replayed.getIndividualPages().get( PINNED_ID ).getTweetCollection().getTweets().size() );
+		assertEquals( HANDLE, replayed.getUser().getHandle() );
+	}
+
+	public void testRepliesRoundTrip() throws Exception {
+		final ReplayManifest source = makeSourceManifest();
+
+		final OurEnvironment recordEnv = makeEnvironment( "true", "" );
+		final RepliesProduct recorded = new RepliesProduct( recordEnv.getPrefs(), HANDLE, makeItinerary(), makePageParametersSet() );
+
+		new BeginReplies().run( recorded, recordEnv, null, 0 );
+		assertNotNull( "prefs.replay_record didn't start a recording", recordEnv.getReplayRecording() );
+
+		recordEnv.setWebDriver( new ReplayWebDriver( source ) );
+		recordEnv.setBrowserDataRecorder( new BrowserProxyReplay( source ) );
+
+		runReplies( recorded, recordEnv );
+
+		final File manifestFile = findManifestFile();
+
+		final ReplayManifest saved = ReplayManifest.load( manifestFile, tempDir );
+		assertEquals( HANDLE, saved.getHandleToCheck() );
+		assertEquals( ITINERARY_JSON, saved.getItineraryJSON() );
+		assertFalse( "a replies run doesn't load the timeline", saved.hasPage( timelineURL() ) );
+		assertTrue( saved.hasPage( replyPageURL() ) );
+		assertEquals( 1, saved.getJSONStrings( replyPageURL() ).size() );
+
+		final OurEnvironment replayEnv = makeEnvironment( "false", manifestFile.getAbsolutePath() );
+		final RepliesProduct replayed = new RepliesProduct( replayEnv.getPrefs(), HANDLE, makeItinerary(), makePageParametersSet() );
+
+		new BeginReplies().run( replayed, replayEnv, null, 0 );
+		new CreateReplayEnvironment().run( replayed, replayEnv, null, 0 );
+		assertNull( "replaying shouldn't record another manifest", replayEnv.getReplayRecording() );
+
+		runReplies( replayed, replayEnv );
+
+		assertEquals( describeReplyPages( recorded ), describeReplyPages( replayed ) );
+
+		assertEquals( 1, replayed.getIndividualPageJSONStringList( PINNED_ID ).size() );
+		assertEquals( 1, replayed.getReplyPages().size() );
+		assertNotNull( replayed.getSearchRun() );
+	}
+
+	protected void runReplies( final RepliesProduct product, final OurEnvironment env ) throws Exception {
+		new com.tolstoy.censorship.twitter.checker.app.jboto.replies.CreateTimelineSnapshot().run( product, env, null, 0 );
+
+		final ITweet tweet = product.getItinerary().getTimelineTweetCollection().getTweetByID( PINNED_ID );
+		assertNotNull( tweet );
+
+		final String definition = IOUtils.toString( getClass().getResource( "/jboto-replies-replay.json" ), StandardCharsets.UTF_8 );
+
+		for ( final IBasicCommand command : new ReplyPageCommandList( definition, REPLIES_PACKAGE ).makeCommands() ) {
+			command.run( product, env, tweet, 0 );
+		}
+
+		new EndReplies().run( product, env, null, 0 );
+	}
+
+	/**
+	 * @return an itinerary holding the user's reply, which for this test is the pinned tweet.
+	 * SearchRunFactory would keep the JSON it was loaded from as an attribute.
+	 */
+	protected ISearchRunRepliesItinerary makeItinerary() throws Exception {
+		final ITweetUser user = tweetFactory.makeTweetUser( HANDLE );
+
+		final ITweet tweet = tweetFactory.makeTweet();
+		tweet.setID( PINNED_ID );
+		tweet.setAttribute( "itemid", "" + PINNED_ID );
+		tweet.setUser( user );
+
+		final ITweetCollection tweetCollection = tweetFactory.makeTweetCollection();
+		tweetCollection.addTweet( tweet );
+
+		final Map<String,Object> returns = new HashMap<String,Object>();
+		returns.put( "getInitiatingUser", user );
+		returns.put( "getTimelineTweetCollection", tweetCollection );
+		returns.put( "getAttribute", ITINERARY_JSON );
+
+		return makeStub( ISearchRunRepliesItinerary.class, returns );
+	}
+
+	protected void runTimeline( final SearchRunTimelineData product, final OurEnvironment env ) throws Exception {
+		new LoadTimelineURL().run( product, env, null, 0 );
+		new BeginTimelineBrowserDataRecorder().run( product, env, null, 0 );
+		new RetrieveTimelineTweets().run( product, env, null, 0 );
+		new EndTimelineBrowserDataRecorder().run( product, env, null, 0 );
+		new SupplementTimelineTweets().run( product, env, null, 0 );
+		new CreateTimelineSnapshot().run( product, env, null, 0 );
+
+		final ITweet tweet = product.getTimeline().getTweetCollection().getTweetByID( PINNED_ID );
+		assertNotNull( tweet );
+
+		final String definition = IOUtils.toString( getClass().getResource( "/jboto-timeline-replay.json" ), StandardCharsets.UTF_8 );
+
+		for ( final IBasicCommand command : new ReplyPageCommandList( definition, TIMELINE_PACKAGE ).makeCommands() ) {
+			command.run( product, env, tweet, 0 );
+		}
+	}
+
+	/**
+	 * @return one line per page and per tweet, with everything that the replay should reproduce.
+	 */
+	protected List<String> describe( final SearchRunTimelineData product ) {
+		final List<String> ret = new ArrayList<String>();
+
+		final ISnapshotUserPageTimeline timeline = product.getTimeline();
+		ret.add( "timeline " + timeline.getURL() +
+					" title=" + timeline.getTitle() +
+					" complete=" + timeline.getComplete() +
+					" user=" + timeline.getUser().getHandle() + "/" + timeline.getUser().getID() +
+					" responses=" + product.getTimelineJSONStringList().size() );
+		describeTweets( ret, "  ", timeline.getTweetCollection() );
+
+		for ( final Long id : new TreeSet<Long>( product.getIndividualPages().keySet() ) ) {
+			final ISnapshotUserPageIndividualTweet page = product.getIndividualPages().get( id );
+			ret.add( "replypage " + page.getURL() +
+						" title=" + page.getTitle() +
+						" complete=" + page.getComplete() +
+						" individual=" + page.getIndividualTweet().getID() +
+						" responses=" + product.getIndividualPageJSONStringList( id ).size() );
+			describeTweets( ret, "  ", page.getTweetCollection() );
+		}
+
+		return ret;
+	}
+
+	protected List<String> describeReplyPages( final RepliesProduct product ) {
+		final List<String> ret = new ArrayList<String>();
+
+		for ( final Long id : new TreeSet<Long>( product.getIndividualPages().keySet() ) ) {
+			final ISnapshotUserPageIndividualTweet page = product.getIndividualPages().get( id );
+			ret.add( "replypage " + page.getURL() +
+						" title=" + page.getTitle() +
+						" complete=" + page.getComplete() +
+						" individual=" + page.getIndividualTweet().getID() +
+						" responses=" + product.getIndividualPageJSONStringList( id ).size() );
+			describeTweets( ret, "  ", page.getTweetCollection() );
+		}
+
+		return ret;
+	}
+
+	protected void describeTweets( final List<String> ret, final String indent, final ITweetCollection tweetCollection ) {
+		for ( final ITweet tweet : tweetCollection.getTweets() ) {
+			final Map<String,String> values = new LinkedHashMap<String,String>();
+			for ( final String key : TWEET_KEYS ) {
+				values.put( key, tweet.getAttribute( key ) );
+			}
+
+			ret.add( indent + tweet.getID() +
+						" " + ( tweet.getUser() != null ? tweet.getUser().getHandle() + "/" + tweet.getUser().getID() : "[no user]" ) +
+						" " + tweet.getSupposedQuality() +
+						" " + values );
+		}
+	}
+
+	protected ReplayManifest makeSourceManifest() throws Exception {
+		final ReplayManifest ret = new ReplayManifest( tempDir );
+
+		final List<Object> timeline = new ArrayList<Object>();
+		timeline.add( makeTweetMap( PINNED_ID, HANDLE, USERID, "A pinned tweet with no media, no mentions, and a lot of replies" ) );
+		timeline.add( makeTweetMap( PHOTO_ID, HANDLE, USERID, "Photo with @bob and @carol" ) );
+		timeline.add( makeMetadataMap( timelineURL() ) );
+
+		ret.recordPage( timelineURL(), "Alice (@alice) / X", timeline );
+		ret.recordArchiveFiles( timelineURL(), Arrays.asList( getResourceFile( "/ntjs/UserTweets.json" ) ) );
+
+		final List<Object> replyPage = new ArrayList<Object>();
+		replyPage.add( makeTweetMap( PINNED_ID, HANDLE, USERID, "A pinned tweet with no media, no mentions, and a lot of replies" ) );
+		replyPage.add( makeTweetMap( 1712350000000000010L, "bob", "22222222", "@alice Agreed, and here's why this matters." ) );
+		replyPage.add( makeTweetMap( 1712370000000000030L, "grace", "77777777", "@alice Meh." ) );
+		replyPage.add( makeMetadataMap( replyPageURL() ) );
+
+		ret.recordPage( replyPageURL(), "Alice on X", replyPage );
+		ret.recordArchiveFiles( replyPageURL(), Arrays.asList( getResourceFile( "/ntjs/TweetDetail.json" ) ) );
+
+		return ret;
+	}
+
+	protected Map<String,String> makeTweetMap( final long tweetID, final String handle, final String userID, final String text ) {
+		final Map<String,String> ret = new HashMap<String,String>();
+		ret.put( "map_type", "tweet" );
+		ret.put( "tweetid", "" + tweetID );
+		ret.put( "username", handle );
+		ret.put( "userid", userID );
+		ret.put( "tweettext", text );
+		ret.put( "user__handle", handle );
+
+		return ret;
+	}
+
+	protected Map<String,String> makeMetadataMap( final String url ) {
+		final Map<String,String> ret = new HashMap<String,String>();
+		ret.put( "map_type", "metadata" );
+		ret.put( "url", url );
+		ret.put( "completed", "true" );
+		ret.put( "stop_reason", "bottom" );
+
+		return ret;
+	}
+
+	protected OurEnvironment makeEnvironment( final String replayRecord, final String replayManifest ) throws Exception {
+		final MapPreferences prefs = new MapPreferences();
+		prefs.setValue( "targetsite.pattern.timeline", TIMELINE_PATTERN );
+		prefs.setValue( "targetsite.pattern.individual", INDIVIDUAL_PATTERN );
+		prefs.setValue( "prefs.replay_record", replayRecord );
+		prefs.setValue( "prefs.replay_manifest", replayManifest );
+
+		final Map<String,Object> appDirectories = new HashMap<String,Object>();
+		appDirectories.put( "getReportsDirectory", tempDir );
+
+		final OurEnvironment ret = new OurEnvironment( bundle,
+														null,
+														null,
+														prefs,
+														makeStub( IWebDriverFactoryFactory.class, null ),
+														new SearchRunFactory( tweetFactory ),
+														new SnapshotFactory(),
+														tweetFactory,
+														null,
+														new ArchiveDirectory( tempDir, "json-", "", "", ".json" ),
+														makeStub( IStatusMessageReceiver.class, null ),
+														makeStub( IAppDirectories.class, appDirectories ),
+														null,
+														browserScriptFactory,
+														null,
+														null,
+														DebugLevel.TERSE );
+
+		ret.setWebDriverFactory( makeStub( IWebDriverFactory.class, null ) );
+
+		return ret;
+	}
+
+	protected IPageParametersSet makePageParametersSet() throws Exception {
+		final IPageParametersFactory factory = new PageParametersFactory();
+
+		return factory.makePageParametersSetBuilder()
+				.setTimeline( factory.makePageParametersBuilder().setItemsToSkip( 0 ).setItemsToProcess( 10 ).setPagesToScroll( 1 ).build() )
+				.setIndividualPage( factory.makePageParametersBuilder().setItemsToSkip( 0 ).setItemsToProcess( 1000 ).setPagesToScroll( 1 ).build() )
+				.build();
+	}
+
+	protected File findManifestFile() {
+		final File[] files = tempDir.listFiles( ( dir, name ) -> name.startsWith( "replay-" + HANDLE + "-" ) && name.endsWith( ".json" ) );
+		assertNotNull( files );
+		assertEquals( "the run should save one replay manifest", 1, files.length );
+
+		return files[ 0 ];
+	}
+
+	protected String getResourceFile( final String resource ) throws Exception {
+		return new File( getClass().getResource( resource ).toURI() ).getAbsolutePath();
+	}
+
+	protected String timelineURL() {
+		return String.format( TIMELINE_PATTERN, HANDLE );
+	}
+
+	protected String replyPageURL() {
+		return String.format( INDIVIDUAL_PATTERN, HANDLE, PINNED_ID );
+	}
+
+	/**
+	 * @return an implementation of iface whose methods return the value in returns
+	 * under the method's name, or null (false or 0 for primitives).
+	 */
+	protected static <T> T makeStub( final Class<T> iface, final Map<String,Object> returns ) {
+		return iface.cast( Proxy.newProxyInstance( iface.getClassLoader(),
+													new Class<?>[] { iface },
+													( proxy, method, args ) -> {
+														if ( "toString".equals( method.getName() ) ) {
+															return "stub " + iface.getSimpleName();
+														}
+
+														if ( returns != null && returns.containsKey( method.getName() ) ) {
+															return returns.get( method.getName() );
+														}
+
+														if ( method.getReturnType() == boolean.class ) {
+															return false;
+														}
+
+														if ( method.getReturnType() == int.class || method.getReturnType() == long.class ) {
+															return method.getReturnType() == int.class ? (Object) 0 : (Object) 0L;
+														}
+
+														return null;
+													} ) );
+	}
+
+	private static class MapPreferences implements IPreferences {
+		private final Map<String,String> map = new HashMap<String,String>();
+
+		@Override
+		public String getValue( final String key ) {
+			return map.get( key );
+		}
+
+		@Override
+		public boolean isEmpty( final String key ) {
+			return map.get( key ) == null || map.get( key ).isEmpty();
+		}
+
+		@Override
+		public void setValue( final String key, final String value ) {
+			map.put( key, value );
+		}
+
+		@Override
+		public Map<String,String> getValues() {
+			return new HashMap<String,String>( map );
+		}
+
+		@Override
+		public void save() throws Exception {
+		}
+	}
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2022 Chris Kelly
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.tolstoy.censorship.twitter.checker.app.jboto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Checks that the reply page commands are read from the jboto definitions in order.
+ */
+public class ReplyPageCommandListTest extends TestCase {
+	private static final Logger logger = LogManager.getLogger( ReplyPageCommandListTest.class );
+
+	private static final String BASE = "com.tolstoy.censorship.twitter.checker.app.jboto.";
+
+	private static final List<String> COMMON = Arrays.asList( "SetReplyPageURL",
+																"LoadReplyPageURL",
+																"BeginReplyPageBrowserDataRecorder",
+																"RetrieveReplyPageTweets",
+																"EndReplyPageBrowserDataRecorder",
+																"SupplementReplyPageTweets",
+																"CreateReplyPageSnapshot" );
+
+	public ReplyPageCommandListTest( String testName ) {
+		super( testName );
+	}
+
+	public static Test suite() {
+		return new TestSuite( ReplyPageCommandListTest.class );
+	}
+
+	public void testReplies() throws Exception {
+		checkDefinition( "/jboto-replies.json", "replies", true );
+		checkDefinition( "/jboto-replies-qs.json", "replies", true );
+	}
+
+	public void testTimeline() throws Exception {
+		checkDefinition( "/jboto-timeline.json", "timeline", false );
+		checkDefinition( "/jboto-timeline-qs.json", "timeline", false );
+	}
+
+	public void testMissingForeach() throws Exception {
+		try {
+			new ReplyPageCommandList( "{ \"type\": \"container\", \"classname\": \"--none--\", \"commands\": [] }", BASE + "replies" );
+			fail( "expected an exception" );
+		}
+		catch ( final RuntimeException e ) {
+			//	expected
+		}
+	}
+
+	protected void checkDefinition( final String resource, final String alias, final boolean bCreateReplyThread ) throws Exception {
+		final String json = IOUtils.toString( getClass().getResource( resource ), StandardCharsets.UTF_8 );
+
+		final ReplyPageCommandList list = new ReplyPageCommandList( json, BASE + alias );
+
+		final List<String> names = list.getClassNames();
+
+		int i = 0;
+		for ( final String name : COMMON ) {
+			assertEquals( resource, BASE + alias + "." + name, names.get( i++ ) );
+		}
+
+		if ( bCreateReplyThread ) {
+			assertEquals( resource, BASE + alias + ".CreateReplyThread", names.get( i++ ) );
+		}
+
+		assertEquals( resource, i, names.size() );
+
+		for ( final String name : names ) {
+			Class.forName( name );
+		}
+	}
+}
@@ -0,0 +1,301 @@
+/*
+ * Copyright 2022 Chris Kelly
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.tolstoy.censorship.twitter.checker.app.standin;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.text.StringEscapeUtils;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * The pages and GraphQL responses served by StandInTwitterServer.
+ *
+ * If a recorded directory is given and it has a file for the request, that file is
+ * served as-is. The file name is the request path with slashes turned into underscores
+ * and any cursor appended after two underscores, plus .html or .json: "/alice" is
+ * alice.html, "/alice/status/123" is alice_status_123.html, and the second page of
+ * TweetDetail for 123 is TweetDetail_123__cursor-1.json.
+ *
+ * Otherwise the content is made up: a timeline of numTimelineTweets tweets from the
+ * handle, each of which has numReplies replies. Every tenth reply is marked
+ * AbusiveQuality and the one before it LowQuality. The GraphQL has the same shape as
+ * Twitter's UserTweets and TweetDetail responses, and the HTML pages load it with XHR
+ * as they're scrolled, so the browser data recorders see it like they would on the site.
+ */
+public class StandInTwitterContent {
+	private static final long TIMELINE_BASE_ID = 1600000000000000000L;
+	private static final long REPLY_BASE_ID = 1700000000000000000L;
+	private static final long TIMELINE_USER_ID = 1000L;
+	private static final long REPLIER_BASE_ID = 2000L;
+	private static final int NUM_REPLIERS = 50;
+	private static final String CREATED_AT = "Wed Oct 10 20:19:24 +0000 2018";
+	private static final String CURSOR_PREFIX = "cursor-";
+
+	private final int numTimelineTweets;
+	private final int timelinePageSize;
+	private final int numReplies;
+	private final int repliesPageSize;
+	private final File recordedDirectory;
+
+	public StandInTwitterContent( final int numTimelineTweets,
+									final int timelinePageSize,
+									final int numReplies,
+									final int repliesPageSize,
+									final File recordedDirectory ) {
+		this.numTimelineTweets = numTimelineTweets;
+		this.timelinePageSize = Math.max( 1, timelinePageSize );
+		this.numReplies = numReplies;
+		this.repliesPageSize = Math.max( 1, repliesPageSize );
+		this.recordedDirectory = recordedDirectory;
+	}
+
+	/**
+	 * @return the recorded file for the request, or null.
+	 */
+	public String getRecorded( final String path, final String cursor, final String extension ) throws Exception {
+		if ( recordedDirectory == null ) {
+			return null;
+		}
+
+		String name = path.replaceAll( "^/+", "" ).replace( '/', '_' );
+		if ( cursor != null && cursor.length() > 0 ) {
+			name += "__" + cursor;
+		}
+
+		final File file = new File( recordedDirectory, name + extension );
+
+		return file.isFile() ? FileUtils.readFileToString( file, StandardCharsets.UTF_8 ) : null;
+	}
+
+	public String makeTimelinePage( final String baseURL, final String handle ) {
+		return makePage( "@" + handle + " / Stand-in", baseURL + "/i/api/graphql/standin/UserTweets?handle=" + handle );
+	}
+
+	public String makeStatusPage( final String baseURL, final String handle, final long tweetID ) {
+		return makePage( "@" + handle + " status " + tweetID + " / Stand-in", baseURL + "/i/api/graphql/standin/TweetDetail?focalTweetId=" + tweetID + "&handle=" + handle );
+	}
+
+	public String makeUserTweets( final String handle, final String cursor ) {
+		final int start = parseCursor( cursor );
+		final int end = Math.min( numTimelineTweets, start + timelinePageSize );
+
+		final JSONArray entries = new JSONArray();
+		final JSONObject timelineUser = makeUser( TIMELINE_USER_ID, handle );
+
+		for ( int i = start; i < end; i++ ) {
+			final long id = TIMELINE_BASE_ID + i;
+			entries.put( makeItemEntry( "tweet-" + id, makeTweet( id, timelineUser, "Timeline tweet " + i + " from " + handle, 0, id, numReplies ) ) );
+		}
+
+		if ( end < numTimelineTweets ) {
+			entries.put( makeCursorEntry( CURSOR_PREFIX + end ) );
+		}
+
+		final JSONObject timeline = new JSONObject().put( "instructions", new JSONArray().put( makeAddEntries( entries ) ) );
+
+		final JSONObject result = new JSONObject( timelineUser.toString() )
+			.put( "timeline_v2", new JSONObject().put( "timeline", timeline ) );
+
+		return new JSONObject().put( "data", new JSONObject().put( "user", new JSONObject().put( "result", result ) ) ).toString();
+	}
+
+	public String makeTweetDetail( final String handle, final long focalTweetID, final String cursor ) {
+		final int start = parseCursor( cursor );
+		final int end = Math.min( numReplies, start + repliesPageSize );
+
+		final JSONArray entries = new JSONArray();
+		final JSONObject timelineUser = makeUser( TIMELINE_USER_ID, handle );
+
+		if ( start == 0 ) {
+			entries.put( makeItemEntry( "tweet-" + focalTweetID, makeTweet( focalTweetID, timelineUser, "Focal tweet " + focalTweetID, 0, focalTweetID, numReplies ) ) );
+		}
+
+		for ( int j = start; j < end; j++ ) {
+			final long id = getReplyID( focalTweetID, j );
+			final JSONObject replier = makeUser( REPLIER_BASE_ID + ( j % NUM_REPLIERS ), "replier" + ( j % NUM_REPLIERS ) );
+			final JSONObject tweet = makeTweet( id, replier, "@" + handle + " reply " + j, focalTweetID, focalTweetID, 0 );
+
+			final JSONObject item = new JSONObject()
+				.put( "entryId", "conversationthread-" + id + "-tweet-" + id )
+				.put( "item", new JSONObject()
+					.put( "itemContent", new JSONObject().put( "itemType", "TimelineTweet" ).put( "tweet_results", new JSONObject().put( "result", tweet ) ) )
+					.put( "clientEventInfo", new JSONObject().put( "details", new JSONObject().put( "conversationDetails",
+																	new JSONObject().put( "conversationSection", getSupposedQuality( j ) ) ) ) ) );
+
+			entries.put( new JSONObject()
+				.put( "entryId", "conversationthread-" + id )
+				.put( "content", new JSONObject()
+					.put( "entryType", "TimelineTimelineModule" )
+					.put( "items", new JSONArray().put( item ) ) ) );
+		}
+
+		if ( end < numReplies ) {
+			entries.put( makeCursorEntry( CURSOR_PREFIX + end ) );
+		}
+
+		final JSONObject conversation = new JSONObject().put( "instructions", new JSONArray().put( makeAddEntries( entries ) ) );
+
+		return new JSONObject().put( "data", new JSONObject().put( "threaded_conversation_with_injections_v2", conversation ) ).toString();
+	}
+
+	public static long getReplyID( final long focalTweetID, final int index ) {
+		return REPLY_BASE_ID + ( focalTweetID % 1000000L ) * 100000L + index;
+	}
+
+	public static String getSupposedQuality( final int index ) {
+		if ( index % 10 == 9 ) {
+			return "AbusiveQuality";
+		}
+
+		if ( index % 10 == 8 ) {
+			return "LowQuality";
+		}
+
+		return "HighQuality";
+	}
+
+	protected static int parseCursor( final String cursor ) {
+		if ( cursor == null || !cursor.startsWith( CURSOR_PREFIX ) ) {
+			return 0;
+		}
+
+		try {
+			return Math.max( 0, Integer.parseInt( cursor.substring( CURSOR_PREFIX.length() ) ) );
+		}
+		catch ( final NumberFormatException e ) {
+			return 0;
+		}
+	}
+
+	protected JSONObject makeUser( final long id, final String handle ) {
+		return new JSONObject()
+			.put( "__typename", "User" )
+			.put( "id", "VXNlcjo" + id )
+			.put( "rest_id", "" + id )
+			.put( "legacy", new JSONObject()
+				.put( "screen_name", handle )
+				.put( "name", handle.toUpperCase() )
+				.put( "statuses_count", numTimelineTweets )
+				.put( "followers_count", 100 )
+				.put( "friends_count", 10 )
+				.put( "verified", false ) );
+	}
+
+	protected JSONObject makeTweet( final long id, final JSONObject user, final String text, final long inReplyTo, final long conversationID, final int replyCount ) {
+		final JSONObject legacy = new JSONObject()
+			.put( "id_str", "" + id )
+			.put( "user_id_str", user.getString( "rest_id" ) )
+			.put( "full_text", text )
+			.put( "created_at", CREATED_AT )
+			.put( "lang", "en" )
+			.put( "conversation_id_str", "" + conversationID )
+			.put( "reply_count", replyCount )
+			.put( "favorite_count", 0 )
+			.put( "retweet_count", 0 );
+
+		if ( inReplyTo != 0 ) {
+			legacy.put( "in_reply_to_status_id_str", "" + inReplyTo );
+		}
+
+		return new JSONObject()
+			.put( "__typename", "Tweet" )
+			.put( "rest_id", "" + id )
+			.put( "core", new JSONObject().put( "user_results", new JSONObject().put( "result", user ) ) )
+			.put( "views", new JSONObject().put( "count", "0" ) )
+			.put( "legacy", legacy );
+	}
+
+	protected JSONObject makeItemEntry( final String entryID, final JSONObject tweet ) {
+		return new JSONObject()
+			.put( "entryId", entryID )
+			.put( "content", new JSONObject()
+				.put( "entryType", "TimelineTimelineItem" )
+				.put( "itemContent", new JSONObject().put( "itemType", "TimelineTweet" ).put( "tweet_results", new JSONObject().put( "result", tweet ) ) ) );
+	}
+
+	protected JSONObject makeCursorEntry( final String cursor ) {
+		return new JSONObject()
+			.put( "entryId", "cursor-bottom-" + cursor )
+			.put( "content", new JSONObject()
+				.put( "entryType", "TimelineTimelineCursor" )
+				.put( "cursorType", "Bottom" )
+				.put( "value", cursor ) );
+	}
+
+	protected JSONObject makeAddEntries( final JSONArray entries ) {
+		return new JSONObject().put( "type", "TimelineAddEntries" ).put( "entries", entries );
+	}
+
+	/**
+	 * The page loads the first batch of GraphQL right away and the next one whenever
+	 * it's scrolled near the bottom, until there's no bottom cursor.
+	 */
+	protected String makePage( final String title, final String apiURL ) {
+		return "<!DOCTYPE html>\n<html><head><meta charset=\"utf-8\"><title>" + StringEscapeUtils.escapeHtml4( title ) + "</title></head>\n" +
+			"<body><main role=\"main\"><section aria-labelledby=\"standin\"><div id=\"tweets\"></div></section></main>\n" +
+			"<script>\n" +
+			"(function() {\n" +
+			"	var apiURL = " + JSONObject.quote( apiURL ) + ", cursor = '', loading = false, done = false;\n" +
+			"	var container = document.getElementById( 'tweets' );\n" +
+			"	function collect( node, tweets, cursors ) {\n" +
+			"		if ( !node || typeof node !== 'object' ) { return; }\n" +
+			"		if ( node.__typename === 'Tweet' ) { tweets.push( node ); return; }\n" +
+			"		if ( node.entryType === 'TimelineTimelineCursor' && node.cursorType === 'Bottom' ) { cursors.push( node.value ); }\n" +
+			"		for ( var k in node ) { collect( node[ k ], tweets, cursors ); }\n" +
+			"	}\n" +
+			"	function render( tweets ) {\n" +
+			"		tweets.forEach( function( t ) {\n" +
+			"			var handle = t.core.user_results.result.legacy.screen_name;\n" +
+			"			var article = document.createElement( 'article' );\n" +
+			"			article.setAttribute( 'data-testid', 'tweet' );\n" +
+			"			var link = document.createElement( 'a' );\n" +
+			"			link.href = '/' + handle + '/status/' + t.rest_id;\n" +
+			"			link.textContent = '@' + handle;\n" +
+			"			var text = document.createElement( 'div' );\n" +
+			"			text.setAttribute( 'data-testid', 'tweetText' );\n" +
+			"			text.setAttribute( 'lang', t.legacy.lang );\n" +
+			"			text.textContent = t.legacy.full_text;\n" +
+			"			article.appendChild( link );\n" +
+			"			article.appendChild( text );\n" +
+			"			article.style.minHeight = '120px';\n" +
+			"			container.appendChild( article );\n" +
+			"		} );\n" +
+			"	}\n" +
+			"	function load() {\n" +
+			"		if ( loading || done ) { return; }\n" +
+			"		loading = true;\n" +
+			"		var xhr = new XMLHttpRequest();\n" +
+			"		xhr.open( 'GET', apiURL + ( cursor ? '&cursor=' + encodeURIComponent( cursor ) : '' ), true );\n" +
+			"		xhr.onreadystatechange = function() {\n" +
+			"			if ( xhr.readyState !== 4 ) { return; }\n" +
+			"			loading = false;\n" +
+			"			if ( xhr.status !== 200 ) { return; }\n" +
+			"			var tweets = [], cursors = [];\n" +
+			"			collect( JSON.parse( xhr.responseText ), tweets, cursors );\n" +
+			"			render( tweets );\n" +
+			"			if ( cursors.length ) { cursor = cursors[ 0 ]; } else { done = true; }\n" +
+			"		};\n" +
+			"		xhr.send();\n" +
+			"	}\n" +
+			"	window.addEventListener( 'scroll', function() {\n" +
+			"		if ( window.innerHeight + window.scrollY > document.body.offsetHeight - 2 * window.innerHeight ) { load(); }\n" +
+			"	} );\n" +
+			"	load();\n" +
+			"})();\n" +
+			"</script></body></html>\n";
+	}
+}
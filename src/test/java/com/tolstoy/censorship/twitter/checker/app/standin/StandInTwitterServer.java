@@ -0,0 +1,420 @@
+/*
+ * Copyright 2022 Chris Kelly
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.tolstoy.censorship.twitter.checker.app.standin;
+
+import java.io.File;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.json.JSONObject;
+
+import com.tolstoy.censorship.twitter.checker.api.preferences.IPreferences;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpServerCodec;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import io.netty.util.CharsetUtil;
+
+/**
+ * An embedded HTTP server that stands in for the site, so that whole runs (browser,
+ * data recorder, parsing, analysis) can be done offline and timed.
+ *
+ * It serves:
+ *   /{handle}                                  timeline page
+ *   /{handle}/status/{id}                      status page
+ *   /i/api/graphql/{queryID}/UserTweets        timeline GraphQL, paged with cursor
+ *   /i/api/graphql/{queryID}/TweetDetail       replies GraphQL, paged with cursor
+ *
+ * See StandInTwitterContent for what's in them. configurePreferences points
+ * targetsite.pattern.timeline and targetsite.pattern.individual at the server.
+ *
+ * The server binds 127.0.0.1, and Firefox normally bypasses any proxy for loopback
+ * addresses, so the browser proxy would never see its traffic. configurePreferences
+ * also turns on prefs.proxy_allow_localhost, which makes WebDriverFactoryNT set
+ * network.proxy.allow_hijacking_localhost=true when it configures a proxy; if you use
+ * some other driver setup, set that preference in its profile yourself.
+ *
+ * Each response is delayed by latencyMillis plus up to latencyJitterMillis, without
+ * blocking the event loop. With probability failureRate a response is replaced with a
+ * 503, and with probability dropRate the connection is closed without a response.
+ */
+public class StandInTwitterServer {
+	private static final Logger logger = LogManager.getLogger( StandInTwitterServer.class );
+
+	private static final Pattern STATUS_PATTERN = Pattern.compile( "^/([A-Za-z0-9_]+)/status/([0-9]+)/?$" );
+	private static final Pattern TIMELINE_PATTERN = Pattern.compile( "^/([A-Za-z0-9_]+)/?$" );
+	private static final Pattern GRAPHQL_PATTERN = Pattern.compile( "^/i/api/graphql/[^/]+/([A-Za-z]+)$" );
+
+	private final int requestedPort;
+	private final long latencyMillis;
+	private final long latencyJitterMillis;
+	private final double failureRate;
+	private final double dropRate;
+	private final StandInTwitterContent content;
+	private final Random random;
+
+	private final AtomicLong numPages;
+	private final AtomicLong numGraphQL;
+	private final AtomicLong numFailures;
+	private final AtomicLong numDropped;
+	private final AtomicLong numNotFound;
+
+	private EventLoopGroup bossGroup;
+	private EventLoopGroup workerGroup;
+	private Channel serverChannel;
+	private int port;
+
+	public static class Builder {
+		private int port = 0;
+		private long latencyMillis = 0;
+		private long latencyJitterMillis = 0;
+		private double failureRate = 0;
+		private double dropRate = 0;
+		private int numTimelineTweets = 50;
+		private int timelinePageSize = 20;
+		private int numReplies = 10;
+		private int repliesPageSize = 20;
+		private long seed = 1;
+		private File recordedDirectory = null;
+
+		/** @param val 0 picks a free port */
+		public Builder setPort( final int val ) { port = val; return this; }
+		public Builder setLatencyMillis( final long val ) { latencyMillis = val; return this; }
+		public Builder setLatencyJitterMillis( final long val ) { latencyJitterMillis = val; return this; }
+		/** @param val fraction of requests, 0 to 1, answered with a 503 */
+		public Builder setFailureRate( final double val ) { failureRate = val; return this; }
+		/** @param val fraction of requests, 0 to 1, whose connection is closed without a response */
+		public Builder setDropRate( final double val ) { dropRate = val; return this; }
+		public Builder setNumTimelineTweets( final int val ) { numTimelineTweets = val; return this; }
+		public Builder setTimelinePageSize( final int val ) { timelinePageSize = val; return this; }
+		/** @param val replies per status page, e.g. 10 to 10,000 */
+		public Builder setNumReplies( final int val ) { numReplies = val; return this; }
+		public Builder setRepliesPageSize( final int val ) { repliesPageSize = val; return this; }
+		/** @param val seed for latency jitter and failure injection, so runs are repeatable */
+		public Builder setSeed( final long val ) { seed = val; return this; }
+		/** @param val directory of recorded pages and GraphQL to serve instead of made-up ones */
+		public Builder setRecordedDirectory( final File val ) { recordedDirectory = val; return this; }
+
+		public StandInTwitterServer build() {
+			return new StandInTwitterServer( this );
+		}
+	}
+
+	protected StandInTwitterServer( final Builder builder ) {
+		this.requestedPort = builder.port;
+		this.latencyMillis = builder.latencyMillis;
+		this.latencyJitterMillis = builder.latencyJitterMillis;
+		this.failureRate = builder.failureRate;
+		this.dropRate = builder.dropRate;
+		this.content = new StandInTwitterContent( builder.numTimelineTweets,
+													builder.timelinePageSize,
+													builder.numReplies,
+													builder.repliesPageSize,
+													builder.recordedDirectory );
+		this.random = new Random( builder.seed );
+		this.numPages = new AtomicLong( 0 );
+		this.numGraphQL = new AtomicLong( 0 );
+		this.numFailures = new AtomicLong( 0 );
+		this.numDropped = new AtomicLong( 0 );
+		this.numNotFound = new AtomicLong( 0 );
+	}
+
+	public void start() throws Exception {
+		bossGroup = new NioEventLoopGroup( 1 );
+		workerGroup = new NioEventLoopGroup();
+
+		final ServerBootstrap bootstrap = new ServerBootstrap()
+			.group( bossGroup, workerGroup )
+			.channel( NioServerSocketChannel.class )
+			.childHandler( new ChannelInitializer<SocketChannel>() {
+				@Override
+				protected void initChannel( final SocketChannel ch ) {
+					ch.pipeline().addLast( new HttpServerCodec() );
+					ch.pipeline().addLast( new HttpObjectAggregator( 65536 ) );
+					ch.pipeline().addLast( new RequestHandler() );
+				}
+			} );
+
+		serverChannel = bootstrap.bind( "127.0.0.1", requestedPort ).sync().channel();
+		port = ( (InetSocketAddress) serverChannel.localAddress() ).getPort();
+
+		logger.info( "stand-in server listening at " + getBaseURL() );
+	}
+
+	public void stop() throws Exception {
+		if ( serverChannel != null ) {
+			serverChannel.close().sync();
+			serverChannel = null;
+		}
+
+		if ( workerGroup != null ) {
+			workerGroup.shutdownGracefully( 0, 1, TimeUnit.SECONDS ).sync();
+			workerGroup = null;
+		}
+
+		if ( bossGroup != null ) {
+			bossGroup.shutdownGracefully( 0, 1, TimeUnit.SECONDS ).sync();
+			bossGroup = null;
+		}
+	}
+
+	public int getPort() {
+		return port;
+	}
+
+	public String getBaseURL() {
+		return "http://127.0.0.1:" + port;
+	}
+
+	/** @return a value for targetsite.pattern.timeline */
+	public String getTimelinePattern() {
+		return getBaseURL() + "/%s";
+	}
+
+	/** @return a value for targetsite.pattern.individual */
+	public String getIndividualPattern() {
+		return getBaseURL() + "/%s/status/%s";
+	}
+
+	/**
+	 * Point a run's preferences at this server, and let the browser proxy see loopback traffic.
+	 */
+	public void configurePreferences( final IPreferences prefs ) {
+		prefs.setValue( "targetsite.pattern.timeline", getTimelinePattern() );
+		prefs.setValue( "targetsite.pattern.individual", getIndividualPattern() );
+		prefs.setValue( "prefs.proxy_allow_localhost", "true" );
+	}
+
+	public long getNumPages() {
+		return numPages.get();
+	}
+
+	public long getNumGraphQL() {
+		return numGraphQL.get();
+	}
+
+	public long getNumFailures() {
+		return numFailures.get();
+	}
+
+	public long getNumDropped() {
+		return numDropped.get();
+	}
+
+	public long getNumNotFound() {
+		return numNotFound.get();
+	}
+
+	protected class RequestHandler extends SimpleChannelInboundHandler<FullHttpRequest> {
+		@Override
+		protected void channelRead0( final ChannelHandlerContext ctx, final FullHttpRequest request ) throws Exception {
+			final boolean bKeepAlive = HttpUtil.isKeepAlive( request );
+			final QueryStringDecoder decoder = new QueryStringDecoder( request.uri() );
+
+			final double failureRoll, dropRoll;
+			final long delay;
+			synchronized ( random ) {
+				failureRoll = random.nextDouble();
+				dropRoll = random.nextDouble();
+				delay = latencyMillis + ( latencyJitterMillis > 0 ? (long) ( random.nextDouble() * latencyJitterMillis ) : 0 );
+			}
+
+			final FullHttpResponse response;
+
+			if ( dropRoll < dropRate ) {
+				numDropped.incrementAndGet();
+				ctx.executor().schedule( () -> ctx.close(), delay, TimeUnit.MILLISECONDS );
+				return;
+			}
+			else if ( failureRoll < failureRate ) {
+				numFailures.incrementAndGet();
+				response = makeResponse( HttpResponseStatus.SERVICE_UNAVAILABLE, "text/plain", "stand-in failure" );
+				response.headers().set( HttpHeaderNames.RETRY_AFTER, "1" );
+			}
+			else {
+				response = route( decoder.path(), decoder.parameters() );
+			}
+
+			HttpUtil.setKeepAlive( response, bKeepAlive );
+
+			ctx.executor().schedule( () -> {
+				if ( bKeepAlive ) {
+					ctx.writeAndFlush( response );
+				}
+				else {
+					ctx.writeAndFlush( response ).addListener( ChannelFutureListener.CLOSE );
+				}
+			}, delay, TimeUnit.MILLISECONDS );
+		}
+
+		@Override
+		public void exceptionCaught( final ChannelHandlerContext ctx, final Throwable cause ) {
+			logger.info( "stand-in server error: " + cause.getMessage() );
+			ctx.close();
+		}
+	}
+
+	protected FullHttpResponse route( final String path, final Map<String,List<String>> params ) throws Exception {
+		Matcher matcher = GRAPHQL_PATTERN.matcher( path );
+		if ( matcher.matches() ) {
+			final String operation = matcher.group( 1 );
+			final JSONObject variables = getVariables( params );
+			final String cursor = getParam( params, variables, "cursor" );
+
+			String json;
+
+			if ( "UserTweets".equals( operation ) ) {
+				final String handle = getParam( params, variables, "handle" );
+				json = content.getRecorded( "UserTweets" + ( handle != null ? "_" + handle : "" ), cursor, ".json" );
+				if ( json == null ) {
+					json = content.makeUserTweets( handle != null ? handle : "standin", cursor );
+				}
+			}
+			else if ( "TweetDetail".equals( operation ) ) {
+				final String focalTweetID = getParam( params, variables, "focalTweetId" );
+				final String handle = getParam( params, variables, "handle" );
+				if ( focalTweetID == null || !focalTweetID.matches( "[0-9]+" ) ) {
+					return notFound( path );
+				}
+
+				json = content.getRecorded( "TweetDetail_" + focalTweetID, cursor, ".json" );
+				if ( json == null ) {
+					json = content.makeTweetDetail( handle != null ? handle : "standin", Long.parseLong( focalTweetID ), cursor );
+				}
+			}
+			else {
+				return notFound( path );
+			}
+
+			numGraphQL.incrementAndGet();
+
+			return makeResponse( HttpResponseStatus.OK, "application/json; charset=utf-8", json );
+		}
+
+		matcher = STATUS_PATTERN.matcher( path );
+		if ( matcher.matches() ) {
+			String html = content.getRecorded( path, null, ".html" );
+			if ( html == null ) {
+				html = content.makeStatusPage( getBaseURL(), matcher.group( 1 ), Long.parseLong( matcher.group( 2 ) ) );
+			}
+
+			numPages.incrementAndGet();
+
+			return makeResponse( HttpResponseStatus.OK, "text/html; charset=utf-8", html );
+		}
+
+		matcher = TIMELINE_PATTERN.matcher( path );
+		if ( matcher.matches() ) {
+			String html = content.getRecorded( path, null, ".html" );
+			if ( html == null ) {
+				html = content.makeTimelinePage( getBaseURL(), matcher.group( 1 ) );
+			}
+
+			numPages.incrementAndGet();
+
+			return makeResponse( HttpResponseStatus.OK, "text/html; charset=utf-8", html );
+		}
+
+		return notFound( path );
+	}
+
+	/**
+	 * The site passes its parameters as JSON in 'variables'; the stand-in pages use plain
+	 * query parameters. Either works.
+	 */
+	protected JSONObject getVariables( final Map<String,List<String>> params ) {
+		final List<String> values = params.get( "variables" );
+		if ( values == null || values.isEmpty() ) {
+			return null;
+		}
+
+		try {
+			return new JSONObject( values.get( 0 ) );
+		}
+		catch ( final Exception e ) {
+			return null;
+		}
+	}
+
+	protected String getParam( final Map<String,List<String>> params, final JSONObject variables, final String key ) {
+		final List<String> values = params.get( key );
+		if ( values != null && !values.isEmpty() ) {
+			return values.get( 0 );
+		}
+
+		if ( variables != null && variables.has( key ) ) {
+			return String.valueOf( variables.get( key ) );
+		}
+
+		return null;
+	}
+
+	protected FullHttpResponse notFound( final String path ) {
+		numNotFound.incrementAndGet();
+		return makeResponse( HttpResponseStatus.NOT_FOUND, "text/plain", "not found: " + path );
+	}
+
+	protected FullHttpResponse makeResponse( final HttpResponseStatus status, final String contentType, final String body ) {
+		final FullHttpResponse response = new DefaultFullHttpResponse( HttpVersion.HTTP_1_1, status, Unpooled.copiedBuffer( body, CharsetUtil.UTF_8 ) );
+
+		response.headers().set( HttpHeaderNames.CONTENT_TYPE, contentType );
+		response.headers().setInt( HttpHeaderNames.CONTENT_LENGTH, response.content().readableBytes() );
+		response.headers().set( HttpHeaderNames.CACHE_CONTROL, "no-store" );
+
+		return response;
+	}
+
+	@Override
+	public String toString() {
+		return new ToStringBuilder( this )
+		.append( "baseURL", getBaseURL() )
+		.append( "latencyMillis", latencyMillis )
+		.append( "latencyJitterMillis", latencyJitterMillis )
+		.append( "failureRate", failureRate )
+		.append( "dropRate", dropRate )
+		.append( "numPages", numPages.get() )
+		.append( "numGraphQL", numGraphQL.get() )
+		.append( "numFailures", numFailures.get() )
+		.append( "numDropped", numDropped.get() )
+		.append( "numNotFound", numNotFound.get() )
+		.toString();
+	}
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright 2022 Chris Kelly
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.tolstoy.censorship.twitter.checker.app.standin;
+
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import com.tolstoy.censorship.twitter.checker.api.preferences.IPreferences;
+import com.tolstoy.censorship.twitter.checker.app.webdriver.ntjs.JSONResponseParser;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Checks that the stand-in server's pages and GraphQL can be walked the way the browser
+ * would walk them, and that what it serves parses with JSONResponseParser.
+ */
+public class StandInTwitterServerTest extends TestCase {
+	private static final Logger logger = LogManager.getLogger( StandInTwitterServerTest.class );
+
+	private StandInTwitterServer server = null;
+
+	public StandInTwitterServerTest( String testName ) {
+		super( testName );
+	}
+
+	public static Test suite() {
+		return new TestSuite( StandInTwitterServerTest.class );
+	}
+
+	protected void tearDown() throws Exception {
+		if ( server != null ) {
+			server.stop();
+			server = null;
+		}
+	}
+
+	public void testPages() throws Exception {
+		server = new StandInTwitterServer.Builder().build();
+		server.start();
+
+		final String timeline = get( String.format( server.getTimelinePattern(), "alice" ), 200 );
+		assertTrue( timeline.indexOf( "<title>@alice / Stand-in</title>" ) > -1 );
+		assertTrue( timeline.indexOf( "/i/api/graphql/standin/UserTweets?handle=alice" ) > -1 );
+
+		final String status = get( String.format( server.getIndividualPattern(), "alice", "1600000000000000003" ), 200 );
+		assertTrue( status.indexOf( "TweetDetail?focalTweetId=1600000000000000003" ) > -1 );
+
+		get( server.getBaseURL() + "/alice/likes/nothing", 404 );
+
+		assertEquals( 2, server.getNumPages() );
+		assertEquals( 1, server.getNumNotFound() );
+	}
+
+	public void testConfigurePreferences() throws Exception {
+		server = new StandInTwitterServer.Builder().build();
+		server.start();
+
+		final MapPreferences prefs = new MapPreferences();
+		server.configurePreferences( prefs );
+
+		assertEquals( server.getTimelinePattern(), prefs.getValue( "targetsite.pattern.timeline" ) );
+		assertEquals( server.getIndividualPattern(), prefs.getValue( "targetsite.pattern.individual" ) );
+		assertEquals( "true", prefs.getValue( "prefs.proxy_allow_localhost" ) );
+	}
+
+	public void testTimelineGraphQL() throws Exception {
+		server = new StandInTwitterServer.Builder().setNumTimelineTweets( 45 ).setTimelinePageSize( 20 ).build();
+		server.start();
+
+		final List<String> jsonStrings = walk( server.getBaseURL() + "/i/api/graphql/standin/UserTweets?handle=alice" );
+		assertEquals( 3, jsonStrings.size() );
+
+		final List<Map<String,String>> parsed = new JSONResponseParser().parse( jsonStrings );
+		assertEquals( 45, count( parsed, "tweet" ) );
+
+		for ( final Map<String,String> map : parsed ) {
+			if ( "tweet".equals( map.get( "map_type" ) ) ) {
+				assertEquals( "1000", map.get( "userid" ) );
+			}
+		}
+	}
+
+	public void testLargeReplyPage() throws Exception {
+		final int numReplies = 10000;
+
+		server = new StandInTwitterServer.Builder().setNumReplies( numReplies ).setRepliesPageSize( 200 ).build();
+		server.start();
+
+		final List<String> jsonStrings = walk( server.getBaseURL() + "/i/api/graphql/standin/TweetDetail?focalTweetId=1600000000000000001&handle=alice" );
+		assertEquals( numReplies / 200, jsonStrings.size() );
+
+		final List<Map<String,String>> parsed = new JSONResponseParser().parse( jsonStrings );
+		assertEquals( numReplies + 1, count( parsed, "tweet" ) );
+
+		final Map<String,String> supposedQualities = parsed.get( 0 );
+		assertEquals( "tweetid_to_supposed_qualities", supposedQualities.get( "map_type" ) );
+		assertEquals( "AbusiveQuality", supposedQualities.get( "" + StandInTwitterContent.getReplyID( 1600000000000000001L, 9 ) ) );
+		assertEquals( "LowQuality", supposedQualities.get( "" + StandInTwitterContent.getReplyID( 1600000000000000001L, 18 ) ) );
+		assertEquals( "HighQuality", supposedQualities.get( "" + StandInTwitterContent.getReplyID( 1600000000000000001L, 0 ) ) );
+	}
+
+	public void testVariablesParameter() throws Exception {
+		server = new StandInTwitterServer.Builder().setNumReplies( 5 ).build();
+		server.start();
+
+		final String variables = java.net.URLEncoder.encode( "{\"focalTweetId\":\"1600000000000000002\",\"cursor\":\"cursor-3\"}", "UTF-8" );
+		final String json = get( server.getBaseURL() + "/i/api/graphql/abc123/TweetDetail?variables=" + variables, 200 );
+
+		final List<Map<String,String>> parsed = new JSONResponseParser().parse( List.of( json ) );
+		assertEquals( 2, count( parsed, "tweet" ) );
+	}
+
+	public void testFailureInjection() throws Exception {
+		server = new StandInTwitterServer.Builder().setFailureRate( 1.0 ).build();
+		server.start();
+
+		get( String.format( server.getTimelinePattern(), "alice" ), 503 );
+		assertEquals( 1, server.getNumFailures() );
+		assertEquals( 0, server.getNumPages() );
+	}
+
+	public void testLatency() throws Exception {
+		server = new StandInTwitterServer.Builder().setLatencyMillis( 200 ).build();
+		server.start();
+
+		final long start = System.currentTimeMillis();
+		get( String.format( server.getTimelinePattern(), "alice" ), 200 );
+		assertTrue( System.currentTimeMillis() - start >= 200 );
+	}
+
+	/**
+	 * Follow the bottom cursors like the stand-in page's script does.
+	 */
+	protected List<String> walk( final String apiURL ) throws Exception {
+		final List<String> ret = new ArrayList<String>();
+		String cursor = null;
+
+		do {
+			final String json = get( apiURL + ( cursor != null ? "&cursor=" + cursor : "" ), 200 );
+			ret.add( json );
+			cursor = findBottomCursor( new JSONObject( json ) );
+		}
+		while ( cursor != null );
+
+		return ret;
+	}
+
+	protected String findBottomCursor( final Object node ) {
+		if ( node instanceof JSONObject ) {
+			final JSONObject obj = (JSONObject) node;
+			if ( "TimelineTimelineCursor".equals( obj.optString( "entryType" ) ) && "Bottom".equals( obj.optString( "cursorType" ) ) ) {
+				return obj.getString( "value" );
+			}
+
+			for ( final String key : obj.keySet() ) {
+				final String ret = findBottomCursor( obj.get( key ) );
+				if ( ret != null ) {
+					return ret;
+				}
+			}
+		}
+		else if ( node instanceof JSONArray ) {
+			for ( final Object child : (JSONArray) node ) {
+				final String ret = findBottomCursor( child );
+				if ( ret != null ) {
+					return ret;
+				}
+			}
+		}
+
+		return null;
+	}
+
+	protected int count( final List<Map<String,String>> parsed, final String mapType ) {
+		int ret = 0;
+		for ( final Map<String,String> map : parsed ) {
+			if ( mapType.equals( map.get( "map_type" ) ) ) {
+				ret++;
+			}
+		}
+
+		return ret;
+	}
+
+	protected String get( final String url, final int expectedStatus ) throws Exception {
+		final HttpURLConnection conn = (HttpURLConnection) new URL( url ).openConnection();
+
+		try {
+			assertEquals( url, expectedStatus, conn.getResponseCode() );
+
+			final InputStream in = expectedStatus < 400 ? conn.getInputStream() : conn.getErrorStream();
+
+			return in != null ? IOUtils.toString( in, StandardCharsets.UTF_8 ) : "";
+		}
+		finally {
+			conn.disconnect();
+		}
+	}
+
+	private static class MapPreferences implements IPreferences {
+		private final Map<String,String> map = new HashMap<String,String>();
+
+		@Override
+		public String getValue( final String key ) {
+			return map.get( key );
+		}
+
+		@Override
+		public boolean isEmpty( final String key ) {
+			return map.get( key ) == null || map.get( key ).isEmpty();
+		}
+
+		@Override
+		public void setValue( final String key, final String value ) {
+			map.put( key, value );
+		}
+
+		@Override
+		public Map<String,String> getValues() {
+			return new HashMap<String,String>( map );
+		}
+
+		@Override
+		public void save() throws Exception {
+		}
+	}
+}
@@ -0,0 +1,230 @@
+/*
+ * Copyright 2022 Chris Kelly
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.tolstoy.censorship.twitter.checker.app.webdriver.ntjs;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.script.Invocable;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineManager;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import com.tolstoy.basic.api.tweet.ITweet;
+import com.tolstoy.basic.api.tweet.ITweetFactory;
+import com.tolstoy.basic.api.tweet.ITweetUser;
+import com.tolstoy.basic.api.utils.IResourceBundleWithFormatting;
+import com.tolstoy.basic.app.tweet.TweetFactory;
+import com.tolstoy.basic.app.utils.ResourceBundleWithFormatting;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Feeds recorded GraphQL responses to JSONResponseParser and to the SuedeDenim
+ * json_parser script, run in Nashorn, and checks that they come up with the same
+ * maps and the same containers.
+ *
+ * The script keeps a top-level default such as "0" for tweetid over the value in
+ * the legacy object, and it looks for counts and media under keys Twitter doesn't
+ * send. Where it falls back like that, the native parser may have the real value.
+ * It also turns a missing quoted tweet into the string "null".
+ */
+public class JSONResponseParserTest extends TestCase {
+	private static final Logger logger = LogManager.getLogger( JSONResponseParserTest.class );
+
+	private static final String SUEDEDENIM_FILENAME = "stockscripts/suededenim.java.js";
+	private static final String SHIM_RESOURCE = "/ntjs/json_parser_shim.js";
+	private static final String[] RECORDED_RESOURCES = { "/ntjs/UserTweets.json", "/ntjs/TweetDetail.json", "/ntjs/UsersByRestIds.json" };
+
+	private static final Set<String> SCRIPT_FALLBACK_VALUES = new HashSet<String>( Arrays.asList( "", "0", "en" ) );
+
+	private ObjectMapper objectMapper;
+	private ScriptEngine engine;
+
+	public JSONResponseParserTest( String testName ) {
+		super( testName );
+	}
+
+	public static Test suite() {
+		return new TestSuite( JSONResponseParserTest.class );
+	}
+
+	protected void setUp() throws Exception {
+		objectMapper = new ObjectMapper();
+
+		engine = new ScriptEngineManager().getEngineByName( "nashorn" );
+		assertNotNull( "no nashorn script engine", engine );
+
+		engine.eval( readResource( SHIM_RESOURCE ) );
+		engine.eval( FileUtils.readFileToString( new File( SUEDEDENIM_FILENAME ), StandardCharsets.UTF_8 ) );
+	}
+
+	protected void tearDown() throws Exception {
+		engine = null;
+		objectMapper = null;
+	}
+
+	public void testMapsMatchScript() throws Exception {
+		for ( final String resource : RECORDED_RESOURCES ) {
+			compareMaps( resource, List.of( readResource( resource ) ) );
+		}
+
+		compareMaps( "all", readRecorded() );
+	}
+
+	public void testContainersMatchScript() throws Exception {
+		final List<String> jsonStrings = readRecorded();
+
+		final List<Map<String,String>> nativeMaps = new JSONResponseParser().parse( jsonStrings );
+		final List<Map<String,String>> scriptMaps = runScript( jsonStrings );
+
+		final ITweetFactory tweetFactory = new TweetFactory();
+		final IResourceBundleWithFormatting bundle = new ResourceBundleWithFormatting( "GUI" );
+
+		final JavascriptInterchangeContainer nativeContainer = new JavascriptInterchangeContainer( nativeMaps, tweetFactory, bundle );
+		final JavascriptInterchangeContainer scriptContainer = new JavascriptInterchangeContainer( scriptMaps, tweetFactory, bundle );
+
+		assertEquals( scriptContainer.getNumInputTweets(), nativeContainer.getNumInputTweets() );
+		assertEquals( scriptContainer.getNumInputTweetUsers(), nativeContainer.getNumInputTweetUsers() );
+
+		final Map<String,String> qualities = scriptMaps.get( 0 );
+		assertEquals( 5, qualities.size() );
+		for ( final String key : qualities.keySet() ) {
+			if ( !"map_type".equals( key ) ) {
+				final long tweetID = Long.parseLong( key );
+				assertEquals( key, scriptContainer.getSupposedQualities().getSupposedQuality( tweetID ), nativeContainer.getSupposedQualities().getSupposedQuality( tweetID ) );
+			}
+		}
+
+		final List<ITweetUser> nativeUsers = nativeContainer.getTweetUserCollection().getTweetUsers();
+		final List<ITweetUser> scriptUsers = scriptContainer.getTweetUserCollection().getTweetUsers();
+		assertEquals( scriptUsers.size(), nativeUsers.size() );
+		for ( int i = 0; i < nativeUsers.size(); i++ ) {
+			assertEquals( scriptUsers.get( i ).getID(), nativeUsers.get( i ).getID() );
+			assertEquals( scriptUsers.get( i ).getHandle(), nativeUsers.get( i ).getHandle() );
+			assertEquals( scriptUsers.get( i ).getNumFollowers(), nativeUsers.get( i ).getNumFollowers() );
+		}
+
+			//	the script gives every GraphQL tweet an ID of 0, so its tweets can only be
+			//	matched with the native ones by text.
+		final List<ITweet> nativeTweets = nativeContainer.getTweetCollection().getTweets();
+		final Set<String> scriptTweetTexts = new HashSet<String>();
+		for ( final Map<String,String> map : getMaps( scriptMaps, "tweet" ) ) {
+			scriptTweetTexts.add( map.get( "tweettext" ) );
+		}
+
+		assertEquals( 8, nativeTweets.size() );
+		for ( final ITweet tweet : nativeTweets ) {
+			assertTrue( tweet.getID() > 0 );
+			assertTrue( tweet.getAttribute( "tweettext" ), scriptTweetTexts.contains( tweet.getAttribute( "tweettext" ) ) );
+		}
+	}
+
+	public void testNativeValues() throws Exception {
+		final List<Map<String,String>> tweets = getMaps( new JSONResponseParser().parse( readRecorded() ), "tweet" );
+
+		final Map<String,String> photo = tweets.get( 0 );
+		assertEquals( "1712400000000000001", photo.get( "tweetid" ) );
+		assertEquals( "12345678", photo.get( "userid" ) );
+		assertEquals( "77", photo.get( "favoritecount" ) );
+		assertEquals( "5521", photo.get( "viewscount" ) );
+		assertEquals( "bob,carol", photo.get( "tweetmentions" ) );
+		assertEquals( "https://pbs.twimg.com/media/F8abcdef.jpg", photo.get( "tweetphoto_image" ) );
+
+		final Map<String,String> quote = tweets.get( 1 );
+		assertEquals( "1711111111111111111", quote.get( "innertweetid" ) );
+		assertEquals( "1", quote.get( "hascards" ) );
+
+		final Map<String,String> video = tweets.get( 2 );
+		assertEquals( "1712100000000000009", video.get( "isreplyto" ) );
+		assertEquals( "https://pbs.twimg.com/ext_tw_video_thumb/1/pu/img/thumb.jpg", video.get( "videothumburl" ) );
+	}
+
+	protected void compareMaps( final String label, final List<String> jsonStrings ) throws Exception {
+		final List<Map<String,String>> nativeMaps = new JSONResponseParser().parse( jsonStrings );
+		final List<Map<String,String>> scriptMaps = runScript( jsonStrings );
+
+		assertEquals( label, scriptMaps.size(), nativeMaps.size() );
+
+		for ( int i = 0; i < scriptMaps.size(); i++ ) {
+			final Map<String,String> scriptMap = scriptMaps.get( i );
+			final Map<String,String> nativeMap = nativeMaps.get( i );
+
+			assertEquals( label + " map " + i, scriptMap.keySet(), nativeMap.keySet() );
+
+			for ( final String key : scriptMap.keySet() ) {
+				final String scriptValue = "null".equals( scriptMap.get( key ) ) ? "" : scriptMap.get( key );
+				final String nativeValue = nativeMap.get( key );
+				final String message = label + " map " + i + " " + key + ": script=" + scriptValue + ", native=" + nativeValue;
+
+				if ( !scriptValue.equals( nativeValue ) ) {
+					assertTrue( message, SCRIPT_FALLBACK_VALUES.contains( scriptValue ) );
+					assertTrue( message, nativeValue.length() > 0 );
+				}
+			}
+		}
+	}
+
+	protected List<Map<String,String>> runScript( final List<String> jsonStrings ) throws Exception {
+		final String ret = (String) ( (Invocable) engine ).invokeFunction( "runJSONParser", objectMapper.writeValueAsString( jsonStrings ) );
+
+		return objectMapper.readValue( ret, new TypeReference<List<Map<String,String>>>() {} );
+	}
+
+	protected List<Map<String,String>> getMaps( final List<Map<String,String>> maps, final String mapType ) {
+		final List<Map<String,String>> ret = new ArrayList<Map<String,String>>();
+
+		for ( final Map<String,String> map : maps ) {
+			if ( mapType.equals( map.get( "map_type" ) ) ) {
+				ret.add( map );
+			}
+		}
+
+		return ret;
+	}
+
+	protected List<String> readRecorded() throws Exception {
+		final List<String> ret = new ArrayList<String>();
+
+		for ( final String resource : RECORDED_RESOURCES ) {
+			ret.add( readResource( resource ) );
+		}
+
+		return ret;
+	}
+
+	protected String readResource( final String resource ) throws Exception {
+		try ( final InputStream in = getClass().getResourceAsStream( resource ) ) {
+			assertNotNull( resource, in );
+
+			return IOUtils.toString( in, StandardCharsets.UTF_8 );
+		}
+	}
+}
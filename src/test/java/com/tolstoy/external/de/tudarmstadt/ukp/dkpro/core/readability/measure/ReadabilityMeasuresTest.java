@@ -0,0 +1,117 @@
+/*
+ * Copyright 2022 Chris Kelly
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.tolstoy.external.de.tudarmstadt.ukp.dkpro.core.readability.measure;
+
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Checks that the scores computed from a ReadabilityProfile are the same, bit for bit,
+ * as the ones computed by the original list-based methods.
+ */
+public class ReadabilityMeasuresTest extends TestCase {
+	private static final String[] LANGUAGES = { "en", "de", "fr", "" };
+
+	private static final String[] SAMPLE_TEXTS = {
+		"",
+		"Hi",
+		"The quick brown fox jumps over the lazy dog .",
+		"This is ridiculous ! Nobody believes that , and you know it .",
+		"@someone Absolutely extraordinary . Unbelievably irresponsible reporting , honestly .",
+		"Readability measures estimate the education needed to understand a text . They count syllables , words and sentences .",
+		"lol 😀 #hashtag https://example.com/path ok ?",
+		"Das Mädchen geht über die Brücke . Schöne Grüße aus der Straße .",
+		"123 4ed don't e-mail café naïve",
+	};
+
+	private static final int[] SENTENCE_COUNTS = { 0, 1, 2, 5 };
+
+	private static final int NUM_RANDOM_LISTS = 200;
+	private static final int MAX_RANDOM_LIST_LENGTH = 60;
+
+	public ReadabilityMeasuresTest( String testName ) {
+		super( testName );
+	}
+
+	public static Test suite() {
+		return new TestSuite( ReadabilityMeasuresTest.class );
+	}
+
+	public void testSampleTexts() throws Exception {
+		for ( final String language : LANGUAGES ) {
+			final ReadabilityMeasures measures = new ReadabilityMeasures( language );
+
+			for ( final String text : SAMPLE_TEXTS ) {
+				final List<String> words = text.isEmpty() ? new ArrayList<String>() : Arrays.asList( text.split( " " ) );
+
+				for ( final int numSentences : SENTENCE_COUNTS ) {
+					assertSameScores( language + ": " + text, measures, words, numSentences );
+				}
+			}
+		}
+	}
+
+	public void testRandomWords() throws Exception {
+		final Random random = new Random( 54321 );
+		final List<String> pool = WordSyllableCounterTest.makeRandomWords( random );
+
+		for ( final String language : LANGUAGES ) {
+			final ReadabilityMeasures measures = new ReadabilityMeasures( language );
+
+			for ( int i = 0; i < NUM_RANDOM_LISTS; i++ ) {
+				final int len = random.nextInt( MAX_RANDOM_LIST_LENGTH + 1 );
+				final List<String> words = new ArrayList<String>( len );
+				for ( int j = 0; j < len; j++ ) {
+					words.add( pool.get( random.nextInt( pool.size() ) ) );
+				}
+
+				assertSameScores( language + ": " + words, measures, words, 1 + random.nextInt( 5 ) );
+			}
+		}
+	}
+
+	public void testProfileCounts() throws Exception {
+		final ReadabilityMeasures measures = new ReadabilityMeasures( "en" );
+		final List<String> words = Arrays.asList( "The", "extraordinary", "fox", "jumped", "!" );
+
+		final ReadabilityProfile profile = measures.getReadabilityProfile( words, 1 );
+
+			//	"!" isn't a word
+		assertEquals( 4, profile.getNrofWords() );
+		assertEquals( 1, profile.getNrofSentences() );
+		assertEquals( 3 + 13 + 3 + 6, profile.getNrofLetters() );
+		assertEquals( 1, profile.getNrofLongwords() );
+		assertEquals( 1, profile.getNrofBigwords() );
+	}
+
+	private void assertSameScores( final String message, final ReadabilityMeasures measures,
+									final List<String> words, final int numSentences ) {
+		final ReadabilityProfile profile = measures.getReadabilityProfile( words, numSentences );
+
+		for ( final ReadabilityMeasures.Measures measure : ReadabilityMeasures.Measures.values() ) {
+			final double expected = measures.getReadabilityScore( measure, words, numSentences );
+			final double actual = measures.getReadabilityScore( measure, profile );
+
+				//	compare the bits so that NaN and the infinities (no words, no sentences) match too
+			assertEquals( message + " / " + measure + " / " + numSentences,
+							Double.doubleToLongBits( expected ), Double.doubleToLongBits( actual ) );
+		}
+	}
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2022 Chris Kelly
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.tolstoy.external.de.tudarmstadt.ukp.dkpro.core.readability.measure;
+
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the char-based WordSyllableCounter with the original String-based one.
+ *
+ * Run with
+ *
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=org.openjdk.jmh.Main -Dexec.args="WordSyllableCounterBenchmark -f 0"
+ *
+ * (-f 0 because a forked JVM wouldn't get the test classpath from exec:java.)
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+public class WordSyllableCounterBenchmark {
+	private static final String[] SAMPLE_WORDS = {
+		"The", "committee", "reported", "that", "extraordinary", "measures", "were", "needed",
+		"to", "restore", "public", "confidence", "in", "the", "readability", "of", "tweets",
+		"Mädchen", "schöne", "Brücke", "über", "gehe", "Straße", "THIS", "IS", "SHOUTED", "lol",
+		"absolutely", "ridiculous", "2022", "don't", "everybody", "knows", "why"
+	};
+
+	private static final int NUM_WORDS = 10000;
+
+	@Param( { "en", "de" } )
+	public String language;
+
+	private List<String> words;
+	private WordSyllableCounter counter;
+	private WordSyllableCounterOriginal original;
+
+	@Setup
+	public void setup() {
+		final Random random = new Random( 12345 );
+
+		words = new ArrayList<String>( NUM_WORDS );
+		for ( int i = 0; i < NUM_WORDS; i++ ) {
+			words.add( SAMPLE_WORDS[ random.nextInt( SAMPLE_WORDS.length ) ] );
+		}
+
+		counter = new WordSyllableCounter( language );
+		original = new WordSyllableCounterOriginal( language );
+	}
+
+	@Benchmark
+	public int charTable() {
+		return counter.countSyllables( words );
+	}
+
+	@Benchmark
+	public int original() {
+		return original.countSyllables( words );
+	}
+}
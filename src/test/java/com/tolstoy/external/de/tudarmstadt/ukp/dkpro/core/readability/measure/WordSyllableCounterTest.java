@@ -0,0 +1,106 @@
+/*
+ * Copyright 2022 Chris Kelly
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.tolstoy.external.de.tudarmstadt.ukp.dkpro.core.readability.measure;
+
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Random;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Checks the char-based WordSyllableCounter against the original String-based one.
+ */
+public class WordSyllableCounterTest extends TestCase {
+	private static final String[] LANGUAGES = { "en", "de", "fr", "" };
+
+	private static final String[] FIXED_WORDS = {
+		"", "a", "E", "y", "ed", "ED", "red", "jumped", "Jumped", "seed", "bee", "fee",
+		"syllable", "Syllables", "rhythm", "YELLOW", "extraordinary", "Readability",
+		"Mädchen", "MÄDCHEN", "schöne", "Brücke", "Tee", "Straße", "gehe", "öe", "Üe",
+		"İstanbul", "İe", "DİYARBAKIR", "ΣΟΦΙΑ", "naïve", "café", "über",
+		"123", "4ed", "don't", "e-mail", "😀ed", "a𐐀e"
+	};
+
+	//	letters that matter to one of the languages, in both cases, plus some that don't
+	private static final String ALPHABET = "aeiouyAEIOUYäöüÄÖÜdDeEbcBCxzXZİıIΣσ1'-𐐀";
+
+	private static final int NUM_RANDOM_WORDS = 50000;
+	private static final int MAX_RANDOM_WORD_LENGTH = 14;
+
+	public WordSyllableCounterTest( String testName ) {
+		super( testName );
+	}
+
+	public static Test suite() {
+		return new TestSuite( WordSyllableCounterTest.class );
+	}
+
+	public void testFixedWords() throws Exception {
+		for ( final String language : LANGUAGES ) {
+			final WordSyllableCounter counter = new WordSyllableCounter( language );
+			final WordSyllableCounterOriginal original = new WordSyllableCounterOriginal( language );
+
+			for ( final String word : FIXED_WORDS ) {
+				assertEquals( language + ": " + word, original.countSyllables( word ), counter.countSyllables( word ) );
+			}
+		}
+	}
+
+	public void testRandomWords() throws Exception {
+		final List<String> words = makeRandomWords( new Random( 12345 ) );
+
+		for ( final String language : LANGUAGES ) {
+			final WordSyllableCounter counter = new WordSyllableCounter( language );
+			final WordSyllableCounterOriginal original = new WordSyllableCounterOriginal( language );
+
+			for ( final String word : words ) {
+				assertEquals( language + ": " + word, original.countSyllables( word ), counter.countSyllables( word ) );
+			}
+
+			assertEquals( original.countSyllables( words ), counter.countSyllables( words ) );
+		}
+	}
+
+	public void testKnownCounts() throws Exception {
+		final WordSyllableCounter en = new WordSyllableCounter( "en" );
+		assertEquals( 1, en.countSyllables( "jumped" ) );
+		assertEquals( 2, en.countSyllables( "syllable" ) );
+		assertEquals( 1, en.countSyllables( "rhythm" ) );
+
+		final WordSyllableCounter de = new WordSyllableCounter( "de" );
+		assertEquals( 2, de.countSyllables( "Mädchen" ) );
+		assertEquals( 1, de.countSyllables( "schöne" ) );
+	}
+
+	static List<String> makeRandomWords( final Random random ) {
+		final List<String> ret = new ArrayList<String>( NUM_RANDOM_WORDS );
+		final StringBuilder sb = new StringBuilder( MAX_RANDOM_WORD_LENGTH );
+
+		for ( int i = 0; i < NUM_RANDOM_WORDS; i++ ) {
+			sb.setLength( 0 );
+
+			final int len = random.nextInt( MAX_RANDOM_WORD_LENGTH + 1 );
+			for ( int j = 0; j < len; j++ ) {
+				sb.append( ALPHABET.charAt( random.nextInt( ALPHABET.length() ) ) );
+			}
+
+			ret.add( sb.toString() );
+		}
+
+		return ret;
+	}
+}
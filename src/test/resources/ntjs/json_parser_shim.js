@@ -0,0 +1,77 @@
+/*
+ * Copyright 2022 Chris Kelly
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+*/
+
+/*
+ * Just enough of a browser for suededenim.java.js's json_parser to run in Nashorn:
+ * the json_parser code only uses $.each and $.trim, and the Starter's wait for jQuery
+ * runs at once instead of on a timer.
+ */
+
+var window = this;
+
+var console = {
+	log: function() {},
+	info: function() {}
+};
+
+window.setInterval = function( callback ) {
+	callback();
+	return 1;
+};
+
+window.clearInterval = function() {};
+
+window.jQuery = {
+	noConflict: function() {
+		return {
+			each: function( obj, callback ) {
+				var k;
+
+				if ( Array.isArray( obj ) ) {
+					for ( k = 0; k < obj.length; k++ ) {
+						if ( callback.call( obj[ k ], k, obj[ k ] ) === false ) {
+							break;
+						}
+					}
+				}
+				else {
+					for ( k in obj ) {
+						if ( callback.call( obj[ k ], k, obj[ k ] ) === false ) {
+							break;
+						}
+					}
+				}
+
+				return obj;
+			},
+
+			trim: function( text ) {
+				return text == null ? '' : ( '' + text ).trim();
+			}
+		};
+	}
+};
+
+/*
+ * Takes and returns JSON so that only strings cross between Java and Javascript.
+ */
+function runJSONParser( jsonStringsJSON ) {
+	var results = null;
+
+	new com.tolstoy.basic.app.jsonparser.Starter( { debugLevel: 0 }, JSON.parse( jsonStringsJSON ), function( data ) {
+		results = data;
+	});
+
+	return JSON.stringify( results );
+}
@@ -14,56 +14,107 @@
 (function(XHR) {
 	"use strict";
 
-	class SessionArrayStorage {
-		static append( key, item ) {
-			var ary = this.get( key );
-
-			ary.push( item );
+	/***
+	 * Keeps the captured responses in memory, oldest first. Each one gets a sequence number.
+	 * drain( cursor, max ) returns up to max responses starting at cursor along with the
+	 * cursor to use next time; ack( cursor ) frees everything before cursor. If the buffer
+	 * goes over maxEntries or maxChars before it's drained, the oldest responses are dropped
+	 * and counted.
+	 */
+	class RingBuffer {
+		constructor( maxEntries, maxChars ) {
+			this.maxEntries = maxEntries;
+			this.maxChars = maxChars;
+			this.entries = [];
+			this.head = 0;
+			this.firstSeq = 0;
+			this.nextSeq = 0;
+			this.numChars = 0;
+			this.dropped = 0;
+		}
 
-			this.set( key, ary );
+		size() {
+			return this.entries.length - this.head;
 		}
 
-		static get( key ) {
-			var s = sessionStorage.getItem( key );
-			if ( s ) {
-				return JSON.parse( s );
-			}
+		append( text ) {
+			this.entries.push( text );
+			this.nextSeq++;
+			this.numChars += text.length;
 
-			var data = [];
+			while ( this.size() > 1 && ( this.size() > this.maxEntries || this.numChars > this.maxChars ) ) {
+				this.removeFirst();
+				this.dropped++;
+			}
+		}
 
-			this.set( key, data );
+		removeFirst() {
+			this.numChars -= this.entries[ this.head ].length;
+			this.entries[ this.head ] = null;
+			this.head++;
+			this.firstSeq++;
 
-			return data;
+				//	compact once the freed slots are at least half the array
+			if ( this.head > 1000 && this.head * 2 > this.entries.length ) {
+				this.entries = this.entries.slice( this.head );
+				this.head = 0;
+			}
 		}
 
-		static getJSON( key ) {
-			var s = sessionStorage.getItem( key );
-			if ( s ) {
-				return s;
+		drain( cursor, max ) {
+			var start = Math.max( cursor, this.firstSeq );
+			var end = Math.min( this.nextSeq, start + max );
+			var ret = [];
+
+			for ( var seq = start; seq < end; seq++ ) {
+				ret.push( this.entries[ this.head + seq - this.firstSeq ] );
 			}
 
-			return JSON.stringify( [] );
+			return { entries: ret, next: end, remaining: this.nextSeq - end, dropped: this.dropped };
 		}
 
-		static set( key, data ) {
-			if ( !data || !Array.isArray( data ) ) {
-				throw new Error( 'bad data' );
+		ack( cursor ) {
+			while ( this.firstSeq < cursor && this.size() > 0 ) {
+				this.removeFirst();
 			}
+		}
+	}
 
-			var json = JSON.stringify( data );
+		//	already installed on this page: start a new recording without wrapping XHR twice
+	if ( window.ajaxCollector ) {
+		window.ajaxCollector.reset();
+		return;
+	}
 
-			sessionStorage.setItem( key, json );
+	var buffer = new RingBuffer( 20000, 200 * 1024 * 1024 );
+
+	window.ajaxCollector = {
+		drain: function( cursor, max ) {
+			return buffer.drain( cursor, max );
+		},
+		ack: function( cursor ) {
+			buffer.ack( cursor );
+		},
+		reset: function() {
+			buffer.ack( buffer.nextSeq );
+			buffer.dropped = 0;
+		},
+		cursor: function() {
+			return buffer.firstSeq;
+		},
+		size: function() {
+			return buffer.size();
 		}
-	}
+	};
 
 	function ajaxSpy() {
 		var existingSend = XMLHttpRequest.prototype.send;
 		XMLHttpRequest.prototype.send = function() {
 			this.addEventListener( 'readystatechange', function() {
 				if ( this.readyState === 4 &&
-						( this.responseType == '' || this.responseType == 'text' || this.responseType == 'json' ) &&
-						this.response ) {
-					SessionArrayStorage.append( 'JSONStrings', btoa( this.response ) );
+						( this.responseType == '' || this.responseType == 'text' ) &&
+						this.responseText ) {
+					buffer.append( this.responseText );
 				}
 			}, false);
 
@@ -81,6 +132,13 @@
 	var open = XHR.prototype.open;
 	var send = XHR.prototype.send;
 
+		//	shared with SettleDetector in suededenim.java.js
+	if ( !window.ajaxCollectorStats ) {
+		window.ajaxCollectorStats = { outstanding: 0, lastActivity: 0, counting: false };
+	}
+
+	window.ajaxCollectorStats.counting = true;
+
 	XHR.prototype.open = function( method, url, asyncFlag ) {
 		if ( arguments.length < 3 ) {
 			asyncFlag = true;
@@ -96,7 +154,7 @@
 		function onReadyStateChange() {
 			if ( self.status == 200 && self.readyState == 4 /* complete */) {		//
 				if ( ( self.responseType === 'text' || self.responseType === '' ) && self.responseText ) {
-					SessionArrayStorage.append( 'JSONStrings', btoa( self.responseText ) );
+					buffer.append( self.responseText );
 				}
 			}
 
@@ -106,7 +164,14 @@
 		}
 
 		if ( this.addEventListener ) {
+			window.ajaxCollectorStats.outstanding++;
+			window.ajaxCollectorStats.lastActivity = Date.now();
+
 			this.addEventListener( "readystatechange", onReadyStateChange, false );
+			this.addEventListener( "loadend", function() {
+				window.ajaxCollectorStats.outstanding = Math.max( 0, window.ajaxCollectorStats.outstanding - 1 );
+				window.ajaxCollectorStats.lastActivity = Date.now();
+			}, false );
 		}
 		else {
 			oldOnReadyStateChange = this.onreadystatechange;
@@ -1184,8 +1184,9 @@ com.tolstoy.basic.app.scroller.StepScroller = function( $, pageType, url, height
 	heightMultiplier = heightMultiplier || 1;
 	numTimesToScroll = numTimesToScroll || 20;
 
-	var count = 0, lastScrollTop = 0;
+	var count = 0, lastScrollTop = 0, totalSteps = 0;
 	var status = scrollerStasuses.READY;
+	var stopPredicate = null, stopReason = '';
 
 	this.validate = function() {
 		if ( !numTimesToScroll || numTimesToScroll < 1 ) {
@@ -1197,6 +1198,14 @@ com.tolstoy.basic.app.scroller.StepScroller = function( $, pageType, url, height
 		}
 	};
 
+	/***
+	 * Number of times the page was scrolled since this was created. Unlike count,
+	 * it isn't cleared by reset() so the runners can tell whether an iteration scrolled.
+	 */
+	this.getTotalSteps = function() {
+		return totalSteps;
+	};
+
 	this.validate();
 
 	/***
@@ -1215,6 +1224,46 @@ com.tolstoy.basic.app.scroller.StepScroller = function( $, pageType, url, height
 		count = 0;
 		lastScrollTop = 0;
 		status = scrollerStasuses.READY;
+		stopReason = '';
+	};
+
+	/***
+	 * predicate.check() is called before each scroll. If it returns a reason,
+	 * the status becomes STOPPED and the reason is available from getStopReason().
+	 */
+	this.setStopPredicate = function( predicate ) {
+		stopPredicate = predicate;
+	};
+
+	/***
+	 * Why the last scroll run ended: the stop predicate's reason, 'bottom', 'limit', or '' if it hasn't ended.
+	 */
+	this.getStopReason = function() {
+		if ( stopReason ) {
+			return stopReason;
+		}
+
+		if ( status == scrollerStasuses.FINISHED ) {
+			return 'bottom';
+		}
+
+		if ( status == scrollerStasuses.EXCEEDEDLIMIT ) {
+			return 'limit';
+		}
+
+		return '';
+	};
+
+	/***
+	 * True only if the scroller reached the bottom of the page. Stopping early for any
+	 * reason, including the hidden replies boundary, leaves part of the page unseen.
+	 */
+	this.reachedEnd = function() {
+		return status == scrollerStasuses.FINISHED;
+	};
+
+	this.getStopPredicate = function() {
+		return stopPredicate;
 	};
 
 	this.step = function() {
@@ -1225,8 +1274,19 @@ com.tolstoy.basic.app.scroller.StepScroller = function( $, pageType, url, height
 			return;
 		}
 
+		if ( stopPredicate && stopPredicate.isActive() ) {
+			var reason = stopPredicate.check();
+			if ( reason ) {
+				logger.info( 'StepScroller stopping because ' + reason );
+				stopReason = reason;
+				status = scrollerStasuses.STOPPED;
+				return;
+			}
+		}
+
 		status = scrollerStasuses.RUNNING;
 		count++;
+		totalSteps++;
 
 		var scrollDistance = heightMultiplier * document.documentElement.clientHeight;
 
@@ -1278,6 +1338,146 @@ com.tolstoy.basic.app.scroller.StepScroller = function( $, pageType, url, height
 	};
 };
 
+/***
+ * Decides when the page has settled after a scroll instead of waiting a fixed time.
+ * The page is settled when no XHRs are outstanding and neither the DOM nor the network
+ * has changed for quietMillis. If nothing new arrived since the scroll, it keeps waiting
+ * for idleWait, which doubles each time that happens (up to maxWaitMillis) and resets
+ * once new content shows up.
+ *
+ * The outstanding XHR count and last network activity are shared through
+ * window.ajaxCollectorStats, which ajax_collector.js also updates if it's installed.
+ */
+com.tolstoy.basic.app.scroller.SettleDetector = function( $, quietMillis, maxWaitMillis, pollMillis, utils, logger ) {
+	quietMillis = parseInt( quietMillis, 10 ) || 250;
+	maxWaitMillis = parseInt( maxWaitMillis, 10 ) || 4000;
+	pollMillis = parseInt( pollMillis, 10 ) || 100;
+
+	var lastMutationTime = Date.now();
+	var mutationCount = 0;
+	var idleWait = 2 * quietMillis;
+	var mutationObserver = null, networkObserver = null;
+
+	function getStats() {
+		if ( !window.ajaxCollectorStats ) {
+			window.ajaxCollectorStats = { outstanding: 0, lastActivity: 0, counting: false };
+		}
+
+		return window.ajaxCollectorStats;
+	}
+
+	function installXHRCounter() {
+		var stats = getStats();
+		if ( stats.counting || stats.detectorInstalled ) {
+			return;
+		}
+
+		stats.detectorInstalled = true;
+
+		var send = XMLHttpRequest.prototype.send;
+		XMLHttpRequest.prototype.send = function() {
+			var stats = getStats();
+
+				//	ajax_collector.js was installed after us and is doing the counting
+			if ( !stats.counting ) {
+				stats.outstanding++;
+				stats.lastActivity = Date.now();
+
+				this.addEventListener( 'loadend', function() {
+					var stats = getStats();
+					stats.outstanding = Math.max( 0, stats.outstanding - 1 );
+					stats.lastActivity = Date.now();
+				}, false );
+			}
+
+			return send.apply( this, arguments );
+		};
+	}
+
+	function install() {
+		installXHRCounter();
+
+		if ( typeof MutationObserver === 'function' ) {
+			mutationObserver = new MutationObserver( function( mutations ) {
+				mutationCount += mutations.length;
+				lastMutationTime = Date.now();
+			});
+
+			mutationObserver.observe( document.querySelector( 'main' ) || document.body, { childList: true, subtree: true } );
+		}
+
+		if ( typeof PerformanceObserver === 'function' ) {
+			try {
+				networkObserver = new PerformanceObserver( function( list ) {
+					if ( list.getEntries().length ) {
+						getStats().lastActivity = Date.now();
+					}
+				});
+
+				networkObserver.observe( { entryTypes: [ 'resource' ] } );
+			}
+			catch ( e ) {
+				networkObserver = null;
+			}
+		}
+	}
+
+	install();
+
+	/***
+	 * Call callback( reason ) once the page has settled. The reason is 'settled' if
+	 * new content arrived, 'idle' if nothing did, or 'maxwait' if the page never settled.
+	 */
+	this.whenSettled = function( callback ) {
+		var start = Date.now();
+		var mutationsAtStart = mutationCount;
+
+		var timer = window.setInterval( function() {
+			var now = Date.now();
+			var elapsed = now - start;
+			var stats = getStats();
+			var arrived = mutationCount != mutationsAtStart;
+			var reason;
+
+			if ( elapsed >= maxWaitMillis ) {
+				reason = 'maxwait';
+			}
+			else if ( stats.outstanding > 0 ) {
+				return;
+			}
+			else if ( now - lastMutationTime < quietMillis || now - stats.lastActivity < quietMillis ) {
+				return;
+			}
+			else if ( !arrived && elapsed < idleWait ) {
+				return;
+			}
+			else {
+				reason = arrived ? 'settled' : 'idle';
+			}
+
+			window.clearInterval( timer );
+
+			idleWait = arrived ? 2 * quietMillis : Math.min( 2 * idleWait, maxWaitMillis );
+
+			logger.info( 'SettleDetector: ' + reason + ' after ' + elapsed + 'ms, next idleWait=' + idleWait );
+
+			callback( reason );
+		}, pollMillis );
+	};
+
+	this.disconnect = function() {
+		if ( mutationObserver ) {
+			mutationObserver.disconnect();
+			mutationObserver = null;
+		}
+
+		if ( networkObserver ) {
+			networkObserver.disconnect();
+			networkObserver = null;
+		}
+	};
+};
+
 com.tolstoy.basic.app.scroller.ScrollerFactory = function( $, utils, logger ) {
 	this.makeIntervalScroller = function( pageType, url, heightMultiplier, numTimesToScroll, delay, scrollCallback, finishedCallback ) {
 		return new com.tolstoy.basic.app.scroller.IntervalScroller( $, pageType, url, heightMultiplier, numTimesToScroll, delay, scrollCallback, finishedCallback, utils, logger );
@@ -1286,6 +1486,10 @@ com.tolstoy.basic.app.scroller.ScrollerFactory = function( $, utils, logger ) {
 	this.makeStepScroller = function( pageType, url, heightMultiplier, numTimesToScroll ) {
 		return new com.tolstoy.basic.app.scroller.StepScroller( $, pageType, url, heightMultiplier, numTimesToScroll, utils, logger );
 	};
+
+	this.makeSettleDetector = function( quietMillis, maxWaitMillis, pollMillis ) {
+		return new com.tolstoy.basic.app.scroller.SettleDetector( $, quietMillis, maxWaitMillis, pollMillis, utils, logger );
+	};
 };
 
 com.tolstoy.basic.app.tweetparser.html.helper.Debug = function( $, $elem, tweetID, tweetFactory, utils, logger ) {
@@ -2773,6 +2977,169 @@ com.tolstoy.basic.app.tweetparser.json.JSONParserIgnored = function( input, $, t
 	};
 };
 
+/***
+ * Finds the buttons that reveal hidden replies. findShowMoreReplies looks for the
+ * 'Show more replies' section, findShowOffensive looks for the 'may contain offensive
+ * content' message. Both return null if there isn't one.
+ */
+com.tolstoy.basic.app.retriever.HiddenRepliesFinder = function( $, utils, logger ) {
+	this.findShowMoreReplies = function() {
+		var $button = null;
+
+		$( 'section > div > div > div > div > div > div[role="button"] > div > div > span' ).each( function() {
+			var $t = $(this);
+			if ( $.trim( $t.text() ) ) {
+				var $levelsUp = $t.parent().parent().parent();
+				if ( $levelsUp.length ) {
+					$button = $levelsUp;
+				}
+			}
+		});
+
+		return $button;
+	};
+
+	/***
+	 * findShowMoreReplies, or if there isn't one, the last non-empty button on the page.
+	 * The fallback matches too much to be used for isBoundaryVisible, so only the
+	 * click state uses it.
+	 */
+	this.findShowMoreRepliesLoose = function() {
+		var $button = this.findShowMoreReplies();
+
+		if ( !$button ) {
+			$( 'div > div > div > div[role="button"] > div > div > span' ).each( function() {
+				var $t = $(this);
+				if ( $.trim( $t.text() ) ) {
+					var $levelsUp = $t.parent().parent().parent();
+					if ( $levelsUp.length ) {
+						$button = $levelsUp;
+					}
+				}
+			});
+		}
+
+		return $button;
+	};
+
+	this.findShowOffensive = function() {
+		var $button = null;
+
+		var selectors = [
+			'article > div > div > div > div > div > div > div > div > div[role="button"]',
+			'article > div > div > div > div > div > div > div > div[role="button"]',
+			'article > div > div > div > div > div > div > div[role="button"]',
+		];
+
+		for ( var k in selectors ) {
+			var selector = selectors[ k ];
+
+			$( selector ).each( function() {
+				var $t = $(this);
+				var $gpar = $t.parent().parent();
+
+				var $message = $gpar.find( 'div:not([role]) > div > span' );
+				var $btn = $gpar.find( 'div[role="button"] > div > span' );
+
+				var message_num_kids = $message.find('*').length;
+				var message_text = $message.text().trim();
+
+				var btn_num_kids = $btn.find('span').length;
+				var btn_text = $btn.text().trim();
+
+				if ( !message_num_kids && btn_num_kids == 1 && message_text && btn_text && message_text.length > btn_text.length ) {
+					$button = $t;
+					return false;
+				}
+			});
+
+			if ( $button ) {
+				break;
+			}
+		}
+
+		return $button;
+	};
+
+	/***
+	 * True if either button is in the viewport. A button that has scrolled off the top
+	 * doesn't count.
+	 */
+	this.isBoundaryVisible = function() {
+		var $buttons = [ this.findShowMoreReplies(), this.findShowOffensive() ];
+
+		for ( var i = 0; i < $buttons.length; i++ ) {
+			if ( $buttons[ i ] && $buttons[ i ].length ) {
+				var rect = $buttons[ i ].get( 0 ).getBoundingClientRect();
+				if ( rect.bottom > 0 && rect.top < window.innerHeight ) {
+					return true;
+				}
+			}
+		}
+
+		return false;
+	};
+};
+
+/***
+ * Lets the scroller stop before it uses up scrollerNumTimesToScroll.
+ *
+ * jsParams.stopAfterTweetID: once that tweet has been seen, scroll jsParams.stopAfterScreens
+ * more times and then stop with the reason 'target_found'.
+ * jsParams.stopAtBoundary: if 'true', stop with the reason 'boundary' when the hidden replies
+ * section comes into view. The hidden replies states take over from there.
+ */
+com.tolstoy.basic.app.retriever.StopPredicate = function( $, jsParams, tweetCollection, utils, logger ) {
+	var targetTweetID = jsParams.stopAfterTweetID && jsParams.stopAfterTweetID != '0' ? '' + jsParams.stopAfterTweetID : '';
+	var heightMultiplier = parseFloat( jsParams.scrollerHeightMultiplier ) || 1;
+	var stepsAfter = Math.ceil( ( parseInt( jsParams.stopAfterScreens, 10 ) || 0 ) / heightMultiplier );
+	var stopAtBoundary = jsParams.stopAtBoundary == 'true';
+	var finder = new com.tolstoy.basic.app.retriever.HiddenRepliesFinder( $, utils, logger );
+	var stepsSinceTarget = -1;
+
+	this.isActive = function() {
+		return !!targetTweetID || stopAtBoundary;
+	};
+
+	this.isTargetFound = function() {
+		return stepsSinceTarget >= 0;
+	};
+
+	/***
+	 * Stop checking for the boundary. Called once the uncensored tweets have been read,
+	 * since the hidden replies buttons stay on the page while the censored tweets are read.
+	 */
+	this.disarmBoundary = function() {
+		stopAtBoundary = false;
+	};
+
+	/***
+	 * Called before each scroll. Returns the reason to stop or '' to keep going.
+	 */
+	this.check = function() {
+		if ( targetTweetID ) {
+			if ( stepsSinceTarget < 0 && tweetCollection.findTweetByID( targetTweetID ) ) {
+				logger.info( 'StopPredicate: found target tweet ' + targetTweetID );
+				stepsSinceTarget = 0;
+			}
+
+			if ( stepsSinceTarget >= 0 ) {
+				if ( stepsSinceTarget >= stepsAfter ) {
+					return 'target_found';
+				}
+
+				stepsSinceTarget++;
+			}
+		}
+
+		if ( stopAtBoundary && finder.isBoundaryVisible() ) {
+			return 'boundary';
+		}
+
+		return '';
+	};
+};
+
 com.tolstoy.basic.app.retriever.StateStatus = {
 	READY: 'ready',
 	RUNNING: 'running',
@@ -2971,7 +3338,7 @@ com.tolstoy.basic.app.retriever.StateFindUncensoredTweets = function( $, tweetSe
 
 		scroller.step();
 
-		if ( scroller.getStatus() == scrollerStasuses.FINISHED || scroller.getStatus() == scrollerStasuses.EXCEEDEDLIMIT ) {
+		if ( scroller.getStatus() == scrollerStasuses.FINISHED || scroller.getStatus() == scrollerStasuses.EXCEEDEDLIMIT || scroller.getStatus() == scrollerStasuses.STOPPED ) {
 			status = stateStasuses.FINISHED;
 			logger.info( 'StateFindUncensoredTweets set status to FINISHED because scroller status is ' + scroller.getStatus() );
 		}
@@ -2980,6 +3347,7 @@ com.tolstoy.basic.app.retriever.StateFindUncensoredTweets = function( $, tweetSe
 
 com.tolstoy.basic.app.retriever.StateClickShowHiddenReplies = function( $, afterClickIterations, attemptIterations, scroller, utils, logger ) {
 	var stateStasuses = com.tolstoy.basic.app.retriever.StateStatus;
+	var finder = new com.tolstoy.basic.app.retriever.HiddenRepliesFinder( $, utils, logger );
 	var status = stateStasuses.READY;
 	var error_code = '';
 	var error_message = '';
@@ -3022,29 +3390,7 @@ com.tolstoy.basic.app.retriever.StateClickShowHiddenReplies = function( $, after
 			return;
 		}
 
-		var $button = null;
-
-		$( 'section > div > div > div > div > div > div[role="button"] > div > div > span' ).each( function() {
-			var $t = $(this);
-			if ( $.trim( $t.text() ) ) {
-				var $levelsUp = $t.parent().parent().parent();
-				if ( $levelsUp.length ) {
-					$button = $levelsUp;
-				}
-			}
-		});
-
-		if ( !$button ) {
-			$( 'div > div > div > div[role="button"] > div > div > span' ).each( function() {
-				var $t = $(this);
-				if ( $.trim( $t.text() ) ) {
-					var $levelsUp = $t.parent().parent().parent();
-					if ( $levelsUp.length ) {
-						$button = $levelsUp;
-					}
-				}
-			});
-		}
+		var $button = finder.findShowMoreRepliesLoose();
 
 		if ( $button ) {
 			logger.info( 'StateClickShowHiddenReplies: clicking ' + $button.html() );
@@ -3151,7 +3497,7 @@ com.tolstoy.basic.app.retriever.StateFindCensoredTweets = function( $, tweetSele
 
 		scroller.step();
 
-		if ( scroller.getStatus() == scrollerStasuses.FINISHED || scroller.getStatus() == scrollerStasuses.EXCEEDEDLIMIT ) {
+		if ( scroller.getStatus() == scrollerStasuses.FINISHED || scroller.getStatus() == scrollerStasuses.EXCEEDEDLIMIT || scroller.getStatus() == scrollerStasuses.STOPPED ) {
 			status = stateStasuses.FINISHED;
 		}
 	};
@@ -3159,6 +3505,7 @@ com.tolstoy.basic.app.retriever.StateFindCensoredTweets = function( $, tweetSele
 
 com.tolstoy.basic.app.retriever.StateClickShowHiddenReplies2 = function( $, afterClickIterations, attemptIterations, scroller, utils, logger ) {
 	var stateStasuses = com.tolstoy.basic.app.retriever.StateStatus;
+	var finder = new com.tolstoy.basic.app.retriever.HiddenRepliesFinder( $, utils, logger );
 	var status = stateStasuses.READY;
 	var error_code = '';
 	var error_message = '';
@@ -3201,40 +3548,7 @@ com.tolstoy.basic.app.retriever.StateClickShowHiddenReplies2 = function( $, afte
 			return;
 		}
 
-		var $button = null;
-
-		var selectors = [
-			'article > div > div > div > div > div > div > div > div > div[role="button"]',
-			'article > div > div > div > div > div > div > div > div[role="button"]',
-			'article > div > div > div > div > div > div > div[role="button"]',
-		];
-
-		for ( k in selectors ) {
-			var selector = selectors[ k ];
-
-			$( selector ).each( function() {
-			var $t = $(this);
-			var $gpar = $t.parent().parent();
-
-			var $message = $gpar.find( 'div:not([role]) > div > span' );
-			var $btn = $gpar.find( 'div[role="button"] > div > span' );
-
-			var message_num_kids = $message.find('*').length;
-			var message_text = $message.text().trim();
-
-			var btn_num_kids = $btn.find('span').length;
-			var btn_text = $btn.text().trim();
-
-			if ( !message_num_kids && btn_num_kids == 1 && message_text && btn_text && message_text.length > btn_text.length ) {
-				$button = $t;
-					return false;
-			}
-		});
-
-			if ( $button ) {
-				break;
-			}
-		}
+		var $button = finder.findShowOffensive();
 
 		if ( $button ) {
 			logger.info( 'StateClickShowHiddenReplies2: clicking ' + $button.html() );
@@ -3341,7 +3655,7 @@ com.tolstoy.basic.app.retriever.StateFindCensoredTweets2 = function( $, tweetSel
 
 		scroller.step();
 
-		if ( scroller.getStatus() == scrollerStasuses.FINISHED || scroller.getStatus() == scrollerStasuses.EXCEEDEDLIMIT ) {
+		if ( scroller.getStatus() == scrollerStasuses.FINISHED || scroller.getStatus() == scrollerStasuses.EXCEEDEDLIMIT || scroller.getStatus() == scrollerStasuses.STOPPED ) {
 			status = stateStasuses.FINISHED;
 		}
 	};
@@ -3354,6 +3668,7 @@ com.tolstoy.basic.app.retriever.TimelineRunner = function( $, jsParams, tweetCol
 	var scrollerStasuses = com.tolstoy.basic.app.scroller.ScrollerStatus;
 	var iterationnumber = 0;
 	var timer;
+	var settleDetector = new com.tolstoy.basic.app.scroller.SettleDetector( $, jsParams.settleQuietMillis, jsParams.settleMaxWaitMillis, jsParams.settlePollMillis, utils, logger );
 
 	var metadata = {
 		url: jsParams.url,
@@ -3368,9 +3683,11 @@ com.tolstoy.basic.app.retriever.TimelineRunner = function( $, jsParams, tweetCol
 	};
 
 	this.finished = function() {
-		window.clearInterval( timer );
+		window.clearTimeout( timer );
 		timer = null;
 
+		settleDetector.disconnect();
+
 		metadata.last_compound = stateObj ? stateObj.getName() + '.' + stateObj.getStatus() : 'stateObj was null';
 
 		stateObj = null;
@@ -3445,9 +3762,30 @@ com.tolstoy.basic.app.retriever.TimelineRunner = function( $, jsParams, tweetCol
 		}
 	};
 
+	/***
+	 * If the iteration scrolled, wait until the page settles before the next one.
+	 * Otherwise the states are counting iterations, so keep the fixed clock.
+	 */
+	this.tick = function() {
+		var stepsBefore = scroller.getTotalSteps();
+
+		moi.iteration();
+
+		if ( !timer ) {
+			return;
+		}
+
+		if ( scroller.getTotalSteps() != stepsBefore ) {
+			settleDetector.whenSettled( moi.tick );
+		}
+		else {
+			timer = window.setTimeout( moi.tick, jsParams.mainClockDelay );
+		}
+	};
+
 	this.start = function() {
 		metadata.completed = true;
-		timer = window.setInterval( this.iteration, jsParams.mainClockDelay );
+		timer = window.setTimeout( moi.tick, jsParams.mainClockDelay );
 	};
 };
 
@@ -3458,6 +3796,7 @@ com.tolstoy.basic.app.retriever.ReplyPageRunner = function( $, jsParams, tweetCo
 	var scrollerStasuses = com.tolstoy.basic.app.scroller.ScrollerStatus;
 	var iterationnumber = 0;
 	var timer;
+	var settleDetector = new com.tolstoy.basic.app.scroller.SettleDetector( $, jsParams.settleQuietMillis, jsParams.settleMaxWaitMillis, jsParams.settlePollMillis, utils, logger );
 
 	var metadata = {
 		url: jsParams.url,
@@ -3467,15 +3806,19 @@ com.tolstoy.basic.app.retriever.ReplyPageRunner = function( $, jsParams, tweetCo
 		show_hidden_replies: '',
 		show_hidden_replies2: '',
 		completed: false,
+		stop_reason: '',
 		error_code: '',
 		error_message: ''
 	};
 
 	this.finished = function() {
-		window.clearInterval( timer );
+		window.clearTimeout( timer );
 		timer = null;
 
+		settleDetector.disconnect();
+
 		metadata.last_compound = stateObj ? stateObj.getName() + '.' + stateObj.getStatus() : 'stateObj was null';
+		metadata.stop_reason = scroller.getStopReason();
 
 		stateObj = null;
 
@@ -3546,7 +3889,14 @@ com.tolstoy.basic.app.retriever.ReplyPageRunner = function( $, jsParams, tweetCo
 				break;
 
 			case 'StateFindUncensoredTweets.finished':
-				metadata.completed = scroller.getStatus() == scrollerStasuses.FINISHED;
+				metadata.completed = scroller.reachedEnd();
+				if ( scroller.getStopReason() == 'target_found' ) {
+					moi.finished();
+					break;
+				}
+				if ( scroller.getStopPredicate() ) {
+					scroller.getStopPredicate().disarmBoundary();
+				}
 				stateObj = new com.tolstoy.basic.app.retriever.StateClickShowHiddenReplies( $, jsParams.hiddenRepliesAfterClickIterations, jsParams.hiddenRepliesAttemptIterations, scroller, utils, logger );
 				break;
 
@@ -3560,7 +3910,11 @@ com.tolstoy.basic.app.retriever.ReplyPageRunner = function( $, jsParams, tweetCo
 				break;
 
 			case 'StateFindCensoredTweets.finished':
-				metadata.completed = scroller.getStatus() == scrollerStasuses.FINISHED;
+				metadata.completed = scroller.reachedEnd();
+				if ( scroller.getStopReason() == 'target_found' ) {
+					moi.finished();
+					break;
+				}
 				stateObj = new com.tolstoy.basic.app.retriever.StateClickShowHiddenReplies2( $, jsParams.hiddenRepliesAfterClickIterations, jsParams.hiddenRepliesAttemptIterations, scroller, utils, logger );
 				break;
 
@@ -3570,7 +3924,7 @@ com.tolstoy.basic.app.retriever.ReplyPageRunner = function( $, jsParams, tweetCo
 				break;
 
 			case 'StateFindCensoredTweets2.finished':
-				metadata.completed = scroller.getStatus() == scrollerStasuses.FINISHED;
+				metadata.completed = scroller.reachedEnd();
 				moi.finished();
 				break;
 
@@ -3591,9 +3945,30 @@ com.tolstoy.basic.app.retriever.ReplyPageRunner = function( $, jsParams, tweetCo
 		}
 	};
 
+	/***
+	 * If the iteration scrolled, wait until the page settles before the next one.
+	 * Otherwise the states are counting iterations, so keep the fixed clock.
+	 */
+	this.tick = function() {
+		var stepsBefore = scroller.getTotalSteps();
+
+		moi.iteration();
+
+		if ( !timer ) {
+			return;
+		}
+
+		if ( scroller.getTotalSteps() != stepsBefore ) {
+			settleDetector.whenSettled( moi.tick );
+		}
+		else {
+			timer = window.setTimeout( moi.tick, jsParams.mainClockDelay );
+		}
+	};
+
 	this.start = function() {
 		metadata.completed = true;
-		timer = window.setInterval( this.iteration, jsParams.mainClockDelay );
+		timer = window.setTimeout( moi.tick, jsParams.mainClockDelay );
 	};
 };
 
@@ -3648,6 +4023,7 @@ com.tolstoy.basic.app.retriever.Starter = function( jsParams, dataCallback ) {
 			}
 
 			var scroller = scrollerFactory.makeStepScroller( jsParams.pageType, jsParams.url, jsParams.scrollerHeightMultiplier, jsParams.scrollerNumTimesToScroll );
+			scroller.setStopPredicate( new com.tolstoy.basic.app.retriever.StopPredicate( $, jsParams, tweetCollection, utils, logger ) );
 
 			$(document).ready( function() {
 				var runner;
@@ -35,6 +35,15 @@
  * ranking and call analyzedTweet.setRankingFunction with the name of
  * your algorithm. That name should match the last part of the filename,
  * e.g. "formula1js".
+ *
+ * The application calls rankTweets once for each list of replies, with an
+ * array of records that have the same get... methods as analyzedTweet for the
+ * tweet, its text, words and features (plus getReplyCount, getRetweetCount and
+ * getFavoriteCount), and also setRanking, setRankingFunction and setAttribute.
+ * That's much faster than calling the script for each reply. A record doesn't
+ * have getRankingOrder, getRankingBreakdown or getSummary; call
+ * record.getAnalyzedTweet() for those. If a script only has rankTweet, that's
+ * called for each reply instead.
  */
 if ( typeof console === "undefined" && typeof print === "function" ) {
 	console = {
@@ -187,6 +196,12 @@ function rankTweet( analyzedTweet, count, referenceAnalyzedTweet ) {
 	//console.log( "set ranking to " + ranking );
 }
 
+function rankTweets( records, count, referenceAnalyzedTweet ) {
+	for ( var i = 0; i < records.length; i++ ) {
+		rankTweet( records[ i ], count, referenceAnalyzedTweet );
+	}
+}
+
 function testRankTweet() {
 	var analyzedTweet = {
 		setRanking: function( ranking ) {
@@ -230,7 +245,7 @@ function testRankTweet() {
 if ( typeof analyzedTweet !== "undefined" && typeof count !== "undefined" && typeof referenceAnalyzedTweet !== "undefined" ) {
 	rankTweet( analyzedTweet, count, referenceAnalyzedTweet );
 }
-else {
+else if ( typeof document !== "undefined" ) {
 	testRankTweet();
 }
 